@@ -0,0 +1,57 @@
+package com.portfolio.spring_ecommerce.archive;
+
+import com.portfolio.spring_ecommerce.service.OrderArchiveService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 注文テーブルの定期メンテナンス。
+ * 先の月のパーティションを作成し、アーカイブが有効な場合は古い注文を移動して空のパーティションを削除する。
+ */
+@Component
+@ConditionalOnProperty(name = "orders.maintenance.enabled", havingValue = "true", matchIfMissing = true)
+public class OrderMaintenanceJob {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderMaintenanceJob.class);
+
+    private final OrderArchiveService orderArchiveService;
+
+    @Value("${orders.archive.enabled:false}")
+    private boolean archiveEnabled;
+
+    public OrderMaintenanceJob(OrderArchiveService orderArchiveService) {
+        this.orderArchiveService = orderArchiveService;
+    }
+
+    // 起動時にもパーティションを確認する（長期間停止していた場合に備える）
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        run();
+    }
+
+    @Scheduled(cron = "${orders.maintenance.cron:0 30 3 * * *}")
+    public void run() {
+        int created = orderArchiveService.ensurePartitions();
+        if (created > 0) {
+            log.info("注文パーティションを作成しました: {}か月分", created);
+        }
+        if (!archiveEnabled) {
+            return;
+        }
+
+        int archived = 0;
+        int moved;
+        do {
+            moved = orderArchiveService.archiveBatch();
+            archived += moved;
+        } while (moved > 0);
+        int dropped = orderArchiveService.dropEmptyPartitions();
+        log.info("注文アーカイブ完了: 移動={}件, 削除したパーティション={}", archived, dropped);
+    }
+}
\ No newline at end of file
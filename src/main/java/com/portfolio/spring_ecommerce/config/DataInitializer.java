@@ -1,6 +1,7 @@
 package com.portfolio.spring_ecommerce.config;
 
 import com.portfolio.spring_ecommerce.model.User;
+import com.portfolio.spring_ecommerce.model.enums.Role;
 import com.portfolio.spring_ecommerce.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
@@ -22,31 +23,32 @@ public class DataInitializer {
     @Value("${USER_PASSWORD:defaultUserPass}")
     private String userPassword;
 
+    // BCryptのコスト（既存のハッシュがこれより低い場合は、ログイン成功時に再計算される）
+    @Value("${auth.password.bcrypt-cost:10}")
+    private int bcryptCost = 10;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptCost);
     }
 
     @Bean
     public CommandLineRunner initializeAdminUser(UserRepository userRepository, PasswordEncoder passwordEncoder) {
         return args -> {
-            // 管理者ユーザーが存在しない場合のみ作成
-            if (userRepository.findByUsername("admin").isEmpty()) {
-                User admin = new User();
-                admin.setUsername("admin");
-                admin.setPassword(passwordEncoder.encode(adminPassword)); // 本番環境では強力なパスワードを使用
-                admin.setRoles(Set.of("ROLE_ADMIN", "ROLE_USER"));
-                userRepository.save(admin);
-            }
-
+            // 管理者ユーザー（本番環境では強力なパスワードを使用）
+            createIfAbsent(userRepository, passwordEncoder, "admin", adminPassword, Set.of(Role.ADMIN, Role.USER));
             // 通常ユーザーの例
-            if (userRepository.findByUsername("user").isEmpty()) {
-                User user = new User();
-                user.setUsername("user");
-                user.setPassword(passwordEncoder.encode(userPassword));
-                user.setRoles(Set.of("ROLE_USER"));
-                userRepository.save(user);
-            }
+            createIfAbsent(userRepository, passwordEncoder, "user", userPassword, Set.of(Role.USER));
         };
     }
+
+    // 同じユーザー名のユーザーが存在しない場合のみ作成する
+    private static void createIfAbsent(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                                       String username, String rawPassword, Set<Role> roles) {
+        if (userRepository.findByUsername(username).isEmpty()) {
+            User user = new User(username, passwordEncoder.encode(rawPassword));
+            user.setRoles(roles);
+            userRepository.save(user);
+        }
+    }
 }
\ No newline at end of file
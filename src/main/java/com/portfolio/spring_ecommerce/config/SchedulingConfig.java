@@ -0,0 +1,11 @@
+package com.portfolio.spring_ecommerce.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+    // @Scheduledによる定期実行を有効化
+    // スレッド数はspring.task.scheduling.pool.sizeで指定する（ジョブを追加した場合はジョブ数以上にすること）
+}
\ No newline at end of file
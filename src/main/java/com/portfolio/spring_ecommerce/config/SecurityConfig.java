@@ -1,16 +1,14 @@
 package com.portfolio.spring_ecommerce.config;
 
 import com.portfolio.spring_ecommerce.filter.JwtAuthenticationFilter;
-import com.portfolio.spring_ecommerce.service.UserService;
+import com.portfolio.spring_ecommerce.filter.RateLimitFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
@@ -19,16 +17,13 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @EnableMethodSecurity
 public class SecurityConfig {
 
-    private final UserService userService;
-    private final PasswordEncoder passwordEncoder;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final RateLimitFilter rateLimitFilter;
 
-    public SecurityConfig(UserService userService, 
-                         PasswordEncoder passwordEncoder,
-                         JwtAuthenticationFilter jwtAuthenticationFilter) {
-        this.userService = userService;
-        this.passwordEncoder = passwordEncoder;
+    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter,
+                         RateLimitFilter rateLimitFilter) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.rateLimitFilter = rateLimitFilter;
     }
 
     /**
@@ -42,8 +37,10 @@ public class SecurityConfig {
             .csrf(csrf -> csrf.disable())
             // 各URLパターンごとにアクセス権限を設定
             .authorizeHttpRequests(auth -> auth
+                // 非同期処理の完了時のディスパッチ（元のリクエストで認可済み）
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 // 認証不要なエンドポイント
-                .requestMatchers("/test", "/auth/login", "/auth/register", "/auth/logout", "/products", "/products/**", "/webhook/**").permitAll()
+                .requestMatchers("/test", "/auth/login", "/auth/refresh", "/auth/register", "/auth/logout", "/.well-known/jwks.json", "/products", "/products/**", "/webhook/**").permitAll()
                 // 管理者エンドポイントはADMINロールが必要
                 .requestMatchers("/admin/**").hasRole("ADMIN")
                 // ユーザーエンドポイントはUSERロールが必要
@@ -55,21 +52,10 @@ public class SecurityConfig {
             .sessionManagement(session -> 
                 session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             // JWTフィルターをUsernamePasswordAuthenticationFilterの前に追加
-            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+            // レート制限フィルターをJWTフィルターの前に追加（上限を超えたリクエストではJWTを検証しない）
+            .addFilterBefore(rateLimitFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
-
-    /**
-     * 認証マネージャのBean定義
-     */
-    @Bean
-    public AuthenticationManager authenticationManager(HttpSecurity http) throws Exception {
-        AuthenticationManagerBuilder authBuilder = 
-            http.getSharedObject(AuthenticationManagerBuilder.class);
-        authBuilder
-            .userDetailsService(userService)
-            .passwordEncoder(passwordEncoder);
-        return authBuilder.build();
-    }
 }
\ No newline at end of file
@@ -0,0 +1,144 @@
+package com.portfolio.spring_ecommerce.config;
+
+import com.portfolio.spring_ecommerce.gateway.PooledStripeHttpClient;
+import com.stripe.Stripe;
+import com.stripe.StripeClient;
+import com.stripe.net.Authenticator;
+import com.stripe.net.BearerTokenAuthenticator;
+import com.stripe.net.LiveStripeResponseGetter;
+import com.stripe.net.StripeResponseGetterOptions;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.PasswordAuthentication;
+import java.net.Proxy;
+
+/**
+ * Stripeクライアントを設定するためのコンフィギュレーションクラス。
+ * グローバルな Stripe.apiKey を使わず、APIキー・タイムアウト・再試行回数・コネクションプールを持つインスタンスをBeanとして提供する。
+ */
+@Configuration
+@ConditionalOnProperty(name = "payment.provider", havingValue = "stripe", matchIfMissing = true)
+public class StripeConfig {
+
+    @Value("${stripe.api.key.secret}")
+    private String secretKey;
+
+    @Value("${payment.stripe.api-base:" + Stripe.LIVE_API_BASE + "}")
+    private String apiBase;
+
+    @Value("${payment.stripe.connect-timeout-ms:1000}")
+    private int connectTimeoutMs = 1000;
+
+    @Value("${payment.stripe.read-timeout-ms:2500}")
+    private int readTimeoutMs = 2500;
+
+    @Value("${payment.stripe.max-network-retries:2}")
+    private int maxNetworkRetries = 2;
+
+    @Value("${payment.stripe.pool.max-connections:20}")
+    private int maxConnections = 20;
+
+    @Value("${payment.stripe.pool.keep-alive-ms:60000}")
+    private long keepAliveMs = 60000;
+
+    @Bean(destroyMethod = "close")
+    public PooledStripeHttpClient stripeHttpClient(MeterRegistry meterRegistry) {
+        return new PooledStripeHttpClient(maxConnections, connectTimeoutMs, keepAliveMs, meterRegistry);
+    }
+
+    @Bean
+    public StripeClient stripeClient(PooledStripeHttpClient stripeHttpClient) {
+        ClientOptions options = new ClientOptions(new BearerTokenAuthenticator(secretKey), apiBase,
+                connectTimeoutMs, readTimeoutMs, maxNetworkRetries);
+        return new StripeClient(new LiveStripeResponseGetter(options, stripeHttpClient));
+    }
+
+    /**
+     * StripeClientに渡す接続設定
+     */
+    static class ClientOptions extends StripeResponseGetterOptions {
+
+        private final Authenticator authenticator;
+        private final String apiBase;
+        private final int connectTimeout;
+        private final int readTimeout;
+        private final int maxNetworkRetries;
+
+        ClientOptions(Authenticator authenticator, String apiBase, int connectTimeout, int readTimeout, int maxNetworkRetries) {
+            this.authenticator = authenticator;
+            this.apiBase = apiBase;
+            this.connectTimeout = connectTimeout;
+            this.readTimeout = readTimeout;
+            this.maxNetworkRetries = maxNetworkRetries;
+        }
+
+        @Override
+        public Authenticator getAuthenticator() {
+            return authenticator;
+        }
+
+        @Override
+        public String getClientId() {
+            return null;
+        }
+
+        @Override
+        public int getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        @Override
+        public Proxy getConnectionProxy() {
+            return null;
+        }
+
+        @Override
+        public int getMaxNetworkRetries() {
+            return maxNetworkRetries;
+        }
+
+        @Override
+        public PasswordAuthentication getProxyCredential() {
+            return null;
+        }
+
+        @Override
+        public String getApiBase() {
+            return apiBase;
+        }
+
+        @Override
+        public String getFilesBase() {
+            return Stripe.UPLOAD_API_BASE;
+        }
+
+        @Override
+        public String getConnectBase() {
+            return Stripe.CONNECT_API_BASE;
+        }
+
+        @Override
+        public String getMeterEventsBase() {
+            return Stripe.METER_EVENTS_API_BASE;
+        }
+
+        @Override
+        public int getReadTimeout() {
+            return readTimeout;
+        }
+
+        @Override
+        public String getStripeAccount() {
+            return null;
+        }
+
+        @Override
+        public String getStripeContext() {
+            return null;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.portfolio.spring_ecommerce.config;
+
+import com.portfolio.spring_ecommerce.repository.UserRepository;
+import com.portfolio.spring_ecommerce.util.CurrentUserArgumentResolver;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final UserRepository userRepository;
+
+    public WebConfig(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    // コントローラーの引数に@CurrentUserで認証ユーザーを渡す
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(new CurrentUserArgumentResolver(userRepository));
+    }
+}
\ No newline at end of file
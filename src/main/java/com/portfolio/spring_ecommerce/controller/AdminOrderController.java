@@ -0,0 +1,84 @@
+package com.portfolio.spring_ecommerce.controller;
+
+import com.portfolio.spring_ecommerce.dto.AdminOrderPageDTO;
+import com.portfolio.spring_ecommerce.dto.AdminOrderSummaryDTO;
+import com.portfolio.spring_ecommerce.dto.SalesAnalyticsDTO;
+import com.portfolio.spring_ecommerce.model.Order;
+import com.portfolio.spring_ecommerce.model.enums.OrderStatus;
+import com.portfolio.spring_ecommerce.model.enums.SalesGranularity;
+import com.portfolio.spring_ecommerce.service.OrderService;
+import com.portfolio.spring_ecommerce.service.SalesAnalyticsService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 管理者用の注文管理・売上分析コントローラー
+ */
+@RestController
+@RequestMapping("/admin")
+public class AdminOrderController {
+
+    // 注文一覧の1ページあたりの最大件数
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private final OrderService orderService;
+    private final SalesAnalyticsService salesAnalyticsService;
+
+    // 必要なサービスをDI（依存性注入）で受け取るコンストラクタ
+    public AdminOrderController(OrderService orderService, SalesAnalyticsService salesAnalyticsService) {
+        this.orderService = orderService;
+        this.salesAnalyticsService = salesAnalyticsService;
+    }
+
+    /**
+     * 注文一覧の取得（新しい順、キーセットページング）
+     * @param status 注文ステータス（任意）
+     * @param from 注文日時の開始（任意、ISO形式、含む）
+     * @param to 注文日時の終了（任意、ISO形式、含まない）
+     * @param userId ユーザーID（任意）
+     * @param cursor 前ページのnextCursor（任意）
+     * @param limit 1ページの件数（1〜200）
+     * @return 注文一覧と次ページのカーソル
+     */
+    @GetMapping("/orders")
+    @PreAuthorize("hasRole('ADMIN')") // ADMINロールのみアクセス可能
+    public ResponseEntity<AdminOrderPageDTO> searchOrders(
+            @RequestParam(value = "status", required = false) OrderStatus status,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(value = "userId", required = false) Long userId,
+            @RequestParam(value = "cursor", required = false) Long cursor,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limitは1から" + MAX_PAGE_SIZE + "の範囲で指定してください。");
+        }
+        List<Order> orders = orderService.searchOrders(status, from, to, userId, cursor, limit);
+        List<AdminOrderSummaryDTO> summaries = orders.stream().map(AdminOrderSummaryDTO::new).toList();
+        Long nextCursor = orders.size() == limit ? orders.get(orders.size() - 1).getId() : null;
+        return ResponseEntity.ok(new AdminOrderPageDTO(summaries, nextCursor));
+    }
+
+    /**
+     * 売上分析の取得（集計済みテーブルから返す。注文一覧と同じく注文日時で期間・区分を判定する）
+     * @param granularity 集計粒度（HOURLYまたはDAILY）
+     * @param from 開始日（ISO形式、含む）
+     * @param to 終了日（ISO形式、含む）
+     * @param top 売上上位SKUの件数
+     * @return 売上金額・販売数量・注文件数・売上上位SKU
+     */
+    @GetMapping("/analytics/sales")
+    @PreAuthorize("hasRole('ADMIN')") // ADMINロールのみアクセス可能
+    public ResponseEntity<SalesAnalyticsDTO> getSales(
+            @RequestParam(value = "granularity", defaultValue = "DAILY") SalesGranularity granularity,
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "top", defaultValue = "10") int top) {
+        return ResponseEntity.ok(salesAnalyticsService.getSales(granularity, from, to, top));
+    }
+}
\ No newline at end of file
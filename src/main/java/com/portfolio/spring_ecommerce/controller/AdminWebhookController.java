@@ -0,0 +1,37 @@
+package com.portfolio.spring_ecommerce.controller;
+
+import com.portfolio.spring_ecommerce.dto.WebhookReplayReportDTO;
+import com.portfolio.spring_ecommerce.service.WebhookReplayService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+/**
+ * 管理者用のWebhook運用コントローラー
+ */
+@RestController
+@RequestMapping("/admin/webhooks")
+public class AdminWebhookController {
+
+    private final WebhookReplayService webhookReplayService;
+
+    // 必要なサービスをDI（依存性注入）で受け取るコンストラクタ
+    public AdminWebhookController(WebhookReplayService webhookReplayService) {
+        this.webhookReplayService = webhookReplayService;
+    }
+
+    /**
+     * 取りこぼしたStripeイベントの再適用
+     * リクエスト本文（Stripeのイベントエクスポート。JSON配列または1行1イベント）をストリーミングで読み込んで適用する
+     * @param request イベントを本文に含むリクエスト
+     * @return 適用・スキップ・失敗の件数
+     */
+    @PostMapping("/replay")
+    @PreAuthorize("hasRole('ADMIN')") // ADMINロールのみアクセス可能
+    public ResponseEntity<WebhookReplayReportDTO> replay(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(webhookReplayService.replay(request::getInputStream));
+    }
+}
\ No newline at end of file
@@ -2,24 +2,34 @@ package com.portfolio.spring_ecommerce.controller;
 
 import com.portfolio.spring_ecommerce.dto.AuthRequest;
 import com.portfolio.spring_ecommerce.dto.AuthResponse;
+import com.portfolio.spring_ecommerce.dto.RefreshTokenRequest;
+import com.portfolio.spring_ecommerce.exception.InvalidRefreshTokenException;
 import com.portfolio.spring_ecommerce.service.JwtBlacklistService;
-import com.portfolio.spring_ecommerce.service.UserService;
+import com.portfolio.spring_ecommerce.service.PasswordAuthenticationService;
+import com.portfolio.spring_ecommerce.service.RefreshTokenService;
 import com.portfolio.spring_ecommerce.util.JwtUtil;
 
 import jakarta.servlet.http.HttpServletRequest;
 
 import com.portfolio.spring_ecommerce.model.User;
+import com.portfolio.spring_ecommerce.model.enums.Role;
 import com.portfolio.spring_ecommerce.repository.UserRepository;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 /**
@@ -29,52 +39,81 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/auth")
 public class AuthController {
 
-    private final AuthenticationManager authenticationManager;
-    private final UserService userService;
+    private static final Logger log = LoggerFactory.getLogger(AuthController.class);
+
+    private final PasswordAuthenticationService passwordAuthenticationService;
     private final JwtUtil jwtUtil;
     private final PasswordEncoder passwordEncoder;
     private final UserRepository userRepository;
     private final JwtBlacklistService jwtBlacklistService;
+    private final RefreshTokenService refreshTokenService;
+    // 照合後のトークン発行を実行するスレッドプール（パスワード照合用のプールをBCrypt以外の処理で占有しない）
+    private final Executor taskExecutor;
 
-    public AuthController(AuthenticationManager authenticationManager, 
-                         UserService userService, 
+    public AuthController(PasswordAuthenticationService passwordAuthenticationService,
                          JwtUtil jwtUtil,
                          UserRepository userRepository,
                          PasswordEncoder passwordEncoder,
-                         JwtBlacklistService jwtBlacklistService) {
-        this.authenticationManager = authenticationManager;
-        this.userService = userService;
+                         JwtBlacklistService jwtBlacklistService,
+                         RefreshTokenService refreshTokenService,
+                         @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor taskExecutor) {
+        this.passwordAuthenticationService = passwordAuthenticationService;
         this.jwtUtil = jwtUtil;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtBlacklistService = jwtBlacklistService;
+        this.refreshTokenService = refreshTokenService;
+        this.taskExecutor = taskExecutor;
     }
 
     /**
      * ログインエンドポイント
      * ユーザー名とパスワードを受け取り、JWTトークンを返す
+     * パスワードの照合は専用のスレッドプールで非同期に行い、混雑時は待たせずに503を返す
+     * 照合後のトークン発行（署名・リフレッシュトークンの保存）はアプリケーションのタスク実行プールで行う
      */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody AuthRequest authRequest) {
-        try {
-            // ユーザー名とパスワードで認証を試みる
-            authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(
-                            authRequest.getUsername(), 
-                            authRequest.getPassword())
-            );
-        } catch (BadCredentialsException e) {
-            // 認証失敗時は401エラーを返す
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body("ユーザー名またはパスワードが正しくありません");
-        }
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody AuthRequest authRequest) {
+        return passwordAuthenticationService.authenticate(authRequest.getUsername(), authRequest.getPassword())
+                .<ResponseEntity<?>>thenApplyAsync(authenticated -> authenticated
+                        // 認証成功時、JWTトークンを生成（ユーザーIDとロールをクレームに含める）
+                        .<ResponseEntity<?>>map(user -> ResponseEntity.ok(new AuthResponse(
+                                jwtUtil.generateToken(user), refreshTokenService.issue(user), user.getUsername())))
+                        // 認証失敗時は401エラーを返す
+                        .orElseGet(() -> ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                                .body("ユーザー名またはパスワードが正しくありません")), taskExecutor)
+                .exceptionally(this::loginErrorResponse);
+    }
 
-        // 認証成功時、ユーザー情報を取得してJWTトークンを生成
-        final UserDetails userDetails = userService.loadUserByUsername(authRequest.getUsername());
-        final String jwt = jwtUtil.generateToken(userDetails);
+    /**
+     * ログイン処理の失敗を応答に変換する
+     * パスワード照合の混雑（キューが満杯・タイムアウト）は503、それ以外は500とする
+     */
+    private ResponseEntity<?> loginErrorResponse(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof RejectedExecutionException || cause instanceof TimeoutException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body("ログインが混み合っています。しばらくしてから再度お試しください。");
+        }
+        log.warn("ログイン処理に失敗しました", cause);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("ログイン処理中にエラーが発生しました");
+    }
 
-        // JWTトークンとユーザー名を返す
-        return ResponseEntity.ok(new AuthResponse(jwt, userDetails.getUsername()));
+    /**
+     * アクセストークン更新エンドポイント
+     * リフレッシュトークンを使用済みにし、新しいアクセストークンとリフレッシュトークンを返す
+     * 使用済みのリフレッシュトークンが再提示された場合は、その系列のトークンをすべて失効させる
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody RefreshTokenRequest refreshRequest) {
+        try {
+            RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshRequest.getRefreshToken());
+            final String jwt = jwtUtil.generateToken(rotation.user());
+            return ResponseEntity.ok(new AuthResponse(jwt, rotation.refreshToken(), rotation.user().getUsername()));
+        } catch (InvalidRefreshTokenException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(e.getMessage());
+        }
     }
 
     /**
@@ -91,23 +130,27 @@ public class AuthController {
         User user = new User();
         user.setUsername(registrationRequest.getUsername());
         user.setPassword(passwordEncoder.encode(registrationRequest.getPassword()));
-        user.setRoles(Set.of("ROLE_USER"));
+        user.setRoles(Set.of(Role.USER));
         userRepository.save(user);
         return ResponseEntity.ok("ユーザー登録が成功しました");
     }
 
     /**
      * ログアウトエンドポイント
-     * JWTトークンをブラックリストに追加する
+     * JWTトークンをブラックリストに追加し、リフレッシュトークンが指定された場合はその系列を失効させる
      */
     @PostMapping("/logout")
-    public ResponseEntity<?> logout(HttpServletRequest request) {
+    public ResponseEntity<?> logout(HttpServletRequest request,
+                                    @RequestBody(required = false) RefreshTokenRequest refreshRequest) {
         final String authHeader = request.getHeader("Authorization");
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String jwt = authHeader.substring(7);
             // JWTトークンをブラックリストに追加
             jwtBlacklistService.addTokenToBlacklist(jwt);
         }
+        if (refreshRequest != null) {
+            refreshTokenService.revoke(refreshRequest.getRefreshToken());
+        }
         return ResponseEntity.ok("ログアウトしました");
     }
 }
\ No newline at end of file
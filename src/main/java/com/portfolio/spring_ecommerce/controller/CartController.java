@@ -4,7 +4,8 @@ import com.portfolio.spring_ecommerce.dto.CartDTO;
 import com.portfolio.spring_ecommerce.model.*;
 import com.portfolio.spring_ecommerce.service.CartService;
 import com.portfolio.spring_ecommerce.repository.ProductRepository;
-import com.portfolio.spring_ecommerce.util.GetAuthenticatedUser;
+import com.portfolio.spring_ecommerce.util.AuthenticatedUser;
+import com.portfolio.spring_ecommerce.util.CurrentUser;
 import com.portfolio.spring_ecommerce.repository.CartItemRepository;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -21,38 +22,36 @@ public class CartController {
     private final CartService cartService;
     private final ProductRepository productRepository;
     private final CartItemRepository cartItemRepository;
-    private final GetAuthenticatedUser getAuthenticatedUserUtil;
 
     /**
      * 必要なサービスとリポジトリをDI（依存性注入）で受け取るコンストラクタ
      * @param cartService カートサービス
      * @param productRepository 商品リポジトリ
      * @param cartItemRepository カートアイテムリポジトリ
-     * @param getAuthenticatedUserUtil 認証済みユーザー取得ユーティリティ
      */
-    public CartController(CartService cartService, ProductRepository productRepository, CartItemRepository cartItemRepository, GetAuthenticatedUser getAuthenticatedUserUtil) {
+    public CartController(CartService cartService, ProductRepository productRepository, CartItemRepository cartItemRepository) {
         this.cartService = cartService;
         this.productRepository = productRepository;
         this.cartItemRepository = cartItemRepository;
-        this.getAuthenticatedUserUtil = getAuthenticatedUserUtil;
     }
 
     /**
      * 認証されたユーザーのカート情報を取得するエンドポイント
+     * @param currentUser 認証されたユーザー
      * @return カート情報を含むResponseEntity
      */
     @GetMapping
     @PreAuthorize("hasRole('USER')") // USERロールのみアクセス可能
-    public ResponseEntity<CartDTO> getCart() {
-        User user = getAuthenticatedUserUtil.getAuthenticatedUser();
-        if (user == null) return ResponseEntity.notFound().build();
-        Cart cart = cartService.getOrCreateCart(user);
-        CartDTO cartDTO = new CartDTO(user.getUsername(), cart.getItems());
+    public ResponseEntity<CartDTO> getCart(@CurrentUser AuthenticatedUser currentUser) {
+        if (currentUser == null) return ResponseEntity.notFound().build();
+        Cart cart = cartService.getOrCreateCart(currentUser.user());
+        CartDTO cartDTO = new CartDTO(currentUser.username(), cart.getItems());
         return ResponseEntity.ok(cartDTO);
     }
 
     /**
      * カートに商品を追加するエンドポイント
+     * @param currentUser 認証されたユーザー
      * @param productId 追加する商品のID
      * @param quantity 追加する数量
      * @return 更新されたカート情報を含むResponseEntity
@@ -60,13 +59,14 @@ public class CartController {
     @PostMapping("/add")
     @PreAuthorize("hasRole('USER')") // USERロールのみアクセス可能
     public ResponseEntity<CartDTO> addItem(
+            @CurrentUser AuthenticatedUser currentUser,
             @RequestParam Long productId,
             @RequestParam int quantity) {
-        User user = getAuthenticatedUserUtil.getAuthenticatedUser();
         Product product = productRepository.findById(productId).orElse(null);
-        if (user == null || product == null || quantity <= 0) {
+        if (currentUser == null || product == null || quantity <= 0) {
             return ResponseEntity.badRequest().build();
         }
+        User user = currentUser.user();
 
         Cart cart = cartService.getOrCreateCart(user);
         boolean alreadyExists = cart.getItems().stream()
@@ -82,12 +82,13 @@ public class CartController {
         }
 
         cart = cartService.addItemToCart(user, product, quantity);
-        CartDTO cartDTO = new CartDTO(user.getUsername(), cart.getItems());
+        CartDTO cartDTO = new CartDTO(currentUser.username(), cart.getItems());
         return ResponseEntity.ok(cartDTO);
     }
 
     /**
      * カート内のアイテム数量を更新するエンドポイント
+     * @param currentUser 認証されたユーザー
      * @param cartItemId 更新するカートアイテムのID
      * @param quantity 新しい数量
      * @return 更新されたカート情報を含むResponseEntity
@@ -95,10 +96,10 @@ public class CartController {
     @PutMapping("/update/{cartItemId}")
     @PreAuthorize("hasRole('USER')") // USERロールのみアクセス可能
     public ResponseEntity<CartDTO> updateQuantity(
+            @CurrentUser AuthenticatedUser currentUser,
             @PathVariable Long cartItemId,
             @RequestParam int quantity) {
-        User user = getAuthenticatedUserUtil.getAuthenticatedUser();
-        if (user == null) return ResponseEntity.badRequest().build();
+        if (currentUser == null) return ResponseEntity.badRequest().build();
         CartItem cartItem = cartItemRepository.findById(cartItemId).orElse(null);
 
         if (quantity <= 0) {
@@ -109,22 +110,24 @@ public class CartController {
             throw new IllegalArgumentException("在庫が不足しています。");
         }
 
-        Cart cart = cartService.updateCartItemQuantity(user, cartItemId, quantity);
-        CartDTO cartDTO = new CartDTO(user.getUsername(), cart.getItems());
+        Cart cart = cartService.updateCartItemQuantity(currentUser.user(), cartItemId, quantity);
+        CartDTO cartDTO = new CartDTO(currentUser.username(), cart.getItems());
         return ResponseEntity.ok(cartDTO);
     }
 
     /**
      * カートからアイテムを削除するエンドポイント
+     * @param currentUser 認証されたユーザー
      * @param cartItemId 削除するカートアイテムのID
      * @return 更新されたカート情報を含むResponseEntity
      */
     @DeleteMapping("/remove/{cartItemId}")
     @PreAuthorize("hasRole('USER')") // USERロールのみアクセス可能
     public ResponseEntity<CartDTO> removeItem(
+            @CurrentUser AuthenticatedUser currentUser,
             @PathVariable Long cartItemId) {
-        User user = getAuthenticatedUserUtil.getAuthenticatedUser();
-        if (user == null) return ResponseEntity.badRequest().build();
+        if (currentUser == null) return ResponseEntity.badRequest().build();
+        User user = currentUser.user();
 
         Cart cart = cartService.getOrCreateCart(user);
         boolean existsInUserCart = cart.getItems().stream()
@@ -134,7 +137,7 @@ public class CartController {
         }
 
         cart = cartService.removeItemFromCart(user, cartItemId);
-        CartDTO cartDTO = new CartDTO(user.getUsername(), cart.getItems());
+        CartDTO cartDTO = new CartDTO(currentUser.username(), cart.getItems());
         return ResponseEntity.ok(cartDTO);
     }
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.portfolio.spring_ecommerce.controller;
+
+import com.portfolio.spring_ecommerce.signing.JwtKeyRing;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWTの検証鍵（公開鍵）をJWKS形式で配信するコントローラー
+ * エッジのプロキシや他のサービスはこの公開鍵でトークンをローカルに検証できる
+ */
+@RestController
+public class JwksController {
+
+    private final JwtKeyRing keyRing;
+    private final long maxAgeSeconds;
+
+    public JwksController(JwtKeyRing keyRing, @Value("${jwt.jwks.max-age-seconds:300}") long maxAgeSeconds) {
+        this.keyRing = keyRing;
+        this.maxAgeSeconds = maxAgeSeconds;
+    }
+
+    /**
+     * 有効な公開鍵の一覧（次に使用する鍵を含む）
+     * @return JWKセットとHTTPステータス200（キャッシュ可能）
+     */
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, List<Map<String, Object>>>> getJwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).cachePublic())
+                .body(Map.of("keys", keyRing.publicJwks()));
+    }
+}
\ No newline at end of file
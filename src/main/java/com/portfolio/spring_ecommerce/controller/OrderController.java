@@ -5,7 +5,8 @@ import com.portfolio.spring_ecommerce.dto.UserOrdersResponseDTO;
 import com.portfolio.spring_ecommerce.model.Order;
 import com.portfolio.spring_ecommerce.model.User;
 import com.portfolio.spring_ecommerce.service.OrderService;
-import com.portfolio.spring_ecommerce.util.GetAuthenticatedUser;
+import com.portfolio.spring_ecommerce.util.AuthenticatedUser;
+import com.portfolio.spring_ecommerce.util.CurrentUser;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -22,31 +23,29 @@ import java.util.stream.Collectors;
 public class OrderController {
 
     private final OrderService orderService;
-    private final GetAuthenticatedUser getAuthenticatedUserUtil;
 
     /**
-     * 必要なサービスとユーティリティをDI（依存性注入）で受け取るコンストラクタ
+     * 必要なサービスをDI（依存性注入）で受け取るコンストラクタ
      * @param orderService 注文サービス
-     * @param getAuthenticatedUserUtil 認証済みユーザー取得ユーティリティ
      */
-    public OrderController(OrderService orderService, GetAuthenticatedUser getAuthenticatedUserUtil) {
+    public OrderController(OrderService orderService) {
         this.orderService = orderService;
-        this.getAuthenticatedUserUtil = getAuthenticatedUserUtil;
     }
 
     /**
      * 認証されたユーザーのカートから新しい注文を作成するエンドポイント
+     * @param currentUser 認証されたユーザー
      * @return 作成された注文の情報を含むレスポンスエンティティ
      */
     @PostMapping("/create")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<UserOrdersResponseDTO> createOrderFromCart() {
+    public ResponseEntity<UserOrdersResponseDTO> createOrderFromCart(@CurrentUser AuthenticatedUser currentUser) {
         try {
-            User user = getAuthenticatedUserUtil.getAuthenticatedUser();
+            User user = currentUser.user();
             Order order = orderService.createOrderFromCart(user);
             OrderDTO orderDTO = new OrderDTO(order);
             List<OrderDTO> orderDTOs = List.of(orderDTO);
-            UserOrdersResponseDTO response = new UserOrdersResponseDTO(user.getUsername(), orderDTOs);
+            UserOrdersResponseDTO response = new UserOrdersResponseDTO(currentUser.username(), orderDTOs);
             return new ResponseEntity<>(response, HttpStatus.CREATED);
         } catch (Exception e) {
             throw new IllegalArgumentException("カートが空のため、注文を作成できません。");
@@ -55,37 +54,39 @@ public class OrderController {
 
     /**
      * 認証されたユーザーのすべての注文を取得するエンドポイント
+     * @param currentUser 認証されたユーザー
      * @return ユーザーの注文リストを含むレスポンスエンティティ
      */
     @GetMapping
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<UserOrdersResponseDTO> getOrdersForUser() {
-        User user = getAuthenticatedUserUtil.getAuthenticatedUser();
-        List<Order> orders = orderService.getOrdersForUser(user);
+    public ResponseEntity<UserOrdersResponseDTO> getOrdersForUser(@CurrentUser AuthenticatedUser currentUser) {
+        if (currentUser == null) return ResponseEntity.notFound().build();
+        List<Order> orders = orderService.getOrdersForUser(currentUser.user());
         List<OrderDTO> orderDTOs = orders.stream()
                 .map(OrderDTO::new)
                 .collect(Collectors.toList());
         
-        UserOrdersResponseDTO response = new UserOrdersResponseDTO(user.getUsername(), orderDTOs);
+        UserOrdersResponseDTO response = new UserOrdersResponseDTO(currentUser.username(), orderDTOs);
         
         return ResponseEntity.ok(response);
     }
 
     /**
      * 指定されたIDの注文を取得するエンドポイント
+     * @param currentUser 認証されたユーザー
      * @param orderId 取得する注文のID
      * @return 注文情報を含むレスポンスエンティティ、存在しない場合は404ステータス
      */
     @GetMapping("/{orderId}")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<UserOrdersResponseDTO> getOrderById(@PathVariable Long orderId) {
-        User user = getAuthenticatedUserUtil.getAuthenticatedUser();
+    public ResponseEntity<UserOrdersResponseDTO> getOrderById(@CurrentUser AuthenticatedUser currentUser, @PathVariable Long orderId) {
+        if (currentUser == null) return ResponseEntity.notFound().build();
         return orderService.getOrderById(orderId)
-                .filter(order -> order.getUser().getId().equals(user.getId()))
+                .filter(order -> order.getUser().getId().equals(currentUser.id()))
                 .map(OrderDTO::new)
                 .map(orderDTO -> {
                     List<OrderDTO> orderDTOs = List.of(orderDTO);
-                    UserOrdersResponseDTO response = new UserOrdersResponseDTO(user.getUsername(), orderDTOs);
+                    UserOrdersResponseDTO response = new UserOrdersResponseDTO(currentUser.username(), orderDTOs);
                     return ResponseEntity.ok(response);
                 })
                 .orElse(ResponseEntity.notFound().build());
@@ -3,14 +3,17 @@ package com.portfolio.spring_ecommerce.controller;
 import com.portfolio.spring_ecommerce.dto.OrderDTO;
 import com.portfolio.spring_ecommerce.dto.PaymentRequestDTO;
 import com.portfolio.spring_ecommerce.dto.PaymentResponseDTO;
+import com.portfolio.spring_ecommerce.exception.PaymentIntentConflictException;
+import com.portfolio.spring_ecommerce.gateway.PaymentGatewayException;
+import com.portfolio.spring_ecommerce.gateway.PaymentIntentSnapshot;
 import com.portfolio.spring_ecommerce.model.Order;
-import com.portfolio.spring_ecommerce.model.User;
 import com.portfolio.spring_ecommerce.model.enums.OrderStatus;
 import com.portfolio.spring_ecommerce.service.OrderService;
 import com.portfolio.spring_ecommerce.service.PaymentService;
-import com.portfolio.spring_ecommerce.util.GetAuthenticatedUser;
-import com.stripe.exception.StripeException;
-import com.stripe.model.PaymentIntent;
+import com.portfolio.spring_ecommerce.util.AuthenticatedUser;
+import com.portfolio.spring_ecommerce.util.CurrentUser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -22,6 +25,9 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * 支払い関連のエンドポイントを提供するコントローラー
@@ -30,109 +36,142 @@ import java.util.Optional;
 @RequestMapping("/user/payment")
 public class PaymentController {
 
+    private static final Logger log = LoggerFactory.getLogger(PaymentController.class);
+
     private final PaymentService paymentService;
     private final OrderService orderService;
-    private final GetAuthenticatedUser getAuthenticatedUserUtil;
 
-    public PaymentController(PaymentService paymentService, OrderService orderService, GetAuthenticatedUser getAuthenticatedUserUtil) {
+    public PaymentController(PaymentService paymentService, OrderService orderService) {
         this.paymentService = paymentService;
         this.orderService = orderService;
-        this.getAuthenticatedUserUtil = getAuthenticatedUserUtil;
     }
 
     /**
      * 支払いインテントを作成するエンドポイント
+     * 決済プロバイダーの呼び出しは非同期に行い、完了までリクエスト処理スレッドを占有しない
      *
+     * @param currentUser 認証されたユーザー
      * @param paymentRequest 支払いリクエストDTO
      * @return 支払いレスポンスDTOまたはエラーメッセージ
      */
     @PostMapping("/create-payment-intent")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<?> createPaymentIntent(@RequestBody PaymentRequestDTO paymentRequest) {
-        try {
-            User user = getAuthenticatedUserUtil.getAuthenticatedUser();
-            Optional<Order> orderOptional = orderService.getOrderById(paymentRequest.getOrderId());
-
-            if (orderOptional.isEmpty() || !orderOptional.get().getUser().getId().equals(user.getId())) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("注文IDが見つからないか、アクセス権がありません。");
-            }
-
-            Order order = orderOptional.get();
-
-            if (order.getStatus() != OrderStatus.PENDING) {
-                return ResponseEntity.badRequest().body("支払いは保留中の注文に対してのみ行えます。");
-            }
-
-            OrderDTO orderDTO = new OrderDTO(order);
-            PaymentIntent paymentIntent = paymentService.createPaymentIntent(orderDTO);
-            
-            // 🆕 PaymentIntent IDを注文に保存
-            order.setPaymentIntentId(paymentIntent.getId());
-            orderService.saveOrder(order); // この行も追加が必要
-
-            return ResponseEntity.ok(new PaymentResponseDTO(paymentIntent.getClientSecret()));
-        } catch (StripeException e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("支払いインテントの作成中にエラーが発生しました。");
+    public CompletableFuture<ResponseEntity<?>> createPaymentIntent(@CurrentUser AuthenticatedUser currentUser,
+                                                                     @RequestBody PaymentRequestDTO paymentRequest) {
+        Optional<Order> orderOptional = orderService.getOrderById(paymentRequest.getOrderId());
+
+        if (currentUser == null || orderOptional.isEmpty() || !orderOptional.get().getUser().getId().equals(currentUser.id())) {
+            return CompletableFuture.completedFuture(
+                ResponseEntity.status(HttpStatus.FORBIDDEN).body("注文IDが見つからないか、アクセス権がありません。"));
+        }
+
+        Order order = orderOptional.get();
+
+        if (order.getStatus() != OrderStatus.PENDING) {
+            return CompletableFuture.completedFuture(
+                ResponseEntity.badRequest().body("支払いは保留中の注文に対してのみ行えます。"));
         }
+
+        // 作成済みのPaymentIntentが再利用できる場合は新たに作成しない（ダブルクリック・再送対策）
+        return reuseOrCreatePaymentIntent(order)
+            .exceptionally(e -> gatewayErrorResponse(e, "支払いインテントの作成中にエラーが発生しました。"));
     }
 
     /**
      * 既存の保留中注文の支払いを再開する
      * 
+     * @param currentUser 認証されたユーザー
      * @param orderId 注文ID
      * @return 既存または新規のPaymentIntentのclientSecret
      */
     @GetMapping("/retry-payment/{orderId}")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<?> retryPayment(@PathVariable Long orderId) {
-        try {
-            User user = getAuthenticatedUserUtil.getAuthenticatedUser();
-            Optional<Order> orderOptional = orderService.getOrderById(orderId);
-
-            // アクセス権の確認
-            if (orderOptional.isEmpty() || !orderOptional.get().getUser().getId().equals(user.getId())) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                    .body("注文が見つからないか、アクセス権がありません。");
-            }
-
-            Order order = orderOptional.get();
-
-            // 支払いは保留中の注文に対してのみ行えます
-            if (order.getStatus() != OrderStatus.PENDING) {
-                return ResponseEntity.badRequest()
-                    .body("支払いは保留中の注文に対してのみ行えます。現在のステータス: " + order.getStatus());
-            }
-
-            // 既存のPaymentIntentを取得して再利用
-            if (order.getPaymentIntentId() != null) {
-                try {
-                    PaymentIntent existingPI = PaymentIntent.retrieve(order.getPaymentIntentId());
-                    
-                    String status = existingPI.getStatus();
-                    if (status.equals("requires_payment_method") || 
-                        status.equals("requires_confirmation") ||
-                        status.equals("requires_action")) {
-                        
-                        return ResponseEntity.ok(new PaymentResponseDTO(existingPI.getClientSecret()));
+    public CompletableFuture<ResponseEntity<?>> retryPayment(@CurrentUser AuthenticatedUser currentUser, @PathVariable Long orderId) {
+        Optional<Order> orderOptional = orderService.getOrderById(orderId);
+
+        // アクセス権の確認
+        if (currentUser == null || orderOptional.isEmpty() || !orderOptional.get().getUser().getId().equals(currentUser.id())) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body("注文が見つからないか、アクセス権がありません。"));
+        }
+
+        Order order = orderOptional.get();
+
+        // 支払いは保留中の注文に対してのみ行えます
+        if (order.getStatus() != OrderStatus.PENDING) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                .body("支払いは保留中の注文に対してのみ行えます。現在のステータス: " + order.getStatus()));
+        }
+
+        return reuseOrCreatePaymentIntent(order)
+            .exceptionally(e -> gatewayErrorResponse(e, "支払いインテントの取得中にエラーが発生しました。"));
+    }
+
+    /**
+     * 既存のPaymentIntentが再利用できればそのclientSecretを、できなければ新しく作成したPaymentIntentのclientSecretを返す
+     * 新規作成に進むのは、既存のPaymentIntentがプロバイダーに存在しない・キャンセル済みと確定した場合だけとする
+     * （取得の一時的な失敗で作成すると、既存のPaymentIntentと合わせて二重に請求されうるため、エラーとして返す）
+     */
+    private CompletableFuture<ResponseEntity<?>> reuseOrCreatePaymentIntent(Order order) {
+        // 既存のPaymentIntentを取得して再利用（直近の内容はキャッシュから返す）
+        CompletableFuture<ResponseEntity<?>> existing = CompletableFuture.completedFuture(null);
+        if (order.getPaymentIntentId() != null) {
+            existing = paymentService.retrievePaymentIntent(order.getId(), order.getPaymentIntentId())
+                .<ResponseEntity<?>>thenApply(this::reuseResponse)
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof PaymentGatewayException gatewayException
+                            && gatewayException.getReason() == PaymentGatewayException.Reason.NOT_FOUND) {
+                        return null;
                     }
-                    
-                } catch (StripeException e) {
-                }
-            }
-
-            // 新しいPaymentIntentを作成
-            OrderDTO orderDTO = new OrderDTO(order);
-            PaymentIntent paymentIntent = paymentService.createPaymentIntent(orderDTO);
-            
-            // PaymentIntent IDを注文に保存
-            order.setPaymentIntentId(paymentIntent.getId());
-            orderService.saveOrder(order);
-
-            return ResponseEntity.ok(new PaymentResponseDTO(paymentIntent.getClientSecret()));
-            
-        } catch (StripeException e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body("支払いインテントの取得中にエラーが発生しました。");
+                    throw e instanceof CompletionException completionException ? completionException : new CompletionException(e);
+                });
+        }
+
+        // 新しいPaymentIntentを作成（作成と注文への記録はPaymentServiceが行う）
+        OrderDTO orderDTO = new OrderDTO(order);
+        return existing.thenCompose(response -> response != null
+            ? CompletableFuture.completedFuture(response)
+            : paymentService.createPaymentIntent(orderDTO)
+                .<ResponseEntity<?>>thenApply(paymentIntent -> ResponseEntity.ok(new PaymentResponseDTO(paymentIntent.clientSecret()))));
+    }
+
+    /**
+     * 既存のPaymentIntentに対する応答を返す（新規作成に進む場合はnull）
+     * 再利用できる場合はそのclientSecret、キャンセル済みの場合は新規作成、
+     * 処理中・支払い済みなどの場合は新たに作成すると二重請求になるため409とする
+     */
+    private ResponseEntity<?> reuseResponse(PaymentIntentSnapshot existing) {
+        if (existing.isReusable()) {
+            return ResponseEntity.ok(new PaymentResponseDTO(existing.clientSecret()));
+        }
+        if (existing.isCanceled()) {
+            return null;
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+            .body("この注文の支払いは処理中です。しばらくしてから注文の状態をご確認ください。");
+    }
+
+    /**
+     * 決済ゲートウェイの失敗を応答に変換する
+     * PaymentIntentの記録の競合は409、一時的な障害（タイムアウト・過負荷・サーキット遮断・記録の実行枠の不足）は503、
+     * それ以外のプロバイダーの失敗は502、予期しない例外は500とする
+     */
+    private ResponseEntity<?> gatewayErrorResponse(Throwable error, String message) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof PaymentIntentConflictException) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body("支払いインテントは別のリクエストで更新されました。再度お試しください。");
+        }
+        if (cause instanceof PaymentGatewayException gatewayException && gatewayException.isTransient()
+                || cause instanceof RejectedExecutionException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body("決済サービスが混み合っています。しばらくしてから再度お試しください。");
+        }
+        log.warn("支払い処理に失敗しました: {}", cause.getMessage());
+        if (cause instanceof PaymentGatewayException) {
+            return ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(message);
         }
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(message);
     }
 }
\ No newline at end of file
@@ -1,34 +1,38 @@
 package com.portfolio.spring_ecommerce.controller;
 
-import com.portfolio.spring_ecommerce.service.OrderService;
+import com.portfolio.spring_ecommerce.service.WebhookEventService;
 import com.stripe.exception.SignatureVerificationException;
 import com.stripe.model.Event;
-import com.stripe.model.PaymentIntent;
 import com.stripe.net.Webhook;
-
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 /**
- * Stripeからのwebhookイベントを処理するコントローラー
+ * Stripeからのwebhookイベントを受信するコントローラー
+ * 署名を検証したイベントを永続キューに保存して即座に応答し、注文の更新はワーカーが非同期に行う
  */
 @RestController
 @RequestMapping("/webhook")
 public class WebhookController {
 
+    private static final Logger log = LoggerFactory.getLogger(WebhookController.class);
+
     @Value("${stripe.webhook.secret}")
     private String webhookSecret;
 
-    private final OrderService orderService;
+    private final WebhookEventService webhookEventService;
 
-    public WebhookController(OrderService orderService) {
-        this.orderService = orderService;
+    public WebhookController(WebhookEventService webhookEventService) {
+        this.webhookEventService = webhookEventService;
     }
 
     /**
-     * Stripeのwebhookイベントを受信して処理するエンドポイント
+     * Stripeのwebhookイベントを受信するエンドポイント
+     * 保存に失敗した場合は500を返し、Stripe側の再送に任せる
      */
     @PostMapping("/stripe")
     public ResponseEntity<String> handleStripeWebhook(
@@ -39,65 +43,15 @@ public class WebhookController {
         try {
             event = Webhook.constructEvent(payload, sigHeader, webhookSecret);
         } catch (SignatureVerificationException e) {
-            System.err.println("❌ Invalid signature: " + e.getMessage());
+            log.warn("Webhookの署名が不正です: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid signature");
         }
 
-        System.out.println("📩 Received Stripe event: " + event.getType());
-
-        switch (event.getType()) {
-            case "payment_intent.succeeded":
-                handlePaymentSuccess(event);
-                break;
-            case "payment_intent.payment_failed":
-                handlePaymentFailure(event);
-                break;
-            default:
-                System.out.println("ℹ️ Unhandled event type: " + event.getType());
+        if (webhookEventService.record(event.getId(), event.getType(), payload)) {
+            log.debug("Webhookイベントを受信しました: eventId={}, type={}", event.getId(), event.getType());
+        } else {
+            log.debug("受信済みのWebhookイベントのため無視します: eventId={}, type={}", event.getId(), event.getType());
         }
-
         return ResponseEntity.ok("Success");
     }
-
-    /**
-     * 支払い成功時の処理
-     */
-    private void handlePaymentSuccess(Event event) {
-        try {
-            PaymentIntent paymentIntent = (PaymentIntent) event.getDataObjectDeserializer()
-                    .getObject()
-                    .orElseThrow(() -> new IllegalStateException("PaymentIntentが見つかりません"));
-
-            String paymentIntentId = paymentIntent.getId();
-            
-            System.out.println("💳 Processing payment success for: " + paymentIntentId);
-            orderService.markOrderAsPaid(paymentIntentId);
-            System.out.println("✅ 注文が支払い済みに更新されました: " + paymentIntentId);
-            
-        } catch (Exception e) {
-            System.err.println("❌ 注文の更新に失敗しました: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
-
-    /**
-     * 支払い失敗時の処理
-     */
-    private void handlePaymentFailure(Event event) {
-        try {
-            PaymentIntent paymentIntent = (PaymentIntent) event.getDataObjectDeserializer()
-                    .getObject()
-                    .orElseThrow(() -> new IllegalStateException("PaymentIntentが見つかりません"));
-
-            String paymentIntentId = paymentIntent.getId();
-            
-            System.out.println("💳 Processing payment failure for: " + paymentIntentId);
-            orderService.cancelOrderAndRestoreInventory(paymentIntentId);
-            System.out.println("✅ 注文がキャンセルされ、在庫が復元されました: " + paymentIntentId);
-            
-        } catch (Exception e) {
-            System.err.println("❌ 注文のキャンセルに失敗しました: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
 }
\ No newline at end of file
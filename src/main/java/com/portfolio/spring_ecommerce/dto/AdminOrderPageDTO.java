@@ -0,0 +1,29 @@
+package com.portfolio.spring_ecommerce.dto;
+
+import java.util.List;
+
+/**
+ * 管理者向け注文一覧の1ページを表すDTO
+ * nextCursorを次回リクエストのcursorに指定すると続きを取得できる（最終ページではnull）
+ */
+public class AdminOrderPageDTO {
+
+    private List<AdminOrderSummaryDTO> orders;
+    private Long nextCursor;
+
+    // コンストラクタ
+    public AdminOrderPageDTO(List<AdminOrderSummaryDTO> orders, Long nextCursor) {
+        this.orders = orders;
+        this.nextCursor = nextCursor;
+    }
+
+    // 以下、各フィールドのgetter
+
+    public List<AdminOrderSummaryDTO> getOrders() {
+        return orders;
+    }
+
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.portfolio.spring_ecommerce.dto;
+
+import com.portfolio.spring_ecommerce.model.Order;
+import com.portfolio.spring_ecommerce.model.enums.OrderStatus;
+import com.portfolio.spring_ecommerce.util.Money;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 管理者向け注文一覧の1行を表すDTO（明細は含まない）
+ */
+public class AdminOrderSummaryDTO {
+
+    private Long id;
+    private Long userId;
+    private String username;
+    private LocalDateTime orderDate;
+    private OrderStatus status;
+    private long totalAmountMinor;
+    private String currency;
+    private String paymentIntentId;
+
+    // コンストラクタ
+    public AdminOrderSummaryDTO(Order order) {
+        this.id = order.getId();
+        this.userId = order.getUser().getId();
+        this.username = order.getUser().getUsername();
+        this.orderDate = order.getOrderDate();
+        this.status = order.getStatus();
+        this.totalAmountMinor = order.getTotalAmountMinor();
+        this.currency = order.getCurrency();
+        this.paymentIntentId = order.getPaymentIntentId();
+    }
+
+    // 以下、各フィールドのgetter
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public LocalDateTime getOrderDate() {
+        return orderDate;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public long getTotalAmountMinor() {
+        return totalAmountMinor;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    // 合計金額（表示用）
+    public BigDecimal getTotalAmount() {
+        return Money.toMajor(totalAmountMinor);
+    }
+
+    public String getPaymentIntentId() {
+        return paymentIntentId;
+    }
+}
\ No newline at end of file
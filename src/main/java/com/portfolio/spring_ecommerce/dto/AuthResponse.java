@@ -1,10 +1,11 @@
 package com.portfolio.spring_ecommerce.dto;
 
 /**
- * ログイン成功時にJWTトークンを返すためのDTO
+ * ログイン成功時にJWTトークン（アクセストークン）とリフレッシュトークンを返すためのDTO
  */
 public class AuthResponse {
     private String token;
+    private String refreshToken;
     private String username;
 
     // コンストラクタ
@@ -15,6 +16,12 @@ public class AuthResponse {
         this.username = username;
     }
 
+    public AuthResponse(String token, String refreshToken, String username) {
+        this.token = token;
+        this.refreshToken = refreshToken;
+        this.username = username;
+    }
+
     // 以下、各フィールドのgetter/setter
     public String getToken() {
         return token;
@@ -24,6 +31,14 @@ public class AuthResponse {
         this.token = token;
     }
 
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
     public String getUsername() {
         return username;
     }
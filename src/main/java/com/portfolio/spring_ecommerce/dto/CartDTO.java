@@ -1,7 +1,9 @@
 package com.portfolio.spring_ecommerce.dto;
 
 import com.portfolio.spring_ecommerce.model.CartItem;
+import com.portfolio.spring_ecommerce.util.Money;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 /**
@@ -10,19 +12,22 @@ import java.util.List;
 public class CartDTO {
     private String username;
     private List<CartItem> items;
-    private double totalPrice;
+    private long totalPriceMinor;
+    private String currency = Money.DEFAULT_CURRENCY;
 
     public CartDTO(String username, List<CartItem> items) {
         this.username = username;
         this.items = items;
-        this.totalPrice = calculateTotalPrice(items);
+        this.totalPriceMinor = calculateTotalPriceMinor(items);
     }
 
-    // カート内商品の合計金額を計算するヘルパーメソッド
-    private double calculateTotalPrice(List<CartItem> items) {
-        return items.stream()
-                .mapToDouble(item -> item.getProduct().getUnitPrice().doubleValue() * item.getQuantity())
-                .sum();
+    // カート内商品の合計金額（最小通貨単位）を計算するヘルパーメソッド
+    private long calculateTotalPriceMinor(List<CartItem> items) {
+        long total = 0;
+        for (CartItem item : items) {
+            total = Math.addExact(total, Money.multiply(item.getProduct().getUnitPriceMinor(), item.getQuantity()));
+        }
+        return total;
     }
 
     // 以下、各フィールドのgetter/setter
@@ -42,11 +47,24 @@ public class CartDTO {
         this.items = items;
     }
 
-    public double getTotalPrice() {
-        return totalPrice;
+    public long getTotalPriceMinor() {
+        return totalPriceMinor;
     }
 
-    public void setTotalPrice(double totalPrice) {
-        this.totalPrice = totalPrice;
+    public void setTotalPriceMinor(long totalPriceMinor) {
+        this.totalPriceMinor = totalPriceMinor;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    // 合計金額（表示用）
+    public BigDecimal getTotalPrice() {
+        return Money.toMajor(totalPriceMinor);
     }
 }
\ No newline at end of file
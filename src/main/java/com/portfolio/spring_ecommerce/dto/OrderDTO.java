@@ -2,7 +2,9 @@ package com.portfolio.spring_ecommerce.dto;
 
 import com.portfolio.spring_ecommerce.model.Order;
 import com.portfolio.spring_ecommerce.model.enums.OrderStatus;
+import com.portfolio.spring_ecommerce.util.Money;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -16,7 +18,8 @@ public class OrderDTO {
     private List<OrderItemDTO> orderItems;
     private LocalDateTime orderDate;
     private OrderStatus status;
-    private Double totalAmount;
+    private long totalAmountMinor;
+    private String currency;
     private String paymentIntentId;
 
     // コンストラクタ
@@ -24,7 +27,8 @@ public class OrderDTO {
         this.id = order.getId();
         this.orderDate = order.getOrderDate();
         this.status = order.getStatus();
-        this.totalAmount = order.getTotalAmount();
+        this.totalAmountMinor = order.getTotalAmountMinor();
+        this.currency = order.getCurrency();
         this.paymentIntentId = order.getPaymentIntentId();
         this.orderItems = order.getOrderItems().stream()
                 .map(OrderItemDTO::new)
@@ -65,12 +69,25 @@ public class OrderDTO {
         this.status = status;
     }
 
-    public Double getTotalAmount() {
-        return totalAmount;
+    public long getTotalAmountMinor() {
+        return totalAmountMinor;
     }
 
-    public void setTotalAmount(Double totalAmount) {
-        this.totalAmount = totalAmount;
+    public void setTotalAmountMinor(long totalAmountMinor) {
+        this.totalAmountMinor = totalAmountMinor;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    // 合計金額（表示用）
+    public BigDecimal getTotalAmount() {
+        return Money.toMajor(totalAmountMinor);
     }
 
 
@@ -1,6 +1,9 @@
 package com.portfolio.spring_ecommerce.dto;
 
 import com.portfolio.spring_ecommerce.model.OrderItem;
+import com.portfolio.spring_ecommerce.util.Money;
+
+import java.math.BigDecimal;
 
 /**
  * 注文アイテム情報を表すDTO
@@ -10,14 +13,14 @@ public class OrderItemDTO {
     private Long productId;
     private String productName;
     private Integer quantity;
-    private Double price;
+    private long priceMinor;
 
     // コンストラクタ
     public OrderItemDTO(OrderItem orderItem) {
         this.productId = orderItem.getProduct().getId();
         this.productName = orderItem.getProduct().getName();
         this.quantity = orderItem.getQuantity();
-        this.price = orderItem.getPrice();
+        this.priceMinor = orderItem.getPriceMinor();
     }
 
     // 以下、各フィールドのgetter/setter
@@ -46,11 +49,16 @@ public class OrderItemDTO {
         this.quantity = quantity;
     }
 
-    public Double getPrice() {
-        return price;
+    public long getPriceMinor() {
+        return priceMinor;
+    }
+
+    public void setPriceMinor(long priceMinor) {
+        this.priceMinor = priceMinor;
     }
 
-    public void setPrice(Double price) {
-        this.price = price;
+    // 価格（表示用）
+    public BigDecimal getPrice() {
+        return Money.toMajor(priceMinor);
     }
 }
\ No newline at end of file
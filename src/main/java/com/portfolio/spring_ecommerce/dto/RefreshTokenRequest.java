@@ -0,0 +1,24 @@
+package com.portfolio.spring_ecommerce.dto;
+
+/**
+ * アクセストークンの更新・ログアウト時にリフレッシュトークンを受け取るためのDTO
+ */
+public class RefreshTokenRequest {
+    private String refreshToken;
+
+    // コンストラクタ
+    public RefreshTokenRequest() {}
+
+    public RefreshTokenRequest(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    // 以下、getter/setter
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,133 @@
+package com.portfolio.spring_ecommerce.dto;
+
+import com.portfolio.spring_ecommerce.model.enums.SalesGranularity;
+import com.portfolio.spring_ecommerce.util.Money;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 売上分析（集計済みテーブルから作成）を表すDTO
+ */
+public class SalesAnalyticsDTO {
+
+    private SalesGranularity granularity;
+    private LocalDate from;
+    private LocalDate to;
+    private String currency = Money.DEFAULT_CURRENCY;
+    private long totalRevenueMinor;
+    private long totalUnits;
+    private long totalOrders;
+    private List<Bucket> buckets;
+    private List<TopSku> topSkus;
+
+    // コンストラクタ
+    public SalesAnalyticsDTO(SalesGranularity granularity, LocalDate from, LocalDate to,
+                             List<Bucket> buckets, List<TopSku> topSkus) {
+        this.granularity = granularity;
+        this.from = from;
+        this.to = to;
+        this.buckets = buckets;
+        this.topSkus = topSkus;
+        this.totalRevenueMinor = buckets.stream().mapToLong(Bucket::getRevenueMinor).sum();
+        this.totalUnits = buckets.stream().mapToLong(Bucket::getUnits).sum();
+        this.totalOrders = buckets.stream().mapToLong(Bucket::getOrders).sum();
+    }
+
+    // 以下、各フィールドのgetter
+
+    public SalesGranularity getGranularity() {
+        return granularity;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public long getTotalRevenueMinor() {
+        return totalRevenueMinor;
+    }
+
+    public long getTotalUnits() {
+        return totalUnits;
+    }
+
+    public long getTotalOrders() {
+        return totalOrders;
+    }
+
+    public List<Bucket> getBuckets() {
+        return buckets;
+    }
+
+    public List<TopSku> getTopSkus() {
+        return topSkus;
+    }
+
+    // 集計区間ごとの売上
+    public static class Bucket {
+
+        private LocalDateTime start;
+        private long revenueMinor;
+        private long units;
+        private long orders;
+
+        public Bucket(LocalDateTime start, long revenueMinor, long units, long orders) {
+            this.start = start;
+            this.revenueMinor = revenueMinor;
+            this.units = units;
+            this.orders = orders;
+        }
+
+        public LocalDateTime getStart() {
+            return start;
+        }
+
+        public long getRevenueMinor() {
+            return revenueMinor;
+        }
+
+        public long getUnits() {
+            return units;
+        }
+
+        public long getOrders() {
+            return orders;
+        }
+    }
+
+    // 売上上位のSKU
+    public static class TopSku {
+
+        private String sku;
+        private long units;
+        private long revenueMinor;
+
+        public TopSku(String sku, long units, long revenueMinor) {
+            this.sku = sku;
+            this.units = units;
+            this.revenueMinor = revenueMinor;
+        }
+
+        public String getSku() {
+            return sku;
+        }
+
+        public long getUnits() {
+            return units;
+        }
+
+        public long getRevenueMinor() {
+            return revenueMinor;
+        }
+    }
+}
\ No newline at end of file
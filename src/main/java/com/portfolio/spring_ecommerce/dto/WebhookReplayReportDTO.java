@@ -0,0 +1,48 @@
+package com.portfolio.spring_ecommerce.dto;
+
+import java.util.List;
+
+/**
+ * Webhookイベント再適用の結果を表すDTO
+ * applied: 注文に適用した件数、skipped: 受信済み・処理対象外のため適用しなかった件数、
+ * failed: 適用に失敗した件数（失敗したイベントはWebhookの処理待ちキューに入り、ワーカーが再試行する）
+ */
+public class WebhookReplayReportDTO {
+
+    private long applied;
+    private long skipped;
+    private long failed;
+    private List<String> failedEventIds;
+    private long elapsedMs;
+
+    // コンストラクタ
+    public WebhookReplayReportDTO(long applied, long skipped, long failed, List<String> failedEventIds, long elapsedMs) {
+        this.applied = applied;
+        this.skipped = skipped;
+        this.failed = failed;
+        this.failedEventIds = failedEventIds;
+        this.elapsedMs = elapsedMs;
+    }
+
+    // 以下、各フィールドのgetter
+
+    public long getApplied() {
+        return applied;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public List<String> getFailedEventIds() {
+        return failedEventIds;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.portfolio.spring_ecommerce.event;
+
+import com.portfolio.spring_ecommerce.model.Order;
+import com.portfolio.spring_ecommerce.model.enums.OrderEventType;
+
+import java.time.LocalDateTime;
+
+/**
+ * 注文の状態が変化したときにOrderServiceが発行するアプリケーションイベント。
+ * リスナーは発行元と同じトランザクション内で同期的に呼び出される。
+ */
+public class OrderLifecycleEvent {
+
+    private final Order order;
+    private final OrderEventType type;
+    private final LocalDateTime occurredAt;
+
+    public OrderLifecycleEvent(Order order, OrderEventType type) {
+        this.order = order;
+        this.type = type;
+        this.occurredAt = LocalDateTime.now();
+    }
+
+    // 以下、getter
+    public Order getOrder() {
+        return order;
+    }
+
+    public OrderEventType getType() {
+        return type;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.portfolio.spring_ecommerce.exception;
+
+/**
+ * リフレッシュトークンが存在しない、期限切れ、失効済み、または使用済み（再使用）の場合の例外クラス
+ */
+public class InvalidRefreshTokenException extends RuntimeException {
+    public InvalidRefreshTokenException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.portfolio.spring_ecommerce.exception;
+
+/**
+ * 注文のPaymentIntentが他のリクエストによって既に更新されていた場合の例外クラス
+ */
+public class PaymentIntentConflictException extends RuntimeException {
+    public PaymentIntentConflictException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
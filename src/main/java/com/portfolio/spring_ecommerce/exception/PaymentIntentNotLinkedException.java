@@ -0,0 +1,11 @@
+package com.portfolio.spring_ecommerce.exception;
+
+/**
+ * Webhookで通知されたPaymentIntentが、まだ注文に記録されていない場合の例外クラス
+ * （PaymentIntentの作成直後、注文への記録より先にWebhookが届いた場合。少し待って再試行する）
+ */
+public class PaymentIntentNotLinkedException extends RuntimeException {
+    public PaymentIntentNotLinkedException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
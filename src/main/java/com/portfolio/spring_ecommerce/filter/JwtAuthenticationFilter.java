@@ -1,15 +1,22 @@
 package com.portfolio.spring_ecommerce.filter;
 
+import com.portfolio.spring_ecommerce.model.User;
+import com.portfolio.spring_ecommerce.model.enums.Role;
 import com.portfolio.spring_ecommerce.service.UserService;
-import com.portfolio.spring_ecommerce.util.JwtUtil;
+import com.portfolio.spring_ecommerce.util.AuthenticatedUser;
+import com.portfolio.spring_ecommerce.util.JwtClaims;
+import com.portfolio.spring_ecommerce.util.UserPrincipal;
+import com.portfolio.spring_ecommerce.util.VerifiedTokenCache;
 import com.portfolio.spring_ecommerce.service.JwtBlacklistService;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -22,12 +29,15 @@ import java.io.IOException;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final JwtUtil jwtUtil;
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
+    private final VerifiedTokenCache verifiedTokenCache;
     private final UserService userService;
     private final JwtBlacklistService jwtBlacklistService;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserService userService, JwtBlacklistService jwtBlacklistService) {
-        this.jwtUtil = jwtUtil;
+    public JwtAuthenticationFilter(VerifiedTokenCache verifiedTokenCache, UserService userService,
+                                   JwtBlacklistService jwtBlacklistService) {
+        this.verifiedTokenCache = verifiedTokenCache;
         this.userService = userService;
         this.jwtBlacklistService = jwtBlacklistService;
     }
@@ -39,30 +49,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // リクエストヘッダーからAuthorizationヘッダーを取得
         final String authorizationHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwt = null;
-
         // Authorizationヘッダーが"Bearer "で始まる場合、JWTトークンを抽出
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
-            if (jwtBlacklistService.isTokenBlacklisted(jwt)) {
+            String jwt = authorizationHeader.substring(7);
+
+            // 署名・有効期限の検証とクレームの取得を1回の解析で行う（検証済みのトークンはキャッシュから取得。不正・期限切れの場合は未認証のまま続行）
+            // レート制限フィルターがキャッシュから取得済みの場合はそのクレームを使う
+            JwtClaims claims = request.getAttribute(RateLimitFilter.VERIFIED_CLAIMS_ATTRIBUTE) instanceof JwtClaims cached
+                    ? cached : verify(jwt);
+            if (claims != null && jwtBlacklistService.isTokenBlacklisted(claims.tokenId())) {
                 response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                 response.getWriter().write("JWTトークンがブラックリストされました");
                 return;
             }
-            username = jwtUtil.extractUsername(jwt);
-        }
-
-        // ユーザー名が取得でき、かつまだ認証されていない場合
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            // DBからユーザー情報を取得
-            UserDetails userDetails = this.userService.loadUserByUsername(username);
-
-            // JWTトークンが有効な場合、認証情報をセット
-            if (jwtUtil.validateToken(jwt, userDetails)) {
-                UsernamePasswordAuthenticationToken authenticationToken =
-                        new UsernamePasswordAuthenticationToken(
-                                userDetails, null, userDetails.getAuthorities());
+            if (claims != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                UsernamePasswordAuthenticationToken authenticationToken = authenticationOf(claims, request);
                 authenticationToken.setDetails(
                         new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authenticationToken);
@@ -71,4 +72,31 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // 次のフィルターへ処理を渡す
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * クレームから認証情報を作成し、解決した認証ユーザーをリクエスト属性に設定する（コントローラーは@CurrentUserで受け取る）
+     * ユーザーIDとロールを含むトークンではDBを参照せず、含まない旧形式のトークンのみDBからユーザーを取得する（取得したユーザーはコントローラーでそのまま使う）
+     */
+    private UsernamePasswordAuthenticationToken authenticationOf(JwtClaims claims, HttpServletRequest request) {
+        if (claims.userId() != null) {
+            request.setAttribute(AuthenticatedUser.ATTRIBUTE, new AuthenticatedUser(claims.userId(), claims.subject()));
+            UserPrincipal principal = new UserPrincipal(claims.userId(), claims.subject());
+            return new UsernamePasswordAuthenticationToken(
+                    principal, null, Role.authorities(Role.maskOfAuthorities(claims.roles())));
+        }
+        User user = this.userService.loadUser(claims.subject());
+        request.setAttribute(AuthenticatedUser.ATTRIBUTE, new AuthenticatedUser(user));
+        UserPrincipal principal = new UserPrincipal(user.getId(), user.getUsername());
+        return new UsernamePasswordAuthenticationToken(
+                principal, null, user.getAuthorities());
+    }
+
+    private JwtClaims verify(String jwt) {
+        try {
+            return verifiedTokenCache.verify(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("JWTトークンの検証に失敗しました: {}", e.getMessage());
+            return null;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,111 @@
+package com.portfolio.spring_ecommerce.filter;
+
+import com.portfolio.spring_ecommerce.util.JwtClaims;
+import com.portfolio.spring_ecommerce.util.TokenBucketLimiter;
+import com.portfolio.spring_ecommerce.util.VerifiedTokenCache;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ルートグループごとのトークンバケットで、リクエスト数を制限するフィルター（JWT認証フィルターの前に実行する）
+ * 認証系（/auth/login・/auth/register・/auth/refresh）はIPアドレス単位、商品（/products）とユーザー（/user）はユーザー単位で制限する。
+ * ユーザーの判定は検証済みトークンのキャッシュだけで行い、ここでは署名を検証しない
+ * （キャッシュにないトークンのリクエストや未認証のリクエストはIPアドレス単位で制限する）。
+ * キャッシュから取得したクレームはリクエスト属性に保存し、JWT認証フィルターで同じ検索を繰り返さないようにする。
+ * 上限を超えたリクエストには429とRetry-Afterヘッダーを返す。
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    // 検証済みトークンのキャッシュから取得したクレームを保存するリクエスト属性名
+    public static final String VERIFIED_CLAIMS_ATTRIBUTE = RateLimitFilter.class.getName() + ".claims";
+
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final boolean enabled;
+    private final TokenBucketLimiter authLimiter;
+    private final TokenBucketLimiter productsLimiter;
+    private final TokenBucketLimiter userLimiter;
+
+    public RateLimitFilter(VerifiedTokenCache verifiedTokenCache,
+                           @Value("${rate-limit.enabled:true}") boolean enabled,
+                           @Value("${rate-limit.max-keys:100000}") long maxKeys,
+                           @Value("${rate-limit.auth.capacity:10}") int authCapacity,
+                           @Value("${rate-limit.auth.refill-per-second:0.2}") double authRefillPerSecond,
+                           @Value("${rate-limit.products.capacity:100}") int productsCapacity,
+                           @Value("${rate-limit.products.refill-per-second:20}") double productsRefillPerSecond,
+                           @Value("${rate-limit.user.capacity:50}") int userCapacity,
+                           @Value("${rate-limit.user.refill-per-second:10}") double userRefillPerSecond) {
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.enabled = enabled;
+        this.authLimiter = limiter(authCapacity, authRefillPerSecond, maxKeys);
+        this.productsLimiter = limiter(productsCapacity, productsRefillPerSecond, maxKeys);
+        this.userLimiter = limiter(userCapacity, userRefillPerSecond, maxKeys);
+    }
+
+    // 容量が0以下のグループは制限しない
+    private static TokenBucketLimiter limiter(int capacity, double refillPerSecond, long maxKeys) {
+        return capacity > 0 ? new TokenBucketLimiter(capacity, refillPerSecond, maxKeys) : null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        TokenBucketLimiter limiter = enabled ? limiterFor(request.getRequestURI()) : null;
+        if (limiter != null) {
+            // 認証系はログイン前のリクエストのため、常にIPアドレス単位で制限する
+            Object key = limiter == authLimiter ? request.getRemoteAddr() : clientKey(request);
+            long waitNanos = limiter.tryAcquire(key);
+            if (waitNanos > 0) {
+                long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+                response.setContentType("text/plain;charset=UTF-8");
+                response.getWriter().write("リクエストが多すぎます。しばらくしてから再試行してください");
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * パスからルートグループのリミッターを返す（制限しないパスはnull）
+     */
+    private TokenBucketLimiter limiterFor(String path) {
+        if (path.startsWith("/user/")) {
+            return userLimiter;
+        }
+        if (path.equals("/products") || path.startsWith("/products/")) {
+            return productsLimiter;
+        }
+        if (path.equals("/auth/login") || path.equals("/auth/register") || path.equals("/auth/refresh")) {
+            return authLimiter;
+        }
+        return null;
+    }
+
+    /**
+     * 検証済みトークンのユーザーIDをキーとし、それ以外はIPアドレスをキーとする
+     */
+    private Object clientKey(HttpServletRequest request) {
+        String authorizationHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
+            JwtClaims claims = verifiedTokenCache.peek(authorizationHeader.substring(7));
+            if (claims != null && claims.userId() != null) {
+                request.setAttribute(VERIFIED_CLAIMS_ATTRIBUTE, claims);
+                return claims.userId();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,72 @@
+package com.portfolio.spring_ecommerce.gateway;
+
+/**
+ * 連続失敗回数に基づく単純なサーキットブレーカー。
+ * CLOSED → （連続失敗がしきい値に達する）→ OPEN → （一定時間経過）→ HALF_OPEN（試行1件のみ許可）→ 成功でCLOSED / 失敗でOPEN
+ */
+class CircuitBreaker {
+
+    enum State { CLOSED, HALF_OPEN, OPEN }
+
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openMillis * 1_000_000L;
+    }
+
+    /**
+     * 呼び出しを許可するかどうかを判定する（HALF_OPENでは試行中の呼び出しが終わるまで他を拒否する）。
+     * @return 呼び出してよい場合true
+     */
+    synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openedAt < openNanos) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                trialInFlight = true;
+                return true;
+            default:
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+                return true;
+        }
+    }
+
+    synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+            consecutiveFailures = 0;
+            trialInFlight = false;
+        }
+    }
+
+    // 呼び出しが実行されなかった場合（バルクヘッド満杯など）は成否に数えず、試行枠だけを返却する
+    synchronized void onNotExecuted() {
+        trialInFlight = false;
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+}
\ No newline at end of file
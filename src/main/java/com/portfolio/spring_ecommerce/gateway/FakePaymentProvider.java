@@ -0,0 +1,134 @@
+package com.portfolio.spring_ecommerce.gateway;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * プロセス内で動作するStripeの代替プロバイダー。
+ * 外部ネットワークなしで負荷試験を行うためのもので、遅延と失敗率を設定で再現できる。
+ * 作成したPaymentIntentと冪等キーは件数と保持期間に上限を設けて保持する（長時間の負荷試験でもメモリを使い切らない）。
+ */
+@Component
+@ConditionalOnProperty(name = "payment.provider", havingValue = "fake")
+public class FakePaymentProvider implements PaymentProvider {
+
+    private final Cache<String, FakeIntent> intents;
+    private final Cache<String, String> idempotencyKeys;
+    private final long latencyMs;
+    private final double failureRate;
+    // 作成からこの時間が経過したPaymentIntentを支払い済み（succeeded）として返す（負の値で無効）
+    private final long autoConfirmAfterMs;
+
+    /**
+     * FakePaymentProviderのコンストラクタ。
+     * @param latencyMs 呼び出しごとの疑似的な遅延（ミリ秒）
+     * @param failureRate プロバイダー障害を発生させる割合（0.0〜1.0）
+     * @param maxIntents 保持するPaymentIntent数の上限
+     * @param ttlMinutes PaymentIntentと冪等キーの保持期間（分）
+     * @param autoConfirmAfterMs 作成から支払い済みになるまでの時間（ミリ秒、負の値で自動では支払い済みにしない）
+     */
+    public FakePaymentProvider(@Value("${payment.fake.latency-ms:50}") long latencyMs,
+                               @Value("${payment.fake.failure-rate:0.0}") double failureRate,
+                               @Value("${payment.fake.max-intents:100000}") long maxIntents,
+                               @Value("${payment.fake.ttl-minutes:60}") long ttlMinutes,
+                               @Value("${payment.fake.auto-confirm-after-ms:-1}") long autoConfirmAfterMs) {
+        this.latencyMs = latencyMs;
+        this.failureRate = failureRate;
+        this.autoConfirmAfterMs = autoConfirmAfterMs;
+        this.intents = Caffeine.newBuilder()
+                .maximumSize(maxIntents)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .build();
+        this.idempotencyKeys = Caffeine.newBuilder()
+                .maximumSize(maxIntents)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .build();
+    }
+
+    @Override
+    public PaymentIntentSnapshot createPaymentIntent(PaymentIntentRequest request) {
+        simulateCall();
+        // 同じ冪等キーでの作成は最初に作成したPaymentIntentを返す
+        String id = idempotencyKeys.get(request.idempotencyKey(), key -> {
+            String newId = "pi_fake_" + UUID.randomUUID().toString().replace("-", "");
+            intents.put(newId, new FakeIntent(new PaymentIntentSnapshot(
+                    newId, "requires_payment_method", newId + "_secret_fake", request.amountMinor(), request.currency()),
+                    System.currentTimeMillis()));
+            return newId;
+        });
+        FakeIntent intent = intents.getIfPresent(id);
+        if (intent == null) {
+            // 冪等キーより先にPaymentIntentが追い出された場合は見つからない扱いにする
+            throw new PaymentGatewayException(PaymentGatewayException.Reason.NOT_FOUND,
+                    "PaymentIntentが見つかりません: " + id);
+        }
+        return current(intent);
+    }
+
+    @Override
+    public PaymentIntentSnapshot retrievePaymentIntent(String paymentIntentId) {
+        simulateCall();
+        FakeIntent intent = intents.getIfPresent(paymentIntentId);
+        if (intent == null) {
+            throw new PaymentGatewayException(PaymentGatewayException.Reason.NOT_FOUND,
+                    "PaymentIntentが見つかりません: " + paymentIntentId);
+        }
+        return current(intent);
+    }
+
+    /**
+     * 顧客が支払いを完了したものとしてPaymentIntentを支払い済み（succeeded）にする。
+     * 以降の取得（定期照合を含む）は支払い済みの状態を返す。
+     * @param paymentIntentId PaymentIntent ID
+     * @return 支払い済みにしたPaymentIntent
+     * @throws PaymentGatewayException PaymentIntentが存在しない場合（NOT_FOUND）
+     */
+    public PaymentIntentSnapshot confirmPaymentIntent(String paymentIntentId) {
+        FakeIntent confirmed = intents.asMap().computeIfPresent(paymentIntentId,
+                (id, intent) -> new FakeIntent(withStatus(intent.snapshot(), "succeeded"), intent.createdAtMillis()));
+        if (confirmed == null) {
+            throw new PaymentGatewayException(PaymentGatewayException.Reason.NOT_FOUND,
+                    "PaymentIntentが見つかりません: " + paymentIntentId);
+        }
+        return confirmed.snapshot();
+    }
+
+    // 自動で支払い済みにする設定の場合、作成からの経過時間に応じた状態を返す
+    private PaymentIntentSnapshot current(FakeIntent intent) {
+        if (autoConfirmAfterMs >= 0 && intent.snapshot().isReusable()
+                && System.currentTimeMillis() - intent.createdAtMillis() >= autoConfirmAfterMs) {
+            return withStatus(intent.snapshot(), "succeeded");
+        }
+        return intent.snapshot();
+    }
+
+    private static PaymentIntentSnapshot withStatus(PaymentIntentSnapshot snapshot, String status) {
+        return new PaymentIntentSnapshot(snapshot.id(), status, snapshot.clientSecret(), snapshot.amountMinor(), snapshot.currency());
+    }
+
+    // 設定された遅延を挟み、失敗率に応じてプロバイダー障害を発生させる
+    private void simulateCall() {
+        if (latencyMs > 0) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new PaymentGatewayException(PaymentGatewayException.Reason.PROVIDER_UNAVAILABLE, "呼び出しが中断されました", e);
+            }
+        }
+        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new PaymentGatewayException(PaymentGatewayException.Reason.PROVIDER_UNAVAILABLE, "疑似的なプロバイダー障害");
+        }
+    }
+
+    // 保持しているPaymentIntentと作成時刻
+    private record FakeIntent(PaymentIntentSnapshot snapshot, long createdAtMillis) {
+    }
+}
\ No newline at end of file
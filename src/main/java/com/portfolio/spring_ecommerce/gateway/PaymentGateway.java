@@ -0,0 +1,175 @@
+package com.portfolio.spring_ecommerce.gateway;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 決済プロバイダー呼び出しを非同期に実行するゲートウェイ。
+ * 専用の有界スレッドプール（バルクヘッド）、呼び出しごとのタイムアウト、サーキットブレーカーを適用し、
+ * プロバイダーの遅延や障害がリクエスト処理スレッドを占有しないようにする。
+ * 呼び出し結果は payment.gateway.calls（operation, outcome タグ付き）として計測する。
+ */
+@Component
+public class PaymentGateway {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentGateway.class);
+
+    private final PaymentProvider provider;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor executor;
+    private final CircuitBreaker circuitBreaker;
+    private final long timeoutMs;
+
+    /**
+     * PaymentGatewayのコンストラクタ。
+     * @param provider 決済プロバイダー
+     * @param meterRegistry メトリクスの登録先
+     * @param concurrency プロバイダーへの最大同時呼び出し数
+     * @param queueCapacity 同時呼び出し数を超えた場合に待機できる件数（超えた呼び出しは即座に失敗する）
+     * @param timeoutMs 呼び出し1件あたりのタイムアウト（待機時間を含む）
+     * @param failureThreshold サーキットブレーカーを開く連続失敗回数
+     * @param openMs サーキットブレーカーが開いている時間
+     */
+    public PaymentGateway(PaymentProvider provider, MeterRegistry meterRegistry,
+                          @Value("${payment.gateway.concurrency:10}") int concurrency,
+                          @Value("${payment.gateway.queue-capacity:20}") int queueCapacity,
+                          @Value("${payment.gateway.timeout-ms:3000}") long timeoutMs,
+                          @Value("${payment.gateway.circuit.failure-threshold:5}") int failureThreshold,
+                          @Value("${payment.gateway.circuit.open-ms:30000}") long openMs) {
+        this.provider = provider;
+        this.meterRegistry = meterRegistry;
+        this.timeoutMs = timeoutMs;
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openMs);
+        this.executor = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory(), new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("payment.gateway.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+        Gauge.builder("payment.gateway.queued", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("payment.gateway.circuit.state", circuitBreaker, cb -> cb.getState().ordinal())
+                .description("0=CLOSED, 1=HALF_OPEN, 2=OPEN")
+                .register(meterRegistry);
+    }
+
+    /**
+     * PaymentIntentを非同期に作成する。
+     * @param request 作成リクエスト
+     * @return 作成結果。失敗時はPaymentGatewayExceptionで例外完了する
+     */
+    public CompletableFuture<PaymentIntentSnapshot> createPaymentIntent(PaymentIntentRequest request) {
+        return call("create", () -> provider.createPaymentIntent(request));
+    }
+
+    /**
+     * PaymentIntentを非同期に取得する。
+     * @param paymentIntentId PaymentIntent ID
+     * @return 取得結果。失敗時はPaymentGatewayExceptionで例外完了する
+     */
+    public CompletableFuture<PaymentIntentSnapshot> retrievePaymentIntent(String paymentIntentId) {
+        return call("retrieve", () -> provider.retrievePaymentIntent(paymentIntentId));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> CompletableFuture<T> call(String operation, Supplier<T> action) {
+        long start = System.nanoTime();
+
+        // サーキットが開いている間はプロバイダーを呼ばずに即座に失敗させる
+        if (!circuitBreaker.tryAcquire()) {
+            return rejected(operation, start, PaymentGatewayException.Reason.CIRCUIT_OPEN, "決済プロバイダーへの呼び出しを一時停止しています");
+        }
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = executor.submit(() -> {
+                try {
+                    result.complete(action.get());
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            circuitBreaker.onNotExecuted();
+            return rejected(operation, start, PaymentGatewayException.Reason.BULKHEAD_FULL, "決済プロバイダーへの同時呼び出し数が上限に達しました");
+        }
+
+        return result.orTimeout(timeoutMs, TimeUnit.MILLISECONDS).handle((value, error) -> {
+            if (error == null) {
+                circuitBreaker.onSuccess();
+                record(operation, start, "success");
+                return value;
+            }
+            PaymentGatewayException failure = translate(error);
+            if (failure.getReason() == PaymentGatewayException.Reason.TIMEOUT) {
+                task.cancel(true);
+            }
+            // 要求の拒否・存在しない（4xx）はプロバイダーが応答しているためブレーカーの失敗には数えない
+            if (failure.getReason() == PaymentGatewayException.Reason.PROVIDER_REJECTED
+                    || failure.getReason() == PaymentGatewayException.Reason.NOT_FOUND) {
+                circuitBreaker.onSuccess();
+            } else {
+                circuitBreaker.onFailure();
+            }
+            record(operation, start, failure.getReason().name());
+            throw new CompletionException(failure);
+        });
+    }
+
+    private <T> CompletableFuture<T> rejected(String operation, long start, PaymentGatewayException.Reason reason, String message) {
+        record(operation, start, reason.name());
+        return CompletableFuture.failedFuture(new PaymentGatewayException(reason, message));
+    }
+
+    private PaymentGatewayException translate(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof PaymentGatewayException gatewayException) {
+            return gatewayException;
+        }
+        if (cause instanceof TimeoutException) {
+            return new PaymentGatewayException(PaymentGatewayException.Reason.TIMEOUT,
+                    "決済プロバイダーの呼び出しがタイムアウトしました（" + timeoutMs + "ms）", cause);
+        }
+        log.warn("決済プロバイダーの呼び出しで予期しない例外が発生しました", cause);
+        return new PaymentGatewayException(PaymentGatewayException.Reason.PROVIDER_UNAVAILABLE, cause.getMessage(), cause);
+    }
+
+    private void record(String operation, long start, String outcome) {
+        Timer.builder("payment.gateway.calls")
+                .tag("operation", operation)
+                .tag("outcome", outcome.toLowerCase(Locale.ROOT))
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "payment-gateway-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
\ No newline at end of file
@@ -0,0 +1,50 @@
+package com.portfolio.spring_ecommerce.gateway;
+
+/**
+ * 決済ゲートウェイ呼び出しの失敗を表す例外。
+ * 失敗の理由によって、サーキットブレーカーの失敗として数えるかと、クライアントへの応答コードが決まる。
+ */
+public class PaymentGatewayException extends RuntimeException {
+
+    /**
+     * 失敗の理由
+     */
+    public enum Reason {
+        // 呼び出しがタイムアウトした
+        TIMEOUT,
+        // 同時実行数と待ち行列が上限に達した
+        BULKHEAD_FULL,
+        // サーキットブレーカーが開いている
+        CIRCUIT_OPEN,
+        // プロバイダーが利用できない（通信エラー・5xx）
+        PROVIDER_UNAVAILABLE,
+        // プロバイダーが要求を拒否した（404以外の4xx）
+        PROVIDER_REJECTED,
+        // 指定したリソースがプロバイダーに存在しない（404）
+        NOT_FOUND
+    }
+
+    private final Reason reason;
+
+    public PaymentGatewayException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public PaymentGatewayException(Reason reason, String message, Throwable cause) {
+        super(message, cause);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    /**
+     * 一時的な障害（再試行や待機で回復しうる失敗）かどうかを判定する。
+     * @return サービス利用不可（503）として扱うべき場合true
+     */
+    public boolean isTransient() {
+        return reason == Reason.TIMEOUT || reason == Reason.BULKHEAD_FULL || reason == Reason.CIRCUIT_OPEN;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.portfolio.spring_ecommerce.gateway;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * 注文IDごとにPaymentIntentの状態とクライアントシークレットを保持する短TTLキャッシュ。
+ * 支払い再開の連打でプロバイダーへの取得が繰り返されないようにし、同じ注文への同時の取得は1回の呼び出しにまとめる。
+ * Webhook・照合で状態が変わった場合は無効化する。
+ */
+@Component
+public class PaymentIntentCache {
+
+    private final AsyncCache<Long, PaymentIntentSnapshot> cache;
+
+    /**
+     * PaymentIntentCacheのコンストラクタ。
+     * @param maxSize 保持する注文数の上限
+     * @param ttlSeconds 保持期間（秒）
+     * @param meterRegistry メトリクスの登録先（ヒット率などを cache.* として公開する）
+     */
+    public PaymentIntentCache(@Value("${payment.intent-cache.max-size:10000}") long maxSize,
+                              @Value("${payment.intent-cache.ttl-seconds:60}") long ttlSeconds,
+                              MeterRegistry meterRegistry) {
+        this.cache = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .<Long, PaymentIntentSnapshot>buildAsync(), "paymentIntents");
+    }
+
+    /**
+     * 注文のPaymentIntentを取得する。キャッシュにない場合、または注文のPaymentIntentが差し替えられている場合はloaderで取得する。
+     * 取得に失敗した結果はキャッシュに残らない。
+     * @param orderId 注文ID
+     * @param paymentIntentId 注文に記録されているPaymentIntent ID
+     * @param loader プロバイダーから取得する処理
+     * @return PaymentIntent
+     */
+    public CompletableFuture<PaymentIntentSnapshot> get(Long orderId, String paymentIntentId,
+                                                        Supplier<CompletableFuture<PaymentIntentSnapshot>> loader) {
+        return cache.get(orderId, (key, executor) -> loader.get())
+                .thenCompose(snapshot -> {
+                    if (paymentIntentId.equals(snapshot.id())) {
+                        return CompletableFuture.completedFuture(snapshot);
+                    }
+                    CompletableFuture<PaymentIntentSnapshot> reloaded = loader.get();
+                    cache.put(orderId, reloaded);
+                    return reloaded;
+                });
+    }
+
+    /**
+     * 作成・取得したPaymentIntentを記録する。
+     */
+    public void put(Long orderId, PaymentIntentSnapshot snapshot) {
+        cache.put(orderId, CompletableFuture.completedFuture(snapshot));
+    }
+
+    public void invalidate(Long orderId) {
+        cache.synchronous().invalidate(orderId);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.portfolio.spring_ecommerce.gateway;
+
+/**
+ * PaymentIntentの作成リクエスト。
+ * @param orderId 注文ID（メタデータとしてプロバイダーに渡す）
+ * @param amountMinor 金額（最小通貨単位）
+ * @param currency 通貨コード
+ * @param idempotencyKey 冪等キー（同じキーの再送ではプロバイダーが同じPaymentIntentを返す）
+ */
+public record PaymentIntentRequest(long orderId, long amountMinor, String currency, String idempotencyKey) {
+
+    /**
+     * 注文・金額・置き換え対象のPaymentIntentから決まる冪等キーでリクエストを作成する。
+     * 同じ注文への同時・重複の作成は同じキーとなり、プロバイダー側でも1件にまとまる。
+     * 既存のPaymentIntentを置き換える場合は、そのIDをキーに含めて新しいPaymentIntentを作成できるようにする。
+     * @param orderId 注文ID
+     * @param amountMinor 金額（最小通貨単位）
+     * @param currency 通貨コード
+     * @param replacedPaymentIntentId 置き換える既存のPaymentIntent ID（ない場合はnull）
+     * @return 作成リクエスト
+     */
+    public static PaymentIntentRequest forOrder(long orderId, long amountMinor, String currency, String replacedPaymentIntentId) {
+        String key = "order-" + orderId + "-" + amountMinor + currency
+                + (replacedPaymentIntentId != null ? "-after-" + replacedPaymentIntentId : "");
+        return new PaymentIntentRequest(orderId, amountMinor, currency, key);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.portfolio.spring_ecommerce.gateway;
+
+import com.stripe.model.PaymentIntent;
+
+/**
+ * プロバイダーから取得したPaymentIntentの内容。
+ * @param id PaymentIntent ID
+ * @param status ステータス（requires_payment_method など）
+ * @param clientSecret クライアントシークレット
+ * @param amountMinor 金額（最小通貨単位）
+ * @param currency 通貨コード
+ */
+public record PaymentIntentSnapshot(String id, String status, String clientSecret, long amountMinor, String currency) {
+
+    /**
+     * StripeのPaymentIntentから作成する。
+     * @param paymentIntent StripeのPaymentIntent（API応答またはWebhookイベントの内容）
+     * @return PaymentIntentの内容
+     */
+    public static PaymentIntentSnapshot of(PaymentIntent paymentIntent) {
+        return new PaymentIntentSnapshot(
+                paymentIntent.getId(),
+                paymentIntent.getStatus(),
+                paymentIntent.getClientSecret(),
+                paymentIntent.getAmount() != null ? paymentIntent.getAmount() : 0L,
+                paymentIntent.getCurrency());
+    }
+
+    /**
+     * 顧客の操作で支払いを続行できる状態かどうか（既存のPaymentIntentを再利用できるか）を判定する。
+     * @return 再利用可能な場合true
+     */
+    public boolean isReusable() {
+        return "requires_payment_method".equals(status)
+                || "requires_confirmation".equals(status)
+                || "requires_action".equals(status);
+    }
+
+    /**
+     * キャンセル済み（これ以上支払いに使えない）かどうかを判定する。
+     * @return キャンセル済みの場合true
+     */
+    public boolean isCanceled() {
+        return "canceled".equals(status);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.portfolio.spring_ecommerce.gateway;
+
+/**
+ * 決済プロバイダーへの同期呼び出しを表すインターフェース。
+ * 呼び出しはPaymentGatewayの専用スレッドプール上で実行され、タイムアウトやサーキットブレーカーはゲートウェイ側で適用する。
+ */
+public interface PaymentProvider {
+
+    /**
+     * PaymentIntentを作成する。
+     * @param request 作成リクエスト
+     * @return 作成されたPaymentIntent
+     * @throws PaymentGatewayException プロバイダーが要求を拒否した場合や通信に失敗した場合
+     */
+    PaymentIntentSnapshot createPaymentIntent(PaymentIntentRequest request);
+
+    /**
+     * PaymentIntentを取得する。
+     * @param paymentIntentId PaymentIntent ID
+     * @return 取得したPaymentIntent
+     * @throws PaymentGatewayException プロバイダーが要求を拒否した場合や通信に失敗した場合
+     */
+    PaymentIntentSnapshot retrievePaymentIntent(String paymentIntentId);
+}
\ No newline at end of file
@@ -0,0 +1,163 @@
+package com.portfolio.spring_ecommerce.gateway;
+
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.net.HttpClient;
+import com.stripe.net.HttpContent;
+import com.stripe.net.HttpHeaders;
+import com.stripe.net.StripeRequest;
+import com.stripe.net.StripeResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.io.support.ClassicRequestBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * コネクションプールを持つStripe用HTTPクライアント。
+ * 標準のHttpURLConnectionClientに代えて使用し、keep-aliveした接続を再利用することでTLSハンドシェイクを減らす。
+ * 再試行はStripe SDKの requestWithRetries（指数バックオフ＋ジッター）に任せ、ここでは1回の送信ごとに
+ * stripe.http.requests（method, resource, status タグ付き）を計測する。
+ */
+public class PooledStripeHttpClient extends HttpClient implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(PooledStripeHttpClient.class);
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * PooledStripeHttpClientのコンストラクタ。
+     * @param maxConnections プールの最大接続数（Stripeは単一ホストのため、ホストあたりの上限も同じ値にする）
+     * @param connectTimeoutMs 接続タイムアウト
+     * @param keepAliveMs アイドル接続を保持する時間（これを超えたアイドル接続は破棄する）
+     * @param meterRegistry メトリクスの登録先
+     */
+    public PooledStripeHttpClient(int maxConnections, int connectTimeoutMs, long keepAliveMs, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        // 長時間アイドルだった接続は再利用前に検証する（サーバー側で切断されている場合がある）
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy((response, context) -> TimeValue.ofMilliseconds(keepAliveMs))
+                .evictIdleConnections(TimeValue.ofMilliseconds(keepAliveMs))
+                .evictExpiredConnections()
+                // 再試行はStripe SDK側で行う（冪等キーの付与と合わせるため）
+                .disableAutomaticRetries()
+                .disableCookieManagement()
+                .build();
+
+        Gauge.builder("stripe.http.pool.leased", connectionManager, cm -> cm.getTotalStats().getLeased()).register(meterRegistry);
+        Gauge.builder("stripe.http.pool.available", connectionManager, cm -> cm.getTotalStats().getAvailable()).register(meterRegistry);
+        Gauge.builder("stripe.http.pool.pending", connectionManager, cm -> cm.getTotalStats().getPending()).register(meterRegistry);
+    }
+
+    @Override
+    public StripeResponse request(StripeRequest request) throws ApiConnectionException {
+        long start = System.nanoTime();
+        String status = "io_error";
+        try {
+            StripeResponse response = httpClient.execute(toHttpRequest(request), toContext(request), httpResponse -> {
+                String body = httpResponse.getEntity() != null
+                        ? EntityUtils.toString(httpResponse.getEntity(), StandardCharsets.UTF_8)
+                        : "";
+                return new StripeResponse(httpResponse.getCode(), toStripeHeaders(httpResponse.getHeaders()), body);
+            });
+            status = String.valueOf(response.code());
+            log.debug("Stripe API呼び出し: {} {} -> {} (requestId={})",
+                    request.method(), request.url().getPath(), response.code(), response.requestId());
+            return response;
+        } catch (IOException e) {
+            throw new ApiConnectionException(String.format(
+                    "Stripe APIへのリクエスト中にIOExceptionが発生しました (%s): %s", request.url(), e.getMessage()), e);
+        } finally {
+            Timer.builder("stripe.http.requests")
+                    .tag("method", request.method().name())
+                    .tag("resource", resourceOf(request))
+                    .tag("status", status)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        httpClient.close();
+    }
+
+    private ClassicHttpRequest toHttpRequest(StripeRequest request) {
+        ClassicRequestBuilder builder = ClassicRequestBuilder.create(request.method().name())
+                .setUri(request.url().toString())
+                .addHeader("User-Agent", buildUserAgentString(request))
+                .addHeader("X-Stripe-Client-User-Agent", buildXStripeClientUserAgentString());
+        for (Map.Entry<String, List<String>> header : request.headers().map().entrySet()) {
+            for (String value : header.getValue()) {
+                builder.addHeader(header.getKey(), value);
+            }
+        }
+
+        HttpContent content = request.content();
+        if (content != null) {
+            builder.setEntity(new ByteArrayEntity(content.byteArrayContent(), ContentType.parse(content.contentType())));
+        }
+
+        return builder.build();
+    }
+
+    // 読み取りタイムアウトはリクエストごとの設定（RequestOptions）に従う
+    private HttpClientContext toContext(StripeRequest request) {
+        HttpClientContext context = HttpClientContext.create();
+        Integer readTimeout = request.options().getReadTimeout();
+        if (readTimeout != null && readTimeout > 0) {
+            context.setRequestConfig(RequestConfig.custom()
+                    .setResponseTimeout(Timeout.ofMilliseconds(readTimeout))
+                    .build());
+        }
+        return context;
+    }
+
+    private HttpHeaders toStripeHeaders(Header[] headers) {
+        Map<String, List<String>> map = new LinkedHashMap<>();
+        for (Header header : headers) {
+            map.computeIfAbsent(header.getName(), name -> new ArrayList<>()).add(header.getValue());
+        }
+        return HttpHeaders.of(map);
+    }
+
+    // IDを含むパスをそのままタグにしないよう、/v1/ 直下のリソース名だけを使う
+    private String resourceOf(StripeRequest request) {
+        String[] segments = request.url().getPath().split("/");
+        return segments.length > 2 ? segments[2] : "unknown";
+    }
+}
\ No newline at end of file
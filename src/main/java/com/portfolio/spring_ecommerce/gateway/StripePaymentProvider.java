@@ -0,0 +1,75 @@
+package com.portfolio.spring_ecommerce.gateway;
+
+import com.stripe.StripeClient;
+import com.stripe.exception.StripeException;
+import com.stripe.net.RequestOptions;
+import com.stripe.param.PaymentIntentCreateParams;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stripe APIを呼び出す決済プロバイダー。
+ * 接続設定（タイムアウト・再試行・コネクションプール）はStripeConfigで構成したStripeClientに従い、
+ * StripeExceptionをPaymentGatewayExceptionに変換する。
+ */
+@Component
+@ConditionalOnProperty(name = "payment.provider", havingValue = "stripe", matchIfMissing = true)
+public class StripePaymentProvider implements PaymentProvider {
+
+    private final StripeClient stripeClient;
+
+    public StripePaymentProvider(StripeClient stripeClient) {
+        this.stripeClient = stripeClient;
+    }
+
+    @Override
+    public PaymentIntentSnapshot createPaymentIntent(PaymentIntentRequest request) {
+        PaymentIntentCreateParams params =
+                PaymentIntentCreateParams.builder()
+                        .setAmount(request.amountMinor())
+                        .setCurrency(request.currency())
+                        .putMetadata("orderId", String.valueOf(request.orderId()))
+                        .setAutomaticPaymentMethods(
+                                PaymentIntentCreateParams.AutomaticPaymentMethods.builder()
+                                    .setEnabled(true)
+                                    .setAllowRedirects(PaymentIntentCreateParams.AutomaticPaymentMethods.AllowRedirects.NEVER)
+                                    .build()
+                        )
+                        .build();
+        try {
+            return PaymentIntentSnapshot.of(stripeClient.v1().paymentIntents().create(params, requestOptions(request)));
+        } catch (StripeException e) {
+            throw translate(e);
+        }
+    }
+
+    @Override
+    public PaymentIntentSnapshot retrievePaymentIntent(String paymentIntentId) {
+        try {
+            return PaymentIntentSnapshot.of(stripeClient.v1().paymentIntents().retrieve(paymentIntentId));
+        } catch (StripeException e) {
+            throw translate(e);
+        }
+    }
+
+    // 冪等キーを指定する（SDKの自動再試行とアプリケーションからの重複作成の両方で同じPaymentIntentが返る）
+    private RequestOptions requestOptions(PaymentIntentRequest request) {
+        return RequestOptions.builder()
+                .setIdempotencyKey(request.idempotencyKey())
+                .build();
+    }
+
+    // 通信エラー（ステータスなし）・429・5xxはプロバイダー障害、404は存在しない、それ以外（4xx）は要求の拒否として扱う
+    private PaymentGatewayException translate(StripeException e) {
+        Integer status = e.getStatusCode();
+        PaymentGatewayException.Reason reason;
+        if (status == null || status == 0 || status == 429 || status >= 500) {
+            reason = PaymentGatewayException.Reason.PROVIDER_UNAVAILABLE;
+        } else if (status == 404) {
+            reason = PaymentGatewayException.Reason.NOT_FOUND;
+        } else {
+            reason = PaymentGatewayException.Reason.PROVIDER_REJECTED;
+        }
+        return new PaymentGatewayException(reason, e.getMessage(), e);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,112 @@
+package com.portfolio.spring_ecommerce.model;
+
+import com.portfolio.spring_ecommerce.model.enums.OrderStatus;
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// アーカイブ済み注文エンティティ（支払い済み・キャンセル済みの古い注文、読み取り専用）
+@Entity
+@Immutable
+@Table(name = "orders_archive")
+public class ArchivedOrder {
+
+    // 主キー（元の注文ID）
+    @Id
+    private Long id;
+
+    // ユーザー（注文者）
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    private User user;
+
+    // 注文アイテムのリスト
+    @OneToMany(mappedBy = "order")
+    private List<ArchivedOrderItem> orderItems = new ArrayList<>();
+
+    // 注文日時
+    @Column(name = "order_date", nullable = false)
+    private LocalDateTime orderDate;
+
+    // 注文ステータス
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderStatus status;
+
+    // 合計金額（最小通貨単位）
+    @Column(name = "total_amount_minor", nullable = false)
+    private long totalAmountMinor;
+
+    // 通貨
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    // 支払いIntent ID
+    @Column(name = "payment_intent_id")
+    private String paymentIntentId;
+
+    // アーカイブ日時
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    // 通常の注文として参照できるよう、永続化されないOrderに変換する
+    public Order toOrder() {
+        Order order = new Order();
+        order.setId(id);
+        order.setUser(user);
+        order.setOrderDate(orderDate);
+        order.setStatus(status);
+        order.setTotalAmountMinor(totalAmountMinor);
+        order.setCurrency(currency);
+        order.setPaymentIntentId(paymentIntentId);
+        for (ArchivedOrderItem archivedItem : orderItems) {
+            OrderItem item = new OrderItem();
+            item.setId(archivedItem.getId());
+            item.setProduct(archivedItem.getProduct());
+            item.setQuantity(archivedItem.getQuantity());
+            item.setPriceMinor(archivedItem.getPriceMinor());
+            order.addOrderItem(item);
+        }
+        return order;
+    }
+
+    // 以下、getter
+    public Long getId() {
+        return id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public List<ArchivedOrderItem> getOrderItems() {
+        return orderItems;
+    }
+
+    public LocalDateTime getOrderDate() {
+        return orderDate;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public long getTotalAmountMinor() {
+        return totalAmountMinor;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public String getPaymentIntentId() {
+        return paymentIntentId;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+}
\ No newline at end of file
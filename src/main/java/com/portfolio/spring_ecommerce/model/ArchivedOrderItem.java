@@ -0,0 +1,64 @@
+package com.portfolio.spring_ecommerce.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+// アーカイブ済み注文アイテムエンティティ（読み取り専用）
+@Entity
+@Immutable
+@Table(name = "order_items_archive")
+public class ArchivedOrderItem {
+
+    // 主キー（元の注文アイテムID）
+    @Id
+    private Long id;
+
+    // 注文（親）
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    private ArchivedOrder order;
+
+    // 注文日時
+    @Column(name = "order_date", nullable = false)
+    private LocalDateTime orderDate;
+
+    // 商品
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    private Product product;
+
+    // 数量
+    @Column(nullable = false)
+    private Integer quantity;
+
+    // 価格（最小通貨単位）
+    @Column(name = "price_minor", nullable = false)
+    private long priceMinor;
+
+    // 以下、getter
+    public Long getId() {
+        return id;
+    }
+
+    public ArchivedOrder getOrder() {
+        return order;
+    }
+
+    public LocalDateTime getOrderDate() {
+        return orderDate;
+    }
+
+    public Product getProduct() {
+        return product;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public long getPriceMinor() {
+        return priceMinor;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,87 @@
+package com.portfolio.spring_ecommerce.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// JWT署名鍵の公開鍵エンティティ（秘密鍵は署名したノードのメモリ上にのみ存在する）
+@Entity
+@Table(name = "jwt_public_keys")
+public class JwtPublicKey {
+
+    // 鍵ID（JWKのサムプリント。トークンのkidヘッダーに設定される）
+    @Id
+    @Column(name = "kid", length = 64)
+    private String kid;
+
+    // 署名アルゴリズム（ES256 または EdDSA）
+    @Column(name = "algorithm", nullable = false, length = 16)
+    private String algorithm;
+
+    // 公開鍵（X.509 SubjectPublicKeyInfo形式のDERをBase64で符号化したもの）
+    @Column(name = "public_key", nullable = false, columnDefinition = "text")
+    private String publicKey;
+
+    // 作成日時
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // 有効期限（この鍵で署名したトークンがすべて期限切れになる日時）
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // デフォルトコンストラクタ
+    public JwtPublicKey() {
+
+    }
+
+    // コンストラクタ（鍵ID・アルゴリズム・公開鍵・有効期限を指定）
+    public JwtPublicKey(String kid, String algorithm, String publicKey, LocalDateTime expiresAt) {
+        this.kid = kid;
+        this.algorithm = algorithm;
+        this.publicKey = publicKey;
+        this.createdAt = LocalDateTime.now();
+        this.expiresAt = expiresAt;
+    }
+
+    // 以下、getter/setter
+    public String getKid() {
+        return kid;
+    }
+
+    public void setKid(String kid) {
+        this.kid = kid;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(String algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public String getPublicKey() {
+        return publicKey;
+    }
+
+    public void setPublicKey(String publicKey) {
+        this.publicKey = publicKey;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
\ No newline at end of file
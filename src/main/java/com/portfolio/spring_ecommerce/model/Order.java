@@ -14,7 +14,8 @@ public class Order {
 
     // 主キー
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     // ユーザー（注文者）
@@ -35,12 +36,17 @@ public class Order {
     @Column(nullable = false)
     private OrderStatus status;
 
-    // 合計金額
-    @Column(nullable = false)
-    private Double totalAmount;
+    // 合計金額（最小通貨単位）
+    @Column(name = "total_amount_minor", nullable = false)
+    private long totalAmountMinor;
+
+    // 通貨（ISOコード、小文字）
+    @Column(nullable = false, length = 3)
+    private String currency;
 
-    // 支払いIntent ID（ユニーク）
-    @Column(unique = true)
+    // 支払いIntent ID
+    // パーティションをまたいだ一意制約は張れないため、一意性はorder_payment_intents（OrderPaymentIntent）で保証する
+    @Column
     private String paymentIntentId;
 
     // 以下、getter/setter
@@ -84,12 +90,20 @@ public class Order {
         this.status = status;
     }
 
-    public Double getTotalAmount() {
-        return totalAmount;
+    public long getTotalAmountMinor() {
+        return totalAmountMinor;
+    }
+
+    public void setTotalAmountMinor(long totalAmountMinor) {
+        this.totalAmountMinor = totalAmountMinor;
+    }
+
+    public String getCurrency() {
+        return currency;
     }
 
-    public void setTotalAmount(Double totalAmount) {
-        this.totalAmount = totalAmount;
+    public void setCurrency(String currency) {
+        this.currency = currency;
     }
 
     public String getPaymentIntentId() {
@@ -2,6 +2,8 @@ package com.portfolio.spring_ecommerce.model;
 
 import jakarta.persistence.*;
 
+import java.time.LocalDateTime;
+
 // 注文アイテムエンティティ
 @Entity
 @Table(name = "order_items")
@@ -9,14 +11,20 @@ public class OrderItem {
 
     // 主キー
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = 50)
     private Long id;
 
     // 注文（親）
+    // 外部キーは (order_id, order_date) の複合キーとしてマイグレーションで管理する
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "order_id", nullable = false)
+    @JoinColumn(name = "order_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private Order order;
 
+    // 注文日時（パーティションキー、保存時に親の注文から設定される）
+    @Column(name = "order_date", nullable = false, updatable = false)
+    private LocalDateTime orderDate;
+
     // 商品
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
@@ -26,9 +34,9 @@ public class OrderItem {
     @Column(nullable = false)
     private Integer quantity;
 
-    // 価格
-    @Column(nullable = false)
-    private Double price;
+    // 価格（注文時点の単価、最小通貨単位）
+    @Column(name = "price_minor", nullable = false)
+    private long priceMinor;
 
     // 以下、getter/setter
     public Long getId() {
@@ -63,11 +71,23 @@ public class OrderItem {
         this.quantity = quantity;
     }
 
-    public Double getPrice() {
-        return price;
+    public long getPriceMinor() {
+        return priceMinor;
+    }
+
+    public void setPriceMinor(long priceMinor) {
+        this.priceMinor = priceMinor;
+    }
+
+    public LocalDateTime getOrderDate() {
+        return orderDate;
     }
-    
-    public void setPrice(Double price) {
-        this.price = price;
+
+    // 保存前に親の注文日時を設定する（注文と同じパーティションに格納される）
+    @PrePersist
+    void copyOrderDate() {
+        if (orderDate == null && order != null) {
+            orderDate = order.getOrderDate();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.portfolio.spring_ecommerce.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// PaymentIntentと注文の対応エンティティ
+// ordersはorder_dateでパーティション分割しており、payment_intent_idの一意制約を張れないため、このテーブルで一意性を保証する
+// 注文の主キー（id, order_date）を持つため、PaymentIntent IDからの検索でもパーティションを絞り込める
+@Entity
+@Table(name = "order_payment_intents")
+public class OrderPaymentIntent {
+
+    // PaymentIntent ID（主キー、1つの注文にだけ対応する）
+    @Id
+    @Column(name = "payment_intent_id")
+    private String paymentIntentId;
+
+    // 注文ID
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    // 注文日時（注文のパーティションキー）
+    @Column(name = "order_date", nullable = false)
+    private LocalDateTime orderDate;
+
+    // デフォルトコンストラクタ
+    public OrderPaymentIntent() {
+
+    }
+
+    // 以下、getter/setter
+    public String getPaymentIntentId() {
+        return paymentIntentId;
+    }
+
+    public void setPaymentIntentId(String paymentIntentId) {
+        this.paymentIntentId = paymentIntentId;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    public LocalDateTime getOrderDate() {
+        return orderDate;
+    }
+
+    public void setOrderDate(LocalDateTime orderDate) {
+        this.orderDate = orderDate;
+    }
+}
\ No newline at end of file
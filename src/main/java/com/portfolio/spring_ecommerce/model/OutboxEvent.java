@@ -0,0 +1,167 @@
+package com.portfolio.spring_ecommerce.model;
+
+import com.portfolio.spring_ecommerce.model.enums.OrderEventType;
+import com.portfolio.spring_ecommerce.model.enums.OutboxEventStatus;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// アウトボックスエンティティ（外部システムへ配信する注文イベント）
+@Entity
+@Table(name = "outbox",
+        uniqueConstraints = @UniqueConstraint(name = "uk_outbox_aggregate_seq", columnNames = {"aggregate_id", "aggregate_seq"}))
+public class OutboxEvent {
+
+    // 主キー
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_seq")
+    @SequenceGenerator(name = "outbox_seq", sequenceName = "outbox_seq", allocationSize = 50)
+    private Long id;
+
+    // 集約ID（注文ID）
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    // 注文ごとの通し番号（注文の行ロック中に採番するため確定順と一致し、同じ注文のイベントはこの順に配信する）
+    @Column(name = "aggregate_seq", nullable = false)
+    private long aggregateSeq;
+
+    // イベント種別
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false)
+    private OrderEventType eventType;
+
+    // イベント本文（JSON）
+    @Column(name = "payload", nullable = false, columnDefinition = "text")
+    private String payload;
+
+    // 配信状態
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private OutboxEventStatus status;
+
+    // 次に配信してよい日時（再試行のバックオフ、配信中のリースにも使う）
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    // 作成日時
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // 配信完了日時（未配信の場合はnull）
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    // 配信試行回数
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    // 直近の配信エラー
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    // デフォルトコンストラクタ
+    public OutboxEvent() {
+
+    }
+
+    // コンストラクタ（集約ID・通し番号・種別・本文を指定し、すぐに配信できる状態で作成）
+    public OutboxEvent(Long aggregateId, long aggregateSeq, OrderEventType eventType, String payload) {
+        this.aggregateId = aggregateId;
+        this.aggregateSeq = aggregateSeq;
+        this.eventType = eventType;
+        this.payload = payload;
+        this.status = OutboxEventStatus.PENDING;
+        this.createdAt = LocalDateTime.now();
+        this.nextAttemptAt = this.createdAt;
+    }
+
+    // 以下、getter/setter
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getAggregateId() {
+        return aggregateId;
+    }
+
+    public void setAggregateId(Long aggregateId) {
+        this.aggregateId = aggregateId;
+    }
+
+    public long getAggregateSeq() {
+        return aggregateSeq;
+    }
+
+    public void setAggregateSeq(long aggregateSeq) {
+        this.aggregateSeq = aggregateSeq;
+    }
+
+    public OrderEventType getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(OrderEventType eventType) {
+        this.eventType = eventType;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public OutboxEventStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OutboxEventStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getPublishedAt() {
+        return publishedAt;
+    }
+
+    public void setPublishedAt(LocalDateTime publishedAt) {
+        this.publishedAt = publishedAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
\ No newline at end of file
@@ -5,7 +5,9 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import com.portfolio.spring_ecommerce.util.Money;
 import java.math.BigDecimal;
 
 // 商品エンティティ
@@ -15,7 +17,8 @@ public class Product {
 
     // 主キー
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
@@ -31,9 +34,9 @@ public class Product {
     @Column(name = "description")
     private String description;
 
-    // 単価
-    @Column(name = "unit_price")
-    private BigDecimal unitPrice;
+    // 単価（最小通貨単位）
+    @Column(name = "unit_price_minor", nullable = false)
+    private long unitPriceMinor;
 
     // 商品ステータス（販売中かどうか）
     @Column(name = "status")
@@ -80,12 +83,21 @@ public class Product {
         this.description = description;
     }
 
+    public long getUnitPriceMinor() {
+        return unitPriceMinor;
+    }
+
+    public void setUnitPriceMinor(long unitPriceMinor) {
+        this.unitPriceMinor = unitPriceMinor;
+    }
+
+    // 単価（表示・API入力用、最小通貨単位から変換）
     public BigDecimal getUnitPrice() {
-        return unitPrice;
+        return Money.toMajor(unitPriceMinor);
     }
 
     public void setUnitPrice(BigDecimal unitPrice) {
-        this.unitPrice = unitPrice;
+        this.unitPriceMinor = unitPrice == null ? 0 : Money.toMinor(unitPrice);
     }
 
     public Boolean getStatus() {
@@ -0,0 +1,127 @@
+package com.portfolio.spring_ecommerce.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// リフレッシュトークンエンティティ（トークン本体は保存せず、SHA-256ハッシュのみを保持する）
+@Entity
+@Table(name = "refresh_tokens",
+        uniqueConstraints = @UniqueConstraint(name = "uk_refresh_tokens_token_hash", columnNames = "token_hash"))
+public class RefreshToken {
+
+    // 主キー
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "refresh_tokens_seq")
+    @SequenceGenerator(name = "refresh_tokens_seq", sequenceName = "refresh_tokens_seq", allocationSize = 50)
+    private Long id;
+
+    // トークンの所有ユーザー
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false, foreignKey = @ForeignKey(name = "fk_refresh_tokens_user"))
+    private User user;
+
+    // 系列ID（ログイン時に採番し、更新で発行したトークンに引き継ぐ）
+    @Column(name = "family_id", nullable = false)
+    private UUID familyId;
+
+    // トークンのSHA-256ハッシュ（16進数）
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+
+    // 有効期限
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // 発行日時
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // 使用日時（更新に使用済みの場合。再提示は盗用とみなす）
+    @Column(name = "used_at")
+    private LocalDateTime usedAt;
+
+    // 失効日時（ログアウト、または再使用の検知で系列ごと失効させた場合）
+    @Column(name = "revoked_at")
+    private LocalDateTime revokedAt;
+
+    // デフォルトコンストラクタ
+    public RefreshToken() {
+
+    }
+
+    // コンストラクタ（ユーザー・系列ID・ハッシュ・有効期限を指定）
+    public RefreshToken(User user, UUID familyId, String tokenHash, LocalDateTime expiresAt) {
+        this.user = user;
+        this.familyId = familyId;
+        this.tokenHash = tokenHash;
+        this.expiresAt = expiresAt;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // 以下、getter/setter
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public UUID getFamilyId() {
+        return familyId;
+    }
+
+    public void setFamilyId(UUID familyId) {
+        this.familyId = familyId;
+    }
+
+    public String getTokenHash() {
+        return tokenHash;
+    }
+
+    public void setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUsedAt() {
+        return usedAt;
+    }
+
+    public void setUsedAt(LocalDateTime usedAt) {
+        this.usedAt = usedAt;
+    }
+
+    public LocalDateTime getRevokedAt() {
+        return revokedAt;
+    }
+
+    public void setRevokedAt(LocalDateTime revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,76 @@
+package com.portfolio.spring_ecommerce.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// 失効させたJWTエンティティ（トークン本体は保存せず、トークンIDと有効期限のみを保持する）
+@Entity
+@Table(name = "revoked_tokens",
+        uniqueConstraints = @UniqueConstraint(name = "uk_revoked_tokens_token_id", columnNames = "token_id"))
+public class RevokedToken {
+
+    // 主キー（各ノードはこの値の高水位線より後の行を読み込む）
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "revoked_tokens_seq")
+    @SequenceGenerator(name = "revoked_tokens_seq", sequenceName = "revoked_tokens_seq", allocationSize = 1)
+    private Long id;
+
+    // トークンID（jti、または旧形式のトークンのダイジェスト）
+    @Column(name = "token_id", nullable = false)
+    private UUID tokenId;
+
+    // トークンの有効期限（これ以降は失効情報が不要になる）
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // 失効日時
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+
+    // デフォルトコンストラクタ
+    public RevokedToken() {
+
+    }
+
+    // コンストラクタ（トークンIDと有効期限を指定）
+    public RevokedToken(UUID tokenId, LocalDateTime expiresAt) {
+        this.tokenId = tokenId;
+        this.expiresAt = expiresAt;
+        this.revokedAt = LocalDateTime.now();
+    }
+
+    // 以下、getter/setter
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public UUID getTokenId() {
+        return tokenId;
+    }
+
+    public void setTokenId(UUID tokenId) {
+        this.tokenId = tokenId;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public LocalDateTime getRevokedAt() {
+        return revokedAt;
+    }
+
+    public void setRevokedAt(LocalDateTime revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.portfolio.spring_ecommerce.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+// 日別売上集計エンティティ（支払い完了イベントで加算される）
+@Entity
+@Table(name = "sales_rollup_daily")
+public class SalesRollupDaily {
+
+    // 主キー（集計日）
+    @Id
+    @Column(name = "bucket_date")
+    private LocalDate bucketDate;
+
+    // 売上金額（最小通貨単位）
+    @Column(name = "revenue_minor", nullable = false)
+    private long revenueMinor;
+
+    // 販売数量
+    @Column(nullable = false)
+    private long units;
+
+    // 注文件数
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    // 以下、getter/setter
+    public LocalDate getBucketDate() {
+        return bucketDate;
+    }
+
+    public void setBucketDate(LocalDate bucketDate) {
+        this.bucketDate = bucketDate;
+    }
+
+    public long getRevenueMinor() {
+        return revenueMinor;
+    }
+
+    public void setRevenueMinor(long revenueMinor) {
+        this.revenueMinor = revenueMinor;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public void setUnits(long units) {
+        this.units = units;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public void setOrderCount(long orderCount) {
+        this.orderCount = orderCount;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.portfolio.spring_ecommerce.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// 時間別売上集計エンティティ（支払い完了イベントで加算される）
+@Entity
+@Table(name = "sales_rollup_hourly")
+public class SalesRollupHourly {
+
+    // 主キー（集計区間の開始日時、時単位）
+    @Id
+    @Column(name = "bucket_start")
+    private LocalDateTime bucketStart;
+
+    // 売上金額（最小通貨単位）
+    @Column(name = "revenue_minor", nullable = false)
+    private long revenueMinor;
+
+    // 販売数量
+    @Column(nullable = false)
+    private long units;
+
+    // 注文件数
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    // 以下、getter/setter
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public long getRevenueMinor() {
+        return revenueMinor;
+    }
+
+    public void setRevenueMinor(long revenueMinor) {
+        this.revenueMinor = revenueMinor;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public void setUnits(long units) {
+        this.units = units;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public void setOrderCount(long orderCount) {
+        this.orderCount = orderCount;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,93 @@
+package com.portfolio.spring_ecommerce.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+// SKU別日次売上集計エンティティ（支払い完了イベントで加算される）
+@Entity
+@Table(name = "sku_sales_daily")
+@IdClass(SkuSalesDaily.Key.class)
+public class SkuSalesDaily {
+
+    // 主キー（集計日）
+    @Id
+    @Column(name = "bucket_date")
+    private LocalDate bucketDate;
+
+    // 主キー（SKU）
+    @Id
+    @Column(name = "sku")
+    private String sku;
+
+    // 売上金額（最小通貨単位）
+    @Column(name = "revenue_minor", nullable = false)
+    private long revenueMinor;
+
+    // 販売数量
+    @Column(nullable = false)
+    private long units;
+
+    // 以下、getter/setter
+    public LocalDate getBucketDate() {
+        return bucketDate;
+    }
+
+    public void setBucketDate(LocalDate bucketDate) {
+        this.bucketDate = bucketDate;
+    }
+
+    public String getSku() {
+        return sku;
+    }
+
+    public void setSku(String sku) {
+        this.sku = sku;
+    }
+
+    public long getRevenueMinor() {
+        return revenueMinor;
+    }
+
+    public void setRevenueMinor(long revenueMinor) {
+        this.revenueMinor = revenueMinor;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public void setUnits(long units) {
+        this.units = units;
+    }
+
+    // 複合主キー（集計日＋SKU）
+    public static class Key implements Serializable {
+
+        private LocalDate bucketDate;
+        private String sku;
+
+        public Key() {
+
+        }
+
+        public Key(LocalDate bucketDate, String sku) {
+            this.bucketDate = bucketDate;
+            this.sku = sku;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(bucketDate, key.bucketDate) && Objects.equals(sku, key.sku);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(bucketDate, sku);
+        }
+    }
+}
\ No newline at end of file
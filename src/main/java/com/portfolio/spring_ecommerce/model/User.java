@@ -1,12 +1,16 @@
 package com.portfolio.spring_ecommerce.model;
 
-import jakarta.persistence.ElementCollection;
+import com.portfolio.spring_ecommerce.model.enums.Role;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
 import java.util.Set;
 
 // ユーザーエンティティ
@@ -16,7 +20,8 @@ public class User {
 
     // 主キー
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "app_users_seq")
+    @SequenceGenerator(name = "app_users_seq", sequenceName = "app_users_seq", allocationSize = 50)
     private Long id;
 
     // ユーザー名
@@ -25,9 +30,9 @@ public class User {
     // パスワード
     private String password;
 
-    // ロール（権限）のセット
-    @ElementCollection(fetch = FetchType.EAGER)
-    private Set<String> roles;
+    // ロール（権限）のビットマスク（ビットはRoleの宣言順）
+    @Column(name = "role_mask", nullable = false)
+    private int roleMask;
 
     // コンストラクタ（ユーザー名とパスワードを指定）
     public User(String username, String password) {
@@ -63,11 +68,24 @@ public class User {
         this.password = password;
     }
 
-    public Set<String> getRoles() {
-        return roles;
+    public Set<Role> getRoles() {
+        return Role.fromMask(roleMask);
+    }
+
+    public void setRoles(Set<Role> roles) {
+        this.roleMask = Role.toMask(roles);
+    }
+
+    public int getRoleMask() {
+        return roleMask;
+    }
+
+    public void setRoleMask(int roleMask) {
+        this.roleMask = roleMask;
     }
 
-    public void setRoles(Set<String> roles) {
-        this.roles = roles;
+    // ロールに対応する権限の一覧（全ユーザーで共有するインスタンスを返す）
+    public List<GrantedAuthority> getAuthorities() {
+        return Role.authorities(roleMask);
     }
 }
\ No newline at end of file
@@ -0,0 +1,152 @@
+package com.portfolio.spring_ecommerce.model;
+
+import com.portfolio.spring_ecommerce.model.enums.WebhookEventStatus;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// 受信済みWebhookイベントエンティティ（署名検証済みの生イベントを処理待ちキューとして保存する）
+@Entity
+@Table(name = "webhook_events",
+        uniqueConstraints = @UniqueConstraint(name = "uk_webhook_events_event_id", columnNames = "event_id"))
+public class WebhookEvent {
+
+    // 主キー
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "webhook_events_seq")
+    @SequenceGenerator(name = "webhook_events_seq", sequenceName = "webhook_events_seq", allocationSize = 50)
+    private Long id;
+
+    // Stripe側のイベントID（evt_...、重複排除のキー）
+    @Column(name = "event_id", nullable = false)
+    private String eventId;
+
+    // イベント種別（payment_intent.succeeded など）
+    @Column(name = "event_type", nullable = false)
+    private String eventType;
+
+    // イベント本文（受信したJSONそのまま）
+    @Column(name = "payload", nullable = false, columnDefinition = "text")
+    private String payload;
+
+    // 処理状態
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private WebhookEventStatus status;
+
+    // 処理試行回数
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    // 次に処理してよい日時（再試行のバックオフ、処理中のリースにも使う）
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    // 直近の処理エラー
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    // 受信日時
+    @Column(name = "received_at", nullable = false)
+    private LocalDateTime receivedAt;
+
+    // 処理完了日時（未処理の場合はnull）
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    // デフォルトコンストラクタ
+    public WebhookEvent() {
+
+    }
+
+    // コンストラクタ（イベントID・種別・本文を指定し、すぐに処理できる状態で作成）
+    public WebhookEvent(String eventId, String eventType, String payload) {
+        this.eventId = eventId;
+        this.eventType = eventType;
+        this.payload = payload;
+        this.status = WebhookEventStatus.PENDING;
+        this.receivedAt = LocalDateTime.now();
+        this.nextAttemptAt = this.receivedAt;
+    }
+
+    // 以下、getter/setter
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public WebhookEventStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(WebhookEventStatus status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public LocalDateTime getReceivedAt() {
+        return receivedAt;
+    }
+
+    public void setReceivedAt(LocalDateTime receivedAt) {
+        this.receivedAt = receivedAt;
+    }
+
+    public LocalDateTime getProcessedAt() {
+        return processedAt;
+    }
+
+    public void setProcessedAt(LocalDateTime processedAt) {
+        this.processedAt = processedAt;
+    }
+}
\ No newline at end of file
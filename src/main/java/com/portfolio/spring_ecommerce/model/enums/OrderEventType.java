@@ -0,0 +1,11 @@
+package com.portfolio.spring_ecommerce.model.enums;
+
+// 注文ライフサイクルイベントの種類
+public enum OrderEventType {
+    // 注文作成
+    ORDER_CREATED,
+    // 支払い完了
+    ORDER_PAID,
+    // 注文キャンセル
+    ORDER_CANCELLED
+}
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.portfolio.spring_ecommerce.model.enums;
+
+// アウトボックスイベントの配信状態
+public enum OutboxEventStatus {
+    // 配信待ち（再試行待ち・配信中のリースを含む）
+    PENDING,
+    // 配信完了
+    PUBLISHED,
+    // 再試行上限に達し配信を断念（デッドレター）
+    DEAD
+}
\ No newline at end of file
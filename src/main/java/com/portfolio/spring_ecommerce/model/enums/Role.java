@@ -0,0 +1,102 @@
+package com.portfolio.spring_ecommerce.model.enums;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+// ユーザーのロール（権限）
+// app_users.role_maskのビットに対応する（ビット位置は宣言順のため、新しいロールは末尾に追加する）
+public enum Role {
+    // 一般ユーザー（ビット1）
+    USER,
+    // 管理者（ビット2）
+    ADMIN;
+
+    private static final Role[] VALUES = values();
+
+    // 定義済みのロールのビットをすべて立てたマスク
+    private static final int ALL = (1 << VALUES.length) - 1;
+
+    // ロールの組み合わせ（ビットマスク）ごとの権限・ロール名の一覧（起動時に一度だけ作成し、全ユーザーで共有する）
+    private static final List<List<GrantedAuthority>> AUTHORITIES_BY_MASK = new ArrayList<>();
+    private static final List<List<String>> NAMES_BY_MASK = new ArrayList<>();
+
+    static {
+        for (int mask = 0; mask <= ALL; mask++) {
+            List<GrantedAuthority> authorities = new ArrayList<>();
+            List<String> names = new ArrayList<>();
+            for (Role role : VALUES) {
+                if ((mask & role.bit()) != 0) {
+                    authorities.add(role.grantedAuthority);
+                    names.add(role.authority);
+                }
+            }
+            AUTHORITIES_BY_MASK.add(List.copyOf(authorities));
+            NAMES_BY_MASK.add(List.copyOf(names));
+        }
+    }
+
+    // Spring Securityの権限名（hasRole('USER')はROLE_USERと照合される）
+    private final String authority = "ROLE_" + name();
+    private final GrantedAuthority grantedAuthority = new SimpleGrantedAuthority(authority);
+
+    // このロールのビット
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    // Spring Securityの権限名
+    public String authority() {
+        return authority;
+    }
+
+    // ロールの集合をビットマスクに変換する
+    public static int toMask(Collection<Role> roles) {
+        int mask = 0;
+        if (roles != null) {
+            for (Role role : roles) {
+                mask |= role.bit();
+            }
+        }
+        return mask;
+    }
+
+    // ビットマスクをロールの集合に変換する（未定義のビットは無視する）
+    public static Set<Role> fromMask(int mask) {
+        EnumSet<Role> roles = EnumSet.noneOf(Role.class);
+        for (Role role : VALUES) {
+            if ((mask & role.bit()) != 0) {
+                roles.add(role);
+            }
+        }
+        return roles;
+    }
+
+    // 権限名（ROLE_USERなど）の一覧をビットマスクに変換する（未知の権限名は無視する）
+    public static int maskOfAuthorities(Collection<String> authorities) {
+        int mask = 0;
+        for (String authority : authorities) {
+            for (Role role : VALUES) {
+                if (role.authority.equals(authority)) {
+                    mask |= role.bit();
+                }
+            }
+        }
+        return mask;
+    }
+
+    // ビットマスクに対応する共有の権限一覧（変更不可）
+    public static List<GrantedAuthority> authorities(int mask) {
+        return AUTHORITIES_BY_MASK.get(mask & ALL);
+    }
+
+    // ビットマスクに対応する共有の権限名の一覧（変更不可。JWTのロールのクレームに使用する）
+    public static List<String> authorityNames(int mask) {
+        return NAMES_BY_MASK.get(mask & ALL);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.portfolio.spring_ecommerce.model.enums;
+
+// 売上集計の粒度
+public enum SalesGranularity {
+    // 1時間単位
+    HOURLY,
+    // 1日単位
+    DAILY
+}
\ No newline at end of file
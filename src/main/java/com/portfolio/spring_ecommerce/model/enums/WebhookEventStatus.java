@@ -0,0 +1,11 @@
+package com.portfolio.spring_ecommerce.model.enums;
+
+// 受信済みWebhookイベントの処理状態
+public enum WebhookEventStatus {
+    // 処理待ち（再試行待ちを含む）
+    PENDING,
+    // 処理完了
+    PROCESSED,
+    // 再試行上限に達し処理を断念（デッドレター）
+    DEAD
+}
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.portfolio.spring_ecommerce.outbox;
+
+import com.portfolio.spring_ecommerce.model.OutboxEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * イベントをHTTP POSTで外部システム（またはローカルのスタブ）へ配信する配信先。
+ * 2xx以外の応答や通信エラーは例外となり、リレーによって再送される。
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.sink.type", havingValue = "http")
+public class HttpOutboxSink implements OutboxSink {
+
+    private final RestClient restClient;
+
+    public HttpOutboxSink(@Value("${outbox.sink.http.url}") String url,
+                          @Value("${outbox.sink.http.timeout-ms:2000}") long timeoutMs) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(timeoutMs))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(timeoutMs));
+        this.restClient = RestClient.builder()
+                .baseUrl(url)
+                .requestFactory(requestFactory)
+                .build();
+    }
+
+    @Override
+    public void deliver(OutboxEvent event) {
+        restClient.post()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("X-Outbox-Event-Id", String.valueOf(event.getId()))
+                .header("X-Outbox-Aggregate-Id", String.valueOf(event.getAggregateId()))
+                .body(event.getPayload())
+                .retrieve()
+                .toBodilessEntity();
+    }
+}
\ No newline at end of file
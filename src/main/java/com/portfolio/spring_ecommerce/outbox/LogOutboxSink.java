@@ -0,0 +1,38 @@
+package com.portfolio.spring_ecommerce.outbox;
+
+import com.portfolio.spring_ecommerce.model.OutboxEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * イベントをログ出力し、ファイルが指定されていればJSON Lines形式で追記する配信先。
+ * ローカル開発やテスト用のデフォルト設定。
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.sink.type", havingValue = "log", matchIfMissing = true)
+public class LogOutboxSink implements OutboxSink {
+
+    private static final Logger log = LoggerFactory.getLogger(LogOutboxSink.class);
+
+    @Value("${outbox.sink.file:}")
+    private String file;
+
+    @Override
+    public void deliver(OutboxEvent event) throws IOException {
+        log.info("Outboxイベント配信: id={}, orderId={}, type={}", event.getId(), event.getAggregateId(), event.getEventType());
+        if (!file.isBlank()) {
+            String line = "{\"id\":" + event.getId() + ",\"payload\":" + event.getPayload() + "}\n";
+            Files.writeString(Path.of(file), line, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+    }
+}
\ No newline at end of file
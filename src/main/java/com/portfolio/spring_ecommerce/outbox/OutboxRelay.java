@@ -0,0 +1,57 @@
+package com.portfolio.spring_ecommerce.outbox;
+
+import com.portfolio.spring_ecommerce.model.OutboxEvent;
+import com.portfolio.spring_ecommerce.service.OutboxService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * アウトボックスの未配信イベントを定期的に配信先へ送るリレー。
+ * イベントはOutboxServiceでリースしてから配信するため、配信中に行ロックやトランザクションを保持しない。
+ * バッチが満杯で全件配信できた場合は、未配信イベントがなくなるまで続けて処理する。
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private final OutboxService outboxService;
+    private final OutboxSink outboxSink;
+    private final int batchSize;
+
+    public OutboxRelay(OutboxService outboxService, OutboxSink outboxSink,
+                       @Value("${outbox.relay.batch-size:100}") int batchSize) {
+        this.outboxService = outboxService;
+        this.outboxSink = outboxSink;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:1000}")
+    public void drain() {
+        List<OutboxEvent> claimed;
+        boolean delivered;
+        do {
+            claimed = outboxService.claimDue(batchSize);
+            delivered = true;
+            for (OutboxEvent event : claimed) {
+                delivered &= deliverOne(event);
+            }
+            // 配信に失敗した場合は配信先の障害とみなし、次の周期まで待つ
+        } while (claimed.size() == batchSize && delivered);
+    }
+
+    // 1件配信する（失敗時は再試行を予約し、他の注文のイベントの配信は続ける）
+    private boolean deliverOne(OutboxEvent event) {
+        try {
+            outboxSink.deliver(event);
+        } catch (Exception e) {
+            outboxService.recordFailure(event.getId(), e);
+            return false;
+        }
+        outboxService.markPublished(event.getId());
+        return true;
+    }
+}
\ No newline at end of file
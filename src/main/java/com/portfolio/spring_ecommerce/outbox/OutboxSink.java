@@ -0,0 +1,17 @@
+package com.portfolio.spring_ecommerce.outbox;
+
+import com.portfolio.spring_ecommerce.model.OutboxEvent;
+
+/**
+ * アウトボックスのイベント配信先。
+ * 配信は少なくとも1回（at-least-once）行われるため、受信側はイベントIDで重複を除外すること。
+ */
+public interface OutboxSink {
+
+    /**
+     * イベントを1件配信する。
+     * @param event 配信するイベント
+     * @throws Exception 配信に失敗した場合（イベントは未配信のまま残り、バックオフ後に再送される）
+     */
+    void deliver(OutboxEvent event) throws Exception;
+}
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.portfolio.spring_ecommerce.reconcile;
+
+import com.portfolio.spring_ecommerce.service.PaymentReconciliationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 保留中の注文の支払い状態を定期的に決済プロバイダーと照合するジョブ。
+ * Webhookの取りこぼしで保留中のまま残った注文を、ユーザーの再操作なしに確定させる。
+ */
+@Component
+@ConditionalOnProperty(name = "payment.reconciliation.enabled", havingValue = "true", matchIfMissing = true)
+public class PaymentReconciliationJob {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentReconciliationJob.class);
+
+    private final PaymentReconciliationService paymentReconciliationService;
+
+    public PaymentReconciliationJob(PaymentReconciliationService paymentReconciliationService) {
+        this.paymentReconciliationService = paymentReconciliationService;
+    }
+
+    @Scheduled(fixedDelayString = "${payment.reconciliation.interval-ms:300000}",
+            initialDelayString = "${payment.reconciliation.interval-ms:300000}")
+    public void run() {
+        try {
+            PaymentReconciliationService.Result result = paymentReconciliationService.reconcile();
+            if (result.getChecked() > 0) {
+                log.info("保留中の注文を照合しました: checked={}, paid={}, cancelled={}, failed={}",
+                        result.getChecked(), result.getPaid(), result.getCancelled(), result.getFailed());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
\ No newline at end of file
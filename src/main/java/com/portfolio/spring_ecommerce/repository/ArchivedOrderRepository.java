@@ -0,0 +1,28 @@
+package com.portfolio.spring_ecommerce.repository;
+
+import com.portfolio.spring_ecommerce.model.ArchivedOrder;
+import com.portfolio.spring_ecommerce.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+
+    // 明細と商品をまとめて取得する
+    @EntityGraph(attributePaths = {"orderItems", "orderItems.product"})
+    Optional<ArchivedOrder> findWithItemsById(Long id);
+
+    @EntityGraph(attributePaths = {"orderItems", "orderItems.product"})
+    List<ArchivedOrder> findByUser(User user);
+
+    // cutoffより古い支払い済み・キャンセル済みの注文をアーカイブへ移動する（PostgreSQL関数、移動件数を返す）
+    @Query(value = "SELECT archive_closed_orders(:cutoff, :batchSize)", nativeQuery = true)
+    int archiveClosedOrders(@Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
+}
\ No newline at end of file
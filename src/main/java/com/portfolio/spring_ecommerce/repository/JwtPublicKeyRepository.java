@@ -0,0 +1,25 @@
+package com.portfolio.spring_ecommerce.repository;
+
+import com.portfolio.spring_ecommerce.model.JwtPublicKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface JwtPublicKeyRepository extends JpaRepository<JwtPublicKey, String> {
+
+    // 有効期限前の公開鍵を取得する（全ノードの署名鍵）
+    @Query("select k from JwtPublicKey k where k.expiresAt > :now")
+    List<JwtPublicKey> findLive(LocalDateTime now);
+
+    // 有効期限を過ぎた行を削除する
+    @Transactional
+    @Modifying
+    @Query("delete from JwtPublicKey k where k.expiresAt <= :now")
+    int deleteExpired(LocalDateTime now);
+}
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.portfolio.spring_ecommerce.repository;
+
+import com.portfolio.spring_ecommerce.model.OrderPaymentIntent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface OrderPaymentIntentRepository extends JpaRepository<OrderPaymentIntent, String> {
+
+    // PaymentIntentと注文の対応を記録する（記録済みの場合は何もしない。注文日時は注文から取得する。追加件数を返す）
+    // 注文はplacedFrom以降のパーティションから探す
+    @Modifying
+    @Query(value = "INSERT INTO order_payment_intents (payment_intent_id, order_id, order_date) "
+            + "SELECT :paymentIntentId, o.id, o.order_date FROM orders o WHERE o.id = :orderId AND o.order_date >= :placedFrom "
+            + "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("paymentIntentId") String paymentIntentId, @Param("orderId") Long orderId,
+                       @Param("placedFrom") LocalDateTime placedFrom);
+}
\ No newline at end of file
@@ -2,14 +2,83 @@ package com.portfolio.spring_ecommerce.repository;
 
 import com.portfolio.spring_ecommerce.model.Order;
 import com.portfolio.spring_ecommerce.model.User;
+import com.portfolio.spring_ecommerce.model.enums.OrderStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.List;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
-    List<Order> findByUser(User user);
-    Optional<Order> findByPaymentIntentId(String paymentIntentId);
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
+    // ユーザーの注文のうち、placedFrom以降のもの（現行の月次パーティションだけを読む）
+    List<Order> findByUserAndOrderDateGreaterThanEqual(User user, LocalDateTime placedFrom);
+
+    // placedFrom以降の注文を主キーで取得する（placedFromより前のパーティションは読まない）
+    Optional<Order> findByIdAndOrderDateGreaterThanEqual(Long id, LocalDateTime placedFrom);
+
+    // 主キー（id, order_date）で取得する（order_dateで該当するパーティションだけを読む。明細と商品もまとめて取得する）
+    @EntityGraph(attributePaths = {"orderItems", "orderItems.product"})
+    Optional<Order> findWithItemsByIdAndOrderDate(Long id, LocalDateTime orderDate);
+
+    // placedFrom以降の保留中の注文に限り、記録済みのPaymentIntentがexpectedId（またはnewId）の場合だけ差し替える（更新件数を返す）
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update Order o set o.paymentIntentId = :newId where o.id = :orderId and o.orderDate >= :placedFrom "
+            + "and o.status = :pending and ((o.paymentIntentId is null and :expectedId is null) or o.paymentIntentId = :expectedId or o.paymentIntentId = :newId)")
+    int assignPaymentIntentIfUnchanged(@Param("orderId") Long orderId, @Param("placedFrom") LocalDateTime placedFrom,
+                                       @Param("expectedId") String expectedId, @Param("newId") String newId,
+                                       @Param("pending") OrderStatus pending);
+
+    // placedFrom以降の注文を主キーで取得する（Webhook処理では明細と商品を必ず参照するため、まとめて取得する）
+    @EntityGraph(attributePaths = {"orderItems", "orderItems.product"})
+    Optional<Order> findWithItemsByIdAndOrderDateGreaterThanEqual(Long id, LocalDateTime placedFrom);
+
+    // placedFrom以降の注文のステータスがfromの場合だけtoに変更し、支払いに使われたPaymentIntentを記録する（更新件数を返す）
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update Order o set o.status = :to, o.paymentIntentId = :paymentIntentId "
+            + "where o.id = :orderId and o.orderDate >= :placedFrom and o.status = :from")
+    int transitionStatusRecordingPaymentIntent(@Param("orderId") Long orderId, @Param("placedFrom") LocalDateTime placedFrom,
+                                               @Param("paymentIntentId") String paymentIntentId,
+                                               @Param("from") OrderStatus from, @Param("to") OrderStatus to);
+
+    // placedFrom以降の注文のステータスがfromで、記録済みのPaymentIntentが一致する場合だけtoに変更する（更新件数を返す）
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update Order o set o.status = :to where o.id = :orderId and o.orderDate >= :placedFrom "
+            + "and o.paymentIntentId = :paymentIntentId and o.status = :from")
+    int transitionStatusIfPaymentIntent(@Param("orderId") Long orderId, @Param("placedFrom") LocalDateTime placedFrom,
+                                        @Param("paymentIntentId") String paymentIntentId,
+                                        @Param("from") OrderStatus from, @Param("to") OrderStatus to);
+
+    // PaymentIntentに対応する注文（対応表で特定した主キー）のステータスがfromの場合だけtoに変更する
+    // order_dateで該当するパーティションだけを更新する（更新件数を返す。重複したWebhookでは0件）
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update Order o set o.status = :to where o.id = :orderId and o.orderDate = :orderDate "
+            + "and o.paymentIntentId = :paymentIntentId and o.status = :from")
+    int transitionStatusByPaymentIntentId(@Param("orderId") Long orderId, @Param("orderDate") LocalDateTime orderDate,
+                                          @Param("paymentIntentId") String paymentIntentId,
+                                          @Param("from") OrderStatus from, @Param("to") OrderStatus to);
+
+    // 支払い確認待ち（保留中でPaymentIntentが記録済み）の注文を、afterIdより後からID順に取得する（キーセットページング）
+    // 注文日時がplacedFrom以降、placedBefore未満の注文のみ（placedFromより前のパーティションは読まない）
+    @Query("select o from Order o where o.status = :pending and o.paymentIntentId is not null "
+            + "and o.id > :afterId and o.orderDate >= :placedFrom and o.orderDate < :placedBefore order by o.id")
+    List<Order> findPendingPaymentsAfter(@Param("afterId") Long afterId, @Param("placedFrom") LocalDateTime placedFrom,
+                                         @Param("placedBefore") LocalDateTime placedBefore,
+                                         @Param("pending") OrderStatus pending, Pageable pageable);
+
+    // fromMonthの月から「今月＋monthsAhead」の月までの月次パーティションを作成する（PostgreSQL関数、作成数を返す）
+    @Query(value = "SELECT ensure_order_partitions(:fromMonth, :monthsAhead)", nativeQuery = true)
+    int ensureMonthlyPartitions(@Param("fromMonth") LocalDate fromMonth, @Param("monthsAhead") int monthsAhead);
+
+    // cutoffより前に終わる空の月次パーティションを削除する（PostgreSQL関数、削除数を返す）
+    @Query(value = "SELECT drop_empty_order_partitions(:cutoff)", nativeQuery = true)
+    int dropEmptyPartitions(@Param("cutoff") LocalDateTime cutoff);
 }
\ No newline at end of file
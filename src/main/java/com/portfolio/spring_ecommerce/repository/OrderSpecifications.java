@@ -0,0 +1,59 @@
+package com.portfolio.spring_ecommerce.repository;
+
+import com.portfolio.spring_ecommerce.model.Order;
+import com.portfolio.spring_ecommerce.model.enums.OrderStatus;
+import jakarta.persistence.criteria.JoinType;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+/**
+ * 管理者向け注文検索の検索条件（Specification）を組み立てるクラス。
+ * nullの条件は無視される。
+ */
+public final class OrderSpecifications {
+
+    private OrderSpecifications() {
+    }
+
+    // ステータスで絞り込む
+    public static Specification<Order> hasStatus(OrderStatus status) {
+        return (root, query, cb) -> status == null ? null : cb.equal(root.get("status"), status);
+    }
+
+    // 注文日時の範囲で絞り込む（fromは含む、toは含まない）
+    public static Specification<Order> orderedBetween(LocalDateTime from, LocalDateTime to) {
+        return (root, query, cb) -> {
+            if (from == null && to == null) {
+                return null;
+            }
+            if (from == null) {
+                return cb.lessThan(root.get("orderDate"), to);
+            }
+            if (to == null) {
+                return cb.greaterThanOrEqualTo(root.get("orderDate"), from);
+            }
+            return cb.and(cb.greaterThanOrEqualTo(root.get("orderDate"), from), cb.lessThan(root.get("orderDate"), to));
+        };
+    }
+
+    // ユーザーIDで絞り込む
+    public static Specification<Order> belongsToUser(Long userId) {
+        return (root, query, cb) -> userId == null ? null : cb.equal(root.get("user").get("id"), userId);
+    }
+
+    // キーセットページング：前ページ最後の注文IDより小さいものだけを対象にする
+    public static Specification<Order> idBefore(Long cursor) {
+        return (root, query, cb) -> cursor == null ? null : cb.lessThan(root.get("id"), cursor);
+    }
+
+    // 一覧表示用にユーザーを同時に取得する（件数取得クエリでは結合しない）
+    public static Specification<Order> fetchUser() {
+        return (root, query, cb) -> {
+            if (query != null && !Long.class.equals(query.getResultType())) {
+                root.fetch("user", JoinType.INNER);
+            }
+            return null;
+        };
+    }
+}
\ No newline at end of file
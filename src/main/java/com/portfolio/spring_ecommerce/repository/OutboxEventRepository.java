@@ -0,0 +1,33 @@
+package com.portfolio.spring_ecommerce.repository;
+
+import com.portfolio.spring_ecommerce.model.OutboxEvent;
+import com.portfolio.spring_ecommerce.model.enums.OutboxEventStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // 注文ごとの採番済みの最大通し番号（未採番の場合は0）
+    @Query("select coalesce(max(e.aggregateSeq), 0) from OutboxEvent e where e.aggregateId = :aggregateId")
+    long findMaxAggregateSeq(Long aggregateId);
+
+    // 配信期限の来たイベントを行ロック付きで取得する（ロック済みの行はSKIP LOCKEDで読み飛ばし、複数ノードで分担する）
+    // 同じ注文に通し番号の小さい配信待ちイベントが残っている間は、後続のイベントを取得しない（注文ごとの順序保証）
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select e from OutboxEvent e where e.status = :status and e.nextAttemptAt <= :now"
+            + " and not exists (select p.id from OutboxEvent p where p.aggregateId = e.aggregateId"
+            + " and p.status = :status and p.aggregateSeq < e.aggregateSeq)"
+            + " order by e.nextAttemptAt")
+    List<OutboxEvent> findDueForUpdate(OutboxEventStatus status, LocalDateTime now, Pageable pageable);
+}
\ No newline at end of file
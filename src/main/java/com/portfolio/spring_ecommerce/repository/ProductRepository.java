@@ -2,6 +2,8 @@ package com.portfolio.spring_ecommerce.repository;
 
 import com.portfolio.spring_ecommerce.model.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -10,4 +12,9 @@ import java.util.Optional;
 public interface ProductRepository extends JpaRepository<Product, Long> {
     boolean existsBySku(String sku);
     Optional<Product> findBySku(String sku);
+
+    // 在庫数を相対的に加算する（読み取った値で上書きしないため、並行する在庫更新を打ち消さない）
+    @Modifying
+    @Query("update Product p set p.unitsInStock = p.unitsInStock + :quantity where p.id = :productId")
+    int restoreStock(Long productId, int quantity);
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.portfolio.spring_ecommerce.repository;
+
+import com.portfolio.spring_ecommerce.model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+    // 高水位線より後の行と、直近に失効した行のうち、有効期限前のものを取得する
+    // （採番順とコミット順が前後した行を取りこぼさないよう、直近の行は毎回読み直す）
+    @Query("select t from RevokedToken t where (t.id > :afterId or t.revokedAt > :revokedSince) and t.expiresAt > :now order by t.id")
+    List<RevokedToken> findLiveChangedSince(long afterId, LocalDateTime revokedSince, LocalDateTime now);
+
+    // 有効期限を過ぎた行を削除する
+    @Transactional
+    @Modifying
+    @Query("delete from RevokedToken t where t.expiresAt <= :now")
+    int deleteExpired(LocalDateTime now);
+}
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.portfolio.spring_ecommerce.repository;
+
+import com.portfolio.spring_ecommerce.model.SalesRollupDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface SalesRollupDailyRepository extends JpaRepository<SalesRollupDaily, LocalDate> {
+
+    // 指定期間の集計行を主キー順に取得する（両端を含む）
+    List<SalesRollupDaily> findByBucketDateBetweenOrderByBucketDate(LocalDate from, LocalDate to);
+
+    // 集計行へ加算する（行がなければ作成する）
+    @Modifying
+    @Query(value = """
+            INSERT INTO sales_rollup_daily (bucket_date, revenue_minor, units, order_count)
+            VALUES (:bucketDate, :revenueMinor, :units, :orders)
+            ON CONFLICT (bucket_date) DO UPDATE SET
+                revenue_minor = sales_rollup_daily.revenue_minor + EXCLUDED.revenue_minor,
+                units = sales_rollup_daily.units + EXCLUDED.units,
+                order_count = sales_rollup_daily.order_count + EXCLUDED.order_count
+            """, nativeQuery = true)
+    void increment(@Param("bucketDate") LocalDate bucketDate, @Param("revenueMinor") long revenueMinor,
+                   @Param("units") long units, @Param("orders") long orders);
+}
\ No newline at end of file
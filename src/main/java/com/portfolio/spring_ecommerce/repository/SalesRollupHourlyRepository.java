@@ -0,0 +1,31 @@
+package com.portfolio.spring_ecommerce.repository;
+
+import com.portfolio.spring_ecommerce.model.SalesRollupHourly;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SalesRollupHourlyRepository extends JpaRepository<SalesRollupHourly, LocalDateTime> {
+
+    // 指定区間の集計行を主キー順に取得する（fromは含む、toは含まない）
+    List<SalesRollupHourly> findByBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStart(LocalDateTime from, LocalDateTime to);
+
+    // 集計行へ加算する（行がなければ作成する）
+    @Modifying
+    @Query(value = """
+            INSERT INTO sales_rollup_hourly (bucket_start, revenue_minor, units, order_count)
+            VALUES (:bucketStart, :revenueMinor, :units, :orders)
+            ON CONFLICT (bucket_start) DO UPDATE SET
+                revenue_minor = sales_rollup_hourly.revenue_minor + EXCLUDED.revenue_minor,
+                units = sales_rollup_hourly.units + EXCLUDED.units,
+                order_count = sales_rollup_hourly.order_count + EXCLUDED.order_count
+            """, nativeQuery = true)
+    void increment(@Param("bucketStart") LocalDateTime bucketStart, @Param("revenueMinor") long revenueMinor,
+                   @Param("units") long units, @Param("orders") long orders);
+}
\ No newline at end of file
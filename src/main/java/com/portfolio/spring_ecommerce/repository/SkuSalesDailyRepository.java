@@ -0,0 +1,40 @@
+package com.portfolio.spring_ecommerce.repository;
+
+import com.portfolio.spring_ecommerce.model.SkuSalesDaily;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface SkuSalesDailyRepository extends JpaRepository<SkuSalesDaily, SkuSalesDaily.Key> {
+
+    // 期間内のSKU別合計（売上金額の降順）
+    interface SkuTotal {
+        String getSku();
+        Long getUnits();
+        Long getRevenueMinor();
+    }
+
+    // 指定期間の売上上位SKUを取得する（両端を含む）
+    @Query("select s.sku as sku, sum(s.units) as units, sum(s.revenueMinor) as revenueMinor from SkuSalesDaily s " +
+           "where s.bucketDate between :from and :to group by s.sku order by sum(s.revenueMinor) desc")
+    List<SkuTotal> findTopSkus(@Param("from") LocalDate from, @Param("to") LocalDate to, Pageable pageable);
+
+    // 集計行へ加算する（行がなければ作成する）
+    @Modifying
+    @Query(value = """
+            INSERT INTO sku_sales_daily (bucket_date, sku, revenue_minor, units)
+            VALUES (:bucketDate, :sku, :revenueMinor, :units)
+            ON CONFLICT (bucket_date, sku) DO UPDATE SET
+                revenue_minor = sku_sales_daily.revenue_minor + EXCLUDED.revenue_minor,
+                units = sku_sales_daily.units + EXCLUDED.units
+            """, nativeQuery = true)
+    void increment(@Param("bucketDate") LocalDate bucketDate, @Param("sku") String sku,
+                   @Param("revenueMinor") long revenueMinor, @Param("units") long units);
+}
\ No newline at end of file
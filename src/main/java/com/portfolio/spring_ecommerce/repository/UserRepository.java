@@ -2,8 +2,18 @@ package com.portfolio.spring_ecommerce.repository;
 
 import com.portfolio.spring_ecommerce.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
+
+    // パスワードハッシュを更新する（読み込んだ後に他で変更されていない場合のみ）
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :newHash where u.id = :id and u.password = :oldHash")
+    int updatePasswordHash(Long id, String oldHash, String newHash);
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.portfolio.spring_ecommerce.repository;
+
+import com.portfolio.spring_ecommerce.model.WebhookEvent;
+import com.portfolio.spring_ecommerce.model.enums.WebhookEventStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface WebhookEventRepository extends JpaRepository<WebhookEvent, Long> {
+
+    boolean existsByEventId(String eventId);
+
+    // 指定したイベントIDのうち、受信済みのものを返す（再適用時の重複判定をバッチ単位で行う）
+    @Query("select e.eventId from WebhookEvent e where e.eventId in :eventIds")
+    List<String> findExistingEventIds(Collection<String> eventIds);
+
+    // 処理期限の来たイベントを行ロック付きで取得する（ロック済みの行はSKIP LOCKEDで読み飛ばし、複数ワーカーで分担する）
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select e from WebhookEvent e where e.status = :status and e.nextAttemptAt <= :now order by e.nextAttemptAt")
+    List<WebhookEvent> findDueForUpdate(WebhookEventStatus status, LocalDateTime now, Pageable pageable);
+}
\ No newline at end of file
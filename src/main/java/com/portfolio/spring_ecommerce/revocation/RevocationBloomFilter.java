@@ -0,0 +1,139 @@
+package com.portfolio.spring_ecommerce.revocation;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 失効させたトークンIDのブルームフィルター（失効確認の否定応答を、数回のビット参照だけで返すための前段フィルター）。
+ * トークンの有効期限ごとの時間バケットに分けて保持し、バケット内の全トークンが期限切れになった時点でバケットごと破棄する。
+ * ブルームフィルターは要素を削除できないため、期限切れの要素はこの破棄によって取り除かれる。
+ * 「含まれない」の応答は確実で、「含まれる可能性がある」場合だけ呼び出し側で正確な集合を確認する。
+ */
+@Component
+public class RevocationBloomFilter {
+
+    private final long bucketMillis;
+    private final int bitsPerBucket;
+    private final int hashes;
+
+    // バケット番号（有効期限 / bucketMillis）→ バケット
+    private final ConcurrentSkipListMap<Long, Bucket> buckets = new ConcurrentSkipListMap<>();
+
+    /**
+     * RevocationBloomFilterのコンストラクタ。
+     * @param bucketMillis 1バケットが受け持つ有効期限の幅（ミリ秒）
+     * @param bitsPerBucket 1バケットのビット数（2のべき乗に切り上げる）
+     * @param hashes 1要素あたりのハッシュ関数の数
+     */
+    public RevocationBloomFilter(@Value("${jwt.blacklist.bloom.bucket-ms:3600000}") long bucketMillis,
+                                 @Value("${jwt.blacklist.bloom.bits-per-bucket:65536}") int bitsPerBucket,
+                                 @Value("${jwt.blacklist.bloom.hashes:5}") int hashes) {
+        this.bucketMillis = bucketMillis;
+        this.bitsPerBucket = Math.max(64, Integer.highestOneBit(bitsPerBucket - 1) << 1);
+        this.hashes = hashes;
+    }
+
+    /**
+     * トークンIDを追加する
+     * @param tokenId トークンID
+     * @param expiresAt トークンの有効期限（この時刻を含むバケットに追加する）
+     */
+    public void add(UUID tokenId, Instant expiresAt) {
+        buckets.computeIfAbsent(expiresAt.toEpochMilli() / bucketMillis, index -> new Bucket(bitsPerBucket))
+                .add(tokenId, hashes);
+    }
+
+    /**
+     * トークンIDが含まれる可能性があるか確認する（falseの場合は確実に含まれない）
+     * @param tokenId トークンID
+     * @return 含まれる可能性がある場合true
+     */
+    public boolean mightContain(UUID tokenId) {
+        dropExpiredBuckets();
+        for (Bucket bucket : buckets.values()) {
+            if (bucket.mightContain(tokenId, hashes)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 現在のビットの埋まり具合から推定した偽陽性率を返す
+     * @return 推定偽陽性率（0〜1）
+     */
+    public double estimatedFalsePositiveRate() {
+        dropExpiredBuckets();
+        double allNegative = 1.0;
+        for (Bucket bucket : buckets.values()) {
+            allNegative *= 1.0 - Math.pow(bucket.fillRatio(), hashes);
+        }
+        return 1.0 - allNegative;
+    }
+
+    // 全トークンが期限切れになったバケット（バケット番号が現在時刻のバケット番号より小さいもの）を破棄する
+    private void dropExpiredBuckets() {
+        long current = System.currentTimeMillis() / bucketMillis;
+        Map.Entry<Long, Bucket> first;
+        while ((first = buckets.firstEntry()) != null && first.getKey() < current) {
+            buckets.remove(first.getKey(), first.getValue());
+        }
+    }
+
+    // 1つの時間バケット（スレッドセーフなビット配列）
+    private static final class Bucket {
+
+        private final AtomicLongArray words;
+        private final int mask;
+
+        private Bucket(int bits) {
+            this.words = new AtomicLongArray(bits / 64);
+            this.mask = bits - 1;
+        }
+
+        private void add(UUID tokenId, int hashes) {
+            long h1 = mix(tokenId.getMostSignificantBits());
+            long h2 = mix(tokenId.getLeastSignificantBits()) | 1;
+            for (int i = 0; i < hashes; i++) {
+                int bit = (int) (h1 + i * h2) & mask;
+                words.getAndAccumulate(bit >>> 6, 1L << bit, (current, update) -> current | update);
+            }
+        }
+
+        private boolean mightContain(UUID tokenId, int hashes) {
+            long h1 = mix(tokenId.getMostSignificantBits());
+            long h2 = mix(tokenId.getLeastSignificantBits()) | 1;
+            for (int i = 0; i < hashes; i++) {
+                int bit = (int) (h1 + i * h2) & mask;
+                if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private double fillRatio() {
+            long set = 0;
+            for (int i = 0; i < words.length(); i++) {
+                set += Long.bitCount(words.get(i));
+            }
+            return (double) set / (mask + 1);
+        }
+
+        // 64ビットの値を撹拌する（MurmurHash3のfmix64）
+        private static long mix(long h) {
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb93fe53d3a2bL;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.portfolio.spring_ecommerce.revocation;
+
+import com.portfolio.spring_ecommerce.service.JwtBlacklistService;
+import com.portfolio.spring_ecommerce.service.RefreshTokenService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 他ノードで失効したJWTを定期的に取り込み、有効期限を過ぎた失効情報とリフレッシュトークンをテーブルから削除するジョブ。
+ */
+@Component
+@ConditionalOnProperty(name = "jwt.blacklist.sync.enabled", havingValue = "true", matchIfMissing = true)
+public class RevokedTokenSyncJob {
+
+    private static final Logger log = LoggerFactory.getLogger(RevokedTokenSyncJob.class);
+
+    private final JwtBlacklistService jwtBlacklistService;
+    private final RefreshTokenService refreshTokenService;
+
+    public RevokedTokenSyncJob(JwtBlacklistService jwtBlacklistService, RefreshTokenService refreshTokenService) {
+        this.jwtBlacklistService = jwtBlacklistService;
+        this.refreshTokenService = refreshTokenService;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.blacklist.sync.interval-ms:1000}")
+    public void sync() {
+        int added = jwtBlacklistService.syncRevokedTokens();
+        if (added > 0) {
+            log.debug("他ノードで失効したJWTを取り込みました: {}件", added);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.blacklist.purge-interval-ms:3600000}")
+    public void purge() {
+        int deleted = jwtBlacklistService.purgeExpired();
+        int refreshDeleted = refreshTokenService.purgeExpired();
+        if (deleted > 0 || refreshDeleted > 0) {
+            log.info("有効期限を過ぎた失効情報を削除しました: {}件, リフレッシュトークン: {}件", deleted, refreshDeleted);
+        }
+    }
+}
\ No newline at end of file
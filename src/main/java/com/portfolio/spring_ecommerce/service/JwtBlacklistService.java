@@ -1,30 +1,193 @@
 package com.portfolio.spring_ecommerce.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import com.portfolio.spring_ecommerce.model.RevokedToken;
+import com.portfolio.spring_ecommerce.repository.RevokedTokenRepository;
+import com.portfolio.spring_ecommerce.revocation.RevocationBloomFilter;
+import com.portfolio.spring_ecommerce.util.JwtClaims;
+import com.portfolio.spring_ecommerce.util.VerifiedTokenCache;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
-import java.util.Collections;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
 
+/**
+ * 失効させたJWT（ログアウト済みトークン）を管理するサービスクラス。
+ * トークン本体ではなく128ビットのトークンIDと有効期限だけを保持し、有効期限を過ぎたものはメモリから削除する
+ * （Caffeineの可変有効期限は階層型タイマーホイールで管理される）ため、メモリ使用量は有効期限内のトークン数に比例する。
+ * 失効情報はrevoked_tokensテーブルに保存し、起動時に読み込むほか、他ノードで失効した分をIDの高水位線から定期的に取り込む。
+ * 失効確認はほぼすべて「失効していない」となるため、前段のブルームフィルターで否定応答を返し、正確な集合は陽性の場合だけ確認する。
+ */
 @Service
 public class JwtBlacklistService {
 
-    private final Set<String> tokenBlacklist = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final RevocationBloomFilter bloomFilter;
+    private final Cache<UUID, Instant> revokedTokens;
+
+    // 失効確認の結果（ブルームフィルターで否定・偽陽性・失効済み）
+    private final Counter bloomNegatives;
+    private final Counter bloomFalsePositives;
+    private final Counter revokedHits;
+
+    // 取り込み済みの行IDの最大値
+    private long highWaterMark;
+
+    @Value("${jwt.blacklist.sync.lookback-ms:30000}")
+    private long lookbackMs = 30000;
 
     /**
-     * トークンをブラックリストに追加する
+     * JwtBlacklistServiceのコンストラクタ。
+     * @param revokedTokenRepository 失効情報リポジトリ
+     * @param verifiedTokenCache 検証済みトークンのキャッシュ
+     * @param bloomFilter 失効確認の前段のブルームフィルター
+     * @param meterRegistry 失効確認のメトリクス登録先
+     */
+    public JwtBlacklistService(RevokedTokenRepository revokedTokenRepository, VerifiedTokenCache verifiedTokenCache,
+                               RevocationBloomFilter bloomFilter, MeterRegistry meterRegistry) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.bloomFilter = bloomFilter;
+        this.revokedTokens = Caffeine.newBuilder()
+                .expireAfter(new UntilTokenExpiry())
+                .scheduler(Scheduler.systemScheduler())
+                .build();
+        this.bloomNegatives = meterRegistry.counter("jwt.revocation.checks", "result", "bloom_negative");
+        this.bloomFalsePositives = meterRegistry.counter("jwt.revocation.checks", "result", "false_positive");
+        this.revokedHits = meterRegistry.counter("jwt.revocation.checks", "result", "revoked");
+        Gauge.builder("jwt.revocation.bloom.false.positive.rate", this, JwtBlacklistService::observedFalsePositiveRate)
+                .description("失効していないトークンのうち、ブルームフィルターで否定できなかった割合（実測）")
+                .register(meterRegistry);
+        Gauge.builder("jwt.revocation.bloom.estimated.false.positive.rate", bloomFilter,
+                        RevocationBloomFilter::estimatedFalsePositiveRate)
+                .description("ビットの埋まり具合から推定したブルームフィルターの偽陽性率")
+                .register(meterRegistry);
+    }
+
+    // 起動時（リクエストの受け付け前）に有効期限内の失効情報を読み込む
+    @PostConstruct
+    public void loadRevokedTokens() {
+        syncRevokedTokens();
+    }
+
+    /**
+     * トークンを失効させ、検証済みトークンのキャッシュから削除する
+     * 署名が不正なトークンや期限切れのトークンは既に使用できないため、記録しない
      * @param token ブラックリストに追加するJWT
      */
     public void addTokenToBlacklist(String token) {
-        tokenBlacklist.add(token);
+        JwtClaims claims;
+        try {
+            claims = verifiedTokenCache.verify(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return;
+        }
+        verifiedTokenCache.invalidate(token);
+
+        if (revokedTokens.getIfPresent(claims.tokenId()) == null) {
+            try {
+                revokedTokenRepository.saveAndFlush(new RevokedToken(claims.tokenId(), toLocalDateTime(claims.expiresAt())));
+            } catch (DataIntegrityViolationException e) {
+                // 他のノードで失効済み（一意制約違反）
+            }
+        }
+        remember(claims.tokenId(), claims.expiresAt());
     }
 
     /**
-     * トークンがブラックリストに含まれているか確認する
-     * @param token チェックするJWT
-     * @return トークンがブラックリストに含まれていればtrue、そうでなければfalse
+     * トークンが失効しているか確認する
+     * @param tokenId 検証済みトークンのトークンID
+     * @return トークンが失効していればtrue、そうでなければfalse
      */
-    public boolean isTokenBlacklisted(String token) {
-        return tokenBlacklist.contains(token);
+    public boolean isTokenBlacklisted(UUID tokenId) {
+        if (!bloomFilter.mightContain(tokenId)) {
+            bloomNegatives.increment();
+            return false;
+        }
+        if (revokedTokens.getIfPresent(tokenId) == null) {
+            bloomFalsePositives.increment();
+            return false;
+        }
+        revokedHits.increment();
+        return true;
+    }
+
+    /**
+     * 高水位線より後に保存された失効情報を取り込む（他ノードでのログアウトを反映する）
+     * 採番順とコミット順が前後した行を取りこぼさないよう、直近lookbackMsに失効した行は毎回読み直す
+     * @return 新たに取り込んだ件数
+     */
+    public synchronized int syncRevokedTokens() {
+        LocalDateTime now = LocalDateTime.now();
+        List<RevokedToken> rows = revokedTokenRepository.findLiveChangedSince(
+                highWaterMark, now.minus(Duration.ofMillis(lookbackMs)), now);
+        int added = 0;
+        for (RevokedToken row : rows) {
+            if (revokedTokens.getIfPresent(row.getTokenId()) == null) {
+                remember(row.getTokenId(), row.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant());
+                added++;
+            }
+            highWaterMark = Math.max(highWaterMark, row.getId());
+        }
+        return added;
+    }
+
+    /**
+     * 有効期限を過ぎた失効情報をテーブルから削除する
+     * @return 削除した件数
+     */
+    public int purgeExpired() {
+        return revokedTokenRepository.deleteExpired(LocalDateTime.now());
+    }
+
+    // 失効情報をメモリに保持する（確認中に見落とさないよう、ブルームフィルターに先に追加する）
+    private void remember(UUID tokenId, Instant expiresAt) {
+        bloomFilter.add(tokenId, expiresAt);
+        revokedTokens.put(tokenId, expiresAt);
+    }
+
+    // ブルームフィルターで否定できなかった、失効していないトークンの割合
+    private double observedFalsePositiveRate() {
+        double falsePositives = bloomFalsePositives.count();
+        double negatives = falsePositives + bloomNegatives.count();
+        return negatives == 0 ? 0 : falsePositives / negatives;
+    }
+
+    private static LocalDateTime toLocalDateTime(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+
+    // トークンの有効期限までを各エントリの保持期間とする
+    private static final class UntilTokenExpiry implements Expiry<UUID, Instant> {
+
+        @Override
+        public long expireAfterCreate(UUID tokenId, Instant expiresAt, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), expiresAt).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(UUID tokenId, Instant expiresAt, long currentTime, long currentDuration) {
+            return expireAfterCreate(tokenId, expiresAt, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(UUID tokenId, Instant expiresAt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
\ No newline at end of file
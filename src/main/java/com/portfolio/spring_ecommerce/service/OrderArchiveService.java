@@ -0,0 +1,94 @@
+package com.portfolio.spring_ecommerce.service;
+
+import com.portfolio.spring_ecommerce.repository.ArchivedOrderRepository;
+import com.portfolio.spring_ecommerce.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 注文テーブルの月次パーティション管理とアーカイブを行うサービスクラス。
+ * 処理本体はマイグレーションで作成したPostgreSQL関数で実行する。
+ */
+@Service
+public class OrderArchiveService {
+
+    // アーカイブが無効な場合の現行テーブルの下限（すべての注文を含む）
+    private static final LocalDateTime ALL_ORDERS_FROM = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+
+    // 何か月先までパーティションを作成しておくか
+    @Value("${orders.partition.months-ahead:3}")
+    private int monthsAhead = 3;
+
+    // 何か月より古い注文をアーカイブするか
+    @Value("${orders.archive.after-months:12}")
+    private int archiveAfterMonths = 12;
+
+    // 1回のアーカイブで移動する注文数
+    @Value("${orders.archive.batch-size:500}")
+    private int batchSize = 500;
+
+    // アーカイブが有効か（無効な場合はすべての注文が現行テーブルに残る）
+    @Value("${orders.archive.enabled:false}")
+    private boolean archiveEnabled;
+
+    /**
+     * OrderArchiveServiceのコンストラクタ。
+     * @param orderRepository 注文リポジトリ
+     * @param archivedOrderRepository アーカイブ済み注文リポジトリ
+     */
+    public OrderArchiveService(OrderRepository orderRepository, ArchivedOrderRepository archivedOrderRepository) {
+        this.orderRepository = orderRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+    }
+
+    /**
+     * 今月から設定月数先までの月次パーティションを作成する（作成済みの月は何もしない）。
+     * @return 作成したパーティション（月）の数
+     */
+    @Transactional
+    public int ensurePartitions() {
+        return orderRepository.ensureMonthlyPartitions(LocalDate.now(), monthsAhead);
+    }
+
+    /**
+     * アーカイブ対象の注文を1バッチ分、明細ごとアーカイブテーブルへ移動する。
+     * @return 移動した注文数（0の場合は対象なし）
+     */
+    @Transactional
+    public int archiveBatch() {
+        return archivedOrderRepository.archiveClosedOrders(archiveCutoff(), batchSize);
+    }
+
+    /**
+     * アーカイブにより空になった古い月次パーティションを削除する。
+     * 保留中の注文が残っている月は削除しない。
+     * @return 削除したパーティション（月）の数
+     */
+    @Transactional
+    public int dropEmptyPartitions() {
+        return orderRepository.dropEmptyPartitions(archiveCutoff());
+    }
+
+    /**
+     * 現行テーブルで参照する注文日時の下限を返す。
+     * 注文の参照はこの日時以降に絞り込み（古い月次パーティションを読まない）、より前の注文はアーカイブを参照する。
+     * 月初にアーカイブの境界が進んでから夜間のアーカイブが終わるまでの注文も含むよう、境界の1か月前とする。
+     * 境界より前に残っている保留中の注文（アーカイブ対象外）は参照しない。
+     * @return 注文日時の下限（アーカイブが無効な場合はすべての注文を含む日時）
+     */
+    public LocalDateTime hotFrom() {
+        return archiveEnabled ? archiveCutoff().minusMonths(1) : ALL_ORDERS_FROM;
+    }
+
+    // アーカイブの境界（月初に揃えることで、月単位でパーティションを空にできる）
+    LocalDateTime archiveCutoff() {
+        return LocalDate.now().withDayOfMonth(1).minusMonths(archiveAfterMonths).atStartOfDay();
+    }
+}
\ No newline at end of file
@@ -1,14 +1,28 @@
 package com.portfolio.spring_ecommerce.service;
 
+import com.portfolio.spring_ecommerce.event.OrderLifecycleEvent;
+import com.portfolio.spring_ecommerce.exception.PaymentIntentNotLinkedException;
 import com.portfolio.spring_ecommerce.model.*;
+import com.portfolio.spring_ecommerce.model.enums.OrderEventType;
 import com.portfolio.spring_ecommerce.model.enums.OrderStatus;
+import com.portfolio.spring_ecommerce.repository.ArchivedOrderRepository;
 import com.portfolio.spring_ecommerce.repository.CartRepository;
+import com.portfolio.spring_ecommerce.repository.OrderPaymentIntentRepository;
 import com.portfolio.spring_ecommerce.repository.OrderRepository;
+import com.portfolio.spring_ecommerce.repository.OrderSpecifications;
 import com.portfolio.spring_ecommerce.repository.ProductRepository;
+import com.portfolio.spring_ecommerce.util.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,10 +32,16 @@ import java.util.Optional;
 @Service
 public class OrderService {
 
+    private static final Logger log = LoggerFactory.getLogger(OrderService.class);
+
     private final OrderRepository orderRepository;
     private final CartRepository cartRepository;
     private final ProductRepository productRepository;
     private final CartService cartService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final OrderPaymentIntentRepository orderPaymentIntentRepository;
+    private final OrderArchiveService orderArchiveService;
 
     /**
      * OrderServiceのコンストラクタ。
@@ -29,12 +49,22 @@ public class OrderService {
      * @param cartRepository カートリポジトリ
      * @param productRepository 商品リポジトリ
      * @param cartService カートサービス
+     * @param eventPublisher 注文イベントの発行に使用するパブリッシャー
+     * @param archivedOrderRepository アーカイブ済み注文リポジトリ（参照時のフォールバック先）
+     * @param orderPaymentIntentRepository PaymentIntentと注文の対応リポジトリ（PaymentIntent IDの一意性と、IDからの検索に使用）
+     * @param orderArchiveService 注文アーカイブサービス（現行テーブルで参照する注文日時の範囲に使用）
      */
-    public OrderService(OrderRepository orderRepository, CartRepository cartRepository, ProductRepository productRepository, CartService cartService) {
+    public OrderService(OrderRepository orderRepository, CartRepository cartRepository, ProductRepository productRepository, CartService cartService,
+                        ApplicationEventPublisher eventPublisher, ArchivedOrderRepository archivedOrderRepository,
+                        OrderPaymentIntentRepository orderPaymentIntentRepository, OrderArchiveService orderArchiveService) {
         this.orderRepository = orderRepository;
         this.cartRepository = cartRepository;
         this.productRepository = productRepository;
         this.cartService = cartService;
+        this.eventPublisher = eventPublisher;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.orderPaymentIntentRepository = orderPaymentIntentRepository;
+        this.orderArchiveService = orderArchiveService;
     }
 
     /**
@@ -55,8 +85,9 @@ public class OrderService {
         order.setUser(user);
         order.setOrderDate(LocalDateTime.now());
         order.setStatus(OrderStatus.PENDING);
+        order.setCurrency(Money.DEFAULT_CURRENCY);
 
-        double totalAmount = 0.0;
+        long totalAmountMinor = 0;
 
         for (CartItem cartItem : cart.getItems()) {
             Product product = cartItem.getProduct();
@@ -69,86 +100,290 @@ public class OrderService {
             OrderItem orderItem = new OrderItem();
             orderItem.setProduct(product);
             orderItem.setQuantity(quantity);
-            orderItem.setPrice(product.getUnitPrice().doubleValue());
+            orderItem.setPriceMinor(product.getUnitPriceMinor());
             order.addOrderItem(orderItem);
 
             product.setUnitsInStock(product.getUnitsInStock() - quantity);
             productRepository.save(product);
 
-            totalAmount += orderItem.getPrice() * quantity;
+            totalAmountMinor = Math.addExact(totalAmountMinor, Money.multiply(orderItem.getPriceMinor(), quantity));
         }
 
-        order.setTotalAmount(totalAmount);
+        order.setTotalAmountMinor(totalAmountMinor);
         Order savedOrder = orderRepository.save(order);
 
         cart.getItems().clear();
         cartRepository.save(cart);
 
+        eventPublisher.publishEvent(new OrderLifecycleEvent(savedOrder, OrderEventType.ORDER_CREATED));
         return savedOrder;
     }
 
     /**
-     * 特定のユーザーの注文履歴を取得する。
+     * 特定のユーザーの注文履歴を取得する（アーカイブ済みの注文を含む）。
+     * 現行テーブルはアーカイブ境界以降の月次パーティションだけを読み、それより前の注文はアーカイブから取得する。
      * @param user ユーザー
      * @return 注文のリスト
      */
+    @Transactional(readOnly = true)
     public List<Order> getOrdersForUser(User user) {
-        return orderRepository.findByUser(user);
+        List<Order> orders = new ArrayList<>(orderRepository.findByUserAndOrderDateGreaterThanEqual(user, orderArchiveService.hotFrom()));
+        for (ArchivedOrder archived : archivedOrderRepository.findByUser(user)) {
+            orders.add(archived.toOrder());
+        }
+        return orders;
+    }
+
+    /**
+     * 管理者向けに注文を検索する（新しい順、キーセットページング）。
+     * OFFSETを使わず「前ページ最後のIDより小さいID」で続きを取得するため、深いページでも一定の速度で返せる。
+     * @param status 注文ステータス（nullの場合は絞り込まない）
+     * @param from 注文日時の開始（含む、nullの場合は絞り込まない）
+     * @param to 注文日時の終了（含まない、nullの場合は絞り込まない）
+     * @param userId ユーザーID（nullの場合は絞り込まない）
+     * @param cursor 前ページ最後の注文ID（先頭ページの場合はnull）
+     * @param limit 取得件数
+     * @return 注文のリスト（ユーザーは取得済み）
+     */
+    @Transactional(readOnly = true)
+    public List<Order> searchOrders(OrderStatus status, LocalDateTime from, LocalDateTime to, Long userId, Long cursor, int limit) {
+        Specification<Order> spec = Specification.allOf(
+                OrderSpecifications.hasStatus(status),
+                OrderSpecifications.orderedBetween(from, to),
+                OrderSpecifications.belongsToUser(userId),
+                OrderSpecifications.idBefore(cursor),
+                OrderSpecifications.fetchUser());
+        return orderRepository.findBy(spec, query -> query.sortBy(Sort.by(Sort.Direction.DESC, "id")).limit(limit).all());
     }
 
     /**
      * 注文IDで注文を取得する。
+     * 現行テーブルはアーカイブ境界以降の月次パーティションだけを読み、ない場合はアーカイブを参照する
+     * （アーカイブ済みの注文は永続化されないOrderとして返す）。
      * @param orderId 注文ID
      * @return 注文（Optional）
      */
+    @Transactional(readOnly = true)
     public Optional<Order> getOrderById(Long orderId) {
-        return orderRepository.findById(orderId);
+        Optional<Order> order = orderRepository.findByIdAndOrderDateGreaterThanEqual(orderId, orderArchiveService.hotFrom());
+        if (order.isPresent()) {
+            return order;
+        }
+        return archivedOrderRepository.findWithItemsById(orderId).map(ArchivedOrder::toOrder);
     }
 
     /**
-     * PaymentIntent IDで注文を検索する
+     * 支払い確認待ち（保留中でPaymentIntentが記録済み）の注文を、afterIdより後からID順に取得する。
+     * アーカイブ境界以降の月次パーティションだけを読む。
+     * @param afterId 前ページの最後の注文ID（最初のページは0）
+     * @param placedBefore この日時より前に作成された注文のみ（支払い手続き中の注文を除くため）
+     * @param limit 取得件数
+     * @return 注文一覧（ID昇順）
+     */
+    @Transactional(readOnly = true)
+    public List<Order> findPendingPayments(Long afterId, LocalDateTime placedBefore, int limit) {
+        return orderRepository.findPendingPaymentsAfter(
+                afterId, orderArchiveService.hotFrom(), placedBefore, OrderStatus.PENDING, PageRequest.of(0, limit));
+    }
+
+    /**
+     * PaymentIntent IDで注文を検索する（PaymentIntentが現在記録されている注文のみ）
+     * 支払い状態の更新に使うため、現行テーブルのみを対象とする（アーカイブ済みの注文は確定済みで更新しない）
+     * 対応表から注文の主キー（id, order_date）を引いてから取得するため、該当するパーティションだけを読む
      */
     public Optional<Order> findByPaymentIntentId(String paymentIntentId) {
-        return orderRepository.findByPaymentIntentId(paymentIntentId);
+        return orderPaymentIntentRepository.findById(paymentIntentId)
+            .flatMap(link -> orderRepository.findWithItemsByIdAndOrderDate(link.getOrderId(), link.getOrderDate()))
+            .filter(order -> paymentIntentId.equals(order.getPaymentIntentId()));
     }
 
     /**
      * 支払い成功時に注文のステータスを更新する
+     * 注文は主キー（PaymentIntentのメタデータの注文ID）で特定し、メタデータがない場合だけPaymentIntent IDで検索する
+     * 注文IDで特定する場合は、アーカイブ境界以降の月次パーティションだけを対象とする
+     * 状態遷移は保留中→支払い済みのみ許可し、条件付きUPDATEで確定する（重複・競合したWebhookでは何もしない）
+     * 支払いに成功したPaymentIntentを注文に記録するため、注文への記録より先にWebhookが届いても反映できる
+     * @param orderId 注文ID（メタデータがない場合null）
+     * @param paymentIntentId 支払いに成功したPaymentIntent ID
+     * @return 注文（既に支払い済み・キャンセル済みの場合は変更せずに返す）
+     * @throws IllegalStateException 該当する注文がない場合
+     */
+    @Transactional
+    public Order markOrderAsPaid(Long orderId, String paymentIntentId) {
+        if (orderId == null) {
+            return markOrderAsPaid(paymentIntentId);
+        }
+        LocalDateTime placedFrom = orderArchiveService.hotFrom();
+        boolean transitioned = orderRepository.transitionStatusRecordingPaymentIntent(
+                orderId, placedFrom, paymentIntentId, OrderStatus.PENDING, OrderStatus.PAID) == 1;
+        if (transitioned) {
+            linkPaymentIntent(orderId, paymentIntentId);
+        }
+        Order order = findWithItemsById(orderId, placedFrom);
+        return transitioned ? onPaid(order) : skipTransition(order, OrderStatus.PAID);
+    }
+
+    /**
+     * 支払い成功時に注文のステータスを更新する（PaymentIntent IDで注文を検索する）
+     * @return 注文（既に支払い済み・キャンセル済みの場合は変更せずに返す）
+     * @throws IllegalStateException 該当する注文がない場合
      */
     @Transactional
     public Order markOrderAsPaid(String paymentIntentId) {
-        Order order = findByPaymentIntentId(paymentIntentId)
-            .orElseThrow(() -> new IllegalStateException(
-                "PaymentIntent ID: " + paymentIntentId + " の注文が見つかりません"));
-        
-        order.setStatus(OrderStatus.PAID);
-        return orderRepository.save(order);
+        OrderPaymentIntent link = findPaymentIntentLink(paymentIntentId);
+        boolean transitioned = orderRepository.transitionStatusByPaymentIntentId(
+                link.getOrderId(), link.getOrderDate(), paymentIntentId, OrderStatus.PENDING, OrderStatus.PAID) == 1;
+        Order order = findWithItemsById(link);
+        return transitioned ? onPaid(order) : skipTransition(order, OrderStatus.PAID);
     }
 
     /**
      * 支払い失敗時に在庫を復元し注文をキャンセルする
+     * 注文は主キー（PaymentIntentのメタデータの注文ID）で特定し、メタデータがない場合だけPaymentIntent IDで検索する
+     * 注文IDで特定する場合は、アーカイブ境界以降の月次パーティションだけを対象とする
+     * 状態遷移は保留中→キャンセルのみ許可し、遷移できた場合だけ在庫を戻す（重複したWebhookで在庫を二重に戻さない）
+     * 注文に記録済みのPaymentIntentと異なる（差し替え前の）PaymentIntentの失敗ではキャンセルしない
+     * @param orderId 注文ID（メタデータがない場合null）
+     * @param paymentIntentId 支払いに失敗したPaymentIntent ID
+     * @throws IllegalStateException 該当する注文がない場合
+     * @throws PaymentIntentNotLinkedException PaymentIntentがまだ注文に記録されていない場合（再試行で解消する）
+     */
+    @Transactional
+    public void cancelOrderAndRestoreInventory(Long orderId, String paymentIntentId) {
+        if (orderId == null) {
+            cancelOrderAndRestoreInventory(paymentIntentId);
+            return;
+        }
+        LocalDateTime placedFrom = orderArchiveService.hotFrom();
+        boolean transitioned = orderRepository.transitionStatusIfPaymentIntent(
+                orderId, placedFrom, paymentIntentId, OrderStatus.PENDING, OrderStatus.CANCELLED) == 1;
+        Order order = findWithItemsById(orderId, placedFrom);
+        if (transitioned) {
+            onCancelled(order);
+            return;
+        }
+        if (order.getStatus() == OrderStatus.PENDING && order.getPaymentIntentId() == null) {
+            throw new PaymentIntentNotLinkedException(
+                "PaymentIntent ID: " + paymentIntentId + " はまだ注文ID: " + orderId + " に記録されていません");
+        }
+        skipTransition(order, OrderStatus.CANCELLED);
+    }
+
+    /**
+     * 支払い失敗時に在庫を復元し注文をキャンセルする（PaymentIntent IDで注文を検索する）
+     * @throws IllegalStateException 該当する注文がない場合
      */
     @Transactional
     public void cancelOrderAndRestoreInventory(String paymentIntentId) {
-        Order order = findByPaymentIntentId(paymentIntentId)
+        OrderPaymentIntent link = findPaymentIntentLink(paymentIntentId);
+        boolean transitioned = orderRepository.transitionStatusByPaymentIntentId(
+                link.getOrderId(), link.getOrderDate(), paymentIntentId, OrderStatus.PENDING, OrderStatus.CANCELLED) == 1;
+        Order order = findWithItemsById(link);
+        if (transitioned) {
+            onCancelled(order);
+        } else {
+            skipTransition(order, OrderStatus.CANCELLED);
+        }
+    }
+
+    /**
+     * 支払い状態の更新対象の注文を明細付きで取得する（placedFrom以降の月次パーティションだけを読む）
+     */
+    private Order findWithItemsById(Long orderId, LocalDateTime placedFrom) {
+        return orderRepository.findWithItemsByIdAndOrderDateGreaterThanEqual(orderId, placedFrom)
+            .orElseThrow(() -> new IllegalStateException("注文ID: " + orderId + " の注文が見つかりません"));
+    }
+
+    /**
+     * 対応表で特定した注文を明細付きで取得する（order_dateで該当するパーティションだけを読む）
+     */
+    private Order findWithItemsById(OrderPaymentIntent link) {
+        return orderRepository.findWithItemsByIdAndOrderDate(link.getOrderId(), link.getOrderDate())
+            .orElseThrow(() -> new IllegalStateException("注文ID: " + link.getOrderId() + " の注文が見つかりません"));
+    }
+
+    /**
+     * PaymentIntent IDに対応する注文の主キーを対応表から取得する
+     * @throws IllegalStateException 対応する注文がない場合
+     */
+    private OrderPaymentIntent findPaymentIntentLink(String paymentIntentId) {
+        return orderPaymentIntentRepository.findById(paymentIntentId)
             .orElseThrow(() -> new IllegalStateException(
                 "PaymentIntent ID: " + paymentIntentId + " の注文が見つかりません"));
-        
-        // 在庫を復元
+    }
+
+    /**
+     * 注文に記録したPaymentIntentを対応表に登録する
+     * PaymentIntent IDは1つの注文にだけ対応させる（別の注文に登録済みの場合は例外とし、注文の更新もロールバックする）
+     * @throws IllegalStateException PaymentIntentが別の注文に登録済みの場合
+     */
+    private void linkPaymentIntent(Long orderId, String paymentIntentId) {
+        orderPaymentIntentRepository.insertIfAbsent(paymentIntentId, orderId, orderArchiveService.hotFrom());
+        Long linkedOrderId = orderPaymentIntentRepository.findById(paymentIntentId)
+            .map(OrderPaymentIntent::getOrderId)
+            .orElse(null);
+        if (!orderId.equals(linkedOrderId)) {
+            throw new IllegalStateException(
+                "PaymentIntent ID: " + paymentIntentId + " は別の注文（注文ID: " + linkedOrderId + "）に記録済みです");
+        }
+    }
+
+    /**
+     * 支払い済みに遷移した注文のイベントを発行する
+     */
+    private Order onPaid(Order order) {
+        eventPublisher.publishEvent(new OrderLifecycleEvent(order, OrderEventType.ORDER_PAID));
+        return order;
+    }
+
+    /**
+     * キャンセルに遷移した注文の在庫を戻し、イベントを発行する
+     */
+    private void onCancelled(Order order) {
+        // 在庫を復元（商品ごとに加算UPDATEを発行し、読み取り時点の在庫数で上書きしない）
         for (OrderItem item : order.getOrderItems()) {
-            Product product = item.getProduct();
-            product.setUnitsInStock(product.getUnitsInStock() + item.getQuantity());
-            productRepository.save(product);
+            productRepository.restoreStock(item.getProduct().getId(), item.getQuantity());
         }
-        
-        order.setStatus(OrderStatus.CANCELLED);
-        orderRepository.save(order);
+        eventPublisher.publishEvent(new OrderLifecycleEvent(order, OrderEventType.ORDER_CANCELLED));
     }
 
     /**
-     * 注文を保存する
+     * 遷移できなかった注文をログに残してそのまま返す（重複・順序が前後したWebhook）
+     */
+    private Order skipTransition(Order order, OrderStatus target) {
+        log.info("注文が保留中でない、または別のPaymentIntentが記録されているため{}にしません: orderId={}, status={}, paymentIntentId={}",
+                target, order.getId(), order.getStatus(), order.getPaymentIntentId());
+        return order;
+    }
+
+    /**
+     * 作成したPaymentIntentのIDを注文に記録する
+     * 条件付きUPDATEで、保留中かつ記録済みのIDが読み取り時点から変わっていない場合だけ差し替える
+     * @param orderId 注文ID
+     * @param expectedPaymentIntentId 読み取り時点で記録されていたPaymentIntent ID（未作成の場合はnull）
+     * @param paymentIntentId 記録するPaymentIntent ID
+     * @return 記録できた場合true（他のリクエストが別のPaymentIntentを記録済み、または保留中でない場合false）
+     * @throws IllegalStateException PaymentIntentが別の注文に記録済みの場合
      */
+    @Transactional
+    public boolean assignPaymentIntent(Long orderId, String expectedPaymentIntentId, String paymentIntentId) {
+        if (orderRepository.assignPaymentIntentIfUnchanged(
+                orderId, orderArchiveService.hotFrom(), expectedPaymentIntentId, paymentIntentId, OrderStatus.PENDING) != 1) {
+            return false;
+        }
+        linkPaymentIntent(orderId, paymentIntentId);
+        return true;
+    }
+
+    /**
+     * 注文を保存する（PaymentIntentが記録されている場合は対応表にも登録する）
+     */
+    @Transactional
     public Order saveOrder(Order order) {
-        return orderRepository.save(order);
+        Order saved = orderRepository.save(order);
+        if (saved.getPaymentIntentId() != null) {
+            linkPaymentIntent(saved.getId(), saved.getPaymentIntentId());
+        }
+        return saved;
     }    
 }
\ No newline at end of file
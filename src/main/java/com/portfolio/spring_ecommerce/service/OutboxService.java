@@ -0,0 +1,186 @@
+package com.portfolio.spring_ecommerce.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.portfolio.spring_ecommerce.event.OrderLifecycleEvent;
+import com.portfolio.spring_ecommerce.model.Order;
+import com.portfolio.spring_ecommerce.model.OrderItem;
+import com.portfolio.spring_ecommerce.model.OutboxEvent;
+import com.portfolio.spring_ecommerce.model.enums.OutboxEventStatus;
+import com.portfolio.spring_ecommerce.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * トランザクショナルアウトボックスを扱うサービスクラス。
+ * 注文の状態変更と同じトランザクションでイベントを記録し、リレーから配信先へ送る。
+ * リレーは配信待ちのイベントを短いトランザクションでリースしてから、トランザクションの外で配信する。
+ * 配信に失敗したイベントは指数バックオフで再試行し、上限に達したものはデッドレター（DEAD）として残す。
+ */
+@Service
+public class OutboxService {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxService.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${outbox.relay.max-attempts:20}")
+    private int maxAttempts = 20;
+
+    @Value("${outbox.relay.backoff-initial-ms:2000}")
+    private long backoffInitialMs = 2000;
+
+    @Value("${outbox.relay.backoff-max-ms:600000}")
+    private long backoffMaxMs = 600000;
+
+    @Value("${outbox.relay.lease-ms:300000}")
+    private long leaseMs = 300000;
+
+    /**
+     * OutboxServiceのコンストラクタ。
+     * @param outboxEventRepository アウトボックスリポジトリ
+     * @param objectMapper イベント本文のJSON変換に使用するObjectMapper
+     */
+    public OutboxService(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 注文イベントをアウトボックスに記録する。
+     * 注文の状態変更と同じトランザクションで実行されるため、片方だけが確定することはない。
+     * 通し番号は注文の行ロック（作成時のINSERT、遷移時の条件付きUPDATE）を持った状態で採番するため、同じ注文では確定順に並ぶ。
+     * @param event 注文ライフサイクルイベント
+     */
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onOrderEvent(OrderLifecycleEvent event) {
+        Order order = event.getOrder();
+        long aggregateSeq = outboxEventRepository.findMaxAggregateSeq(order.getId()) + 1;
+        outboxEventRepository.save(new OutboxEvent(order.getId(), aggregateSeq, event.getType(), toPayload(event)));
+    }
+
+    /**
+     * 配信期限の来たイベントを最大limit件取得し、配信中としてリースする。
+     * リース中（next_attempt_atを未来に延ばした間）は他のノードに取得されず、
+     * リレーが配信途中で停止した場合はリース切れ後に再び取得される。
+     * 同じ注文のイベントは先頭の1件だけを取得するため、配信の成否が決まるまで後続は送られない。
+     * @param limit 取得する最大件数
+     * @return 取得したイベント（トランザクション確定後に配信する）
+     */
+    @Transactional
+    public List<OutboxEvent> claimDue(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> due = outboxEventRepository.findDueForUpdate(OutboxEventStatus.PENDING, now, PageRequest.of(0, limit));
+        for (OutboxEvent event : due) {
+            event.setAttempts(event.getAttempts() + 1);
+            event.setNextAttemptAt(now.plus(Duration.ofMillis(leaseMs)));
+        }
+        return due;
+    }
+
+    /**
+     * 配信できたイベントを配信完了にする。
+     * @param id イベントID（outbox.id）
+     */
+    @Transactional
+    public void markPublished(Long id) {
+        OutboxEvent event = outboxEventRepository.findById(id).orElse(null);
+        if (event == null || event.getStatus() != OutboxEventStatus.PENDING) {
+            return;
+        }
+        event.setStatus(OutboxEventStatus.PUBLISHED);
+        event.setPublishedAt(LocalDateTime.now());
+        event.setLastError(null);
+    }
+
+    /**
+     * 配信に失敗したイベントの再試行を予約する。
+     * 試行回数が上限に達した場合はDEADにし、以降は自動では配信しない（同じ注文の後続イベントの配信は再開される）。
+     * @param id イベントID（outbox.id）
+     * @param error 配信時に発生した例外
+     */
+    @Transactional
+    public void recordFailure(Long id, Exception error) {
+        OutboxEvent event = outboxEventRepository.findById(id).orElse(null);
+        if (event == null || event.getStatus() != OutboxEventStatus.PENDING) {
+            return;
+        }
+        event.setLastError(truncate(error.getMessage()));
+
+        if (event.getAttempts() >= maxAttempts) {
+            event.setStatus(OutboxEventStatus.DEAD);
+            log.error("Outboxイベントの配信を断念しました: id={}, orderId={}, type={}, attempts={}",
+                    event.getId(), event.getAggregateId(), event.getEventType(), event.getAttempts(), error);
+            return;
+        }
+
+        event.setNextAttemptAt(LocalDateTime.now().plus(backoff(event.getAttempts())));
+        log.warn("Outboxイベントの配信に失敗しました。再試行します: id={}, orderId={}, attempts={}, next={}",
+                event.getId(), event.getAggregateId(), event.getAttempts(), event.getNextAttemptAt(), error);
+    }
+
+    /**
+     * イベント本文（JSON）を作成する
+     */
+    private String toPayload(OrderLifecycleEvent event) {
+        Order order = event.getOrder();
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("eventType", event.getType());
+        payload.put("orderId", order.getId());
+        payload.put("userId", order.getUser().getId());
+        payload.put("status", order.getStatus());
+        payload.put("totalAmountMinor", order.getTotalAmountMinor());
+        payload.put("currency", order.getCurrency());
+        payload.put("orderDate", order.getOrderDate());
+        payload.put("occurredAt", event.getOccurredAt());
+
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (OrderItem item : order.getOrderItems()) {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("productId", item.getProduct().getId());
+            line.put("quantity", item.getQuantity());
+            line.put("priceMinor", item.getPriceMinor());
+            items.add(line);
+        }
+        payload.put("items", items);
+
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Outboxイベントの作成に失敗しました: orderId=" + order.getId(), e);
+        }
+    }
+
+    /**
+     * 試行回数に応じた再試行までの待ち時間（指数バックオフ、上限付き、ジッターで待ち時間の後半半分に分散）
+     */
+    private Duration backoff(int attempts) {
+        long exponential = backoffInitialMs << Math.min(attempts - 1, 30);
+        long capped = Math.min(backoffMaxMs, exponential > 0 ? exponential : backoffMaxMs);
+        long half = capped / 2;
+        return Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(half + 1));
+    }
+
+    private String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
\ No newline at end of file
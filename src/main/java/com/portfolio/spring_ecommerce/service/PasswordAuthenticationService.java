@@ -0,0 +1,148 @@
+package com.portfolio.spring_ecommerce.service;
+
+import com.portfolio.spring_ecommerce.model.User;
+import com.portfolio.spring_ecommerce.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ログイン時のパスワード照合を行うサービスクラス。
+ * CPUを占有するBCryptの照合は専用の有界スレッドプールで実行し、ログインが集中してもリクエスト処理スレッドを占有しない。
+ * プールとキューが満杯の場合やタイムアウトした場合は待たせずに失敗させる（呼び出し側で503を返す）。
+ * 照合に成功したパスワードのハッシュが設定より低いコストの場合は、新しいコストで再計算して保存する。
+ */
+@Service
+public class PasswordAuthenticationService {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordAuthenticationService.class);
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final Counter rejected;
+
+    // 存在しないユーザー名でも照合と同じ時間をかけるためのハッシュ（応答時間からユーザーの有無を推測させない）
+    private final String dummyHash;
+
+    /**
+     * PasswordAuthenticationServiceのコンストラクタ。
+     * @param userRepository ユーザーリポジトリ
+     * @param passwordEncoder パスワードエンコーダー
+     * @param meterRegistry メトリクスの登録先
+     * @param threads 照合スレッド数（0以下の場合はCPUコア数）
+     * @param queueCapacity スレッドがすべて使用中の場合に待機できる件数（超えた照合は即座に失敗する）
+     * @param timeoutMs 照合1件あたりのタイムアウト（待機時間を含む）
+     */
+    public PasswordAuthenticationService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${auth.password.threads:0}") int threads,
+                                         @Value("${auth.password.queue-capacity:50}") int queueCapacity,
+                                         @Value("${auth.password.timeout-ms:5000}") long timeoutMs) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.timeoutMs = timeoutMs;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        this.dummyHash = passwordEncoder.encode("dummy-password");
+
+        Gauge.builder("auth.password.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+        Gauge.builder("auth.password.queued", executor, e -> e.getQueue().size()).register(meterRegistry);
+        this.rejected = meterRegistry.counter("auth.password.rejected");
+    }
+
+    /**
+     * ユーザー名とパスワードを非同期に照合する。
+     * @param username ユーザー名
+     * @param rawPassword 平文のパスワード
+     * @return 照合に成功した場合はユーザー、失敗した場合は空。
+     *         プールが満杯の場合はRejectedExecutionException、タイムアウトの場合はTimeoutExceptionで例外完了する
+     */
+    public CompletableFuture<Optional<User>> authenticate(String username, String rawPassword) {
+        CompletableFuture<Optional<User>> result = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = executor.submit(() -> {
+                // 待機中にタイムアウトした照合は実行しない
+                if (result.isDone()) {
+                    return;
+                }
+                try {
+                    result.complete(verify(username, rawPassword));
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(e);
+        }
+        result.orTimeout(timeoutMs, TimeUnit.MILLISECONDS).whenComplete((user, error) -> {
+            if (error != null) {
+                task.cancel(false);
+            }
+        });
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private Optional<User> verify(String username, String rawPassword) {
+        Optional<User> found = userRepository.findByUsername(username);
+        if (found.isEmpty() || found.get().getPassword() == null) {
+            passwordEncoder.matches(rawPassword, dummyHash);
+            return Optional.empty();
+        }
+        User user = found.get();
+        if (!passwordEncoder.matches(rawPassword, user.getPassword())) {
+            return Optional.empty();
+        }
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            rehash(user, rawPassword);
+        }
+        return Optional.of(user);
+    }
+
+    // 現在のコストでハッシュを再計算して保存する（失敗してもログインは成功させる）
+    private void rehash(User user, String rawPassword) {
+        String upgraded = passwordEncoder.encode(rawPassword);
+        try {
+            if (userRepository.updatePasswordHash(user.getId(), user.getPassword(), upgraded) > 0) {
+                user.setPassword(upgraded);
+                log.debug("パスワードのハッシュを再計算しました: userId={}", user.getId());
+            }
+        } catch (RuntimeException e) {
+            log.warn("パスワードのハッシュの再計算結果を保存できませんでした: userId={}", user.getId(), e);
+        }
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "password-verifier-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
\ No newline at end of file
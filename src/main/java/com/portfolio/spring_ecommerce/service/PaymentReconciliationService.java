@@ -0,0 +1,209 @@
+package com.portfolio.spring_ecommerce.service;
+
+import com.portfolio.spring_ecommerce.gateway.PaymentGateway;
+import com.portfolio.spring_ecommerce.gateway.PaymentIntentSnapshot;
+import com.portfolio.spring_ecommerce.model.Order;
+import com.portfolio.spring_ecommerce.util.RateLimiter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 保留中の注文の支払い状態を決済プロバイダーと照合するサービスクラス。
+ * Webhookを取りこぼして保留中のまま残った注文を、PaymentIntentの状態に合わせて支払い済み・キャンセルにする。
+ * 注文はID順のキーセットページングで読み、PaymentIntentの取得は同時実行数とレートを制限して行う。
+ * 1回の照合は件数と時間の上限までとし、残りは次回の照合で続きの注文IDから再開する（定期ジョブのスレッドを長時間占有しない）。
+ */
+@Service
+public class PaymentReconciliationService {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentReconciliationService.class);
+
+    private final OrderService orderService;
+    private final PaymentService paymentService;
+    private final PaymentGateway paymentGateway;
+    private final MeterRegistry meterRegistry;
+
+    // 照合対象のうち最も古い注文の経過秒数（直近の照合時点）
+    private final AtomicLong oldestPendingSeconds = new AtomicLong();
+
+    // 前回の照合が上限で打ち切られた位置（この注文IDの後から再開する、最後まで照合した場合は0）
+    private final AtomicLong resumeAfterId = new AtomicLong();
+
+    @Value("${payment.reconciliation.page-size:100}")
+    private int pageSize = 100;
+
+    @Value("${payment.reconciliation.concurrency:4}")
+    private int concurrency = 4;
+
+    @Value("${payment.reconciliation.rate-per-second:20}")
+    private double ratePerSecond = 20;
+
+    @Value("${payment.reconciliation.min-age-ms:600000}")
+    private long minAgeMs = 600000;
+
+    @Value("${payment.reconciliation.max-orders-per-sweep:2000}")
+    private int maxOrdersPerSweep = 2000;
+
+    @Value("${payment.reconciliation.max-sweep-ms:120000}")
+    private long maxSweepMs = 120000;
+
+    /**
+     * PaymentReconciliationServiceのコンストラクタ。
+     * @param orderService 注文サービス
+     * @param paymentService 支払いサービス（PaymentIntentキャッシュの更新に使用）
+     * @param paymentGateway 決済ゲートウェイ（PaymentIntentの最新状態の取得に使用）
+     * @param meterRegistry 照合結果のメトリクス登録先
+     */
+    public PaymentReconciliationService(OrderService orderService, PaymentService paymentService,
+                                        PaymentGateway paymentGateway, MeterRegistry meterRegistry) {
+        this.orderService = orderService;
+        this.paymentService = paymentService;
+        this.paymentGateway = paymentGateway;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("payment.reconciliation.oldest.pending", oldestPendingSeconds, AtomicLong::get)
+                .description("照合対象のうち最も古い保留中注文の経過秒数")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 作成から一定時間（min-age-ms）以上経った保留中の注文を照合する。
+     * PaymentIntentが成功済みなら支払い済みに、キャンセル済みならキャンセル（在庫を復元）にする。
+     * 取得に失敗した注文はそのままにし、次回の照合で再確認する。
+     * 照合件数（max-orders-per-sweep）か経過時間（max-sweep-ms）が上限に達した場合は打ち切り、次回は続きから照合する。
+     * @return 照合結果の件数
+     * @throws InterruptedException レート制限・同時実行数の待機中に割り込まれた場合
+     */
+    public Result reconcile() throws InterruptedException {
+        Timer.Sample sweep = Timer.start(meterRegistry);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime placedBefore = now.minus(Duration.ofMillis(minAgeMs));
+        RateLimiter rateLimiter = new RateLimiter(ratePerSecond);
+        Semaphore permits = new Semaphore(concurrency);
+        Result result = new Result();
+        long deadline = System.nanoTime() + Duration.ofMillis(maxSweepMs).toNanos();
+
+        long afterId = resumeAfterId.get();
+        boolean exhausted = false;
+        List<Order> page;
+        do {
+            page = orderService.findPendingPayments(afterId, placedBefore, pageSize);
+            if (afterId == 0) {
+                // 先頭から読んだページにだけ最も古い注文が含まれる
+                oldestPendingSeconds.set(page.stream()
+                        .map(order -> Duration.between(order.getOrderDate(), now).toSeconds())
+                        .max(Long::compare)
+                        .orElse(0L));
+            }
+
+            List<CompletableFuture<PaymentIntentSnapshot>> lookups = new ArrayList<>(page.size());
+            for (Order order : page) {
+                if (result.getChecked() + lookups.size() >= maxOrdersPerSweep || System.nanoTime() >= deadline) {
+                    exhausted = true;
+                    break;
+                }
+                rateLimiter.acquire();
+                permits.acquire();
+                lookups.add(paymentGateway.retrievePaymentIntent(order.getPaymentIntentId())
+                        .whenComplete((snapshot, error) -> permits.release()));
+            }
+            for (int i = 0; i < lookups.size(); i++) {
+                result.add(apply(page.get(i), lookups.get(i)));
+            }
+            if (!lookups.isEmpty()) {
+                afterId = page.get(lookups.size() - 1).getId();
+            }
+        } while (!exhausted && page.size() == pageSize);
+
+        resumeAfterId.set(exhausted ? afterId : 0);
+        if (exhausted) {
+            log.info("照合の上限に達したため、次回は注文ID {} の後から再開します: checked={}", afterId, result.getChecked());
+        }
+        sweep.stop(meterRegistry.timer("payment.reconciliation.sweep"));
+        return result;
+    }
+
+    /**
+     * 取得したPaymentIntentの状態を注文に反映する
+     */
+    private String apply(Order order, CompletableFuture<PaymentIntentSnapshot> lookup) {
+        String outcome;
+        try {
+            PaymentIntentSnapshot snapshot = lookup.join();
+            switch (snapshot.status()) {
+                case "succeeded" -> {
+                    orderService.markOrderAsPaid(order.getId(), snapshot.id());
+                    outcome = "paid";
+                }
+                case "canceled" -> {
+                    orderService.cancelOrderAndRestoreInventory(order.getId(), snapshot.id());
+                    outcome = "cancelled";
+                }
+                default -> outcome = "unchanged";
+            }
+            // 取得した状態はキャッシュに書き込まず、注文の更新後に無効化する
+            paymentService.onPaymentIntentChanged(order.getId());
+        } catch (Exception e) {
+            log.warn("注文の支払い状態を照合できませんでした: orderId={}, paymentIntentId={}", order.getId(), order.getPaymentIntentId(), e);
+            outcome = "error";
+        }
+
+        meterRegistry.counter("payment.reconciliation.orders", "outcome", outcome).increment();
+        if (outcome.equals("paid") || outcome.equals("cancelled")) {
+            // Webhookの取りこぼしから照合で反映されるまでの時間（注文作成からの経過時間）
+            meterRegistry.timer("payment.reconciliation.lag", "outcome", outcome)
+                    .record(Duration.between(order.getOrderDate(), LocalDateTime.now()));
+            log.info("照合により注文の支払い状態を反映しました: orderId={}, outcome={}", order.getId(), outcome);
+        }
+        return outcome;
+    }
+
+    /**
+     * 1回の照合の結果（件数）
+     */
+    public static class Result {
+        private int checked;
+        private int paid;
+        private int cancelled;
+        private int failed;
+
+        void add(String outcome) {
+            checked++;
+            switch (outcome) {
+                case "paid" -> paid++;
+                case "cancelled" -> cancelled++;
+                case "error" -> failed++;
+                default -> { }
+            }
+        }
+
+        public int getChecked() {
+            return checked;
+        }
+
+        public int getPaid() {
+            return paid;
+        }
+
+        public int getCancelled() {
+            return cancelled;
+        }
+
+        public int getFailed() {
+            return failed;
+        }
+    }
+}
\ No newline at end of file
@@ -1,51 +1,125 @@
 package com.portfolio.spring_ecommerce.service;
 
 import com.portfolio.spring_ecommerce.dto.OrderDTO;
-import com.stripe.Stripe;
-import com.stripe.exception.StripeException;
-import com.stripe.model.PaymentIntent;
-import com.stripe.param.PaymentIntentCreateParams;
-import jakarta.annotation.PostConstruct;
-import org.springframework.beans.factory.annotation.Value;
+import com.portfolio.spring_ecommerce.exception.PaymentIntentConflictException;
+import com.portfolio.spring_ecommerce.gateway.PaymentGateway;
+import com.portfolio.spring_ecommerce.gateway.PaymentIntentCache;
+import com.portfolio.spring_ecommerce.gateway.PaymentIntentRequest;
+import com.portfolio.spring_ecommerce.gateway.PaymentIntentSnapshot;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 /**
  * 支払い処理に関するビジネスロジックを処理するサービスクラス。
+ * 決済プロバイダーの呼び出しはPaymentGateway経由で非同期に行い、注文ごとのPaymentIntentは短時間キャッシュする。
  */
 @Service
 public class PaymentService {
 
-    @Value("${stripe.api.key.secret}")
-    private String secretKey;
+    private final PaymentGateway paymentGateway;
+    private final PaymentIntentCache paymentIntentCache;
+    private final OrderService orderService;
+    // 作成したPaymentIntentを注文に記録する（DB書き込み）スレッドプール（ゲートウェイのスレッドをプロバイダー呼び出し以外で占有しない）
+    private final Executor taskExecutor;
+
+    // 注文IDごとの実行中のPaymentIntent作成
+    private final Map<Long, CompletableFuture<PaymentIntentSnapshot>> inFlightCreations = new ConcurrentHashMap<>();
+
+    /**
+     * PaymentServiceのコンストラクタ。
+     * @param paymentGateway 決済ゲートウェイ
+     * @param paymentIntentCache 注文ごとのPaymentIntentキャッシュ
+     * @param orderService 注文サービス（作成したPaymentIntentの記録に使用）
+     * @param taskExecutor 注文への記録を実行するスレッドプール
+     */
+    public PaymentService(PaymentGateway paymentGateway, PaymentIntentCache paymentIntentCache, OrderService orderService,
+                          @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor taskExecutor) {
+        this.paymentGateway = paymentGateway;
+        this.paymentIntentCache = paymentIntentCache;
+        this.orderService = orderService;
+        this.taskExecutor = taskExecutor;
+    }
 
-    @PostConstruct
-    public void init() {
-        Stripe.apiKey = secretKey;
+    /**
+     * 注文情報に基づいてPaymentIntentを作成し、注文に記録する。
+     * 同じ注文への同時の作成要求は実行中の1件を共有し、プロバイダーには注文・金額から決まる冪等キーを送る
+     * （複数ノードから同時に作成しても同じPaymentIntentになる）。
+     * 注文への記録は条件付きUPDATEで行い、読み取り後に他のリクエストが別のPaymentIntentを記録していた場合は上書きしない。
+     * 記録はゲートウェイのスレッドではなくアプリケーションのタスク実行プールで行う。
+     *
+     * @param orderDTO 注文情報を含むDTO（paymentIntentIdは読み取り時点で記録されていた値）
+     * @return 作成されたPaymentIntent。失敗時はPaymentGatewayException、記録の競合時はPaymentIntentConflictException、
+     *         記録の実行枠が埋まっている場合はRejectedExecutionExceptionで例外完了する
+     */
+    public CompletableFuture<PaymentIntentSnapshot> createPaymentIntent(OrderDTO orderDTO) {
+        Long orderId = orderDTO.getId();
+        CompletableFuture<PaymentIntentSnapshot> creation = new CompletableFuture<>();
+        CompletableFuture<PaymentIntentSnapshot> inFlight = inFlightCreations.putIfAbsent(orderId, creation);
+        if (inFlight != null) {
+            return inFlight;
+        }
+
+        String replacedPaymentIntentId = orderDTO.getPaymentIntentId();
+        PaymentIntentRequest request = PaymentIntentRequest.forOrder(
+                orderId, orderDTO.getTotalAmountMinor(), orderDTO.getCurrency(), replacedPaymentIntentId);
+        paymentGateway.createPaymentIntent(request)
+                .thenApplyAsync(snapshot -> {
+                    if (!orderService.assignPaymentIntent(orderId, replacedPaymentIntentId, snapshot.id())) {
+                        throw new PaymentIntentConflictException("注文ID: " + orderId + " のPaymentIntentは既に更新されています");
+                    }
+                    paymentIntentCache.put(orderId, snapshot);
+                    return snapshot;
+                }, taskExecutor)
+                .whenComplete((snapshot, error) -> {
+                    inFlightCreations.remove(orderId, creation);
+                    if (error != null) {
+                        creation.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                    } else {
+                        creation.complete(snapshot);
+                    }
+                });
+        return creation;
+    }
+
+    /**
+     * 注文の既存のPaymentIntentを取得する。
+     * 直近に作成・取得した内容がキャッシュにあればプロバイダーを呼ばずに返す。
+     *
+     * @param orderId 注文ID
+     * @param paymentIntentId 注文に記録されているPaymentIntent ID
+     * @return 取得したPaymentIntent。失敗時はPaymentGatewayExceptionで例外完了する
+     */
+    public CompletableFuture<PaymentIntentSnapshot> retrievePaymentIntent(Long orderId, String paymentIntentId) {
+        return paymentIntentCache.get(orderId, paymentIntentId,
+                () -> paymentGateway.retrievePaymentIntent(paymentIntentId));
     }
 
     /**
-     * 注文情報に基づいてStripeのPaymentIntentを作成する。
+     * Webhook・照合で注文のPaymentIntentの状態が変わったことを受け、キャッシュを無効化する。
+     * 通知された内容は書き込まない（順序が前後した古い通知で新しい状態を上書きしない）。次の取得でプロバイダーから最新の状態を取得する。
+     * トランザクション内で呼ばれた場合は、注文の更新がコミットされた後に無効化する（ロールバックした場合は、イベントの再試行で無効化される）。
      *
-     * @param orderDTO 注文情報を含むDTO
-     * @return 作成されたPaymentIntentオブジェクト
-     * @throws StripeException Stripe API呼び出し中にエラーが発生した場合
+     * @param orderId 注文ID（PaymentIntentのメタデータ）
      */
-    public PaymentIntent createPaymentIntent(OrderDTO orderDTO) throws StripeException {
-        long amountInCents = (long) (orderDTO.getTotalAmount() * 100);
-
-        PaymentIntentCreateParams params =
-                PaymentIntentCreateParams.builder()
-                        .setAmount(amountInCents)
-                        .setCurrency("usd")
-                        .putMetadata("orderId", orderDTO.getId().toString())
-                        .setAutomaticPaymentMethods(
-                                PaymentIntentCreateParams.AutomaticPaymentMethods.builder()
-                                    .setEnabled(true)
-                                    .setAllowRedirects(PaymentIntentCreateParams.AutomaticPaymentMethods.AllowRedirects.NEVER)
-                                    .build()
-                        )
-                        .build();
-
-        return PaymentIntent.create(params);
+    public void onPaymentIntentChanged(Long orderId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            paymentIntentCache.invalidate(orderId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                paymentIntentCache.invalidate(orderId);
+            }
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,137 @@
+package com.portfolio.spring_ecommerce.service;
+
+import com.portfolio.spring_ecommerce.exception.InvalidRefreshTokenException;
+import com.portfolio.spring_ecommerce.model.RefreshToken;
+import com.portfolio.spring_ecommerce.model.User;
+import com.portfolio.spring_ecommerce.repository.RefreshTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * リフレッシュトークンの発行・更新（ローテーション）・失効を行うサービスクラス。
+ * トークンは推測できない乱数の文字列で、DBにはSHA-256ハッシュのみを保存する。
+ * 更新のたびに同じ系列の新しいトークンを発行して古いトークンを使用済みにし、
+ * 使用済みのトークンが再提示された場合は盗用とみなして系列全体を失効させる。
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Value("${jwt.refresh.expiration-ms:1209600000}")
+    private long expirationMs = 1209600000L;
+
+    /**
+     * RefreshTokenServiceのコンストラクタ。
+     * @param refreshTokenRepository リフレッシュトークンリポジトリ
+     */
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository) {
+        this.refreshTokenRepository = refreshTokenRepository;
+    }
+
+    /**
+     * 更新結果（トークンの所有ユーザーと、新しいリフレッシュトークン）
+     * @param user トークンの所有ユーザー（新しいアクセストークンの発行に使用する）
+     * @param refreshToken 新しいリフレッシュトークン
+     */
+    public record Rotation(User user, String refreshToken) {
+    }
+
+    /**
+     * ログイン時に新しい系列のリフレッシュトークンを発行する
+     * @param user 対象ユーザー
+     * @return リフレッシュトークン
+     */
+    @Transactional
+    public String issue(User user) {
+        return issue(user, UUID.randomUUID());
+    }
+
+    /**
+     * リフレッシュトークンを使用済みにし、同じ系列の新しいトークンを発行する
+     * 使用済みのトークンが再提示された場合は系列全体を失効させる（例外をスローしても失効はコミットする）
+     * @param token クライアントから提示されたリフレッシュトークン
+     * @return 所有ユーザーと新しいリフレッシュトークン
+     * @throws InvalidRefreshTokenException トークンが存在しない、期限切れ、失効済み、または使用済みの場合
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public Rotation rotate(String token) {
+        RefreshToken current = find(token);
+        LocalDateTime now = LocalDateTime.now();
+        if (current.getRevokedAt() != null || !current.getExpiresAt().isAfter(now)) {
+            throw new InvalidRefreshTokenException("リフレッシュトークンが無効です");
+        }
+        if (refreshTokenRepository.markUsed(current.getId(), now) == 0) {
+            int revoked = refreshTokenRepository.revokeFamily(current.getFamilyId(), now);
+            log.warn("使用済みのリフレッシュトークンが再提示されたため系列を失効させました: userId={}, familyId={}, revoked={}",
+                    current.getUser().getId(), current.getFamilyId(), revoked);
+            throw new InvalidRefreshTokenException("リフレッシュトークンが無効です");
+        }
+        return new Rotation(current.getUser(), issue(current.getUser(), current.getFamilyId()));
+    }
+
+    /**
+     * リフレッシュトークンの系列全体を失効させる（ログアウト時）
+     * @param token クライアントから提示されたリフレッシュトークン
+     */
+    @Transactional
+    public void revoke(String token) {
+        if (token == null || token.isBlank()) {
+            return;
+        }
+        refreshTokenRepository.findByTokenHash(hash(token))
+                .ifPresent(current -> refreshTokenRepository.revokeFamily(current.getFamilyId(), LocalDateTime.now()));
+    }
+
+    /**
+     * 有効期限を過ぎたリフレッシュトークンを削除する
+     * @return 削除した件数
+     */
+    public int purgeExpired() {
+        return refreshTokenRepository.deleteExpired(LocalDateTime.now());
+    }
+
+    private String issue(User user, UUID familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        refreshTokenRepository.save(new RefreshToken(user, familyId, hash(token),
+                LocalDateTime.now().plus(Duration.ofMillis(expirationMs))));
+        return token;
+    }
+
+    private RefreshToken find(String token) {
+        if (token == null || token.isBlank()) {
+            throw new InvalidRefreshTokenException("リフレッシュトークンが指定されていません");
+        }
+        return refreshTokenRepository.findByTokenHash(hash(token))
+                .orElseThrow(() -> new InvalidRefreshTokenException("リフレッシュトークンが無効です"));
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
\ No newline at end of file
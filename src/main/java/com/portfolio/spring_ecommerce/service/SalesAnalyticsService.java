@@ -0,0 +1,137 @@
+package com.portfolio.spring_ecommerce.service;
+
+import com.portfolio.spring_ecommerce.dto.SalesAnalyticsDTO;
+import com.portfolio.spring_ecommerce.event.OrderLifecycleEvent;
+import com.portfolio.spring_ecommerce.model.Order;
+import com.portfolio.spring_ecommerce.model.OrderItem;
+import com.portfolio.spring_ecommerce.model.enums.OrderEventType;
+import com.portfolio.spring_ecommerce.model.enums.SalesGranularity;
+import com.portfolio.spring_ecommerce.repository.SalesRollupDailyRepository;
+import com.portfolio.spring_ecommerce.repository.SalesRollupHourlyRepository;
+import com.portfolio.spring_ecommerce.repository.SkuSalesDailyRepository;
+import com.portfolio.spring_ecommerce.util.Money;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 売上分析を扱うサービスクラス。
+ * 支払い完了イベントごとに時間別・日別・SKU別の集計テーブルへ加算し、
+ * 分析APIは注文テーブルを走査せず集計テーブルのみを参照する。
+ * 集計の時刻の基準は注文日時（order_date）とする（支払い日時ではない）。注文一覧の期間指定やアーカイブと同じ基準のため、
+ * 同じ期間の売上と注文を突き合わせられる。日付をまたいで支払われた注文は注文日の売上になる。
+ */
+@Service
+public class SalesAnalyticsService {
+
+    // 時間別集計で一度に取得できる最大日数
+    static final int MAX_HOURLY_DAYS = 31;
+
+    // 売上上位SKUの最大件数
+    static final int MAX_TOP_SKUS = 100;
+
+    private final SalesRollupHourlyRepository hourlyRepository;
+    private final SalesRollupDailyRepository dailyRepository;
+    private final SkuSalesDailyRepository skuSalesDailyRepository;
+
+    /**
+     * SalesAnalyticsServiceのコンストラクタ。
+     * @param hourlyRepository 時間別売上集計リポジトリ
+     * @param dailyRepository 日別売上集計リポジトリ
+     * @param skuSalesDailyRepository SKU別日次売上集計リポジトリ
+     */
+    public SalesAnalyticsService(SalesRollupHourlyRepository hourlyRepository, SalesRollupDailyRepository dailyRepository,
+                                 SkuSalesDailyRepository skuSalesDailyRepository) {
+        this.hourlyRepository = hourlyRepository;
+        this.dailyRepository = dailyRepository;
+        this.skuSalesDailyRepository = skuSalesDailyRepository;
+    }
+
+    /**
+     * 支払い完了した注文を、注文日時の時間・日付の区分で集計テーブルへ加算する。
+     * 注文の状態変更と同じトランザクションで実行されるため、集計と注文状態が食い違うことはない。
+     * キャンセルはPENDINGの注文にのみ発生し売上に計上されていないため、減算は不要。
+     * @param event 注文ライフサイクルイベント
+     */
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onOrderEvent(OrderLifecycleEvent event) {
+        if (event.getType() != OrderEventType.ORDER_PAID) {
+            return;
+        }
+        Order order = event.getOrder();
+        LocalDateTime orderedAt = order.getOrderDate();
+        LocalDateTime hour = orderedAt.truncatedTo(ChronoUnit.HOURS);
+        LocalDate day = orderedAt.toLocalDate();
+
+        // 同じSKUが複数明細にある場合も1行にまとめて加算する
+        Map<String, Long> revenueBySku = new LinkedHashMap<>();
+        Map<String, Long> unitsBySku = new LinkedHashMap<>();
+        long units = 0;
+        for (OrderItem item : order.getOrderItems()) {
+            String sku = item.getProduct().getSku();
+            revenueBySku.merge(sku, Money.multiply(item.getPriceMinor(), item.getQuantity()), Math::addExact);
+            unitsBySku.merge(sku, (long) item.getQuantity(), Long::sum);
+            units += item.getQuantity();
+        }
+
+        long revenue = order.getTotalAmountMinor();
+        hourlyRepository.increment(hour, revenue, units, 1);
+        dailyRepository.increment(day, revenue, units, 1);
+        revenueBySku.forEach((sku, skuRevenue) ->
+                skuSalesDailyRepository.increment(day, sku, skuRevenue, unitsBySku.get(sku)));
+    }
+
+    /**
+     * 指定期間の売上（売上金額・販売数量・注文件数・売上上位SKU）を集計テーブルから取得する。
+     * @param granularity 集計粒度
+     * @param from 開始日（含む、注文日時の日付）
+     * @param to 終了日（含む、注文日時の日付）
+     * @param top 売上上位SKUの件数
+     * @return 売上分析
+     * @throws IllegalArgumentException 期間や件数が不正な場合
+     */
+    @Transactional(readOnly = true)
+    public SalesAnalyticsDTO getSales(SalesGranularity granularity, LocalDate from, LocalDate to, int top) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("終了日は開始日以降を指定してください。");
+        }
+        if (top < 0 || top > MAX_TOP_SKUS) {
+            throw new IllegalArgumentException("topは0から" + MAX_TOP_SKUS + "の範囲で指定してください。");
+        }
+
+        List<SalesAnalyticsDTO.Bucket> buckets;
+        if (granularity == SalesGranularity.HOURLY) {
+            if (ChronoUnit.DAYS.between(from, to) >= MAX_HOURLY_DAYS) {
+                throw new IllegalArgumentException("時間別集計の期間は" + MAX_HOURLY_DAYS + "日以内で指定してください。");
+            }
+            buckets = hourlyRepository
+                    .findByBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStart(from.atStartOfDay(), to.plusDays(1).atStartOfDay())
+                    .stream()
+                    .map(r -> new SalesAnalyticsDTO.Bucket(r.getBucketStart(), r.getRevenueMinor(), r.getUnits(), r.getOrderCount()))
+                    .toList();
+        } else {
+            buckets = dailyRepository.findByBucketDateBetweenOrderByBucketDate(from, to)
+                    .stream()
+                    .map(r -> new SalesAnalyticsDTO.Bucket(r.getBucketDate().atStartOfDay(), r.getRevenueMinor(), r.getUnits(), r.getOrderCount()))
+                    .toList();
+        }
+
+        List<SalesAnalyticsDTO.TopSku> topSkus = top == 0 ? List.of() :
+                skuSalesDailyRepository.findTopSkus(from, to, PageRequest.of(0, top))
+                        .stream()
+                        .map(s -> new SalesAnalyticsDTO.TopSku(s.getSku(), s.getUnits(), s.getRevenueMinor()))
+                        .toList();
+
+        return new SalesAnalyticsDTO(granularity, from, to, buckets, topSkus);
+    }
+}
\ No newline at end of file
@@ -6,8 +6,6 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import java.util.stream.Collectors;
 
 /**
  * ユーザー認証およびユーザー情報取得を担当するサービスクラス。
@@ -40,17 +38,24 @@ public class UserService implements UserDetailsService {
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
 
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("ユーザー名「" + username + "」のユーザーが見つかりません。"));
-
-        var authorities = user.getRoles().stream()
-                .map(SimpleGrantedAuthority::new)
-                .collect(Collectors.toList());
+        User user = loadUser(username);
 
         return new org.springframework.security.core.userdetails.User(
                 user.getUsername(),
                 user.getPassword(),
-                authorities
+                user.getAuthorities()
         );
     }
+
+    /**
+     * ユーザー名に基づいてユーザーエンティティを取得する。
+     * ユーザーが存在しない場合は例外をスローする。
+     * @param username 取得対象のユーザー名
+     * @return ユーザー
+     * @throws UsernameNotFoundException ユーザーが見つからない場合にスローされる例外
+     */
+    public User loadUser(String username) throws UsernameNotFoundException {
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("ユーザー名「" + username + "」のユーザーが見つかりません。"));
+    }
 }
\ No newline at end of file
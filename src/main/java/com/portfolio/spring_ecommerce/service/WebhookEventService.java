@@ -0,0 +1,260 @@
+package com.portfolio.spring_ecommerce.service;
+
+import com.portfolio.spring_ecommerce.exception.PaymentIntentNotLinkedException;
+import com.portfolio.spring_ecommerce.model.WebhookEvent;
+import com.portfolio.spring_ecommerce.model.enums.WebhookEventStatus;
+import com.portfolio.spring_ecommerce.repository.WebhookEventRepository;
+import com.portfolio.spring_ecommerce.webhook.RecentWebhookEventIds;
+import com.stripe.model.Event;
+import com.stripe.model.PaymentIntent;
+import com.stripe.net.ApiResource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 受信済みWebhookイベントの永続キューを扱うサービスクラス。
+ * 受信時はイベントを（StripeのイベントIDで重複排除して）保存するだけで応答し、注文の更新はワーカーが非同期に行う。
+ * 処理に失敗したイベントは指数バックオフで再試行し、上限に達したものはデッドレター（DEAD）として残す。
+ */
+@Service
+public class WebhookEventService {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookEventService.class);
+
+    private final WebhookEventRepository webhookEventRepository;
+    private final OrderService orderService;
+    private final PaymentService paymentService;
+    private final RecentWebhookEventIds recentEventIds;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${webhook.worker.max-attempts:8}")
+    private int maxAttempts = 8;
+
+    @Value("${webhook.worker.backoff-initial-ms:2000}")
+    private long backoffInitialMs = 2000;
+
+    @Value("${webhook.worker.backoff-max-ms:600000}")
+    private long backoffMaxMs = 600000;
+
+    @Value("${webhook.worker.unlinked-retry-ms:1000}")
+    private long unlinkedRetryMs = 1000;
+
+    @Value("${webhook.worker.lease-ms:300000}")
+    private long leaseMs = 300000;
+
+    /**
+     * WebhookEventServiceのコンストラクタ。
+     * @param webhookEventRepository Webhookイベントリポジトリ
+     * @param orderService 注文サービス
+     * @param paymentService 支払いサービス（PaymentIntentキャッシュの更新に使用）
+     * @param recentEventIds 最近受信したイベントID（重複排除の一次フィルター）
+     * @param meterRegistry 処理結果のメトリクス登録先
+     */
+    public WebhookEventService(WebhookEventRepository webhookEventRepository, OrderService orderService,
+                               PaymentService paymentService, RecentWebhookEventIds recentEventIds, MeterRegistry meterRegistry) {
+        this.webhookEventRepository = webhookEventRepository;
+        this.orderService = orderService;
+        this.paymentService = paymentService;
+        this.recentEventIds = recentEventIds;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 署名検証済みのイベントを処理待ちとして保存する。
+     * 同じイベントIDは一度だけ保存する（最近受信したIDはメモリ上で、それ以外はイベントIDの一意制約で重複を判定）。
+     * 保存に失敗した場合は例外をそのまま送出し、Stripe側の再送に任せる。
+     * @param eventId StripeのイベントID
+     * @param eventType イベント種別
+     * @param payload 受信したイベント本文
+     * @return 新しく保存した場合true、受信済みのイベントの場合false
+     */
+    public boolean record(String eventId, String eventType, String payload) {
+        if (recentEventIds.contains(eventId)) {
+            meterRegistry.counter("webhook.events", "outcome", "duplicate").increment();
+            return false;
+        }
+
+        try {
+            webhookEventRepository.saveAndFlush(new WebhookEvent(eventId, eventType, payload));
+        } catch (DataIntegrityViolationException e) {
+            if (!webhookEventRepository.existsByEventId(eventId)) {
+                throw e;
+            }
+            recentEventIds.add(eventId);
+            meterRegistry.counter("webhook.events", "outcome", "duplicate").increment();
+            return false;
+        }
+        recentEventIds.add(eventId);
+        meterRegistry.counter("webhook.events", "outcome", "received").increment();
+        return true;
+    }
+
+    /**
+     * 処理期限の来たイベントを最大limit件取得し、処理中としてリースする。
+     * リース中（next_attempt_atを未来に延ばした間）は他のワーカーに取得されず、
+     * ワーカーが処理途中で停止した場合はリース切れ後に再び取得される。
+     * @param limit 取得する最大件数
+     * @return 取得したイベントのID
+     */
+    @Transactional
+    public List<Long> claimDue(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<WebhookEvent> due = webhookEventRepository.findDueForUpdate(WebhookEventStatus.PENDING, now, PageRequest.of(0, limit));
+        for (WebhookEvent event : due) {
+            event.setAttempts(event.getAttempts() + 1);
+            event.setNextAttemptAt(now.plus(Duration.ofMillis(leaseMs)));
+        }
+        return due.stream().map(WebhookEvent::getId).toList();
+    }
+
+    /**
+     * イベントを1件処理し、注文の状態を更新する。
+     * 注文の更新とイベントの処理完了は同じトランザクションで確定する。
+     * 例外は送出したままにし、呼び出し側でrecordFailureにより再試行を予約する。
+     * @param id イベントID（webhook_events.id）
+     */
+    @Transactional
+    public void process(Long id) {
+        WebhookEvent event = webhookEventRepository.findById(id).orElse(null);
+        if (event == null || event.getStatus() != WebhookEventStatus.PENDING) {
+            return;
+        }
+
+        dispatch(event);
+
+        event.setStatus(WebhookEventStatus.PROCESSED);
+        event.setProcessedAt(LocalDateTime.now());
+        event.setLastError(null);
+        meterRegistry.counter("webhook.events", "outcome", "processed").increment();
+        meterRegistry.timer("webhook.events.lag").record(Duration.between(event.getReceivedAt(), event.getProcessedAt()));
+    }
+
+    /**
+     * 再適用（リプレイ）するイベントを、キューを経由せずにその場で処理する。
+     * 処理済みとしてイベントを保存してから注文を更新し、両方を同じトランザクションで確定する。
+     * 同じイベントIDが既に受信済みの場合は一意制約違反（DataIntegrityViolationException）となり、何も更新しない。
+     * @param eventId StripeのイベントID
+     * @param eventType イベント種別
+     * @param payload イベント本文
+     * @return 適用した場合true、処理対象外の種別の場合false
+     */
+    @Transactional
+    public boolean applyReplayed(String eventId, String eventType, String payload) {
+        if (!eventType.startsWith("payment_intent.")) {
+            return false;
+        }
+        WebhookEvent event = new WebhookEvent(eventId, eventType, payload);
+        event.setAttempts(1);
+        event.setStatus(WebhookEventStatus.PROCESSED);
+        event.setProcessedAt(LocalDateTime.now());
+        webhookEventRepository.saveAndFlush(event);
+
+        dispatch(event);
+        meterRegistry.counter("webhook.events", "outcome", "replayed").increment();
+        return true;
+    }
+
+    /**
+     * 処理に失敗したイベントの再試行を予約する。
+     * 試行回数が上限に達した場合はDEADにし、以降は自動では処理しない。
+     * @param id イベントID（webhook_events.id）
+     * @param error 処理時に発生した例外
+     */
+    @Transactional
+    public void recordFailure(Long id, Exception error) {
+        WebhookEvent event = webhookEventRepository.findById(id).orElse(null);
+        if (event == null || event.getStatus() != WebhookEventStatus.PENDING) {
+            return;
+        }
+        event.setLastError(truncate(error.getMessage()));
+
+        if (event.getAttempts() >= maxAttempts) {
+            event.setStatus(WebhookEventStatus.DEAD);
+            meterRegistry.counter("webhook.events", "outcome", "dead").increment();
+            log.error("Webhookイベントの処理を断念しました: id={}, eventId={}, type={}, attempts={}",
+                    event.getId(), event.getEventId(), event.getEventType(), event.getAttempts(), error);
+            return;
+        }
+
+        // PaymentIntentの記録待ちは数秒で解消するため、短い固定間隔で再試行する
+        Duration delay = error instanceof PaymentIntentNotLinkedException
+                ? Duration.ofMillis(unlinkedRetryMs)
+                : backoff(event.getAttempts());
+        event.setNextAttemptAt(LocalDateTime.now().plus(delay));
+        meterRegistry.counter("webhook.events", "outcome", "retry").increment();
+        log.warn("Webhookイベントの処理に失敗しました。再試行します: id={}, eventId={}, type={}, attempts={}, next={}",
+                event.getId(), event.getEventId(), event.getEventType(), event.getAttempts(), event.getNextAttemptAt(), error);
+    }
+
+    /**
+     * イベント種別に応じて注文を更新する
+     */
+    private void dispatch(WebhookEvent webhookEvent) {
+        String type = webhookEvent.getEventType();
+        if (!type.startsWith("payment_intent.")) {
+            log.info("処理対象外のWebhookイベントです: eventId={}, type={}", webhookEvent.getEventId(), type);
+            return;
+        }
+
+        Event event = ApiResource.GSON.fromJson(webhookEvent.getPayload(), Event.class);
+        PaymentIntent paymentIntent = event.getDataObjectDeserializer().getObject()
+                .filter(PaymentIntent.class::isInstance)
+                .map(PaymentIntent.class::cast)
+                .orElseThrow(() -> new IllegalStateException("PaymentIntentが見つかりません: eventId=" + webhookEvent.getEventId()));
+
+        Long orderId = orderIdOf(paymentIntent);
+        switch (type) {
+            case "payment_intent.succeeded" -> orderService.markOrderAsPaid(orderId, paymentIntent.getId());
+            case "payment_intent.payment_failed" -> orderService.cancelOrderAndRestoreInventory(orderId, paymentIntent.getId());
+            default -> log.info("処理対象外のWebhookイベントです: eventId={}, type={}", webhookEvent.getEventId(), type);
+        }
+        if (orderId != null) {
+            // キャッシュはこのトランザクションのコミット後に無効化する
+            paymentService.onPaymentIntentChanged(orderId);
+        }
+    }
+
+    /**
+     * PaymentIntentのメタデータから注文IDを取得する（ない場合・不正な場合はnull）
+     */
+    private Long orderIdOf(PaymentIntent paymentIntent) {
+        String orderId = paymentIntent.getMetadata() != null ? paymentIntent.getMetadata().get("orderId") : null;
+        if (orderId == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(orderId);
+        } catch (NumberFormatException e) {
+            log.warn("PaymentIntentのメタデータの注文IDが不正です: paymentIntentId={}, orderId={}", paymentIntent.getId(), orderId);
+            return null;
+        }
+    }
+
+    /**
+     * 試行回数に応じた再試行までの待ち時間（指数バックオフ、上限付き、ジッターで待ち時間の後半半分に分散）
+     */
+    private Duration backoff(int attempts) {
+        long exponential = backoffInitialMs << Math.min(attempts - 1, 30);
+        long capped = Math.min(backoffMaxMs, exponential > 0 ? exponential : backoffMaxMs);
+        long half = capped / 2;
+        return Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(half + 1));
+    }
+
+    private String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
\ No newline at end of file
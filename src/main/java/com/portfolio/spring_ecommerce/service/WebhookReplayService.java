@@ -0,0 +1,206 @@
+package com.portfolio.spring_ecommerce.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.portfolio.spring_ecommerce.dto.WebhookReplayReportDTO;
+import com.portfolio.spring_ecommerce.repository.WebhookEventRepository;
+import com.portfolio.spring_ecommerce.webhook.StripeEventSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 取りこぼしたWebhookイベントを、Stripeのイベントエクスポートから再適用するサービスクラス。
+ * イベントは1件ずつストリーミングで読み込み、一定件数ごとのバッチで処理する。
+ * バッチ内では注文ごとにレーンへ振り分け、同じ注文のイベントは読み込み順に、異なる注文は並列に適用する。
+ * 適用はWebhook受信時と同じ処理（イベントIDでの重複排除と保留中からの状態遷移のみ許可）で行うため、何度実行してもよい。
+ */
+@Service
+public class WebhookReplayService {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookReplayService.class);
+
+    // 結果に含める失敗イベントIDの最大件数
+    private static final int MAX_REPORTED_FAILURES = 100;
+
+    private final WebhookEventService webhookEventService;
+    private final WebhookEventRepository webhookEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${webhook.replay.threads:8}")
+    private int threads = 8;
+
+    @Value("${webhook.replay.batch-size:1000}")
+    private int batchSize = 1000;
+
+    /**
+     * WebhookReplayServiceのコンストラクタ。
+     * @param webhookEventService Webhookイベントサービス（イベントの適用に使用）
+     * @param webhookEventRepository Webhookイベントリポジトリ（受信済みかの判定に使用）
+     * @param objectMapper イベントの読み込みに使用するObjectMapper
+     */
+    public WebhookReplayService(WebhookEventService webhookEventService, WebhookEventRepository webhookEventRepository,
+                                ObjectMapper objectMapper) {
+        this.webhookEventService = webhookEventService;
+        this.webhookEventRepository = webhookEventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * ソースのイベントをすべて再適用する。
+     * 同じ注文のイベントの適用順は読み込み順になるため、ソースは発生順（古い順）に並べておく。
+     * @param source イベントの読み込み元
+     * @return 適用・スキップ・失敗の件数
+     * @throws IOException 読み込みに失敗した場合
+     * @throws IllegalArgumentException イベントの形式が不正な場合
+     */
+    public WebhookReplayReportDTO replay(StripeEventSource source) throws IOException {
+        long startedAt = System.currentTimeMillis();
+        Tally tally = new Tally();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (InputStream in = source.open(); JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                token = parser.nextToken();
+            }
+
+            List<ReplayedEvent> batch = new ArrayList<>(batchSize);
+            while (token == JsonToken.START_OBJECT) {
+                batch.add(ReplayedEvent.of(objectMapper.readTree(parser)));
+                if (batch.size() == batchSize) {
+                    applyBatch(batch, tally, executor);
+                    batch = new ArrayList<>(batchSize);
+                }
+                token = parser.nextToken();
+            }
+            if (token != null && token != JsonToken.END_ARRAY) {
+                throw new IllegalArgumentException("イベントはJSONオブジェクトの配列、または1行1オブジェクトで指定してください。");
+            }
+            applyBatch(batch, tally, executor);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("イベントのJSONが不正です（適用済み: " + tally.applied.get() + "件）: " + e.getOriginalMessage(), e);
+        } finally {
+            executor.shutdown();
+        }
+
+        long elapsedMs = System.currentTimeMillis() - startedAt;
+        log.info("Webhookイベントを再適用しました: applied={}, skipped={}, failed={}, elapsedMs={}",
+                tally.applied.get(), tally.skipped.get(), tally.failed.get(), elapsedMs);
+        return new WebhookReplayReportDTO(tally.applied.get(), tally.skipped.get(), tally.failed.get(),
+                List.copyOf(tally.failedEventIds), elapsedMs);
+    }
+
+    /**
+     * 1バッチ分を適用する（受信済みのイベントを1回の問い合わせで除き、残りを注文ごとのレーンで並列に適用）
+     */
+    private void applyBatch(List<ReplayedEvent> batch, Tally tally, ExecutorService executor) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Set<String> received = new HashSet<>(webhookEventRepository.findExistingEventIds(
+                batch.stream().map(ReplayedEvent::eventId).toList()));
+
+        List<List<ReplayedEvent>> lanes = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            lanes.add(new ArrayList<>());
+        }
+        for (ReplayedEvent event : batch) {
+            if (!received.add(event.eventId())) {
+                tally.skipped.incrementAndGet();
+                continue;
+            }
+            lanes.get(Math.floorMod(event.partitionKey().hashCode(), threads)).add(event);
+        }
+
+        CompletableFuture.allOf(lanes.stream()
+                .filter(lane -> !lane.isEmpty())
+                .map(lane -> CompletableFuture.runAsync(() -> lane.forEach(event -> applyOne(event, tally)), executor))
+                .toArray(CompletableFuture[]::new))
+                .join();
+    }
+
+    /**
+     * 1件適用する（失敗したイベントは処理待ちキューに入れ、ワーカーの再試行に任せる）
+     */
+    private void applyOne(ReplayedEvent event, Tally tally) {
+        try {
+            if (webhookEventService.applyReplayed(event.eventId(), event.type(), event.payload())) {
+                tally.applied.incrementAndGet();
+            } else {
+                tally.skipped.incrementAndGet();
+            }
+        } catch (DataIntegrityViolationException e) {
+            // 再適用中にWebhookで同じイベントを受信した場合
+            if (webhookEventRepository.existsByEventId(event.eventId())) {
+                tally.skipped.incrementAndGet();
+            } else {
+                fail(event, tally, e);
+            }
+        } catch (Exception e) {
+            fail(event, tally, e);
+        }
+    }
+
+    // 失敗として集計し、ワーカーが再試行できるよう処理待ちキューに保存する
+    private void fail(ReplayedEvent event, Tally tally, Exception error) {
+        tally.fail(event, error);
+        try {
+            webhookEventService.record(event.eventId(), event.type(), event.payload());
+        } catch (Exception recordError) {
+            log.error("再適用に失敗したWebhookイベントをキューに保存できませんでした: eventId={}", event.eventId(), recordError);
+        }
+    }
+
+    /**
+     * 読み込んだイベント（注文IDを振り分けキーにし、ない場合はPaymentIntent IDを使う）
+     */
+    private record ReplayedEvent(String eventId, String type, String partitionKey, String payload) {
+
+        static ReplayedEvent of(JsonNode node) {
+            String eventId = node.path("id").asText(null);
+            String type = node.path("type").asText(null);
+            if (eventId == null || type == null) {
+                throw new IllegalArgumentException("idまたはtypeのないイベントがあります: " + node);
+            }
+            JsonNode object = node.path("data").path("object");
+            String orderId = object.path("metadata").path("orderId").asText(null);
+            String partitionKey = orderId != null ? orderId : object.path("id").asText(eventId);
+            return new ReplayedEvent(eventId, type, partitionKey, node.toString());
+        }
+    }
+
+    /**
+     * 適用結果の集計（レーンのスレッドから同時に更新される）
+     */
+    private static class Tally {
+        final AtomicLong applied = new AtomicLong();
+        final AtomicLong skipped = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final List<String> failedEventIds = Collections.synchronizedList(new ArrayList<>());
+
+        void fail(ReplayedEvent event, Exception e) {
+            failed.incrementAndGet();
+            if (failedEventIds.size() < MAX_REPORTED_FAILURES) {
+                failedEventIds.add(event.eventId());
+            }
+            log.warn("Webhookイベントの再適用に失敗しました: eventId={}, type={}", event.eventId(), event.type(), e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.portfolio.spring_ecommerce.signing;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.WeakKeyException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JWT_SECRETの共通鍵1つで署名・検証する鍵リング（HS256）。
+ * 検証には同じシークレットが必要なため、JWKSでは鍵を公開しない。
+ */
+@Component
+@ConditionalOnProperty(name = "jwt.signing.algorithm", havingValue = "HS256")
+public class HmacKeyRing implements JwtKeyRing {
+
+    private final SigningKey signingKey;
+
+    public HmacKeyRing(@Value("${JWT_SECRET:defaultSecretKey1234567890}") String secret) {
+        SecretKey key;
+        try {
+            key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        } catch (WeakKeyException e) {
+            throw new IllegalStateException("JWT_SECRETは32バイト（256ビット）以上で設定してください", e);
+        }
+        this.signingKey = new SigningKey(null, key);
+    }
+
+    @Override
+    public SigningKey signingKey() {
+        return signingKey;
+    }
+
+    @Override
+    public Key verificationKey(JwsHeader header) {
+        return signingKey.key();
+    }
+
+    @Override
+    public List<Map<String, Object>> publicJwks() {
+        return List.of();
+    }
+
+    @Override
+    public void rotateIfDue() {
+        // 共通鍵はローテーションしない（JWT_SECRETの変更で行う）
+    }
+
+    @Override
+    public int purgeExpired() {
+        return 0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.portfolio.spring_ecommerce.signing;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+
+import java.security.Key;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JWTの署名鍵と検証鍵を管理する鍵リング。
+ * 署名アルゴリズム（jwt.signing.algorithm）に応じて、HMAC（HS256）または鍵をローテーションする非対称鍵（ES256・EdDSA）の実装が使用される。
+ */
+public interface JwtKeyRing {
+
+    /**
+     * 現在の署名鍵を返す
+     * @return 署名鍵（kidヘッダーに設定する鍵IDと鍵本体）
+     */
+    SigningKey signingKey();
+
+    /**
+     * トークンのヘッダー（kid・alg）から検証鍵を返す
+     * @param header トークンのヘッダー
+     * @return 検証鍵
+     * @throws JwtException 該当する鍵がない場合
+     */
+    Key verificationKey(JwsHeader header);
+
+    /**
+     * 公開可能な検証鍵をJWK形式で返す（JWKSエンドポイントで配信する）
+     * @return 公開鍵のJWKのリスト（共通鍵の場合は空）
+     */
+    List<Map<String, Object>> publicJwks();
+
+    /**
+     * 予定に従って署名鍵をローテーションする（不要な実装では何もしない）
+     */
+    void rotateIfDue();
+
+    /**
+     * 有効期限を過ぎた検証鍵を削除する
+     * @return 削除した件数
+     */
+    int purgeExpired();
+
+    /**
+     * 署名鍵
+     * @param keyId 鍵ID（kidヘッダーを付与しない場合はnull）
+     * @param key 署名に使用する鍵（アルゴリズムは鍵の種類から決まる）
+     */
+    record SigningKey(String keyId, Key key) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,244 @@
+package com.portfolio.spring_ecommerce.signing;
+
+import com.portfolio.spring_ecommerce.model.JwtPublicKey;
+import com.portfolio.spring_ecommerce.repository.JwtPublicKeyRepository;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.Jwks;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 非対称鍵（ES256・EdDSA）で署名し、署名鍵を定期的にローテーションする鍵リング。
+ * 秘密鍵は各ノードのメモリ上で生成して保存せず、公開鍵だけをjwt_public_keysテーブルに公開する。
+ * トークンのkidヘッダーに鍵ID（JWKのサムプリント）を設定し、検証鍵は鍵IDごとにデコード済みの公開鍵をメモリ上に保持する
+ * （他ノードの鍵IDが見つからない場合だけ、間隔を空けてテーブルから読み直す）。
+ * 次の署名鍵は使用開始のpublish-ahead-ms前にJWKSへ公開するため、JWKSをキャッシュする他サービスも切り替え直後のトークンを検証できる。
+ * 各鍵は署名期間の終了後、アクセストークンの有効期限が過ぎるまで検証鍵として残る。
+ */
+@Component
+@ConditionalOnExpression("'${jwt.signing.algorithm:ES256}' != 'HS256'")
+public class RotatingKeyRing implements JwtKeyRing {
+
+    private static final Logger log = LoggerFactory.getLogger(RotatingKeyRing.class);
+
+    // 署名期間の終了後も検証鍵を残す時間に加える、ノード間の時計のずれの余裕
+    private static final Duration CLOCK_SKEW = Duration.ofMinutes(1);
+
+    private final JwtPublicKeyRepository jwtPublicKeyRepository;
+    private final String algorithm;
+    private final Duration rotationInterval;
+    private final Duration publishAhead;
+    private final Duration retention;
+    private final long reloadMinIntervalMs;
+
+    // 現在の署名鍵と、公開済みでまだ署名に使用していない次の署名鍵
+    private volatile ActiveKey current;
+    private volatile ActiveKey next;
+
+    // 鍵IDごとの検証鍵（全ノード分）。変更時はマップ全体を差し替える
+    private volatile Map<String, VerificationKey> verificationKeys = Map.of();
+
+    // テーブルから検証鍵を最後に読み込んだ時刻
+    private long lastReloadMillis;
+
+    /**
+     * RotatingKeyRingのコンストラクタ。
+     * @param jwtPublicKeyRepository 公開鍵リポジトリ
+     * @param algorithm 署名アルゴリズム（ES256 または EdDSA）
+     * @param rotationIntervalMs 1つの鍵で署名する期間
+     * @param publishAheadMs 次の鍵を使用開始前に公開しておく時間
+     * @param tokenExpirationMs アクセストークンの有効期限
+     * @param reloadMinIntervalMs 不明な鍵IDによるテーブルの読み直しの最小間隔
+     */
+    public RotatingKeyRing(JwtPublicKeyRepository jwtPublicKeyRepository,
+                           @Value("${jwt.signing.algorithm:ES256}") String algorithm,
+                           @Value("${jwt.signing.rotation-interval-ms:86400000}") long rotationIntervalMs,
+                           @Value("${jwt.signing.publish-ahead-ms:600000}") long publishAheadMs,
+                           @Value("${JWT_EXPIRATION:300000}") long tokenExpirationMs,
+                           @Value("${jwt.signing.reload-min-interval-ms:1000}") long reloadMinIntervalMs) {
+        if (!"ES256".equals(algorithm) && !"EdDSA".equals(algorithm)) {
+            throw new IllegalStateException("jwt.signing.algorithmはHS256・ES256・EdDSAのいずれかを指定してください: " + algorithm);
+        }
+        this.jwtPublicKeyRepository = jwtPublicKeyRepository;
+        this.algorithm = algorithm;
+        this.rotationInterval = Duration.ofMillis(rotationIntervalMs);
+        this.publishAhead = Duration.ofMillis(publishAheadMs);
+        this.retention = Duration.ofMillis(tokenExpirationMs).plus(CLOCK_SKEW);
+        this.reloadMinIntervalMs = reloadMinIntervalMs;
+    }
+
+    /**
+     * 起動時に最初の署名鍵を生成して公開し、他ノードの有効な公開鍵を読み込む
+     */
+    @PostConstruct
+    public synchronized void initialize() {
+        Instant now = Instant.now();
+        current = publish(now);
+        reload(now);
+    }
+
+    @Override
+    public SigningKey signingKey() {
+        ActiveKey key = current;
+        // 署名期間を過ぎた鍵では署名しない（ローテーションのジョブが遅れた場合もここで切り替える）
+        if (!Instant.now().isBefore(key.signUntil())) {
+            key = advance(Instant.now());
+        }
+        return key.signingKey();
+    }
+
+    @Override
+    public Key verificationKey(JwsHeader header) {
+        String kid = header.getKeyId();
+        if (kid == null) {
+            throw new UnsupportedJwtException("JWTトークンに鍵ID（kid）がありません");
+        }
+        VerificationKey key = verificationKeys.get(kid);
+        if (key == null && reloadIfStale()) {
+            key = verificationKeys.get(kid);
+        }
+        if (key == null || !key.algorithm().equals(header.getAlgorithm())) {
+            throw new UnsupportedJwtException("JWTトークンの署名鍵が見つかりません");
+        }
+        return key.publicKey();
+    }
+
+    @Override
+    public List<Map<String, Object>> publicJwks() {
+        reloadIfStale();
+        Instant now = Instant.now();
+        return verificationKeys.values().stream()
+                .filter(key -> key.expiresAt().isAfter(now))
+                .map(VerificationKey::jwk)
+                .toList();
+    }
+
+    /**
+     * 署名期間の終了が近づいたら次の鍵を公開し、終了したら次の鍵に切り替える
+     */
+    @Override
+    public void rotateIfDue() {
+        advance(Instant.now());
+    }
+
+    @Override
+    public synchronized int purgeExpired() {
+        Instant now = Instant.now();
+        int deleted = jwtPublicKeyRepository.deleteExpired(toLocalDateTime(now));
+        Map<String, VerificationKey> live = new HashMap<>(verificationKeys);
+        live.values().removeIf(key -> !key.expiresAt().isAfter(now));
+        verificationKeys = Map.copyOf(live);
+        return deleted;
+    }
+
+    private synchronized ActiveKey advance(Instant now) {
+        if (next == null && !now.isBefore(current.signUntil().minus(publishAhead))) {
+            // 次の鍵は現在の鍵の署名期間の終了から使用する（遅れた場合は直ちに使用する）
+            next = publish(now.isAfter(current.signUntil()) ? now : current.signUntil());
+        }
+        if (next != null && !now.isBefore(next.signFrom())) {
+            log.info("JWTの署名鍵をローテーションしました: kid={}", next.signingKey().keyId());
+            current = next;
+            next = null;
+        }
+        return current;
+    }
+
+    // 鍵ペアを生成し、公開鍵をテーブルと検証鍵に登録する
+    private ActiveKey publish(Instant signFrom) {
+        KeyPair pair = "EdDSA".equals(algorithm)
+                ? Jwks.CRV.Ed25519.keyPair().build()
+                : Jwts.SIG.ES256.keyPair().build();
+        String kid = Jwks.builder().key(pair.getPublic()).idFromThumbprint().build().getId();
+        Instant signUntil = signFrom.plus(rotationInterval);
+        Instant expiresAt = signUntil.plus(retention);
+
+        jwtPublicKeyRepository.save(new JwtPublicKey(kid, algorithm,
+                Base64.getEncoder().encodeToString(pair.getPublic().getEncoded()), toLocalDateTime(expiresAt)));
+        Map<String, VerificationKey> keys = new HashMap<>(verificationKeys);
+        keys.put(kid, verificationKey(kid, algorithm, pair.getPublic(), expiresAt));
+        verificationKeys = Map.copyOf(keys);
+        return new ActiveKey(new SigningKey(kid, pair.getPrivate()), signFrom, signUntil);
+    }
+
+    // 前回の読み込みから最小間隔が過ぎていれば、テーブルから検証鍵を読み直す（不明な鍵IDでのテーブルへの問い合わせを抑える）
+    private synchronized boolean reloadIfStale() {
+        if (System.currentTimeMillis() - lastReloadMillis < reloadMinIntervalMs) {
+            return false;
+        }
+        reload(Instant.now());
+        return true;
+    }
+
+    private void reload(Instant now) {
+        Map<String, VerificationKey> keys = new HashMap<>();
+        for (JwtPublicKey row : jwtPublicKeyRepository.findLive(toLocalDateTime(now))) {
+            // デコード済みの鍵はそのまま使用する
+            VerificationKey known = verificationKeys.get(row.getKid());
+            if (known != null) {
+                keys.put(row.getKid(), known);
+                continue;
+            }
+            try {
+                keys.put(row.getKid(), verificationKey(row.getKid(), row.getAlgorithm(), decode(row),
+                        row.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant()));
+            } catch (GeneralSecurityException | IllegalArgumentException e) {
+                log.warn("JWTの公開鍵を読み込めませんでした: kid={}", row.getKid(), e);
+            }
+        }
+        // 自ノードの鍵は常に保持する
+        verificationKeys.forEach((kid, key) -> {
+            if (key.expiresAt().isAfter(now)) {
+                keys.putIfAbsent(kid, key);
+            }
+        });
+        verificationKeys = Map.copyOf(keys);
+        lastReloadMillis = System.currentTimeMillis();
+    }
+
+    private static PublicKey decode(JwtPublicKey row) throws GeneralSecurityException {
+        String keyAlgorithm = "EdDSA".equals(row.getAlgorithm()) ? "Ed25519" : "EC";
+        return KeyFactory.getInstance(keyAlgorithm)
+                .generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(row.getPublicKey())));
+    }
+
+    private static VerificationKey verificationKey(String kid, String algorithm, PublicKey publicKey, Instant expiresAt) {
+        Jwk<?> jwk = Jwks.builder().key(publicKey).id(kid).algorithm(algorithm).publicKeyUse("sig").build();
+        return new VerificationKey(publicKey, algorithm, expiresAt, new LinkedHashMap<>(jwk));
+    }
+
+    private static LocalDateTime toLocalDateTime(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+
+    // 署名鍵と署名期間
+    private record ActiveKey(SigningKey signingKey, Instant signFrom, Instant signUntil) {
+    }
+
+    // 検証鍵（デコード済みの公開鍵と、JWKSで配信するJWK）
+    private record VerificationKey(PublicKey publicKey, String algorithm, Instant expiresAt, Map<String, Object> jwk) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.portfolio.spring_ecommerce.signing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * JWTの署名鍵を予定に従ってローテーションし、有効期限を過ぎた公開鍵をテーブルから削除するジョブ。
+ */
+@Component
+@ConditionalOnProperty(name = "jwt.signing.rotation.enabled", havingValue = "true", matchIfMissing = true)
+public class SigningKeyRotationJob {
+
+    private static final Logger log = LoggerFactory.getLogger(SigningKeyRotationJob.class);
+
+    private final JwtKeyRing keyRing;
+
+    public SigningKeyRotationJob(JwtKeyRing keyRing) {
+        this.keyRing = keyRing;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.signing.rotation.check-interval-ms:60000}")
+    public void rotate() {
+        keyRing.rotateIfDue();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.signing.purge-interval-ms:3600000}")
+    public void purge() {
+        int deleted = keyRing.purgeExpired();
+        if (deleted > 0) {
+            log.info("有効期限を過ぎたJWTの公開鍵を削除しました: {}件", deleted);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.portfolio.spring_ecommerce.util;
+
+import com.portfolio.spring_ecommerce.model.User;
+
+/**
+ * 1リクエストの間だけ保持する、解決済みの認証ユーザー
+ * JWT認証フィルターがリクエスト属性に設定し、コントローラーでは@CurrentUserを付けた引数として受け取る。
+ * ユーザーの取得はリクエストごとに最大1回で、ユーザーIDを含むトークンではDBを参照しない参照（遅延ロード）だけを使う
+ */
+public final class AuthenticatedUser {
+
+    // リクエスト属性の名前
+    public static final String ATTRIBUTE = AuthenticatedUser.class.getName();
+
+    private final Long id;
+    private final String username;
+    private User user;
+
+    /**
+     * トークンのクレームから作成する（ユーザーは未取得）
+     * @param id ユーザーID
+     * @param username ユーザー名
+     */
+    public AuthenticatedUser(Long id, String username) {
+        this.id = id;
+        this.username = username;
+    }
+
+    /**
+     * 取得済みのユーザーから作成する
+     * @param user ユーザー
+     */
+    public AuthenticatedUser(User user) {
+        this(user.getId(), user.getUsername());
+        this.user = user;
+    }
+
+    // ユーザーID（DBは参照しない）
+    public Long id() {
+        return id;
+    }
+
+    // ユーザー名（DBは参照しない）
+    public String username() {
+        return username;
+    }
+
+    // ユーザー（引数の解決時に設定される。未取得の場合はIDだけを持つ参照）
+    public User user() {
+        return user;
+    }
+
+    void setUser(User user) {
+        this.user = user;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.portfolio.spring_ecommerce.util;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * コントローラーの引数に現在の認証ユーザー（AuthenticatedUser）を渡すアノテーション
+ * 認証されていない場合、またはユーザーが存在しない場合はnullが渡される
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentUser {
+}
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.portfolio.spring_ecommerce.util;
+
+import com.portfolio.spring_ecommerce.repository.UserRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * @CurrentUserを付けたAuthenticatedUser型の引数を解決するクラス
+ * JWT認証フィルターが設定したリクエスト属性を使い、ない場合（JWT以外の認証）だけ認証情報から解決してリクエスト属性に保存する。
+ */
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final UserRepository userRepository;
+
+    public CurrentUserArgumentResolver(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(CurrentUser.class)
+                && AuthenticatedUser.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public AuthenticatedUser resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                             NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+        AuthenticatedUser current = request.getAttribute(AuthenticatedUser.ATTRIBUTE) instanceof AuthenticatedUser resolved
+                ? resolved : fromSecurityContext();
+        if (current == null) {
+            return null;
+        }
+        // 未取得の場合はIDだけを持つ参照を使う（ID以外の項目を読むまでDBへは問い合わせない）
+        if (current.user() == null) {
+            current.setUser(userRepository.getReferenceById(current.id()));
+        }
+        request.setAttribute(AuthenticatedUser.ATTRIBUTE, current);
+        return current;
+    }
+
+    private AuthenticatedUser fromSecurityContext() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        if (authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return new AuthenticatedUser(principal.id(), principal.username());
+        }
+        return userRepository.findByUsername(authentication.getName()).map(AuthenticatedUser::new).orElse(null);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.portfolio.spring_ecommerce.util;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 署名と有効期限を検証済みのJWTから取り出したクレーム
+ * @param tokenId トークンID（jti。jtiを含まない旧形式のトークンではトークン文字列の128ビットのダイジェスト）
+ * @param subject ユーザー名
+ * @param userId ユーザーID（ユーザーID・ロールを含まない旧形式のトークンではnull）
+ * @param roles ロールの一覧（旧形式のトークンでは空）
+ * @param issuedAt 発行日時
+ * @param expiresAt 有効期限
+ */
+public record JwtClaims(UUID tokenId, String subject, Long userId, List<String> roles, Instant issuedAt, Instant expiresAt) {
+}
\ No newline at end of file
@@ -1,106 +1,139 @@
 package com.portfolio.spring_ecommerce.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.MalformedJwtException;
+import com.portfolio.spring_ecommerce.model.User;
+import com.portfolio.spring_ecommerce.model.enums.Role;
+import com.portfolio.spring_ecommerce.signing.JwtKeyRing;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.UUID;
 
 /**
  * JWT（JSON Web Token）の生成・検証を行うユーティリティクラス
+ * パーサーは起動時に1度だけ作成し、全リクエストで共有する（不変でスレッドセーフ）
+ * 署名鍵と検証鍵は鍵リングから取得する（非対称鍵の場合はkidヘッダーの鍵IDで検証鍵を選ぶ）
  */
 @Component
 public class JwtUtil {
 
-    // 環境変数からJWTのシークレットキーと有効期限を取得
-    @Value("${JWT_SECRET:defaultSecretKey1234567890}")
-    private String secret;
+    // ユーザーIDとロールのクレーム名（認証時にDBを参照せずにプリンシパルと権限を作成するために埋め込む）
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ROLES_CLAIM = "roles";
 
-    @Value("${JWT_EXPIRATION:3600000}")
-    private Long expiration;
+    private final JwtKeyRing keyRing;
+    private final JwtParser parser;
+    private final long expiration;
 
-    /**
-     * JWTトークンからユーザー名を抽出
-     */
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+    // 鍵リングと、環境変数からJWTの有効期限を取得（アクセストークンは短命にし、更新はリフレッシュトークンで行う）
+    public JwtUtil(JwtKeyRing keyRing, @Value("${JWT_EXPIRATION:300000}") long expiration) {
+        this.keyRing = keyRing;
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        return keyRing.verificationKey(header);
+                    }
+                })
+                .build();
+        this.expiration = expiration;
     }
 
     /**
-     * JWTトークンから有効期限を抽出
+     * JWTトークンの署名と有効期限を検証し、クレームを取り出す（1リクエストにつき1回だけ解析する）
+     * @param token JWTトークン
+     * @return 検証済みのクレーム
+     * @throws JwtException 署名が不正、形式が不正、有効期限がない、または期限切れの場合
      */
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    public JwtClaims verify(String token) {
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        // 有効期限のないトークンは発行していない（失効情報の保持期間を決められないため受け付けない）
+        if (claims.getExpiration() == null) {
+            throw new MalformedJwtException("JWTトークンに有効期限がありません");
+        }
+        return new JwtClaims(tokenIdOf(claims, token), claims.getSubject(), claims.get(USER_ID_CLAIM, Long.class),
+                rolesOf(claims), toInstant(claims.getIssuedAt()), toInstant(claims.getExpiration()));
     }
 
-    /**
-     * JWTトークンから特定のクレーム（情報）を抽出
-     */
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    // トークンID（jti）を取り出す。jtiを含まない旧形式のトークンはトークン文字列のダイジェストで識別する
+    private static UUID tokenIdOf(Claims claims, String token) {
+        if (claims.getId() != null) {
+            try {
+                return UUID.fromString(claims.getId());
+            } catch (IllegalArgumentException e) {
+                // UUID形式でないjtiはダイジェストで識別する
+            }
+        }
+        return digestOf(token);
     }
 
-    /**
-     * JWTトークンから全てのクレームを抽出
-     */
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    // トークン文字列のSHA-256ダイジェストの先頭128ビット
+    private static UUID digestOf(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            ByteBuffer buffer = ByteBuffer.wrap(hash);
+            return new UUID(buffer.getLong(), buffer.getLong());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
-    /**
-     * JWTトークンが期限切れかどうかを確認
-     */
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private static List<String> rolesOf(Claims claims) {
+        Object roles = claims.get(ROLES_CLAIM);
+        if (!(roles instanceof List<?> list)) {
+            return List.of();
+        }
+        return list.stream().map(String::valueOf).toList();
+    }
+
+    private static Instant toInstant(Date date) {
+        return date != null ? date.toInstant() : null;
     }
 
     /**
-     * ユーザー情報からJWTトークンを生成
+     * ユーザー情報からJWTトークンを生成（ユーザーIDとロールをクレームに含める。失効管理用にトークンIDを付与する）
      */
-    public String generateToken(UserDetails userDetails) {
+    public String generateToken(User user) {
         Map<String, Object> claims = new HashMap<>();
-        return createToken(claims, userDetails.getUsername());
+        claims.put(USER_ID_CLAIM, user.getId());
+        claims.put(ROLES_CLAIM, Role.authorityNames(user.getRoleMask()));
+        return createToken(claims, user.getUsername());
     }
 
     /**
      * 実際にJWTトークンを作成する内部メソッド
      */
     private String createToken(Map<String, Object> claims, String subject) {
-        return Jwts.builder()
+        long now = System.currentTimeMillis();
+        JwtKeyRing.SigningKey signingKey = keyRing.signingKey();
+        JwtBuilder builder = Jwts.builder();
+        if (signingKey.keyId() != null) {
+            builder.header().keyId(signingKey.keyId());
+        }
+        return builder
                 .claims(claims)
+                .id(UUID.randomUUID().toString())
                 .subject(subject)
-                .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + expiration))
+                .signWith(signingKey.key())
                 .compact();
     }
-
-    /**
-     * JWTトークンの署名に使用する秘密鍵を取得
-     */
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
-    /**
-     * JWTトークンが有効かどうかを検証
-     */
-    public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
-    }
 }
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.portfolio.spring_ecommerce.util;
+
+import java.math.BigDecimal;
+
+/**
+ * 金額を最小通貨単位（セント等）のlongで扱うためのユーティリティクラス。
+ * 計算はすべてlongで行い、BigDecimalへの変換は入出力（API・画面表示）の境界でのみ行う。
+ */
+public final class Money {
+
+    // ストアの通貨（Stripeに渡す小文字のISOコード）
+    public static final String DEFAULT_CURRENCY = "usd";
+
+    // 通貨の小数桁数（usdは2桁）
+    public static final int SCALE = 2;
+
+    // 最小通貨単位で表せる金額の範囲（longの範囲）
+    private static final BigDecimal MIN_MINOR = BigDecimal.valueOf(Long.MIN_VALUE);
+    private static final BigDecimal MAX_MINOR = BigDecimal.valueOf(Long.MAX_VALUE);
+
+    private Money() {
+    }
+
+    /**
+     * 金額（例：19.99）を最小通貨単位（例：1999）に変換する。
+     * @param amount 金額
+     * @return 最小通貨単位の金額
+     * @throws IllegalArgumentException 最小通貨単位より細かい端数がある場合、または最小通貨単位で表せない大きさの場合
+     */
+    public static long toMinor(BigDecimal amount) {
+        BigDecimal scaled = amount.movePointRight(SCALE);
+        if (scaled.stripTrailingZeros().scale() > 0) {
+            throw new IllegalArgumentException("金額の小数点以下は" + SCALE + "桁までです: " + amount);
+        }
+        if (scaled.compareTo(MIN_MINOR) < 0 || scaled.compareTo(MAX_MINOR) > 0) {
+            throw new IllegalArgumentException("金額が扱える範囲を超えています: " + amount);
+        }
+        return scaled.longValueExact();
+    }
+
+    /**
+     * 最小通貨単位の金額を表示用の金額に変換する。
+     * @param minor 最小通貨単位の金額
+     * @return 金額（小数点以下SCALE桁）
+     */
+    public static BigDecimal toMajor(long minor) {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+
+    /**
+     * 単価×数量を計算する（オーバーフロー時は例外）。
+     * @param unitMinor 最小通貨単位の単価
+     * @param quantity 数量
+     * @return 最小通貨単位の小計
+     */
+    public static long multiply(long unitMinor, int quantity) {
+        return Math.multiplyExact(unitMinor, quantity);
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.portfolio.spring_ecommerce.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一定間隔で許可を払い出すレートリミッター。
+ * 1秒あたりpermitsPerSecond回を上限に、呼び出し側を待たせて呼び出し間隔を均等にする（バーストは許可しない）。
+ */
+public final class RateLimiter {
+
+    private final long intervalNanos;
+    private long nextPermitNanos;
+
+    /**
+     * @param permitsPerSecond 1秒あたりの許可数（1以上）
+     */
+    public RateLimiter(double permitsPerSecond) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecondは正の値で指定してください: " + permitsPerSecond);
+        }
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.nextPermitNanos = System.nanoTime();
+    }
+
+    /**
+     * 許可を1つ取得する（次の許可時刻まで待つ）
+     * @throws InterruptedException 待機中に割り込まれた場合
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long permitAt = Math.max(now, nextPermitNanos);
+            nextPermitNanos = permitAt + intervalNanos;
+            waitNanos = permitAt - now;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
\ No newline at end of file
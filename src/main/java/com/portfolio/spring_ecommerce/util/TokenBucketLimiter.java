@@ -0,0 +1,124 @@
+package com.portfolio.spring_ecommerce.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * キー（IPアドレスやユーザーID）ごとのトークンバケットで、呼び出し側を待たせずに許可・拒否を判定するレートリミッター。
+ * 各バケットは「次のトークンが補充される理論上の時刻」（GCRA）を1つのAtomicLongで持ち、判定時に経過時間から補充分を計算する
+ * （補充用のタイマースレッドは使わず、ロックも取らない）。
+ * 満杯に戻ったバケットは新しいバケットと区別できないため、一定間隔でまとめて削除する（全バケットの走査は別スレッドで行い、リクエストのスレッドでは行わない）。
+ * 削除と同時に判定されたリクエストの消費分は失われることがあるが、満杯のバケットの1トークン分にとどまる。
+ * バケット数が上限に達している場合は、先頭の数件のうち最も残りトークンの多いバケットを追い出してから新しいキーを登録する
+ * （大量のIPアドレスからの要求でもメモリは増えず、他のクライアントが共有のバケットで締め出されることもない。
+ * 追い出されたキーは次のアクセスで満杯のバケットから始まるため、制限が緩む方向にのみ働き、使い切ったバケットほど残りやすい）。
+ */
+public final class TokenBucketLimiter {
+
+    // 上限に達した場合に追い出す候補として調べるバケット数
+    private static final int EVICTION_SAMPLE = 8;
+
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final long sweepIntervalNanos;
+    private final long maxKeys;
+    private final Executor sweepExecutor;
+    private final ConcurrentHashMap<Object, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweepNanos;
+
+    /**
+     * @param capacity バケットの容量（連続して許可する回数、1以上）
+     * @param refillPerSecond 1秒あたりに補充するトークン数（正の値）
+     * @param maxKeys 保持するバケット数の上限
+     */
+    public TokenBucketLimiter(int capacity, double refillPerSecond, long maxKeys) {
+        this(capacity, refillPerSecond, maxKeys, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param capacity バケットの容量（連続して許可する回数、1以上）
+     * @param refillPerSecond 1秒あたりに補充するトークン数（正の値）
+     * @param maxKeys 保持するバケット数の上限
+     * @param sweepExecutor 満杯に戻ったバケットの削除を実行するスレッド
+     */
+    public TokenBucketLimiter(int capacity, double refillPerSecond, long maxKeys, Executor sweepExecutor) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("capacityは1以上、refillPerSecondは正の値で指定してください: "
+                    + capacity + ", " + refillPerSecond);
+        }
+        this.emissionIntervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond));
+        this.burstNanos = emissionIntervalNanos * capacity;
+        // 満杯に戻るまでの時間ごと（1秒未満の場合は1秒ごと）に削除する
+        this.sweepIntervalNanos = Math.max(burstNanos, TimeUnit.SECONDS.toNanos(1));
+        this.maxKeys = maxKeys;
+        this.sweepExecutor = sweepExecutor;
+        this.nextSweepNanos = new AtomicLong(System.nanoTime() + sweepIntervalNanos);
+    }
+
+    /**
+     * キーのバケットからトークンを1つ取得する
+     * @param key バケットのキー
+     * @return 許可した場合は0、拒否した場合は次のトークンが補充されるまでのナノ秒
+     */
+    public long tryAcquire(Object key) {
+        AtomicLong bucket = buckets.get(key);
+        long now = System.nanoTime();
+        if (bucket == null) {
+            bucket = newBucket(key, now);
+        }
+        while (true) {
+            long current = bucket.get();
+            long next = Math.max(current, now) + emissionIntervalNanos;
+            long excess = next - now - burstNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (bucket.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * 保持しているバケット数
+     */
+    public int size() {
+        return buckets.size();
+    }
+
+    private AtomicLong newBucket(Object key, long now) {
+        long due = nextSweepNanos.get();
+        if (now >= due && nextSweepNanos.compareAndSet(due, now + sweepIntervalNanos)) {
+            sweepExecutor.execute(() -> sweep(now));
+        }
+        if (buckets.size() >= maxKeys) {
+            evictOne();
+        }
+        return buckets.computeIfAbsent(key, k -> new AtomicLong(Long.MIN_VALUE));
+    }
+
+    // 満杯に戻ったバケットを削除する
+    private void sweep(long now) {
+        buckets.values().removeIf(bucket -> bucket.get() <= now);
+    }
+
+    // 先頭の数件のうち、補充される理論上の時刻が最も早い（残りトークンが最も多い）バケットを追い出す
+    private void evictOne() {
+        Iterator<Map.Entry<Object, AtomicLong>> entries = buckets.entrySet().iterator();
+        Map.Entry<Object, AtomicLong> victim = null;
+        for (int i = 0; i < EVICTION_SAMPLE && entries.hasNext(); i++) {
+            Map.Entry<Object, AtomicLong> entry = entries.next();
+            if (victim == null || entry.getValue().get() < victim.getValue().get()) {
+                victim = entry;
+            }
+        }
+        if (victim != null) {
+            buckets.remove(victim.getKey(), victim.getValue());
+        }
+    }
+}
\ No newline at end of file
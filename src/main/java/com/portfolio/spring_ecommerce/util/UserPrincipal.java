@@ -0,0 +1,18 @@
+package com.portfolio.spring_ecommerce.util;
+
+import java.security.Principal;
+
+/**
+ * JWTのクレームだけから作成する、認証済みユーザーの軽量なプリンシパル
+ * リクエストごとにDBからユーザーを読み込まずに、ユーザーIDとユーザー名を参照できる
+ * @param id ユーザーID
+ * @param username ユーザー名
+ */
+public record UserPrincipal(Long id, String username) implements Principal {
+
+    // Authentication#getName()で返されるユーザー名
+    @Override
+    public String getName() {
+        return username;
+    }
+}
\ No newline at end of file
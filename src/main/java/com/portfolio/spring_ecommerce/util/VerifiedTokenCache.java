@@ -0,0 +1,81 @@
+package com.portfolio.spring_ecommerce.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * 検証済みJWTのクレームを保持する、件数上限付きのメモリ上のキャッシュ。
+ * 同じトークンでの連続したリクエストでは、署名の検証（非対称鍵では特に重い）とクレームの解析を行わない。
+ * 各エントリはトークンの有効期限で失効し、ブラックリスト登録時には明示的に削除される。
+ * キーはトークン文字列そのもの（ハッシュはString#hashCode）で、ハッシュが衝突しても文字列の一致で判定するため
+ * 別のトークンのクレームが返されることはない。
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final JwtUtil jwtUtil;
+    private final Cache<String, JwtClaims> claimsByToken;
+
+    public VerifiedTokenCache(JwtUtil jwtUtil, @Value("${jwt.cache.max-size:10000}") long maxSize) {
+        this.jwtUtil = jwtUtil;
+        this.claimsByToken = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new UntilTokenExpiry())
+                .build();
+    }
+
+    /**
+     * トークンを検証し、クレームを返す（キャッシュにあれば署名の検証を省略する）
+     * @param token JWTトークン
+     * @return 検証済みのクレーム
+     * @throws io.jsonwebtoken.JwtException 署名不正・期限切れ・形式不正の場合
+     */
+    public JwtClaims verify(String token) {
+        JwtClaims cached = claimsByToken.getIfPresent(token);
+        if (cached != null) {
+            return cached;
+        }
+        JwtClaims claims = jwtUtil.verify(token);
+        claimsByToken.put(token, claims);
+        return claims;
+    }
+
+    /**
+     * 検証済みのトークンであればキャッシュからクレームを返す（署名の検証は行わない）
+     * @param token JWTトークン
+     * @return 検証済みのクレーム、キャッシュにない場合はnull
+     */
+    public JwtClaims peek(String token) {
+        return claimsByToken.getIfPresent(token);
+    }
+
+    // トークンをキャッシュから削除する（ブラックリスト登録時）
+    public void invalidate(String token) {
+        claimsByToken.invalidate(token);
+    }
+
+    // トークンの有効期限までを各エントリの保持期間とする
+    private static final class UntilTokenExpiry implements Expiry<String, JwtClaims> {
+
+        @Override
+        public long expireAfterCreate(String token, JwtClaims claims, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), claims.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, JwtClaims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, JwtClaims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
\ No newline at end of file
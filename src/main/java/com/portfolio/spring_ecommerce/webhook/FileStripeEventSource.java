@@ -0,0 +1,24 @@
+package com.portfolio.spring_ecommerce.webhook;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * ローカルファイル（Stripeのイベントエクスポート）からイベントを読み込むソース。
+ */
+public class FileStripeEventSource implements StripeEventSource {
+
+    private final Path path;
+
+    public FileStripeEventSource(Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public InputStream open() throws IOException {
+        return new BufferedInputStream(Files.newInputStream(path));
+    }
+}
\ No newline at end of file
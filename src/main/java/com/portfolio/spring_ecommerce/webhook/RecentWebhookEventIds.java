@@ -0,0 +1,33 @@
+package com.portfolio.spring_ecommerce.webhook;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 最近受信したWebhookのイベントIDを保持する、件数上限付きのメモリ上の集合。
+ * Stripeの再送が集中した際に、DBへ問い合わせずに重複を捨てるための一次フィルター。
+ * ノード間では共有されないため、最終的な重複判定はwebhook_eventsの一意制約で行う。
+ */
+@Component
+public class RecentWebhookEventIds {
+
+    private final Cache<String, Boolean> ids;
+
+    public RecentWebhookEventIds(@Value("${webhook.dedupe.recent-size:10000}") long maxSize) {
+        this.ids = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    // 最近受信したイベントIDの場合true
+    public boolean contains(String eventId) {
+        return ids.getIfPresent(eventId) != null;
+    }
+
+    // 受信済み（保存済み、または保存済みと確認できた）イベントIDを記録する
+    public void add(String eventId) {
+        ids.put(eventId, Boolean.TRUE);
+    }
+}
\ No newline at end of file
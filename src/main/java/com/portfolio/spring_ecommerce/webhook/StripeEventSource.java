@@ -0,0 +1,17 @@
+package com.portfolio.spring_ecommerce.webhook;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 再適用するStripeイベントの読み込み元。
+ * JSON配列、または改行区切りのJSON（1行1イベント）で、Webhookで受信するものと同じ形式のイベントを返す。
+ */
+@FunctionalInterface
+public interface StripeEventSource {
+
+    /**
+     * イベントを読み込むストリームを開く（呼び出し側で閉じる）
+     */
+    InputStream open() throws IOException;
+}
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.portfolio.spring_ecommerce.webhook;
+
+import com.portfolio.spring_ecommerce.service.WebhookEventService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 受信済みWebhookイベントを定期的に取得し、ワーカースレッドで並列に処理する。
+ * 1回のポーリングで取得したイベントをすべて処理してから次を取得するため、同時処理数はスレッド数を超えない。
+ * バッチが満杯だった場合は、処理待ちがなくなるまで続けて取得する。
+ */
+@Component
+@ConditionalOnProperty(name = "webhook.worker.enabled", havingValue = "true", matchIfMissing = true)
+public class WebhookWorker {
+
+    private final WebhookEventService webhookEventService;
+    private final ExecutorService executor;
+    private final int batchSize;
+
+    public WebhookWorker(WebhookEventService webhookEventService,
+                         @Value("${webhook.worker.threads:4}") int threads,
+                         @Value("${webhook.worker.batch-size:50}") int batchSize) {
+        this.webhookEventService = webhookEventService;
+        this.batchSize = batchSize;
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "webhook-worker-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${webhook.worker.poll-interval-ms:500}")
+    public void poll() {
+        List<Long> claimed;
+        do {
+            claimed = webhookEventService.claimDue(batchSize);
+            CompletableFuture.allOf(claimed.stream()
+                    .map(id -> CompletableFuture.runAsync(() -> processOne(id), executor))
+                    .toArray(CompletableFuture[]::new))
+                    .join();
+        } while (claimed.size() == batchSize);
+    }
+
+    // 1件処理する（失敗時は再試行を予約し、他のイベントの処理は続ける）
+    private void processOne(Long id) {
+        try {
+            webhookEventService.process(id);
+        } catch (Exception e) {
+            webhookEventService.recordFailure(id, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,16 @@
+-- 失効させたJWT（ログアウト済みトークン）。トークン本体は保存せず、128ビットのトークンIDと有効期限のみを保持する
+-- 各ノードはIDの高水位線より後の行を定期的に読み込むため、シーケンスは1ずつ採番する
+
+CREATE SEQUENCE IF NOT EXISTS revoked_tokens_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    id bigint NOT NULL,
+    token_id uuid NOT NULL,
+    expires_at timestamp(6) NOT NULL,
+    revoked_at timestamp(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_revoked_tokens_token_id UNIQUE (token_id)
+);
+
+-- 期限切れの行の削除と、起動時の有効な行の読み込みに使用する
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
\ No newline at end of file
@@ -0,0 +1,21 @@
+-- リフレッシュトークン（トークン本体は保存せず、SHA-256ハッシュのみを保持する）
+-- 更新のたびに同じ系列（family_id）の新しいトークンを発行し、使用済みのトークンが再提示された場合は系列全体を失効させる
+
+CREATE SEQUENCE IF NOT EXISTS refresh_tokens_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+    id bigint NOT NULL,
+    user_id bigint NOT NULL,
+    family_id uuid NOT NULL,
+    token_hash varchar(64) NOT NULL,
+    expires_at timestamp(6) NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    used_at timestamp(6),
+    revoked_at timestamp(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_refresh_tokens_token_hash UNIQUE (token_hash),
+    CONSTRAINT fk_refresh_tokens_user FOREIGN KEY (user_id) REFERENCES app_users
+);
+
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_family_id ON refresh_tokens (family_id);
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_expires_at ON refresh_tokens (expires_at);
\ No newline at end of file
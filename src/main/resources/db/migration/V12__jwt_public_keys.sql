@@ -0,0 +1,14 @@
+-- JWT署名鍵の公開鍵（秘密鍵は各ノードのメモリ上にのみ保持し、保存しない）
+-- 各ノードは自ノードの署名鍵の公開鍵をここに公開し、他ノードが署名したトークンの検証とJWKSの配信に使用する
+
+CREATE TABLE IF NOT EXISTS jwt_public_keys (
+    kid varchar(64) NOT NULL,
+    algorithm varchar(16) NOT NULL,
+    public_key text NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    expires_at timestamp(6) NOT NULL,
+    PRIMARY KEY (kid)
+);
+
+-- 有効な公開鍵の読み込みと、期限切れの行の削除に使用する
+CREATE INDEX IF NOT EXISTS idx_jwt_public_keys_expires_at ON jwt_public_keys (expires_at);
\ No newline at end of file
@@ -0,0 +1,13 @@
+-- ユーザーのロールをuser_rolesテーブルからapp_usersのビットマスク列へ移行する
+-- ビットはRoleの宣言順（1: ROLE_USER, 2: ROLE_ADMIN）。ユーザーの読み込みにロールの結合・追加のクエリが不要になる
+
+ALTER TABLE app_users ADD COLUMN IF NOT EXISTS role_mask integer;
+UPDATE app_users u SET role_mask = coalesce((
+    SELECT bit_or(CASE r.roles WHEN 'ROLE_USER' THEN 1 WHEN 'ROLE_ADMIN' THEN 2 ELSE 0 END)
+    FROM user_roles r
+    WHERE r.user_id = u.id
+), 0)
+WHERE role_mask IS NULL;
+ALTER TABLE app_users ALTER COLUMN role_mask SET DEFAULT 0;
+ALTER TABLE app_users ALTER COLUMN role_mask SET NOT NULL;
+DROP TABLE IF EXISTS user_roles;
\ No newline at end of file
@@ -0,0 +1,29 @@
+-- アウトボックスを永続キューとして扱う（SKIP LOCKEDで取得し、配信はトランザクションの外で行う）
+-- status: 配信状態（PENDING / PUBLISHED / DEAD）
+-- next_attempt_at: 次に配信してよい日時（再試行のバックオフ、配信中のリースにも使う）
+-- aggregate_seq: 注文ごとの通し番号。注文の行ロックを持ったトランザクションで採番するため、確定順と一致する
+--   （outbox_seqはノードごとに50件ずつ払い出すため、複数ノードでは確定順にならない）
+
+ALTER TABLE outbox ADD COLUMN IF NOT EXISTS status varchar(255);
+ALTER TABLE outbox ADD COLUMN IF NOT EXISTS next_attempt_at timestamp(6);
+ALTER TABLE outbox ADD COLUMN IF NOT EXISTS aggregate_seq bigint;
+
+UPDATE outbox SET status = CASE WHEN published_at IS NULL THEN 'PENDING' ELSE 'PUBLISHED' END,
+                  next_attempt_at = created_at
+WHERE status IS NULL;
+
+-- 既存行は注文ごとにID順で採番する
+UPDATE outbox o SET aggregate_seq = s.seq
+FROM (SELECT id, row_number() OVER (PARTITION BY aggregate_id ORDER BY id) AS seq FROM outbox) s
+WHERE o.id = s.id AND o.aggregate_seq IS NULL;
+
+ALTER TABLE outbox ALTER COLUMN status SET NOT NULL;
+ALTER TABLE outbox ALTER COLUMN next_attempt_at SET NOT NULL;
+ALTER TABLE outbox ALTER COLUMN aggregate_seq SET NOT NULL;
+
+-- 同じ注文に同じ番号が振られた場合は後から確定する側を失敗させる（順序の取り違えを防ぐ）
+CREATE UNIQUE INDEX IF NOT EXISTS uk_outbox_aggregate_seq ON outbox (aggregate_id, aggregate_seq);
+
+-- リレーが読むのは配信待ちの行だけなので部分インデックスにする
+DROP INDEX IF EXISTS idx_outbox_unpublished;
+CREATE INDEX IF NOT EXISTS idx_outbox_due ON outbox (next_attempt_at) WHERE status = 'PENDING';
\ No newline at end of file
@@ -0,0 +1,24 @@
+-- PaymentIntent IDと注文の対応表
+-- ordersは (id, order_date) が主キーのパーティションテーブルで、payment_intent_idの一意制約を張れないため、
+-- パーティションなしのこのテーブルの主キーで一意性を保証する。
+-- 注文の主キーを持つため、PaymentIntent IDから注文を引く場合もorder_dateでパーティションを絞り込める。
+
+CREATE TABLE IF NOT EXISTS order_payment_intents (
+    payment_intent_id varchar(255) NOT NULL,
+    order_id bigint NOT NULL,
+    order_date timestamp(6) NOT NULL,
+    PRIMARY KEY (payment_intent_id)
+);
+
+-- 記録済みの注文（アーカイブ済みを含む）から作成する（重複がある場合は先に記録された注文を残す）
+INSERT INTO order_payment_intents (payment_intent_id, order_id, order_date)
+SELECT payment_intent_id, id, order_date FROM (
+    SELECT payment_intent_id, id, order_date FROM orders WHERE payment_intent_id IS NOT NULL
+    UNION ALL
+    SELECT payment_intent_id, id, order_date FROM orders_archive WHERE payment_intent_id IS NOT NULL
+) recorded
+ORDER BY id
+ON CONFLICT DO NOTHING;
+
+-- PaymentIntent IDでの検索は対応表を経由するため、注文側のインデックスは不要になる
+DROP INDEX IF EXISTS idx_orders_payment_intent_id;
\ No newline at end of file
@@ -0,0 +1,30 @@
+-- 売上集計の時刻の基準を注文日時（order_date）に統一する
+-- 支払い完了時に支払い日時の区分へ加算していた集計を、注文一覧・初回集計（V4）と同じ注文日時の区分で作り直す
+-- （アーカイブ済みの支払い済み注文も含める）
+TRUNCATE sales_rollup_hourly, sales_rollup_daily, sku_sales_daily;
+
+INSERT INTO sales_rollup_hourly (bucket_start, revenue_minor, units, order_count)
+SELECT date_trunc('hour', o.order_date), sum(o.total_amount_minor), coalesce(sum(i.units), 0), count(*)
+FROM (SELECT id, order_date, total_amount_minor FROM orders WHERE status = 'PAID'
+      UNION ALL
+      SELECT id, order_date, total_amount_minor FROM orders_archive WHERE status = 'PAID') o
+LEFT JOIN (SELECT order_id, sum(quantity) AS units FROM order_items GROUP BY order_id
+           UNION ALL
+           SELECT order_id, sum(quantity) AS units FROM order_items_archive GROUP BY order_id) i ON i.order_id = o.id
+GROUP BY 1;
+
+INSERT INTO sales_rollup_daily (bucket_date, revenue_minor, units, order_count)
+SELECT bucket_start::date, sum(revenue_minor), sum(units), sum(order_count)
+FROM sales_rollup_hourly
+GROUP BY 1;
+
+INSERT INTO sku_sales_daily (bucket_date, sku, revenue_minor, units)
+SELECT o.order_date::date, p.sku, sum(i.price_minor * i.quantity), sum(i.quantity)
+FROM (SELECT id, order_date FROM orders WHERE status = 'PAID'
+      UNION ALL
+      SELECT id, order_date FROM orders_archive WHERE status = 'PAID') o
+JOIN (SELECT order_id, product_id, price_minor, quantity FROM order_items
+      UNION ALL
+      SELECT order_id, product_id, price_minor, quantity FROM order_items_archive) i ON i.order_id = o.id
+JOIN products p ON p.id = i.product_id
+GROUP BY 1, 2;
\ No newline at end of file
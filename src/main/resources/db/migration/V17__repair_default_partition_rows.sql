@@ -0,0 +1,56 @@
+-- 月次パーティションの作成が止まっている間にデフォルトパーティションへ入った行があると、
+-- その月の CREATE TABLE ... PARTITION OF がデフォルトパーティションの検証で失敗し、
+-- 毎晩のメンテナンスジョブが失敗し続ける。
+-- 該当月の行をデフォルトパーティションから一時テーブルへ退避してから月次パーティションを作成し、
+-- 作成したパーティションへ戻す（関数は呼び出し元のトランザクション内で実行されるため、途中で失敗しても行は失われない）。
+-- order_itemsは (order_id, order_date) でordersを参照するため、明細を先に退避し、注文を先に戻す。
+-- from_monthより前の月も、デフォルトパーティションに行が残っている月は作成する（空の過去の月は作成しない）。
+
+CREATE OR REPLACE FUNCTION ensure_order_partitions(from_month date, months_ahead integer) RETURNS integer AS $$
+DECLARE
+    first_month date := date_trunc('month', from_month)::date;
+    m date := least(first_month, coalesce(date_trunc('month', (SELECT min(order_date) FROM orders_default))::date, first_month));
+    last_month date := (date_trunc('month', now()) + make_interval(months => months_ahead))::date;
+    next_m date;
+    suffix text;
+    stranded integer;
+    created integer := 0;
+BEGIN
+    WHILE m <= last_month LOOP
+        suffix := to_char(m, 'YYYYMM');
+        next_m := (m + interval '1 month')::date;
+        IF to_regclass('orders_p' || suffix) IS NULL
+           AND (m >= first_month
+                OR EXISTS (SELECT 1 FROM orders_default WHERE order_date >= m AND order_date < next_m)) THEN
+            CREATE TEMP TABLE IF NOT EXISTS stranded_orders (LIKE orders) ON COMMIT DROP;
+            CREATE TEMP TABLE IF NOT EXISTS stranded_order_items (LIKE order_items) ON COMMIT DROP;
+            DELETE FROM stranded_orders;
+            DELETE FROM stranded_order_items;
+
+            WITH moved AS (
+                DELETE FROM order_items_default WHERE order_date >= m AND order_date < next_m RETURNING *
+            )
+            INSERT INTO stranded_order_items SELECT * FROM moved;
+            WITH moved AS (
+                DELETE FROM orders_default WHERE order_date >= m AND order_date < next_m RETURNING *
+            )
+            INSERT INTO stranded_orders SELECT * FROM moved;
+            GET DIAGNOSTICS stranded = ROW_COUNT;
+
+            EXECUTE format('CREATE TABLE %I PARTITION OF orders FOR VALUES FROM (%L) TO (%L)',
+                           'orders_p' || suffix, m, next_m);
+            EXECUTE format('CREATE TABLE %I PARTITION OF order_items FOR VALUES FROM (%L) TO (%L)',
+                           'order_items_p' || suffix, m, next_m);
+
+            IF stranded > 0 THEN
+                INSERT INTO orders SELECT * FROM stranded_orders;
+                INSERT INTO order_items SELECT * FROM stranded_order_items;
+                RAISE WARNING 'moved % orders from orders_default into %', stranded, 'orders_p' || suffix;
+            END IF;
+            created := created + 1;
+        END IF;
+        m := next_m;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
\ No newline at end of file
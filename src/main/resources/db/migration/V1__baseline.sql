@@ -0,0 +1,67 @@
+-- 既存スキーマのベースライン
+-- これまでHibernate（ddl-auto=update）が作成していたテーブルと同じ定義。
+-- 既存環境ではすべてのテーブルが存在するため、何も変更しない。
+
+CREATE TABLE IF NOT EXISTS app_users (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    password varchar(255),
+    username varchar(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS user_roles (
+    user_id bigint NOT NULL,
+    roles varchar(255),
+    CONSTRAINT fkaf154i5th4vvgbahf8b8pa688 FOREIGN KEY (user_id) REFERENCES app_users
+);
+
+CREATE TABLE IF NOT EXISTS products (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    status boolean,
+    unit_price numeric(38,2),
+    units_in_stock integer,
+    description varchar(255),
+    image_url varchar(255),
+    name varchar(255),
+    sku varchar(255) UNIQUE,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS carts (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    user_id bigint UNIQUE,
+    PRIMARY KEY (id),
+    CONSTRAINT fk98l14q9u9ji7alu1mlbylmvm8 FOREIGN KEY (user_id) REFERENCES app_users
+);
+
+CREATE TABLE IF NOT EXISTS cart_items (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    quantity integer,
+    cart_id bigint,
+    product_id bigint,
+    PRIMARY KEY (id),
+    CONSTRAINT fk1re40cjegsfvw58xrkdp6bac6 FOREIGN KEY (product_id) REFERENCES products,
+    CONSTRAINT fkpcttvuq4mxppo8sxggjtn5i2c FOREIGN KEY (cart_id) REFERENCES carts
+);
+
+CREATE TABLE IF NOT EXISTS orders (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    total_amount float(53) NOT NULL,
+    order_date timestamp(6) NOT NULL,
+    user_id bigint NOT NULL,
+    payment_intent_id varchar(255) UNIQUE,
+    status varchar(255) NOT NULL CHECK (status IN ('PENDING', 'PAID', 'CANCELLED')),
+    PRIMARY KEY (id),
+    CONSTRAINT fkrg873cdvpd23vrtmqygifcdwa FOREIGN KEY (user_id) REFERENCES app_users
+);
+
+CREATE TABLE IF NOT EXISTS order_items (
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    price float(53) NOT NULL,
+    quantity integer NOT NULL,
+    order_id bigint NOT NULL,
+    product_id bigint NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fkbioxgbv59vetrxe0ejfubep1w FOREIGN KEY (order_id) REFERENCES orders,
+    CONSTRAINT fkocimc7dtr037rh4ls4l95nlfi FOREIGN KEY (product_id) REFERENCES products
+);
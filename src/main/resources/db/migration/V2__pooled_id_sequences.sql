@@ -0,0 +1,15 @@
+-- IDENTITY列からプール型シーケンス（INCREMENT BY 50）への移行
+-- エンティティの@SequenceGenerator(allocationSize = 50)と増分を一致させること。
+-- シーケンスは既存の最大IDより後ろから採番されるように進めておく。
+
+DO $$
+DECLARE
+    t text;
+BEGIN
+    FOREACH t IN ARRAY ARRAY['app_users', 'products', 'carts', 'cart_items', 'orders', 'order_items'] LOOP
+        EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I START WITH 1 INCREMENT BY 50', t || '_seq');
+        EXECUTE format('SELECT setval(%L, (SELECT COALESCE(MAX(id), 0) + 1 FROM %I))', t || '_seq', t);
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY IF EXISTS', t);
+    END LOOP;
+END
+$$;
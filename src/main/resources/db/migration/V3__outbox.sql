@@ -0,0 +1,18 @@
+-- 注文イベントのトランザクショナルアウトボックス
+
+CREATE SEQUENCE IF NOT EXISTS outbox_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS outbox (
+    id bigint NOT NULL,
+    aggregate_id bigint NOT NULL,
+    event_type varchar(255) NOT NULL,
+    payload text NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    published_at timestamp(6),
+    attempts integer NOT NULL DEFAULT 0,
+    last_error varchar(1000),
+    PRIMARY KEY (id)
+);
+
+-- リレーが読むのは未配信の行だけなので部分インデックスにする
+CREATE INDEX IF NOT EXISTS idx_outbox_unpublished ON outbox (id) WHERE published_at IS NULL;
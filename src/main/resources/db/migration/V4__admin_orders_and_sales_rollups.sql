@@ -0,0 +1,54 @@
+-- 管理者向け注文検索用のインデックス（新しい順のキーセットページング）
+CREATE INDEX IF NOT EXISTS idx_orders_status_id ON orders (status, id);
+CREATE INDEX IF NOT EXISTS idx_orders_user_id_id ON orders (user_id, id);
+CREATE INDEX IF NOT EXISTS idx_orders_order_date ON orders (order_date);
+
+-- 時間別売上集計
+CREATE TABLE IF NOT EXISTS sales_rollup_hourly (
+    bucket_start timestamp(6) NOT NULL PRIMARY KEY,
+    revenue numeric(19,2) NOT NULL,
+    units bigint NOT NULL,
+    order_count bigint NOT NULL
+);
+
+-- 日別売上集計
+CREATE TABLE IF NOT EXISTS sales_rollup_daily (
+    bucket_date date NOT NULL PRIMARY KEY,
+    revenue numeric(19,2) NOT NULL,
+    units bigint NOT NULL,
+    order_count bigint NOT NULL
+);
+
+-- SKU別日次売上集計
+CREATE TABLE IF NOT EXISTS sku_sales_daily (
+    bucket_date date NOT NULL,
+    sku varchar(255) NOT NULL,
+    revenue numeric(19,2) NOT NULL,
+    units bigint NOT NULL,
+    PRIMARY KEY (bucket_date, sku)
+);
+
+-- 既存の支払い済み注文から集計を作成する（初回のみ。支払い日時は記録されていないため注文日時で集計する）
+INSERT INTO sales_rollup_hourly (bucket_start, revenue, units, order_count)
+SELECT date_trunc('hour', o.order_date), sum(o.total_amount)::numeric(19,2),
+       coalesce(sum(i.units), 0), count(*)
+FROM orders o
+LEFT JOIN (SELECT order_id, sum(quantity) AS units FROM order_items GROUP BY order_id) i ON i.order_id = o.id
+WHERE o.status = 'PAID'
+GROUP BY 1
+ON CONFLICT DO NOTHING;
+
+INSERT INTO sales_rollup_daily (bucket_date, revenue, units, order_count)
+SELECT bucket_start::date, sum(revenue), sum(units), sum(order_count)
+FROM sales_rollup_hourly
+GROUP BY 1
+ON CONFLICT DO NOTHING;
+
+INSERT INTO sku_sales_daily (bucket_date, sku, revenue, units)
+SELECT o.order_date::date, p.sku, sum(i.price * i.quantity)::numeric(19,2), sum(i.quantity)
+FROM order_items i
+JOIN orders o ON o.id = i.order_id
+JOIN products p ON p.id = i.product_id
+WHERE o.status = 'PAID'
+GROUP BY 1, 2
+ON CONFLICT DO NOTHING;
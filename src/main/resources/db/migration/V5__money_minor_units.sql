@@ -0,0 +1,37 @@
+-- 金額を最小通貨単位（bigint）へ移行する
+-- float8の値はnumericに変換してから丸める（19.99 -> 1999、切り捨てによる1998を防ぐ）
+
+-- 商品の単価
+ALTER TABLE products ADD COLUMN IF NOT EXISTS unit_price_minor bigint;
+UPDATE products SET unit_price_minor = round(coalesce(unit_price, 0) * 100)::bigint WHERE unit_price_minor IS NULL;
+ALTER TABLE products ALTER COLUMN unit_price_minor SET NOT NULL;
+ALTER TABLE products DROP COLUMN IF EXISTS unit_price;
+
+-- 注文の合計金額と通貨
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS total_amount_minor bigint;
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS currency varchar(3) NOT NULL DEFAULT 'usd';
+UPDATE orders SET total_amount_minor = round(total_amount::numeric * 100)::bigint WHERE total_amount_minor IS NULL;
+ALTER TABLE orders ALTER COLUMN total_amount_minor SET NOT NULL;
+ALTER TABLE orders DROP COLUMN IF EXISTS total_amount;
+
+-- 注文明細の価格
+ALTER TABLE order_items ADD COLUMN IF NOT EXISTS price_minor bigint;
+UPDATE order_items SET price_minor = round(price::numeric * 100)::bigint WHERE price_minor IS NULL;
+ALTER TABLE order_items ALTER COLUMN price_minor SET NOT NULL;
+ALTER TABLE order_items DROP COLUMN IF EXISTS price;
+
+-- 売上集計
+ALTER TABLE sales_rollup_hourly ADD COLUMN IF NOT EXISTS revenue_minor bigint;
+UPDATE sales_rollup_hourly SET revenue_minor = round(revenue * 100)::bigint WHERE revenue_minor IS NULL;
+ALTER TABLE sales_rollup_hourly ALTER COLUMN revenue_minor SET NOT NULL;
+ALTER TABLE sales_rollup_hourly DROP COLUMN IF EXISTS revenue;
+
+ALTER TABLE sales_rollup_daily ADD COLUMN IF NOT EXISTS revenue_minor bigint;
+UPDATE sales_rollup_daily SET revenue_minor = round(revenue * 100)::bigint WHERE revenue_minor IS NULL;
+ALTER TABLE sales_rollup_daily ALTER COLUMN revenue_minor SET NOT NULL;
+ALTER TABLE sales_rollup_daily DROP COLUMN IF EXISTS revenue;
+
+ALTER TABLE sku_sales_daily ADD COLUMN IF NOT EXISTS revenue_minor bigint;
+UPDATE sku_sales_daily SET revenue_minor = round(revenue * 100)::bigint WHERE revenue_minor IS NULL;
+ALTER TABLE sku_sales_daily ALTER COLUMN revenue_minor SET NOT NULL;
+ALTER TABLE sku_sales_daily DROP COLUMN IF EXISTS revenue;
@@ -0,0 +1,165 @@
+-- orders / order_items を注文日時（order_date）の月次レンジパーティションへ移行し、
+-- 支払い済み・キャンセル済みの古い注文を退避するアーカイブテーブルを作成する。
+-- パーティションキーを主キーに含める必要があるため、主キーは (id, order_date) になる。
+-- payment_intent_idの一意性はパーティションをまたいで保証できないため、通常のインデックスとする
+-- （PaymentIntent IDはStripeが一意に発行し、注文へは一度だけ設定される）。
+
+-- 1. 既存テーブルを退避する
+ALTER TABLE order_items RENAME TO order_items_legacy;
+ALTER TABLE orders RENAME TO orders_legacy;
+DROP INDEX IF EXISTS idx_orders_status_id;
+DROP INDEX IF EXISTS idx_orders_user_id_id;
+DROP INDEX IF EXISTS idx_orders_order_date;
+
+-- 2. パーティションテーブルを作成する
+CREATE TABLE orders (
+    id bigint NOT NULL,
+    user_id bigint NOT NULL REFERENCES app_users (id),
+    order_date timestamp(6) NOT NULL,
+    status varchar(255) NOT NULL CHECK (status IN ('PENDING', 'PAID', 'CANCELLED')),
+    total_amount_minor bigint NOT NULL,
+    currency varchar(3) NOT NULL DEFAULT 'usd',
+    payment_intent_id varchar(255),
+    CONSTRAINT orders_part_pkey PRIMARY KEY (id, order_date)
+) PARTITION BY RANGE (order_date);
+
+CREATE TABLE order_items (
+    id bigint NOT NULL,
+    order_id bigint NOT NULL,
+    order_date timestamp(6) NOT NULL,
+    product_id bigint NOT NULL REFERENCES products (id),
+    quantity integer NOT NULL,
+    price_minor bigint NOT NULL,
+    CONSTRAINT order_items_part_pkey PRIMARY KEY (id, order_date),
+    CONSTRAINT order_items_order_fkey FOREIGN KEY (order_id, order_date) REFERENCES orders (id, order_date)
+) PARTITION BY RANGE (order_date);
+
+-- 範囲外の注文を受け止めるデフォルトパーティション（通常は空。メンテナンスジョブが先の月を作成する）
+CREATE TABLE orders_default PARTITION OF orders DEFAULT;
+CREATE TABLE order_items_default PARTITION OF order_items DEFAULT;
+
+-- 3. 月次パーティションを作成する関数（from_monthの月から、今月＋months_aheadの月まで）
+CREATE OR REPLACE FUNCTION ensure_order_partitions(from_month date, months_ahead integer) RETURNS integer AS $$
+DECLARE
+    m date := date_trunc('month', from_month)::date;
+    last_month date := (date_trunc('month', now()) + make_interval(months => months_ahead))::date;
+    suffix text;
+    created integer := 0;
+BEGIN
+    WHILE m <= last_month LOOP
+        suffix := to_char(m, 'YYYYMM');
+        IF to_regclass('orders_p' || suffix) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF orders FOR VALUES FROM (%L) TO (%L)',
+                           'orders_p' || suffix, m, (m + interval '1 month')::date);
+            EXECUTE format('CREATE TABLE %I PARTITION OF order_items FOR VALUES FROM (%L) TO (%L)',
+                           'order_items_p' || suffix, m, (m + interval '1 month')::date);
+            created := created + 1;
+        END IF;
+        m := (m + interval '1 month')::date;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT ensure_order_partitions(coalesce((SELECT min(order_date) FROM orders_legacy), now())::date, 3);
+
+-- 4. データを移行して旧テーブルを削除する
+INSERT INTO orders (id, user_id, order_date, status, total_amount_minor, currency, payment_intent_id)
+SELECT id, user_id, order_date, status, total_amount_minor, currency, payment_intent_id FROM orders_legacy;
+
+INSERT INTO order_items (id, order_id, order_date, product_id, quantity, price_minor)
+SELECT i.id, i.order_id, o.order_date, i.product_id, i.quantity, i.price_minor
+FROM order_items_legacy i JOIN orders_legacy o ON o.id = i.order_id;
+
+DROP TABLE order_items_legacy;
+DROP TABLE orders_legacy;
+
+-- 5. インデックス（各パーティションに自動作成される）
+CREATE INDEX idx_orders_user_id_id ON orders (user_id, id);
+CREATE INDEX idx_orders_status_id ON orders (status, id);
+CREATE INDEX idx_orders_order_date ON orders (order_date);
+CREATE INDEX idx_orders_payment_intent_id ON orders (payment_intent_id);
+CREATE INDEX idx_order_items_order_id ON order_items (order_id);
+
+-- 6. アーカイブテーブル（パーティションなし、参照整合性は持たない）
+CREATE TABLE IF NOT EXISTS orders_archive (
+    id bigint NOT NULL PRIMARY KEY,
+    user_id bigint NOT NULL,
+    order_date timestamp(6) NOT NULL,
+    status varchar(255) NOT NULL,
+    total_amount_minor bigint NOT NULL,
+    currency varchar(3) NOT NULL,
+    payment_intent_id varchar(255),
+    archived_at timestamp(6) NOT NULL DEFAULT now()
+);
+CREATE INDEX IF NOT EXISTS idx_orders_archive_user_id ON orders_archive (user_id, id);
+CREATE INDEX IF NOT EXISTS idx_orders_archive_payment_intent_id ON orders_archive (payment_intent_id);
+
+CREATE TABLE IF NOT EXISTS order_items_archive (
+    id bigint NOT NULL PRIMARY KEY,
+    order_id bigint NOT NULL,
+    order_date timestamp(6) NOT NULL,
+    product_id bigint NOT NULL,
+    quantity integer NOT NULL,
+    price_minor bigint NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_order_items_archive_order_id ON order_items_archive (order_id);
+
+-- 7. cutoffより古い支払い済み・キャンセル済みの注文を、明細ごとアーカイブへ移動する（1回あたりbatch_size件）
+CREATE OR REPLACE FUNCTION archive_closed_orders(cutoff timestamp, batch_size integer) RETURNS integer AS $$
+DECLARE
+    moved integer;
+BEGIN
+    WITH picked AS (
+        SELECT id, order_date FROM orders
+        WHERE status IN ('PAID', 'CANCELLED') AND order_date < cutoff
+        ORDER BY order_date
+        LIMIT batch_size
+        FOR UPDATE SKIP LOCKED
+    ), moved_items AS (
+        DELETE FROM order_items i USING picked p
+        WHERE i.order_id = p.id AND i.order_date = p.order_date
+        RETURNING i.id, i.order_id, i.order_date, i.product_id, i.quantity, i.price_minor
+    ), archived_items AS (
+        INSERT INTO order_items_archive (id, order_id, order_date, product_id, quantity, price_minor)
+        SELECT id, order_id, order_date, product_id, quantity, price_minor FROM moved_items
+    ), moved_orders AS (
+        DELETE FROM orders o USING picked p
+        WHERE o.id = p.id AND o.order_date = p.order_date
+        RETURNING o.id, o.user_id, o.order_date, o.status, o.total_amount_minor, o.currency, o.payment_intent_id
+    ), archived_orders AS (
+        INSERT INTO orders_archive (id, user_id, order_date, status, total_amount_minor, currency, payment_intent_id)
+        SELECT id, user_id, order_date, status, total_amount_minor, currency, payment_intent_id FROM moved_orders
+        RETURNING 1
+    )
+    SELECT count(*) INTO moved FROM archived_orders;
+    RETURN moved;
+END;
+$$ LANGUAGE plpgsql;
+
+-- 8. cutoffより前に終わる空の月次パーティションを削除する（アーカイブ後のホットデータを小さく保つ）
+CREATE OR REPLACE FUNCTION drop_empty_order_partitions(cutoff timestamp) RETURNS integer AS $$
+DECLARE
+    part text;
+    m date;
+    has_rows boolean;
+    dropped integer := 0;
+BEGIN
+    FOR part IN
+        SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'orders'::regclass AND c.relname ~ '^orders_p[0-9]{6}$'
+        ORDER BY c.relname
+    LOOP
+        m := to_date(substr(part, 9), 'YYYYMM');
+        CONTINUE WHEN m + interval '1 month' > cutoff;
+        EXECUTE format('SELECT EXISTS (SELECT 1 FROM %I)', part) INTO has_rows;
+        CONTINUE WHEN has_rows;
+        -- 明細側を先に削除し、参照されている注文側は切り離してから削除する
+        EXECUTE format('DROP TABLE IF EXISTS %I', 'order_items_p' || to_char(m, 'YYYYMM'));
+        EXECUTE format('ALTER TABLE orders DETACH PARTITION %I', part);
+        EXECUTE format('DROP TABLE %I', part);
+        dropped := dropped + 1;
+    END LOOP;
+    RETURN dropped;
+END;
+$$ LANGUAGE plpgsql;
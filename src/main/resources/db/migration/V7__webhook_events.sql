@@ -0,0 +1,20 @@
+-- 受信済みWebhookイベントの永続キュー（受信時に保存して即応答し、ワーカーが非同期に処理する）
+
+CREATE SEQUENCE IF NOT EXISTS webhook_events_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS webhook_events (
+    id bigint NOT NULL,
+    event_id varchar(255) NOT NULL,
+    event_type varchar(255) NOT NULL,
+    payload text NOT NULL,
+    status varchar(255) NOT NULL,
+    attempts integer NOT NULL DEFAULT 0,
+    next_attempt_at timestamp(6) NOT NULL,
+    last_error varchar(1000),
+    received_at timestamp(6) NOT NULL,
+    processed_at timestamp(6),
+    PRIMARY KEY (id)
+);
+
+-- ワーカーが読むのは処理待ちの行だけなので部分インデックスにする
+CREATE INDEX IF NOT EXISTS idx_webhook_events_due ON webhook_events (next_attempt_at) WHERE status = 'PENDING';
\ No newline at end of file
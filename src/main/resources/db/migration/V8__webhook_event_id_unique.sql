@@ -0,0 +1,9 @@
+-- StripeのイベントIDでWebhookを重複排除する（少なくとも1回配信のため、同じイベントが再送される）
+
+-- 一意制約の追加前に、既に重複して保存されたイベントを最初の1件だけ残して削除する
+DELETE FROM webhook_events w
+USING webhook_events d
+WHERE w.event_id = d.event_id
+  AND w.id > d.id;
+
+ALTER TABLE webhook_events ADD CONSTRAINT uk_webhook_events_event_id UNIQUE (event_id);
\ No newline at end of file
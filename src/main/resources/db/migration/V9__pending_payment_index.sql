@@ -0,0 +1,4 @@
+-- 支払い確認の定期照合（保留中でPaymentIntentが記録済みの注文をID順に読む）用の部分インデックス
+-- パーティションテーブルに作成すると、各月のパーティションにも作成される
+CREATE INDEX IF NOT EXISTS idx_orders_pending_payment ON orders (id)
+    WHERE status = 'PENDING' AND payment_intent_id IS NOT NULL;
\ No newline at end of file
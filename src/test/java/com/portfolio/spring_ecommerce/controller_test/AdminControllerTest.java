@@ -7,11 +7,13 @@ import com.portfolio.spring_ecommerce.exception.ResourceNotFoundException;
 import com.portfolio.spring_ecommerce.exception.SkuAlreadyExistsException;
 import com.portfolio.spring_ecommerce.model.Product;
 import com.portfolio.spring_ecommerce.util.JwtUtil;
+import com.portfolio.spring_ecommerce.util.VerifiedTokenCache;
 import com.portfolio.spring_ecommerce.service.JwtBlacklistService;
 import com.portfolio.spring_ecommerce.service.ProductService;
 import com.portfolio.spring_ecommerce.service.UserService;
 import com.portfolio.spring_ecommerce.service.S3Service;
 import com.portfolio.spring_ecommerce.config.SecurityConfig;
+import com.portfolio.spring_ecommerce.repository.UserRepository;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -47,12 +49,18 @@ class AdminControllerTest {
     @MockitoBean
     private JwtUtil jwtUtil; // JwtUtilのモック
 
+    @MockitoBean
+    private VerifiedTokenCache verifiedTokenCache; // VerifiedTokenCacheのモック
+
     @MockitoBean
     private UserService userService; // UserServiceのモック
 
     @MockitoBean
     private JwtBlacklistService jwtBlacklistService; // JwtBlacklistServiceのモック
 
+    @MockitoBean
+    private UserRepository userRepository; // UserRepositoryのモック
+
     @MockitoBean
     private ProductService productService; // ProductServiceのモック
 
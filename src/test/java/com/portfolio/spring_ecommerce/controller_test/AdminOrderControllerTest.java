@@ -0,0 +1,167 @@
+package com.portfolio.spring_ecommerce.controller_test;
+
+import com.portfolio.spring_ecommerce.config.SecurityConfig;
+import com.portfolio.spring_ecommerce.controller.AdminOrderController;
+import com.portfolio.spring_ecommerce.dto.SalesAnalyticsDTO;
+import com.portfolio.spring_ecommerce.model.Order;
+import com.portfolio.spring_ecommerce.model.User;
+import com.portfolio.spring_ecommerce.model.enums.OrderStatus;
+import com.portfolio.spring_ecommerce.model.enums.SalesGranularity;
+import com.portfolio.spring_ecommerce.service.JwtBlacklistService;
+import com.portfolio.spring_ecommerce.service.OrderService;
+import com.portfolio.spring_ecommerce.service.SalesAnalyticsService;
+import com.portfolio.spring_ecommerce.service.UserService;
+import com.portfolio.spring_ecommerce.util.JwtUtil;
+import com.portfolio.spring_ecommerce.util.VerifiedTokenCache;
+import com.portfolio.spring_ecommerce.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * AdminOrderControllerの結合テストクラス
+ */
+@WebMvcTest(AdminOrderController.class)
+@Import(SecurityConfig.class) // セキュリティ設定をインポートしてテストに適用
+class AdminOrderControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc; // モックMVCを使用してコントローラのテストを実施
+
+    @MockitoBean
+    private JwtUtil jwtUtil; // JwtUtilのモック
+
+    @MockitoBean
+    private VerifiedTokenCache verifiedTokenCache; // VerifiedTokenCacheのモック
+
+    @MockitoBean
+    private UserService userService; // UserServiceのモック
+
+    @MockitoBean
+    private JwtBlacklistService jwtBlacklistService; // JwtBlacklistServiceのモック
+
+    @MockitoBean
+    private UserRepository userRepository; // UserRepositoryのモック
+
+    @MockitoBean
+    private SecurityConfig securityConfig; // SecurityConfigのモック
+
+    @MockitoBean
+    private OrderService orderService; // OrderServiceのモック
+
+    @MockitoBean
+    private SalesAnalyticsService salesAnalyticsService; // SalesAnalyticsServiceのモック
+
+    /**
+     * 取得件数分の注文がある場合、最後の注文IDが次ページのカーソルとして返ることを検証
+     */
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void searchOrders_WhenPageIsFull_ReturnsNextCursor() throws Exception {
+        when(orderService.searchOrders(eq(OrderStatus.PAID), isNull(), isNull(), eq(1L), eq(100L), eq(2)))
+                .thenReturn(List.of(order(99L), order(98L)));
+
+        mockMvc.perform(get("/admin/orders")
+                        .param("status", "PAID")
+                        .param("userId", "1")
+                        .param("cursor", "100")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders.length()").value(2))
+                .andExpect(jsonPath("$.orders[0].id").value(99))
+                .andExpect(jsonPath("$.orders[0].username").value("user1"))
+                .andExpect(jsonPath("$.nextCursor").value(98));
+    }
+
+    /**
+     * 最終ページでは次ページのカーソルがnullになることを検証
+     */
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void searchOrders_WhenLastPage_ReturnsNullCursor() throws Exception {
+        when(orderService.searchOrders(any(), any(), any(), any(), any(), eq(50)))
+                .thenReturn(List.of(order(5L)));
+
+        mockMvc.perform(get("/admin/orders")
+                        .param("from", "2026-01-01T00:00:00")
+                        .param("to", "2026-02-01T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders.length()").value(1))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        verify(orderService).searchOrders(null, LocalDateTime.of(2026, 1, 1, 0, 0), LocalDateTime.of(2026, 2, 1, 0, 0), null, null, 50);
+    }
+
+    /**
+     * 範囲外の件数を指定した場合、400が返ることを検証
+     */
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void searchOrders_WhenLimitTooLarge_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/admin/orders").param("limit", "1000"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+
+        verifyNoInteractions(orderService);
+    }
+
+    /**
+     * 一般ユーザーは注文一覧にアクセスできないことを検証
+     */
+    @Test
+    @WithMockUser(roles = "USER")
+    void searchOrders_WhenNotAdmin_ReturnsForbidden() throws Exception {
+        mockMvc.perform(get("/admin/orders"))
+                .andExpect(status().isForbidden());
+    }
+
+    /**
+     * 売上分析が集計結果と売上上位SKUを返すことを検証
+     */
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getSales_ReturnsTotalsAndTopSkus() throws Exception {
+        LocalDate from = LocalDate.of(2026, 1, 1);
+        LocalDate to = LocalDate.of(2026, 1, 2);
+        SalesAnalyticsDTO sales = new SalesAnalyticsDTO(SalesGranularity.DAILY, from, to,
+                List.of(new SalesAnalyticsDTO.Bucket(from.atStartOfDay(), 10000, 3, 2),
+                        new SalesAnalyticsDTO.Bucket(to.atStartOfDay(), 5050, 1, 1)),
+                List.of(new SalesAnalyticsDTO.TopSku("SKU-1", 4, 15050)));
+        when(salesAnalyticsService.getSales(SalesGranularity.DAILY, from, to, 10)).thenReturn(sales);
+
+        mockMvc.perform(get("/admin/analytics/sales")
+                        .param("from", "2026-01-01")
+                        .param("to", "2026-01-02"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalRevenueMinor").value(15050))
+                .andExpect(jsonPath("$.totalUnits").value(4))
+                .andExpect(jsonPath("$.totalOrders").value(3))
+                .andExpect(jsonPath("$.buckets.length()").value(2))
+                .andExpect(jsonPath("$.topSkus[0].sku").value("SKU-1"));
+    }
+
+    private Order order(Long id) {
+        User user = new User("user1", "password");
+        user.setId(1L);
+        Order order = new Order();
+        order.setId(id);
+        order.setUser(user);
+        order.setStatus(OrderStatus.PAID);
+        order.setOrderDate(LocalDateTime.of(2026, 1, 15, 10, 0));
+        order.setTotalAmountMinor(1000);
+        return order;
+    }
+}
\ No newline at end of file
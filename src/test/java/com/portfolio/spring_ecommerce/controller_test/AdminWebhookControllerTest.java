@@ -0,0 +1,79 @@
+package com.portfolio.spring_ecommerce.controller_test;
+
+import com.portfolio.spring_ecommerce.config.SecurityConfig;
+import com.portfolio.spring_ecommerce.controller.AdminWebhookController;
+import com.portfolio.spring_ecommerce.dto.WebhookReplayReportDTO;
+import com.portfolio.spring_ecommerce.service.JwtBlacklistService;
+import com.portfolio.spring_ecommerce.service.UserService;
+import com.portfolio.spring_ecommerce.service.WebhookReplayService;
+import com.portfolio.spring_ecommerce.util.JwtUtil;
+import com.portfolio.spring_ecommerce.util.VerifiedTokenCache;
+import com.portfolio.spring_ecommerce.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * AdminWebhookControllerの結合テストクラス
+ */
+@WebMvcTest(AdminWebhookController.class)
+@Import(SecurityConfig.class) // セキュリティ設定をインポートしてテストに適用
+class AdminWebhookControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc; // モックMVCを使用してコントローラのテストを実施
+
+    @MockitoBean
+    private JwtUtil jwtUtil; // JwtUtilのモック
+
+    @MockitoBean
+    private VerifiedTokenCache verifiedTokenCache; // VerifiedTokenCacheのモック
+
+    @MockitoBean
+    private UserService userService; // UserServiceのモック
+
+    @MockitoBean
+    private JwtBlacklistService jwtBlacklistService; // JwtBlacklistServiceのモック
+
+    @MockitoBean
+    private UserRepository userRepository; // UserRepositoryのモック
+
+    @MockitoBean
+    private SecurityConfig securityConfig; // SecurityConfigのモック
+
+    @MockitoBean
+    private WebhookReplayService webhookReplayService; // WebhookReplayServiceのモック
+
+    /**
+     * 再適用の結果（適用・スキップ・失敗の件数）が返ることを検証
+     */
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void replay_ReturnsReport() throws Exception {
+        when(webhookReplayService.replay(any()))
+                .thenReturn(new WebhookReplayReportDTO(2, 1, 1, List.of("evt_4"), 15));
+
+        mockMvc.perform(post("/admin/webhooks/replay")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.applied").value(2))
+                .andExpect(jsonPath("$.skipped").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.failedEventIds[0]").value("evt_4"));
+    }
+}
\ No newline at end of file
@@ -3,10 +3,16 @@ package com.portfolio.spring_ecommerce.controller_test;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.portfolio.spring_ecommerce.controller.AuthController;
 import com.portfolio.spring_ecommerce.dto.AuthRequest;
+import com.portfolio.spring_ecommerce.dto.RefreshTokenRequest;
+import com.portfolio.spring_ecommerce.exception.InvalidRefreshTokenException;
 import com.portfolio.spring_ecommerce.service.JwtBlacklistService;
+import com.portfolio.spring_ecommerce.service.PasswordAuthenticationService;
+import com.portfolio.spring_ecommerce.service.RefreshTokenService;
 import com.portfolio.spring_ecommerce.service.UserService;
 import com.portfolio.spring_ecommerce.util.JwtUtil;
+import com.portfolio.spring_ecommerce.util.VerifiedTokenCache;
 import com.portfolio.spring_ecommerce.model.User;
+import com.portfolio.spring_ecommerce.model.enums.Role;
 import com.portfolio.spring_ecommerce.repository.UserRepository;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,15 +23,20 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.http.MediaType;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.core.userdetails.UserDetails;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.RequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -40,7 +51,7 @@ class AuthControllerTest {
     private MockMvc mockMvc; // モックMVCを使用してコントローラのテストを実施
 
     @MockitoBean
-    private AuthenticationManager authenticationManager; // AuthenticationManagerのモック
+    private PasswordAuthenticationService passwordAuthenticationService; // PasswordAuthenticationServiceのモック
 
     @MockitoBean
     private UserService userService; // UserServiceのモック
@@ -48,6 +59,9 @@ class AuthControllerTest {
     @MockitoBean
     private JwtUtil jwtUtil; // JwtUtilのモック
 
+    @MockitoBean
+    private VerifiedTokenCache verifiedTokenCache; // VerifiedTokenCacheのモック
+
     @MockitoBean
     private JwtBlacklistService jwtBlacklistService; // JwtBlacklistServiceのモック
 
@@ -57,6 +71,9 @@ class AuthControllerTest {
     @MockitoBean
     private UserRepository userRepository; // UserRepositoryのモック
 
+    @MockitoBean
+    private RefreshTokenService refreshTokenService; // RefreshTokenServiceのモック
+
     @MockitoBean
     private PasswordEncoder passwordEncoder; // PasswordEncoderのモック
 
@@ -74,22 +91,61 @@ class AuthControllerTest {
         request.setUsername("testuser");
         request.setPassword("password");
 
-        // UserDetailsのモック設定
-        UserDetails userDetails = Mockito.mock(UserDetails.class);
-        Mockito.when(userDetails.getUsername()).thenReturn("testuser");
-        Mockito.when(userService.loadUserByUsername("testuser")).thenReturn(userDetails);
-        Mockito.when(jwtUtil.generateToken(userDetails)).thenReturn("dummy-jwt-token");
+        // ユーザーのモック設定
+        User user = new User("testuser", "encoded");
+        user.setId(1L);
+        user.setRoles(Set.of(Role.USER));
+        Mockito.when(passwordAuthenticationService.authenticate("testuser", "password"))
+                .thenReturn(CompletableFuture.completedFuture(Optional.of(user)));
+        Mockito.when(jwtUtil.generateToken(user)).thenReturn("dummy-jwt-token");
+        Mockito.when(refreshTokenService.issue(user)).thenReturn("dummy-refresh-token");
 
         // /auth/loginエンドポイントへのリクエストとレスポンス検証
-        mockMvc.perform(post("/auth/login")
+        performAsync(post("/auth/login")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.token").isString())
                 .andExpect(jsonPath("$.token").isNotEmpty())
+                .andExpect(jsonPath("$.refreshToken").value("dummy-refresh-token"))
+                .andExpect(jsonPath("$.username").value("testuser"));
+    }
+
+    /**
+     * 有効なリフレッシュトークンで、新しいアクセストークンとリフレッシュトークンが返却されることを検証
+     */
+    @Test
+    void refresh_ReturnsNewTokens_WhenRefreshTokenIsValid() throws Exception {
+        User user = new User("testuser", "encoded");
+        user.setId(1L);
+        Mockito.when(refreshTokenService.rotate("old-refresh-token"))
+                .thenReturn(new RefreshTokenService.Rotation(user, "new-refresh-token"));
+        Mockito.when(jwtUtil.generateToken(user)).thenReturn("new-jwt-token");
+
+        mockMvc.perform(post("/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RefreshTokenRequest("old-refresh-token"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").value("new-jwt-token"))
+                .andExpect(jsonPath("$.refreshToken").value("new-refresh-token"))
                 .andExpect(jsonPath("$.username").value("testuser"));
     }
 
+    /**
+     * 無効（使用済みを含む）なリフレッシュトークンの場合、401エラーが返却されることを検証
+     */
+    @Test
+    void refresh_ReturnsUnauthorized_WhenRefreshTokenIsInvalid() throws Exception {
+        Mockito.when(refreshTokenService.rotate("used-refresh-token"))
+                .thenThrow(new InvalidRefreshTokenException("リフレッシュトークンが無効です"));
+
+        mockMvc.perform(post("/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RefreshTokenRequest("used-refresh-token"))))
+                .andExpect(status().isUnauthorized())
+                .andExpect(content().string("リフレッシュトークンが無効です"));
+    }
+
     /**
      * 誤った認証情報でログインした場合、401エラーとエラーメッセージが返却されることを検証
      */
@@ -99,18 +155,38 @@ class AuthControllerTest {
         request.setUsername("wronguser");
         request.setPassword("wrongpass");
 
-        // 認証失敗時の例外をスローするようモック設定
-        Mockito.doThrow(new BadCredentialsException("認証失敗"))
-                .when(authenticationManager).authenticate(any());
+        // 認証失敗時は空の結果を返すようモック設定
+        Mockito.when(passwordAuthenticationService.authenticate("wronguser", "wrongpass"))
+                .thenReturn(CompletableFuture.completedFuture(Optional.empty()));
 
         // /auth/loginエンドポイントへのリクエストとレスポンス検証
-        mockMvc.perform(post("/auth/login")
+        performAsync(post("/auth/login")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isUnauthorized())
                 .andExpect(content().string("ユーザー名またはパスワードが正しくありません"));
     }
 
+    /**
+     * パスワード検証の実行枠が埋まっている場合、503エラーとRetry-Afterが返却されることを検証
+     */
+    @Test
+    void login_ReturnsServiceUnavailable_WhenVerifierIsSaturated() throws Exception {
+        AuthRequest request = new AuthRequest();
+        request.setUsername("testuser");
+        request.setPassword("password");
+
+        Mockito.when(passwordAuthenticationService.authenticate("testuser", "password"))
+                .thenReturn(CompletableFuture.failedFuture(new RejectedExecutionException("満杯")));
+
+        performAsync(post("/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(content().string("ログインが混み合っています。しばらくしてから再度お試しください。"));
+    }
+
     /**
      * 新規ユーザー登録のテスト
      */
@@ -183,4 +259,12 @@ class AuthControllerTest {
 
         verify(jwtBlacklistService, never()).addTokenToBlacklist(any());
     }
+
+    // 非同期処理の開始を確認し、完了後のディスパッチ結果を返す
+    private ResultActions performAsync(RequestBuilder requestBuilder) throws Exception {
+        MvcResult result = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
 }
\ No newline at end of file
@@ -5,11 +5,13 @@ import com.portfolio.spring_ecommerce.model.Cart;
 import com.portfolio.spring_ecommerce.model.CartItem;
 import com.portfolio.spring_ecommerce.model.Product;
 import com.portfolio.spring_ecommerce.model.User;
+import com.portfolio.spring_ecommerce.repository.UserRepository;
 import com.portfolio.spring_ecommerce.repository.CartItemRepository;
 import com.portfolio.spring_ecommerce.repository.ProductRepository;
 import com.portfolio.spring_ecommerce.service.CartService;
-import com.portfolio.spring_ecommerce.util.GetAuthenticatedUser;
+import com.portfolio.spring_ecommerce.util.AuthenticatedUser;
 import com.portfolio.spring_ecommerce.filter.JwtAuthenticationFilter;
+import com.portfolio.spring_ecommerce.filter.RateLimitFilter;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -50,7 +52,7 @@ class CartControllerTest {
     private CartService cartService;
 
     @MockitoBean
-    private GetAuthenticatedUser getAuthenticatedUserUtil;
+    private UserRepository userRepository;
 
     @MockitoBean
     private ProductRepository productRepository;
@@ -61,6 +63,9 @@ class CartControllerTest {
     @MockitoBean
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @MockitoBean
+    private RateLimitFilter rateLimitFilter;
+
     /**
      * ユーザーのカート取得が成功することを検証
      */
@@ -83,7 +88,7 @@ class CartControllerTest {
         cart.setUser(user);
         cart.setItems(Collections.singletonList(cartItem));
 
-        when(getAuthenticatedUserUtil.getAuthenticatedUser()).thenReturn(user);
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
         when(cartService.getOrCreateCart(user)).thenReturn(cart);
 
         mockMvc.perform(get("/user/cart")
@@ -92,7 +97,7 @@ class CartControllerTest {
                 .andExpect(jsonPath("$.items[0].id").value(cartItem.getId()))
                 .andExpect(jsonPath("$.username").value(user.getUsername()));
 
-        verify(getAuthenticatedUserUtil).getAuthenticatedUser();
+        verify(userRepository).findByUsername("user");
         verify(cartService).getOrCreateCart(user);
     }
 
@@ -102,13 +107,38 @@ class CartControllerTest {
     @Test
     @WithMockUser(roles = "USER")
     void getCart_UserNotFound_ReturnsNotFound() throws Exception {
-        when(getAuthenticatedUserUtil.getAuthenticatedUser()).thenReturn(null);
+        when(userRepository.findByUsername("user")).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/user/cart")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
 
-        verify(getAuthenticatedUserUtil).getAuthenticatedUser();
+        verify(userRepository).findByUsername("user");
+    }
+
+    /**
+     * JWT認証フィルターが解決した認証ユーザーがある場合、ユーザーをユーザー名で検索せずに参照だけを使うことを検証
+     */
+    @Test
+    @WithMockUser(roles = "USER")
+    void getCart_UsesUserResolvedByFilter() throws Exception {
+        User user = new User();
+        user.setId(1L);
+
+        Cart cart = new Cart();
+        cart.setUser(user);
+        cart.setItems(Collections.emptyList());
+
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
+        when(cartService.getOrCreateCart(user)).thenReturn(cart);
+
+        mockMvc.perform(get("/user/cart")
+                        .requestAttr(AuthenticatedUser.ATTRIBUTE, new AuthenticatedUser(1L, "testuser")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value("testuser"));
+
+        verify(userRepository).getReferenceById(1L);
+        verify(userRepository, never()).findByUsername(any());
     }
 
     /**
@@ -138,7 +168,7 @@ class CartControllerTest {
         updatedCart.setItems(Collections.singletonList(cartItem));
 
 
-        when(getAuthenticatedUserUtil.getAuthenticatedUser()).thenReturn(user);
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
         when(productRepository.findById(100L)).thenReturn(Optional.of(product));
         when(cartService.getOrCreateCart(user)).thenReturn(cart);
         when(cartService.addItemToCart(user, product, 2)).thenReturn(updatedCart);
@@ -161,7 +191,7 @@ class CartControllerTest {
         User user = new User();
         user.setId(1L);
 
-        when(getAuthenticatedUserUtil.getAuthenticatedUser()).thenReturn(user);
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
         when(productRepository.findById(anyLong())).thenReturn(Optional.empty());
 
         mockMvc.perform(post("/user/cart/add")
@@ -193,7 +223,7 @@ class CartControllerTest {
         updatedCart.setId(20L);
         updatedCart.setItems(Collections.singletonList(cartItem));
 
-        when(getAuthenticatedUserUtil.getAuthenticatedUser()).thenReturn(user);
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
         when(cartItemRepository.findById(5L)).thenReturn(Optional.of(cartItem));
         when(cartService.updateCartItemQuantity(user, 5L, 3)).thenReturn(updatedCart);
 
@@ -219,7 +249,7 @@ class CartControllerTest {
         cartItem.setId(5L);
         cartItem.setProduct(product);
 
-        when(getAuthenticatedUserUtil.getAuthenticatedUser()).thenReturn(user);
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
         when(cartItemRepository.findById(5L)).thenReturn(Optional.of(cartItem));
 
         mockMvc.perform(put("/user/cart/update/5")
@@ -253,7 +283,7 @@ class CartControllerTest {
         updatedCart.setId(20L);
         updatedCart.setItems(Collections.singletonList(cartItem));
 
-        when(getAuthenticatedUserUtil.getAuthenticatedUser()).thenReturn(user);
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
         when(cartService.getOrCreateCart(user)).thenReturn(cart);
         when(cartService.removeItemFromCart(user, 5L)).thenReturn(updatedCart);
 
@@ -276,7 +306,7 @@ class CartControllerTest {
         cart.setUser(user);
         cart.setItems(Collections.emptyList());
 
-        when(getAuthenticatedUserUtil.getAuthenticatedUser()).thenReturn(user);
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
         when(cartService.getOrCreateCart(user)).thenReturn(cart);
 
         mockMvc.perform(delete("/user/cart/remove/999"))
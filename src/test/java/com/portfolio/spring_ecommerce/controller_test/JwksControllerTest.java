@@ -0,0 +1,59 @@
+package com.portfolio.spring_ecommerce.controller_test;
+
+import com.portfolio.spring_ecommerce.controller.JwksController;
+import com.portfolio.spring_ecommerce.filter.JwtAuthenticationFilter;
+import com.portfolio.spring_ecommerce.filter.RateLimitFilter;
+import com.portfolio.spring_ecommerce.signing.JwtKeyRing;
+import com.portfolio.spring_ecommerce.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * JwksControllerの結合テストクラス
+ */
+@WebMvcTest(JwksController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class JwksControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc; // コントローラーのテスト用MockMvc
+
+    @MockitoBean
+    private JwtKeyRing jwtKeyRing; // JwtKeyRingのモック
+
+    @MockitoBean
+    private JwtAuthenticationFilter jwtAuthenticationFilter; // JWT認証フィルターのモック
+
+    @MockitoBean
+    private RateLimitFilter rateLimitFilter; // レート制限フィルターのモック
+
+    @MockitoBean
+    private UserRepository userRepository; // UserRepositoryのモック
+
+    /**
+     * 公開鍵がJWKセット形式で、キャッシュ可能なレスポンスとして返ることを検証
+     */
+    @Test
+    void getJwks_ReturnsKeySetWithCacheControl() throws Exception {
+        when(jwtKeyRing.publicJwks()).thenReturn(List.of(
+                Map.of("kty", "EC", "crv", "P-256", "kid", "key-1", "alg", "ES256", "use", "sig", "x", "AAAA", "y", "BBBB")));
+
+        mockMvc.perform(get("/.well-known/jwks.json"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=300, public"))
+                .andExpect(jsonPath("$.keys.length()").value(1))
+                .andExpect(jsonPath("$.keys[0].kid").value("key-1"))
+                .andExpect(jsonPath("$.keys[0].alg").value("ES256"));
+    }
+}
\ No newline at end of file
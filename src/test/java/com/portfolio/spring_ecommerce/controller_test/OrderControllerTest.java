@@ -2,11 +2,12 @@ package com.portfolio.spring_ecommerce.controller_test;
 
 import com.portfolio.spring_ecommerce.controller.OrderController;
 import com.portfolio.spring_ecommerce.filter.JwtAuthenticationFilter;
+import com.portfolio.spring_ecommerce.filter.RateLimitFilter;
 import com.portfolio.spring_ecommerce.model.Order;
 import com.portfolio.spring_ecommerce.model.User;
+import com.portfolio.spring_ecommerce.repository.UserRepository;
 import com.portfolio.spring_ecommerce.model.enums.OrderStatus;
 import com.portfolio.spring_ecommerce.service.OrderService;
-import com.portfolio.spring_ecommerce.util.GetAuthenticatedUser;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -41,11 +42,14 @@ public class OrderControllerTest {
     private OrderService orderService; // OrderServiceのモック
 
     @MockitoBean
-    private GetAuthenticatedUser getAuthenticatedUserUtil; // 認証ユーザー取得ユーティリティのモック
+    private UserRepository userRepository; // UserRepositoryのモック（認証ユーザーの解決に使用）
 
     @MockitoBean
     private JwtAuthenticationFilter jwtAuthenticationFilter; // JWT認証フィルターのモック
 
+    @MockitoBean
+    private RateLimitFilter rateLimitFilter; // レート制限フィルターのモック
+
     /**
      * カートから注文作成が成功することを検証
      */
@@ -60,10 +64,10 @@ public class OrderControllerTest {
         testOrder.setId(101L);
         testOrder.setUser(testUser);
         testOrder.setOrderDate(LocalDateTime.now());
-        testOrder.setTotalAmount(100.0);
+        testOrder.setTotalAmountMinor(10000);
         testOrder.setStatus(OrderStatus.PENDING);
 
-        when(getAuthenticatedUserUtil.getAuthenticatedUser()).thenReturn(testUser);
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(testUser));
         when(orderService.createOrderFromCart(any(User.class))).thenReturn(testOrder);
 
         mockMvc.perform(post("/user/orders/create"))
@@ -98,10 +102,10 @@ public class OrderControllerTest {
         testOrder.setId(101L);
         testOrder.setUser(testUser);
         testOrder.setOrderDate(LocalDateTime.now());
-        testOrder.setTotalAmount(100.0);
+        testOrder.setTotalAmountMinor(10000);
         testOrder.setStatus(OrderStatus.PENDING);
 
-        when(getAuthenticatedUserUtil.getAuthenticatedUser()).thenReturn(testUser);
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(testUser));
 
         List<Order> orders = Collections.singletonList(testOrder);
         when(orderService.getOrdersForUser(any(User.class))).thenReturn(orders);
@@ -126,9 +130,9 @@ public class OrderControllerTest {
         testOrder.setId(101L);
         testOrder.setUser(testUser);
         testOrder.setOrderDate(LocalDateTime.now());
-        testOrder.setTotalAmount(100.0);
+        testOrder.setTotalAmountMinor(10000);
 
-        when(getAuthenticatedUserUtil.getAuthenticatedUser()).thenReturn(testUser);
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(testUser));
         when(orderService.getOrdersForUser(any(User.class))).thenReturn(Collections.emptyList());
 
         mockMvc.perform(get("/user/orders"))
@@ -150,10 +154,10 @@ public class OrderControllerTest {
         testOrder.setId(101L);
         testOrder.setUser(testUser);
         testOrder.setOrderDate(LocalDateTime.now());
-        testOrder.setTotalAmount(100.0);
+        testOrder.setTotalAmountMinor(10000);
         testOrder.setStatus(OrderStatus.PENDING);
 
-        when(getAuthenticatedUserUtil.getAuthenticatedUser()).thenReturn(testUser);
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(testUser));
         when(orderService.getOrderById(testOrder.getId())).thenReturn(Optional.of(testOrder));
 
         mockMvc.perform(get("/user/orders/{orderId}", testOrder.getId()))
@@ -189,9 +193,9 @@ public class OrderControllerTest {
         testOrder.setId(101L);
         testOrder.setUser(testUser);
         testOrder.setOrderDate(LocalDateTime.now());
-        testOrder.setTotalAmount(100.0);
+        testOrder.setTotalAmountMinor(10000);
 
-        when(getAuthenticatedUserUtil.getAuthenticatedUser()).thenReturn(testUser);
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(testUser));
 
         User anotherUser = new User();
         anotherUser.setId(2L);
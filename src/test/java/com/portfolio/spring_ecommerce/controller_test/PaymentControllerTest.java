@@ -4,15 +4,17 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.portfolio.spring_ecommerce.controller.PaymentController;
 import com.portfolio.spring_ecommerce.dto.OrderDTO;
 import com.portfolio.spring_ecommerce.dto.PaymentRequestDTO;
+import com.portfolio.spring_ecommerce.exception.PaymentIntentConflictException;
 import com.portfolio.spring_ecommerce.filter.JwtAuthenticationFilter;
+import com.portfolio.spring_ecommerce.filter.RateLimitFilter;
+import com.portfolio.spring_ecommerce.gateway.PaymentGatewayException;
+import com.portfolio.spring_ecommerce.gateway.PaymentIntentSnapshot;
 import com.portfolio.spring_ecommerce.model.Order;
 import com.portfolio.spring_ecommerce.model.User;
+import com.portfolio.spring_ecommerce.repository.UserRepository;
 import com.portfolio.spring_ecommerce.model.enums.OrderStatus;
 import com.portfolio.spring_ecommerce.service.OrderService;
 import com.portfolio.spring_ecommerce.service.PaymentService;
-import com.portfolio.spring_ecommerce.util.GetAuthenticatedUser;
-import com.stripe.exception.StripeException;
-import com.stripe.model.PaymentIntent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,12 +24,22 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.RequestBuilder;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
@@ -49,7 +61,7 @@ public class PaymentControllerTest {
     private OrderService orderService;
 
     @MockitoBean
-    private GetAuthenticatedUser getAuthenticatedUserUtil;
+    private UserRepository userRepository;
 
     @Autowired
     private ObjectMapper objectMapper;
@@ -57,6 +69,9 @@ public class PaymentControllerTest {
     @MockitoBean
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @MockitoBean
+    private RateLimitFilter rateLimitFilter;
+
     private User user;
     private Order order;
     private PaymentRequestDTO paymentRequest;
@@ -71,7 +86,7 @@ public class PaymentControllerTest {
         order.setId(100L);
         order.setUser(user);
         order.setStatus(OrderStatus.PENDING);
-        order.setTotalAmount(1000.0);
+        order.setTotalAmountMinor(100000);
 
         paymentRequest = new PaymentRequestDTO();
         paymentRequest.setOrderId(order.getId());
@@ -83,14 +98,14 @@ public class PaymentControllerTest {
     @Test
     @WithMockUser(roles = "USER")
     void createPaymentIntent_Success() throws Exception {
-        PaymentIntent paymentIntent = new PaymentIntent();
-        paymentIntent.setClientSecret("test_client_secret");
+        PaymentIntentSnapshot paymentIntent = new PaymentIntentSnapshot(
+                "pi_123", "requires_payment_method", "test_client_secret", 100000, "usd");
 
-        when(getAuthenticatedUserUtil.getAuthenticatedUser()).thenReturn(user);
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
         when(orderService.getOrderById(order.getId())).thenReturn(Optional.of(order));
-        when(paymentService.createPaymentIntent(any(OrderDTO.class))).thenReturn(paymentIntent);
+        when(paymentService.createPaymentIntent(any(OrderDTO.class))).thenReturn(CompletableFuture.completedFuture(paymentIntent));
 
-        mockMvc.perform(post("/user/payment/create-payment-intent")
+        performAsync(post("/user/payment/create-payment-intent")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(paymentRequest)))
                 .andExpect(status().isOk())
@@ -103,10 +118,10 @@ public class PaymentControllerTest {
     @Test
     @WithMockUser(roles = "USER")
     void createPaymentIntent_OrderNotFound() throws Exception {
-        when(getAuthenticatedUserUtil.getAuthenticatedUser()).thenReturn(user);
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
         when(orderService.getOrderById(order.getId())).thenReturn(Optional.empty());
 
-        mockMvc.perform(post("/user/payment/create-payment-intent")
+        performAsync(post("/user/payment/create-payment-intent")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(paymentRequest)))
                 .andExpect(status().isForbidden())
@@ -121,10 +136,10 @@ public class PaymentControllerTest {
     void createPaymentIntent_InvalidOrderStatus() throws Exception {
         order.setStatus(OrderStatus.PAID);
 
-        when(getAuthenticatedUserUtil.getAuthenticatedUser()).thenReturn(user);
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
         when(orderService.getOrderById(order.getId())).thenReturn(Optional.of(order));
 
-        mockMvc.perform(post("/user/payment/create-payment-intent")
+        performAsync(post("/user/payment/create-payment-intent")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(paymentRequest)))
                 .andExpect(status().isBadRequest())
@@ -141,10 +156,10 @@ public class PaymentControllerTest {
         anotherUser.setId(2L);
         order.setUser(anotherUser);
 
-        when(getAuthenticatedUserUtil.getAuthenticatedUser()).thenReturn(user);
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
         when(orderService.getOrderById(order.getId())).thenReturn(Optional.of(order));
 
-        mockMvc.perform(post("/user/payment/create-payment-intent")
+        performAsync(post("/user/payment/create-payment-intent")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(paymentRequest)))
                 .andExpect(status().isForbidden())
@@ -152,30 +167,233 @@ public class PaymentControllerTest {
     }
 
     /**
-     * StripeException発生時のテスト
+     * 決済プロバイダーが要求を拒否した場合に502を返すことのテスト
      */
     @Test
     @WithMockUser(roles = "USER")
-    void createPaymentIntent_StripeException() throws Exception {
-        when(getAuthenticatedUserUtil.getAuthenticatedUser()).thenReturn(user);
+    void createPaymentIntent_ProviderRejected() throws Exception {
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
         when(orderService.getOrderById(order.getId())).thenReturn(Optional.of(order));
-        when(paymentService.createPaymentIntent(any(OrderDTO.class))).thenThrow(new StripeException("Stripe error", "req_123", null, 500) {});
+        when(paymentService.createPaymentIntent(any(OrderDTO.class))).thenReturn(CompletableFuture.failedFuture(
+                new PaymentGatewayException(PaymentGatewayException.Reason.PROVIDER_REJECTED, "Stripe error")));
 
-        mockMvc.perform(post("/user/payment/create-payment-intent")
+        performAsync(post("/user/payment/create-payment-intent")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(paymentRequest)))
-                .andExpect(status().isInternalServerError())
+                .andExpect(status().isBadGateway())
                 .andExpect(content().string("支払いインテントの作成中にエラーが発生しました。"));
     }
 
+    /**
+     * サーキットブレーカーが開いている場合に503を返すことのテスト
+     */
+    @Test
+    @WithMockUser(roles = "USER")
+    void createPaymentIntent_CircuitOpen() throws Exception {
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
+        when(orderService.getOrderById(order.getId())).thenReturn(Optional.of(order));
+        when(paymentService.createPaymentIntent(any(OrderDTO.class))).thenReturn(CompletableFuture.failedFuture(
+                new PaymentGatewayException(PaymentGatewayException.Reason.CIRCUIT_OPEN, "open")));
+
+        performAsync(post("/user/payment/create-payment-intent")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(paymentRequest)))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    /**
+     * 作成したPaymentIntentの記録の実行枠が埋まっている場合に503を返すことのテスト
+     */
+    @Test
+    @WithMockUser(roles = "USER")
+    void createPaymentIntent_AssignmentRejected() throws Exception {
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
+        when(orderService.getOrderById(order.getId())).thenReturn(Optional.of(order));
+        when(paymentService.createPaymentIntent(any(OrderDTO.class))).thenReturn(CompletableFuture.failedFuture(
+                new RejectedExecutionException("満杯")));
+
+        performAsync(post("/user/payment/create-payment-intent")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(paymentRequest)))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    /**
+     * 作成済みのPaymentIntentが再利用できる場合、作成エンドポイントでも新たに作成しないことのテスト
+     */
+    @Test
+    @WithMockUser(roles = "USER")
+    void createPaymentIntent_ReusesExistingIntent() throws Exception {
+        order.setPaymentIntentId("pi_existing");
+
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
+        when(orderService.getOrderById(order.getId())).thenReturn(Optional.of(order));
+        when(paymentService.retrievePaymentIntent(order.getId(), "pi_existing")).thenReturn(CompletableFuture.completedFuture(
+                new PaymentIntentSnapshot("pi_existing", "requires_payment_method", "existing_secret", 100000, "usd")));
+
+        performAsync(post("/user/payment/create-payment-intent")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(paymentRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.clientSecret").value("existing_secret"));
+
+        verify(paymentService, never()).createPaymentIntent(any(OrderDTO.class));
+    }
+
+    /**
+     * 他のリクエストが別のPaymentIntentを記録済みの場合に409を返すことのテスト
+     */
+    @Test
+    @WithMockUser(roles = "USER")
+    void createPaymentIntent_Conflict() throws Exception {
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
+        when(orderService.getOrderById(order.getId())).thenReturn(Optional.of(order));
+        when(paymentService.createPaymentIntent(any(OrderDTO.class))).thenReturn(CompletableFuture.failedFuture(
+                new PaymentIntentConflictException("conflict")));
+
+        performAsync(post("/user/payment/create-payment-intent")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(paymentRequest)))
+                .andExpect(status().isConflict());
+    }
+
+    /**
+     * 支払い再開時に既存のPaymentIntentが再利用できる場合のテスト
+     */
+    @Test
+    @WithMockUser(roles = "USER")
+    void retryPayment_ReusesExistingIntent() throws Exception {
+        order.setPaymentIntentId("pi_existing");
+
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
+        when(orderService.getOrderById(order.getId())).thenReturn(Optional.of(order));
+        when(paymentService.retrievePaymentIntent(order.getId(), "pi_existing")).thenReturn(CompletableFuture.completedFuture(
+                new PaymentIntentSnapshot("pi_existing", "requires_action", "existing_secret", 100000, "usd")));
+
+        performAsync(get("/user/payment/retry-payment/{orderId}", order.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.clientSecret").value("existing_secret"));
+
+        verify(paymentService, never()).createPaymentIntent(any(OrderDTO.class));
+    }
+
+    /**
+     * 支払い再開時に既存のPaymentIntentがプロバイダーに存在しない場合、新規作成することのテスト
+     */
+    @Test
+    @WithMockUser(roles = "USER")
+    void retryPayment_CreatesNewIntentWhenExistingNotFound() throws Exception {
+        order.setPaymentIntentId("pi_missing");
+
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
+        when(orderService.getOrderById(order.getId())).thenReturn(Optional.of(order));
+        when(paymentService.retrievePaymentIntent(order.getId(), "pi_missing")).thenReturn(CompletableFuture.failedFuture(
+                new PaymentGatewayException(PaymentGatewayException.Reason.NOT_FOUND, "No such payment_intent")));
+        when(paymentService.createPaymentIntent(any(OrderDTO.class))).thenReturn(CompletableFuture.completedFuture(
+                new PaymentIntentSnapshot("pi_new", "requires_payment_method", "new_secret", 100000, "usd")));
+
+        performAsync(get("/user/payment/retry-payment/{orderId}", order.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.clientSecret").value("new_secret"));
+
+        verify(paymentService).createPaymentIntent(any(OrderDTO.class));
+    }
+
+    /**
+     * 支払い再開時に既存のPaymentIntentがキャンセル済みの場合、新規作成することのテスト
+     */
+    @Test
+    @WithMockUser(roles = "USER")
+    void retryPayment_CreatesNewIntentWhenExistingCanceled() throws Exception {
+        order.setPaymentIntentId("pi_canceled");
+
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
+        when(orderService.getOrderById(order.getId())).thenReturn(Optional.of(order));
+        when(paymentService.retrievePaymentIntent(order.getId(), "pi_canceled")).thenReturn(CompletableFuture.completedFuture(
+                new PaymentIntentSnapshot("pi_canceled", "canceled", "canceled_secret", 100000, "usd")));
+        when(paymentService.createPaymentIntent(any(OrderDTO.class))).thenReturn(CompletableFuture.completedFuture(
+                new PaymentIntentSnapshot("pi_new", "requires_payment_method", "new_secret", 100000, "usd")));
+
+        performAsync(get("/user/payment/retry-payment/{orderId}", order.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.clientSecret").value("new_secret"));
+    }
+
+    /**
+     * 既存のPaymentIntentが処理中の場合、新規作成せず409を返すことのテスト（二重請求の防止）
+     */
+    @Test
+    @WithMockUser(roles = "USER")
+    void retryPayment_ReturnsConflictWhenExistingIsProcessing() throws Exception {
+        order.setPaymentIntentId("pi_processing");
+
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
+        when(orderService.getOrderById(order.getId())).thenReturn(Optional.of(order));
+        when(paymentService.retrievePaymentIntent(order.getId(), "pi_processing")).thenReturn(CompletableFuture.completedFuture(
+                new PaymentIntentSnapshot("pi_processing", "processing", "processing_secret", 100000, "usd")));
+
+        performAsync(get("/user/payment/retry-payment/{orderId}", order.getId()))
+                .andExpect(status().isConflict());
+
+        verify(paymentService, never()).createPaymentIntent(any(OrderDTO.class));
+    }
+
+    /**
+     * 既存のPaymentIntentの取得がタイムアウトした場合、新規作成せず503を返すことのテスト（二重請求の防止）
+     */
+    @Test
+    @WithMockUser(roles = "USER")
+    void retryPayment_ReturnsServiceUnavailableWhenRetrieveTimesOut() throws Exception {
+        order.setPaymentIntentId("pi_existing");
+
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
+        when(orderService.getOrderById(order.getId())).thenReturn(Optional.of(order));
+        when(paymentService.retrievePaymentIntent(order.getId(), "pi_existing")).thenReturn(CompletableFuture.failedFuture(
+                new PaymentGatewayException(PaymentGatewayException.Reason.TIMEOUT, "timeout")));
+
+        performAsync(get("/user/payment/retry-payment/{orderId}", order.getId()))
+                .andExpect(status().isServiceUnavailable());
+
+        verify(paymentService, never()).createPaymentIntent(any(OrderDTO.class));
+    }
+
+    /**
+     * 既存のPaymentIntentの取得でプロバイダー障害が起きた場合、新規作成せず502を返すことのテスト（二重請求の防止）
+     */
+    @Test
+    @WithMockUser(roles = "USER")
+    void createPaymentIntent_ReturnsBadGatewayWhenRetrieveFails() throws Exception {
+        order.setPaymentIntentId("pi_existing");
+
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(user));
+        when(orderService.getOrderById(order.getId())).thenReturn(Optional.of(order));
+        when(paymentService.retrievePaymentIntent(order.getId(), "pi_existing")).thenReturn(CompletableFuture.failedFuture(
+                new PaymentGatewayException(PaymentGatewayException.Reason.PROVIDER_UNAVAILABLE, "Stripe 500")));
+
+        performAsync(post("/user/payment/create-payment-intent")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(paymentRequest)))
+                .andExpect(status().isBadGateway());
+
+        verify(paymentService, never()).createPaymentIntent(any(OrderDTO.class));
+    }
+
     /**
      * 認証されていない場合のテスト
      */
     @Test
     void createPaymentIntent_Unauthorized() throws Exception {
-        mockMvc.perform(post("/user/payment/create-payment-intent")
+        performAsync(post("/user/payment/create-payment-intent")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(paymentRequest)))
                 .andExpect(status().isForbidden());
     }
+
+    // 非同期処理の開始を確認し、完了後のディスパッチ結果を返す
+    private ResultActions performAsync(RequestBuilder requestBuilder) throws Exception {
+        MvcResult result = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
 }
\ No newline at end of file
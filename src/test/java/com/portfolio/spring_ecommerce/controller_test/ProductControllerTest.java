@@ -4,6 +4,8 @@ import com.portfolio.spring_ecommerce.model.Product;
 import com.portfolio.spring_ecommerce.service.ProductService;
 import com.portfolio.spring_ecommerce.controller.ProductController;
 import com.portfolio.spring_ecommerce.filter.JwtAuthenticationFilter;
+import com.portfolio.spring_ecommerce.filter.RateLimitFilter;
+import com.portfolio.spring_ecommerce.repository.UserRepository;
 
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -39,6 +41,12 @@ class ProductControllerTest {
     @MockitoBean
     private JwtAuthenticationFilter jwtAuthenticationFilter; // JWT認証フィルターのモック
 
+    @MockitoBean
+    private RateLimitFilter rateLimitFilter; // レート制限フィルターのモック
+
+    @MockitoBean
+    private UserRepository userRepository; // UserRepositoryのモック
+
     @Test
     @WithMockUser // 認証されたユーザーとしてテストを実行
     void getAllProducts_shouldReturnProductListAndStatus200() throws Exception {
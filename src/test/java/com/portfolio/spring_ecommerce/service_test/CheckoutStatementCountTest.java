@@ -0,0 +1,135 @@
+package com.portfolio.spring_ecommerce.service_test;
+
+import com.portfolio.spring_ecommerce.model.*;
+import com.portfolio.spring_ecommerce.model.enums.Role;
+import com.portfolio.spring_ecommerce.repository.CartRepository;
+import com.portfolio.spring_ecommerce.repository.ProductRepository;
+import com.portfolio.spring_ecommerce.repository.UserRepository;
+import com.portfolio.spring_ecommerce.service.OrderService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 注文確定（チェックアウト）1回あたりに発行されるSQL文の数を計測するテストクラス。
+ * JDBCバッチを有効にした設定と無効にした設定で同じチェックアウトを計測し、
+ * バッチ有効時は明細数によらず一定で、無効時（明細ごとに発行）より大幅に少ないことを検証する。
+ * プール型シーケンスの採番（次のブロックの取得）は、それまでの採番数によって発行されるかが変わるため計測から除く。
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@TestPropertySource(locations = "classpath:application-test.properties")
+class CheckoutStatementCountTest {
+
+    private static final int LINE_COUNT = 30;
+
+    // セッション単位のJDBCバッチサイズ（1はバッチなし、nullは設定ファイルのbatch_size）
+    private static final Integer UNBATCHED = 1;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * バッチ有効時のステートメント数が明細数によらず一定であることを検証する。
+     */
+    @Test
+    void createOrderFromCart_BatchedStatementCountDoesNotGrowWithLines() {
+        long tenLines = checkoutStatements("batched-10", 10, null);
+        long thirtyLines = checkoutStatements("batched-30", LINE_COUNT, null);
+
+        assertEquals(tenLines, thirtyLines);
+    }
+
+    /**
+     * バッチ有効時のステートメント数が、バッチ無効時（明細ごとのINSERT/UPDATE）より大幅に少ないことを検証する。
+     */
+    @Test
+    void createOrderFromCart_BatchedFarBelowUnbatched() {
+        long batched = checkoutStatements("compare-batched", LINE_COUNT, null);
+        long unbatched = checkoutStatements("compare-unbatched", LINE_COUNT, UNBATCHED);
+
+        // バッチ無効時は明細ごとに少なくとも明細のINSERTと在庫のUPDATEを発行する
+        assertTrue(unbatched >= 2L * LINE_COUNT, "バッチ無効時のステートメント数: " + unbatched);
+        assertTrue(batched * 5 <= unbatched, "バッチ有効時: " + batched + ", バッチ無効時: " + unbatched);
+    }
+
+    /**
+     * lines明細のカートから注文を作成し、注文作成で発行されたステートメント数（採番を除く）を返す。
+     * @param name ユーザー名と商品SKUの接頭辞（計測ごとに一意）
+     * @param lines カートの明細数
+     * @param sessionBatchSize セッション単位のJDBCバッチサイズ（nullの場合は設定ファイルの値）
+     */
+    private long checkoutStatements(String name, int lines, Integer sessionBatchSize) {
+        User user = transactionTemplate.execute(status -> {
+            User u = new User(name, "password");
+            u.setRoles(Set.of(Role.USER));
+            u = userRepository.save(u);
+
+            Cart cart = new Cart(u, new ArrayList<>());
+            for (int i = 0; i < lines; i++) {
+                Product product = new Product();
+                product.setSku(name + "-" + i);
+                product.setName("Bench " + i);
+                product.setUnitPrice(new BigDecimal("19.99"));
+                product.setStatus(true);
+                product.setUnitsInStock(100);
+                cart.getItems().add(new CartItem(productRepository.save(product), 1));
+            }
+            cartRepository.save(cart);
+            return u;
+        });
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        long sequenceCallsBefore = sequenceCalls();
+
+        Order order = transactionTemplate.execute(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(sessionBatchSize);
+            return orderService.createOrderFromCart(user);
+        });
+
+        assertEquals(lines, order.getOrderItems().size());
+        return statistics.getPrepareStatementCount() - (sequenceCalls() - sequenceCallsBefore);
+    }
+
+    // これまでに発行されたシーケンスの採番回数（H2のシーケンスの現在値から求める）
+    private long sequenceCalls() {
+        return jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM((BASE_VALUE - START_VALUE) / INCREMENT), 0) FROM INFORMATION_SCHEMA.SEQUENCES", Long.class);
+    }
+}
\ No newline at end of file
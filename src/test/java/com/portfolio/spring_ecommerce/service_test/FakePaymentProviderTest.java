@@ -0,0 +1,60 @@
+package com.portfolio.spring_ecommerce.service_test;
+
+import com.portfolio.spring_ecommerce.gateway.FakePaymentProvider;
+import com.portfolio.spring_ecommerce.gateway.PaymentGatewayException;
+import com.portfolio.spring_ecommerce.gateway.PaymentIntentRequest;
+import com.portfolio.spring_ecommerce.gateway.PaymentIntentSnapshot;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * FakePaymentProviderの単体テストクラス。
+ * 冪等キーによる作成の重複排除と、PaymentIntentを支払い済みにする操作を検証する。
+ */
+public class FakePaymentProviderTest {
+
+    /**
+     * 同じ冪等キーでの作成は同じPaymentIntentを返し、確定すると以降の取得で支払い済みになることを検証する。
+     */
+    @Test
+    void testConfirmPaymentIntent_MakesIntentSucceeded() {
+        FakePaymentProvider provider = new FakePaymentProvider(0, 0.0, 100, 60, -1);
+        PaymentIntentRequest request = new PaymentIntentRequest(1L, 1000L, "usd", "order-1-1000usd");
+
+        PaymentIntentSnapshot created = provider.createPaymentIntent(request);
+        assertEquals(created.id(), provider.createPaymentIntent(request).id());
+        assertEquals("requires_payment_method", provider.retrievePaymentIntent(created.id()).status());
+
+        provider.confirmPaymentIntent(created.id());
+
+        assertEquals("succeeded", provider.retrievePaymentIntent(created.id()).status());
+    }
+
+    /**
+     * 自動で支払い済みにする設定の場合、作成から指定時間が経過したPaymentIntentが支払い済みとして返ることを検証する。
+     */
+    @Test
+    void testRetrievePaymentIntent_AutoConfirmsAfterDelay() {
+        FakePaymentProvider provider = new FakePaymentProvider(0, 0.0, 100, 60, 0);
+
+        PaymentIntentSnapshot created = provider.createPaymentIntent(new PaymentIntentRequest(2L, 500L, "usd", "order-2-500usd"));
+
+        assertEquals("succeeded", provider.retrievePaymentIntent(created.id()).status());
+    }
+
+    /**
+     * 存在しないPaymentIntentの確定と取得はNOT_FOUNDで失敗することを検証する。
+     */
+    @Test
+    void testUnknownPaymentIntent_NotFound() {
+        FakePaymentProvider provider = new FakePaymentProvider(0, 0.0, 100, 60, -1);
+
+        PaymentGatewayException confirmError = assertThrows(PaymentGatewayException.class,
+                () -> provider.confirmPaymentIntent("pi_unknown"));
+        assertEquals(PaymentGatewayException.Reason.NOT_FOUND, confirmError.getReason());
+        PaymentGatewayException retrieveError = assertThrows(PaymentGatewayException.class,
+                () -> provider.retrievePaymentIntent("pi_unknown"));
+        assertEquals(PaymentGatewayException.Reason.NOT_FOUND, retrieveError.getReason());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,103 @@
+package com.portfolio.spring_ecommerce.service_test;
+
+import com.portfolio.spring_ecommerce.filter.JwtAuthenticationFilter;
+import com.portfolio.spring_ecommerce.model.User;
+import com.portfolio.spring_ecommerce.model.enums.Role;
+import com.portfolio.spring_ecommerce.repository.RevokedTokenRepository;
+import com.portfolio.spring_ecommerce.revocation.RevocationBloomFilter;
+import com.portfolio.spring_ecommerce.service.JwtBlacklistService;
+import com.portfolio.spring_ecommerce.service.UserService;
+import com.portfolio.spring_ecommerce.signing.HmacKeyRing;
+import com.portfolio.spring_ecommerce.util.AuthenticatedUser;
+import com.portfolio.spring_ecommerce.util.JwtUtil;
+import com.portfolio.spring_ecommerce.util.UserPrincipal;
+import com.portfolio.spring_ecommerce.util.VerifiedTokenCache;
+import org.junit.jupiter.api.AfterEach;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * JwtAuthenticationFilterの単体テストクラス。
+ * トークンのクレームだけから認証情報と認証ユーザーが作成され、DBを参照しないことを検証する。
+ */
+class JwtAuthenticationFilterTest {
+
+    private JwtUtil jwtUtil;
+    private UserService userService;
+    private JwtBlacklistService jwtBlacklistService;
+    private JwtAuthenticationFilter filter;
+
+    /**
+     * 各テスト実行前にフィルターと依存オブジェクトを初期化する。
+     */
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil(new HmacKeyRing("test-jwt-secret-key-0123456789abcdef"), 3600000L);
+        VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(jwtUtil, 100);
+        userService = mock(UserService.class);
+        jwtBlacklistService = new JwtBlacklistService(mock(RevokedTokenRepository.class), verifiedTokenCache,
+                new RevocationBloomFilter(3600000L, 65536, 5), new SimpleMeterRegistry());
+        filter = new JwtAuthenticationFilter(verifiedTokenCache, userService, jwtBlacklistService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * ユーザーIDとロールを含むトークンでは、ユーザーを読み込まずにプリンシパルと権限が設定されることを検証する。
+     */
+    @Test
+    void testDoFilter_BuildsAuthenticationFromClaims() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + jwtUtil.generateToken(user()));
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertEquals(new UserPrincipal(7L, "testuser"), authentication.getPrincipal());
+        assertEquals("testuser", authentication.getName());
+        assertEquals(AuthorityUtils.createAuthorityList("ROLE_USER"), authentication.getAuthorities());
+        AuthenticatedUser current = (AuthenticatedUser) request.getAttribute(AuthenticatedUser.ATTRIBUTE);
+        assertEquals(7L, current.id());
+        assertEquals("testuser", current.username());
+        verifyNoInteractions(userService);
+    }
+
+    /**
+     * ログアウト済みのトークンは401となり、認証情報が設定されないことを検証する。
+     */
+    @Test
+    void testDoFilter_RevokedTokenIsRejected() throws Exception {
+        String token = jwtUtil.generateToken(user());
+        jwtBlacklistService.addTokenToBlacklist(token);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertEquals(401, response.getStatus());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    private User user() {
+        User user = new User("testuser", "password");
+        user.setId(7L);
+        user.setRoles(Set.of(Role.USER));
+        return user;
+    }
+}
\ No newline at end of file
@@ -1,10 +1,28 @@
 package com.portfolio.spring_ecommerce.service_test;
 
+import com.portfolio.spring_ecommerce.model.RevokedToken;
+import com.portfolio.spring_ecommerce.model.User;
+import com.portfolio.spring_ecommerce.model.enums.Role;
+import com.portfolio.spring_ecommerce.repository.RevokedTokenRepository;
+import com.portfolio.spring_ecommerce.revocation.RevocationBloomFilter;
 import com.portfolio.spring_ecommerce.service.JwtBlacklistService;
+import com.portfolio.spring_ecommerce.util.JwtClaims;
+import com.portfolio.spring_ecommerce.signing.HmacKeyRing;
+import com.portfolio.spring_ecommerce.util.JwtUtil;
+import com.portfolio.spring_ecommerce.util.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
 
 /**
  * JwtBlacklistServiceの単体テストクラス。
@@ -18,29 +36,83 @@ class JwtBlacklistServiceTest {
      */
     private JwtBlacklistService jwtBlacklistService;
 
+    private JwtUtil jwtUtil;
+    private RevokedTokenRepository revokedTokenRepository;
+    private SimpleMeterRegistry meterRegistry;
+
     /**
      * 各テスト実行前にJwtBlacklistServiceを初期化する。
      */
     @BeforeEach
     void setUp() {
-        jwtBlacklistService = new JwtBlacklistService();
+        jwtUtil = new JwtUtil(new HmacKeyRing("test-jwt-secret-key-0123456789abcdef"), 3600000L);
+        revokedTokenRepository = mock(RevokedTokenRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        jwtBlacklistService = new JwtBlacklistService(revokedTokenRepository, new VerifiedTokenCache(jwtUtil, 100),
+                new RevocationBloomFilter(3600000L, 65536, 5), meterRegistry);
     }
 
     /**
      * addTokenToBlacklistメソッドとisTokenBlacklistedメソッドの連携テスト。
-     * トークンがブラックリストに追加された後、正しく判定されることを検証する。
+     * トークンがブラックリストに追加された後、正しく判定され、トークンIDと有効期限だけが保存されることを検証する。
      */
     @Test
     void whenTokenAdded_shouldBeBlacklisted() {
-        String token = "test-token";
-        
+        String token = jwtUtil.generateToken(user());
+        JwtClaims claims = jwtUtil.verify(token);
+
         // ブラックリスト追加前はfalse
-        assertFalse(jwtBlacklistService.isTokenBlacklisted(token));
+        assertFalse(jwtBlacklistService.isTokenBlacklisted(claims.tokenId()));
 
         // トークンをブラックリストに追加
         jwtBlacklistService.addTokenToBlacklist(token);
 
         // ブラックリスト追加後はtrue
-        assertTrue(jwtBlacklistService.isTokenBlacklisted(token));
+        assertTrue(jwtBlacklistService.isTokenBlacklisted(claims.tokenId()));
+
+        // 追加前の確認はブルームフィルターで否定され、追加後は正確な集合で失効済みと判定される
+        assertEquals(1.0, meterRegistry.counter("jwt.revocation.checks", "result", "bloom_negative").count());
+        assertEquals(1.0, meterRegistry.counter("jwt.revocation.checks", "result", "revoked").count());
+
+        ArgumentCaptor<RevokedToken> captor = ArgumentCaptor.forClass(RevokedToken.class);
+        verify(revokedTokenRepository).saveAndFlush(captor.capture());
+        assertEquals(claims.tokenId(), captor.getValue().getTokenId());
+        assertNotNull(captor.getValue().getExpiresAt());
+    }
+
+    /**
+     * 署名が不正なトークンは失効情報として保存されないことを検証する。
+     */
+    @Test
+    void whenTokenInvalid_shouldNotBeStored() {
+        jwtBlacklistService.addTokenToBlacklist("test-token");
+
+        verify(revokedTokenRepository, never()).saveAndFlush(any());
+    }
+
+    /**
+     * 他ノードで保存された失効情報が取り込まれ、次回は高水位線より後の行だけを問い合わせることを検証する。
+     */
+    @Test
+    void syncRevokedTokens_ImportsRowsAndAdvancesHighWaterMark() {
+        UUID tokenId = UUID.randomUUID();
+        RevokedToken row = new RevokedToken(tokenId, LocalDateTime.now().plusHours(1));
+        row.setId(5L);
+        when(revokedTokenRepository.findLiveChangedSince(eq(0L), any(), any())).thenReturn(List.of(row));
+        when(revokedTokenRepository.findLiveChangedSince(eq(5L), any(), any())).thenReturn(List.of(row));
+
+        assertEquals(1, jwtBlacklistService.syncRevokedTokens());
+        assertTrue(jwtBlacklistService.isTokenBlacklisted(tokenId));
+
+        // 直近の行は読み直されるが、取り込み済みのため件数には含まれない
+        assertEquals(0, jwtBlacklistService.syncRevokedTokens());
+        verify(revokedTokenRepository).findLiveChangedSince(eq(5L), any(), any());
+    }
+
+    private User user() {
+        User user = new User("testuser", "password");
+        user.setId(1L);
+        user.setRoles(Set.of(Role.USER));
+        return user;
     }
 }
\ No newline at end of file
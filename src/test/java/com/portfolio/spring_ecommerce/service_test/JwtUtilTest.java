@@ -0,0 +1,80 @@
+package com.portfolio.spring_ecommerce.service_test;
+
+import com.portfolio.spring_ecommerce.model.User;
+import com.portfolio.spring_ecommerce.model.enums.Role;
+import com.portfolio.spring_ecommerce.util.JwtClaims;
+import com.portfolio.spring_ecommerce.signing.HmacKeyRing;
+import com.portfolio.spring_ecommerce.util.JwtUtil;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JwtUtilの単体テストクラス。
+ * トークンの生成と、1回の解析での署名・有効期限の検証を検証する。
+ */
+class JwtUtilTest {
+
+    private static final String SECRET = "test-jwt-secret-key-0123456789abcdef";
+
+    private JwtUtil jwtUtil;
+    private User user;
+
+    /**
+     * 各テスト実行前にJwtUtilを初期化する。
+     */
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil(new HmacKeyRing(SECRET), 3600000L);
+        user = new User("testuser", "password");
+        user.setId(42L);
+        user.setRoles(Set.of(Role.USER));
+    }
+
+    /**
+     * 生成したトークンを検証すると、ユーザー名・ユーザーID・ロール・有効期限が取り出せることを検証する。
+     */
+    @Test
+    void testVerify_ValidToken_ReturnsClaims() {
+        JwtClaims claims = jwtUtil.verify(jwtUtil.generateToken(user));
+
+        assertEquals("testuser", claims.subject());
+        assertEquals(42L, claims.userId());
+        assertEquals(List.of("ROLE_USER"), claims.roles());
+        assertTrue(claims.expiresAt().isAfter(claims.issuedAt()));
+    }
+
+    /**
+     * 別の鍵で署名されたトークンは検証に失敗することを検証する。
+     */
+    @Test
+    void testVerify_OtherKey_ThrowsException() {
+        String token = new JwtUtil(new HmacKeyRing("another-jwt-secret-key-0123456789abcdef"), 3600000L).generateToken(user);
+
+        assertThrows(JwtException.class, () -> jwtUtil.verify(token));
+    }
+
+    /**
+     * 期限切れのトークンは検証に失敗することを検証する。
+     */
+    @Test
+    void testVerify_ExpiredToken_ThrowsException() {
+        String token = new JwtUtil(new HmacKeyRing(SECRET), -1000L).generateToken(user);
+
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.verify(token));
+    }
+
+    /**
+     * 32バイト未満のシークレットでは起動時に失敗することを検証する。
+     */
+    @Test
+    void testConstructor_WeakSecret_ThrowsException() {
+        assertThrows(IllegalStateException.class, () -> new HmacKeyRing("too-short"));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,219 @@
+package com.portfolio.spring_ecommerce.service_test;
+
+import com.portfolio.spring_ecommerce.model.Cart;
+import com.portfolio.spring_ecommerce.model.CartItem;
+import com.portfolio.spring_ecommerce.model.Order;
+import com.portfolio.spring_ecommerce.model.Product;
+import com.portfolio.spring_ecommerce.model.User;
+import com.portfolio.spring_ecommerce.model.enums.OrderStatus;
+import com.portfolio.spring_ecommerce.model.enums.Role;
+import com.portfolio.spring_ecommerce.repository.CartRepository;
+import com.portfolio.spring_ecommerce.repository.OrderRepository;
+import com.portfolio.spring_ecommerce.repository.ProductRepository;
+import com.portfolio.spring_ecommerce.repository.UserRepository;
+import com.portfolio.spring_ecommerce.service.OrderArchiveService;
+import com.portfolio.spring_ecommerce.service.OrderService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 注文テーブルのパーティション管理を組み込みPostgreSQL上で実行するテストクラス。
+ * H2ではFlywayのマイグレーション（パーティションテーブルとPostgreSQL関数）を実行できないため、
+ * マイグレーションの適用、ddl-auto=validateでのスキーマ検証、パーティション関数の動作をここで検証する。
+ */
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-test.properties", properties = {
+        "spring.datasource.driver-class-name=org.postgresql.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.flyway.enabled=true",
+        "orders.archive.enabled=true"
+})
+class OrderPartitionPostgresTest {
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgres.start();
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        postgres.close();
+    }
+
+    /**
+     * すべてのマイグレーションが適用され、エンティティとスキーマが一致する（validateで起動できる）ことを検証する。
+     */
+    @Test
+    void testMigrations_AllAppliedAndSchemaValidates() {
+        assertEquals(0, flyway.info().pending().length);
+        assertNotNull(flyway.info().current());
+    }
+
+    /**
+     * パーティション未作成の月の注文がデフォルトパーティションに入っていても、
+     * その月のパーティションを作成し、注文と明細を作成したパーティションへ移すことを検証する。
+     */
+    @Test
+    void testEnsurePartitions_MovesRowsStrandedInDefaultPartition() {
+        // 作成済みの範囲（今月＋3か月）より先の月と、過去の月の注文
+        LocalDateTime ahead = LocalDate.now().withDayOfMonth(1).plusMonths(5).atTime(12, 0);
+        LocalDateTime past = LocalDate.now().withDayOfMonth(1).minusMonths(30).atTime(12, 0);
+        Long userId = saveUser("partition-stranded").getId();
+        Long productId = saveProduct("PART-STRANDED").getId();
+        insertOrderWithItem(900_001L, userId, productId, ahead);
+        insertOrderWithItem(900_002L, userId, productId, past);
+        assertEquals(2, count("orders_default"));
+        assertEquals(2, count("order_items_default"));
+
+        int created = transactionTemplate.execute(status -> orderRepository.ensureMonthlyPartitions(LocalDate.now(), 5));
+
+        // 先の月は今月＋4か月、今月＋5か月の2つ、過去の月は行のある1つだけ作成する
+        assertEquals(3, created);
+        assertEquals(0, count("orders_default"));
+        assertEquals(0, count("order_items_default"));
+        assertEquals(1, count("orders_p" + ahead.format(PARTITION_SUFFIX)));
+        assertEquals(1, count("order_items_p" + ahead.format(PARTITION_SUFFIX)));
+        assertEquals(1, count("orders_p" + past.format(PARTITION_SUFFIX)));
+        assertEquals(1, count("order_items_p" + past.format(PARTITION_SUFFIX)));
+        assertNull(jdbcTemplate.queryForObject("SELECT to_regclass(?)::text", String.class,
+                "orders_p" + past.plusMonths(1).format(PARTITION_SUFFIX)));
+
+        // 2回目は作成するものがない
+        int createdAgain = transactionTemplate.execute(status -> orderRepository.ensureMonthlyPartitions(LocalDate.now(), 5));
+        assertEquals(0, createdAgain);
+    }
+
+    /**
+     * 注文の作成からPaymentIntent IDでの支払い完了までが、パーティションテーブルと対応表の上で動作することを検証する。
+     */
+    @Test
+    void testCheckoutAndMarkPaid_OnPartitionedTables() {
+        User user = saveUser("partition-checkout");
+        Product product = saveProduct("PART-CHECKOUT");
+        transactionTemplate.executeWithoutResult(status -> {
+            Cart cart = new Cart(user, new ArrayList<>());
+            cart.getItems().add(new CartItem(product, 3));
+            cartRepository.save(cart);
+        });
+
+        Order order = orderService.createOrderFromCart(user);
+        assertTrue(orderService.assignPaymentIntent(order.getId(), null, "pi_partition_checkout"));
+        Order paid = orderService.markOrderAsPaid("pi_partition_checkout");
+
+        assertEquals(OrderStatus.PAID, paid.getStatus());
+        assertEquals(1, paid.getOrderItems().size());
+        assertEquals(OrderStatus.PAID, orderService.getOrderById(order.getId()).orElseThrow().getStatus());
+    }
+
+    /**
+     * ユーザーの注文履歴と支払い確認待ちの注文の検索が、アーカイブ境界より前の月次パーティションを読まないことを検証する。
+     */
+    @Test
+    void testOrderQueries_SkipPartitionsBeforeArchiveBoundary() {
+        LocalDateTime old = LocalDate.now().withDayOfMonth(1).minusMonths(20).atTime(12, 0);
+        User user = saveUser("partition-pruning");
+        insertOrderWithItem(900_003L, user.getId(), saveProduct("PART-PRUNING").getId(), old);
+        transactionTemplate.execute(status -> orderRepository.ensureMonthlyPartitions(LocalDate.now(), 3));
+        Timestamp hotFrom = Timestamp.valueOf(orderArchiveService.hotFrom());
+        String oldPartition = "orders_p" + old.format(PARTITION_SUFFIX);
+        String currentPartition = "orders_p" + LocalDate.now().format(PARTITION_SUFFIX);
+
+        String userPlan = explain("SELECT * FROM orders WHERE user_id = ? AND order_date >= ?", user.getId(), hotFrom);
+        String pendingPlan = explain("SELECT * FROM orders WHERE status = 'PENDING' AND payment_intent_id IS NOT NULL "
+                + "AND id > 0 AND order_date >= ? AND order_date < ? ORDER BY id LIMIT 100", hotFrom, Timestamp.valueOf(LocalDateTime.now()));
+
+        assertTrue(userPlan.contains(currentPartition), userPlan);
+        assertFalse(userPlan.contains(oldPartition), userPlan);
+        assertTrue(pendingPlan.contains(currentPartition), pendingPlan);
+        assertFalse(pendingPlan.contains(oldPartition), pendingPlan);
+        // アーカイブ境界より前の注文は現行テーブルからは返さない（アーカイブへ移動されるまでの支払い済みの注文）
+        assertTrue(orderService.getOrdersForUser(user).isEmpty());
+        assertTrue(orderService.getOrderById(900_003L).isEmpty());
+    }
+
+    private User saveUser(String username) {
+        User user = new User(username, "password");
+        user.setRoles(Set.of(Role.USER));
+        return userRepository.save(user);
+    }
+
+    private Product saveProduct(String sku) {
+        Product product = new Product();
+        product.setSku(sku);
+        product.setName(sku);
+        product.setUnitPrice(new BigDecimal("19.99"));
+        product.setStatus(true);
+        product.setUnitsInStock(10);
+        return productRepository.save(product);
+    }
+
+    private void insertOrderWithItem(long orderId, Long userId, Long productId, LocalDateTime orderDate) {
+        jdbcTemplate.update("INSERT INTO orders (id, user_id, order_date, status, total_amount_minor, currency) "
+                + "VALUES (?, ?, ?, 'PAID', 1999, 'usd')", orderId, userId, Timestamp.valueOf(orderDate));
+        jdbcTemplate.update("INSERT INTO order_items (id, order_id, order_date, product_id, quantity, price_minor) "
+                + "VALUES (?, ?, ?, ?, 1, 1999)", orderId, orderId, Timestamp.valueOf(orderDate), productId);
+    }
+
+    private String explain(String sql, Object... args) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, args));
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Long.class);
+    }
+}
\ No newline at end of file
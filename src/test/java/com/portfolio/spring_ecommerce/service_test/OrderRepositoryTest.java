@@ -0,0 +1,72 @@
+package com.portfolio.spring_ecommerce.service_test;
+
+import com.portfolio.spring_ecommerce.model.Order;
+import com.portfolio.spring_ecommerce.model.User;
+import com.portfolio.spring_ecommerce.model.enums.OrderStatus;
+import com.portfolio.spring_ecommerce.model.enums.Role;
+import com.portfolio.spring_ecommerce.repository.OrderRepository;
+import com.portfolio.spring_ecommerce.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * OrderRepositoryの条件付きUPDATEをH2上で実行するテストクラス。
+ * 同じトランザクションで読み込み済みの注文があっても、UPDATEの結果が読み直しで見え、コミット時に上書きされないことを検証する。
+ */
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-test.properties")
+class OrderRepositoryTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * 読み込み済みの注文の未反映の変更はUPDATEの前に書き込まれ、UPDATE後の読み直しは遷移後のステータスを返すことを検証する。
+     */
+    @Test
+    void testTransitionStatus_FlushesPendingChangesAndRefreshesLoadedOrder() {
+        Long orderId = savePendingOrder().getId();
+
+        OrderStatus statusInTransaction = transactionTemplate.execute(status -> {
+            Order loaded = orderRepository.findById(orderId).orElseThrow();
+            loaded.setTotalAmountMinor(2000);
+            assertEquals(1, orderRepository.transitionStatusRecordingPaymentIntent(
+                    orderId, LocalDateTime.now().minusDays(1), "pi_repository_test", OrderStatus.PENDING, OrderStatus.PAID));
+            return orderRepository.findById(orderId).orElseThrow().getStatus();
+        });
+
+        assertEquals(OrderStatus.PAID, statusInTransaction);
+        Order committed = orderRepository.findById(orderId).orElseThrow();
+        assertEquals(OrderStatus.PAID, committed.getStatus());
+        assertEquals("pi_repository_test", committed.getPaymentIntentId());
+        assertEquals(2000, committed.getTotalAmountMinor());
+    }
+
+    private Order savePendingOrder() {
+        User user = new User("order-repository-test", "password");
+        user.setRoles(Set.of(Role.USER));
+        Order order = new Order();
+        order.setUser(userRepository.save(user));
+        order.setOrderItems(new ArrayList<>());
+        order.setOrderDate(LocalDateTime.now());
+        order.setStatus(OrderStatus.PENDING);
+        order.setTotalAmountMinor(1000);
+        order.setCurrency("usd");
+        return orderRepository.save(order);
+    }
+}
\ No newline at end of file
@@ -1,11 +1,18 @@
 package com.portfolio.spring_ecommerce.service_test;
 
+import com.portfolio.spring_ecommerce.dto.OrderDTO;
+import com.portfolio.spring_ecommerce.event.OrderLifecycleEvent;
+import com.portfolio.spring_ecommerce.exception.PaymentIntentNotLinkedException;
 import com.portfolio.spring_ecommerce.model.*;
+import com.portfolio.spring_ecommerce.model.enums.OrderEventType;
 import com.portfolio.spring_ecommerce.model.enums.OrderStatus;
+import com.portfolio.spring_ecommerce.repository.ArchivedOrderRepository;
 import com.portfolio.spring_ecommerce.repository.CartRepository;
+import com.portfolio.spring_ecommerce.repository.OrderPaymentIntentRepository;
 import com.portfolio.spring_ecommerce.repository.OrderRepository;
 import com.portfolio.spring_ecommerce.repository.ProductRepository;
 import com.portfolio.spring_ecommerce.service.CartService;
+import com.portfolio.spring_ecommerce.service.OrderArchiveService;
 import com.portfolio.spring_ecommerce.service.OrderService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,10 +20,14 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -28,6 +39,9 @@ import static org.mockito.Mockito.*;
  */
 class OrderServiceTest {
 
+    // 現行テーブルで参照する注文日時の下限
+    private static final LocalDateTime HOT_FROM = LocalDateTime.of(2024, 1, 1, 0, 0);
+
     /**
      * OrderRepositoryのモックオブジェクト。
      * 注文情報の永続化をシミュレートする。
@@ -56,6 +70,34 @@ class OrderServiceTest {
     @Mock
     private CartService cartService;
 
+    /**
+     * ApplicationEventPublisherのモックオブジェクト。
+     * 注文イベントの発行を検証する。
+     */
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * ArchivedOrderRepositoryのモックオブジェクト。
+     * アーカイブ済み注文の参照をシミュレートする。
+     */
+    @Mock
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    /**
+     * OrderPaymentIntentRepositoryのモックオブジェクト。
+     * PaymentIntentと注文の対応表をシミュレートする。
+     */
+    @Mock
+    private OrderPaymentIntentRepository orderPaymentIntentRepository;
+
+    /**
+     * OrderArchiveServiceのモックオブジェクト。
+     * 現行テーブルで参照する注文日時の下限を返す。
+     */
+    @Mock
+    private OrderArchiveService orderArchiveService;
+
     /**
      * テスト対象のOrderServiceインスタンス。
      * 上記のモック（@Mock）がこのインスタンスに自動的に注入される。
@@ -74,6 +116,7 @@ class OrderServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(orderArchiveService.hotFrom()).thenReturn(HOT_FROM);
 
         user = new User();
         user.setId(1L);
@@ -119,7 +162,8 @@ class OrderServiceTest {
         assertEquals(user, createdOrder.getUser());
         assertEquals(OrderStatus.PENDING, createdOrder.getStatus());
         assertEquals(2, createdOrder.getOrderItems().size());
-        assertEquals(80.0, createdOrder.getTotalAmount());
+        assertEquals(8000L, createdOrder.getTotalAmountMinor());
+        assertEquals("usd", createdOrder.getCurrency());
 
         verify(cartService, times(1)).getOrCreateCart(user);
         verify(orderRepository, times(1)).save(any(Order.class));
@@ -135,6 +179,30 @@ class OrderServiceTest {
         ArgumentCaptor<Cart> cartCaptor = ArgumentCaptor.forClass(Cart.class);
         verify(cartRepository).save(cartCaptor.capture());
         assertTrue(cartCaptor.getValue().getItems().isEmpty());
+
+        ArgumentCaptor<OrderLifecycleEvent> eventCaptor = ArgumentCaptor.forClass(OrderLifecycleEvent.class);
+        verify(eventPublisher).publishEvent(eventCaptor.capture());
+        assertEquals(OrderEventType.ORDER_CREATED, eventCaptor.getValue().getType());
+        assertSame(createdOrder, eventCaptor.getValue().getOrder());
+    }
+
+    /**
+     * createOrderFromCartメソッドのテスト（端数のある単価）。
+     * 19.99×3の合計が切り捨てられず、最小通貨単位で正確に5997になることを検証する。
+     */
+    @Test
+    void testCreateOrderFromCart_FractionalPrice_KeepsExactMinorUnits() {
+        product1.setUnitPrice(new BigDecimal("19.99"));
+        cart.getItems().add(new CartItem(product1, 3));
+
+        when(cartService.getOrCreateCart(user)).thenReturn(cart);
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Order createdOrder = orderService.createOrderFromCart(user);
+
+        assertEquals(1999L, createdOrder.getOrderItems().get(0).getPriceMinor());
+        assertEquals(5997L, createdOrder.getTotalAmountMinor());
+        assertEquals(new BigDecimal("59.97"), new OrderDTO(createdOrder).getTotalAmount());
     }
 
     /**
@@ -154,6 +222,7 @@ class OrderServiceTest {
         verify(orderRepository, never()).save(any());
         verify(productRepository, never()).save(any());
         verify(cartRepository, never()).save(any());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
     }
 
     /**
@@ -177,4 +246,190 @@ class OrderServiceTest {
         verify(productRepository, never()).save(any());
         verify(cartRepository, never()).save(any());
     }
+
+    /**
+     * getOrderByIdメソッドのテスト（アーカイブへのフォールバック）。
+     * 現行テーブルにない注文が、アーカイブから明細付きで返されることを検証する。
+     */
+    @Test
+    void testGetOrderById_FallsBackToArchive() {
+        ArchivedOrderItem archivedItem = new ArchivedOrderItem();
+        ReflectionTestUtils.setField(archivedItem, "id", 11L);
+        ReflectionTestUtils.setField(archivedItem, "product", product1);
+        ReflectionTestUtils.setField(archivedItem, "quantity", 2);
+        ReflectionTestUtils.setField(archivedItem, "priceMinor", 1000L);
+
+        ArchivedOrder archived = new ArchivedOrder();
+        ReflectionTestUtils.setField(archived, "id", 10L);
+        ReflectionTestUtils.setField(archived, "user", user);
+        ReflectionTestUtils.setField(archived, "status", OrderStatus.PAID);
+        ReflectionTestUtils.setField(archived, "totalAmountMinor", 2000L);
+        ReflectionTestUtils.setField(archived, "currency", "usd");
+        archived.getOrderItems().add(archivedItem);
+
+        when(orderRepository.findByIdAndOrderDateGreaterThanEqual(10L, HOT_FROM)).thenReturn(Optional.empty());
+        when(archivedOrderRepository.findWithItemsById(10L)).thenReturn(Optional.of(archived));
+
+        Order order = orderService.getOrderById(10L).orElseThrow();
+
+        assertEquals(10L, order.getId());
+        assertEquals(OrderStatus.PAID, order.getStatus());
+        assertEquals(2000L, order.getTotalAmountMinor());
+        assertEquals(1, order.getOrderItems().size());
+        assertEquals(product1, order.getOrderItems().get(0).getProduct());
+    }
+
+    /**
+     * cancelOrderAndRestoreInventoryメソッドのテスト（保留中の注文）。
+     * 保留中からキャンセルに遷移できた場合に、明細の数量だけ在庫が戻されることを検証する。
+     */
+    @Test
+    void testCancelOrderAndRestoreInventory_Pending_RestoresStock() {
+        Order order = pendingOrderWithItem();
+        OrderPaymentIntent link = linkOf(order);
+        when(orderPaymentIntentRepository.findById("pi_1")).thenReturn(Optional.of(link));
+        when(orderRepository.transitionStatusByPaymentIntentId(10L, link.getOrderDate(), "pi_1", OrderStatus.PENDING, OrderStatus.CANCELLED)).thenReturn(1);
+        when(orderRepository.findWithItemsByIdAndOrderDate(10L, link.getOrderDate())).thenReturn(Optional.of(order));
+
+        orderService.cancelOrderAndRestoreInventory("pi_1");
+
+        verify(productRepository).restoreStock(1L, 2);
+        verify(eventPublisher).publishEvent(any(OrderLifecycleEvent.class));
+    }
+
+    /**
+     * cancelOrderAndRestoreInventoryメソッドのテスト（重複したWebhook）。
+     * 既にキャンセル済みで遷移できない場合は、在庫を二重に戻さずイベントも発行しないことを検証する。
+     */
+    @Test
+    void testCancelOrderAndRestoreInventory_AlreadyCancelled_DoesNothing() {
+        Order order = pendingOrderWithItem();
+        order.setStatus(OrderStatus.CANCELLED);
+        OrderPaymentIntent link = linkOf(order);
+        when(orderPaymentIntentRepository.findById("pi_1")).thenReturn(Optional.of(link));
+        when(orderRepository.transitionStatusByPaymentIntentId(10L, link.getOrderDate(), "pi_1", OrderStatus.PENDING, OrderStatus.CANCELLED)).thenReturn(0);
+        when(orderRepository.findWithItemsByIdAndOrderDate(10L, link.getOrderDate())).thenReturn(Optional.of(order));
+
+        orderService.cancelOrderAndRestoreInventory("pi_1");
+
+        verify(productRepository, never()).restoreStock(any(), anyInt());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    /**
+     * markOrderAsPaidメソッドのテスト（キャンセル済みの注文）。
+     * 保留中でない注文は支払い済みにならず、イベントも発行されないことを検証する。
+     */
+    @Test
+    void testMarkOrderAsPaid_NotPending_DoesNothing() {
+        Order order = pendingOrderWithItem();
+        order.setStatus(OrderStatus.CANCELLED);
+        OrderPaymentIntent link = linkOf(order);
+        when(orderPaymentIntentRepository.findById("pi_1")).thenReturn(Optional.of(link));
+        when(orderRepository.transitionStatusByPaymentIntentId(10L, link.getOrderDate(), "pi_1", OrderStatus.PENDING, OrderStatus.PAID)).thenReturn(0);
+        when(orderRepository.findWithItemsByIdAndOrderDate(10L, link.getOrderDate())).thenReturn(Optional.of(order));
+
+        Order result = orderService.markOrderAsPaid("pi_1");
+
+        assertEquals(OrderStatus.CANCELLED, result.getStatus());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    /**
+     * markOrderAsPaidメソッドのテスト（注文IDで特定）。
+     * メタデータの注文IDで主キー検索し、支払いに成功したPaymentIntentを記録して支払い済みにすることを検証する。
+     */
+    @Test
+    void testMarkOrderAsPaid_ByOrderId_UsesPrimaryKey() {
+        Order order = pendingOrderWithItem();
+        when(orderRepository.transitionStatusRecordingPaymentIntent(10L, HOT_FROM, "pi_1", OrderStatus.PENDING, OrderStatus.PAID)).thenReturn(1);
+        when(orderRepository.findWithItemsByIdAndOrderDateGreaterThanEqual(10L, HOT_FROM)).thenReturn(Optional.of(order));
+        when(orderPaymentIntentRepository.findById("pi_1")).thenReturn(Optional.of(linkOf(order)));
+
+        orderService.markOrderAsPaid(10L, "pi_1");
+
+        verify(orderPaymentIntentRepository).insertIfAbsent("pi_1", 10L, HOT_FROM);
+        verify(orderRepository, never()).findWithItemsByIdAndOrderDate(any(), any());
+        verify(eventPublisher).publishEvent(any(OrderLifecycleEvent.class));
+    }
+
+    /**
+     * assignPaymentIntentメソッドのテスト（別の注文に記録済みのPaymentIntent）。
+     * PaymentIntent IDが対応表で別の注文に登録済みの場合は、例外を送出して注文の更新をロールバックさせることを検証する。
+     */
+    @Test
+    void testAssignPaymentIntent_LinkedToOtherOrder_Throws() {
+        Order other = pendingOrderWithItem();
+        other.setId(99L);
+        when(orderRepository.assignPaymentIntentIfUnchanged(10L, HOT_FROM, null, "pi_1", OrderStatus.PENDING)).thenReturn(1);
+        when(orderPaymentIntentRepository.findById("pi_1")).thenReturn(Optional.of(linkOf(other)));
+
+        assertThrows(IllegalStateException.class, () -> orderService.assignPaymentIntent(10L, null, "pi_1"));
+        verify(orderPaymentIntentRepository).insertIfAbsent("pi_1", 10L, HOT_FROM);
+    }
+
+    /**
+     * assignPaymentIntentメソッドのテスト（他のリクエストが先に記録）。
+     * 条件付きUPDATEで記録できなかった場合は、対応表に登録しないことを検証する。
+     */
+    @Test
+    void testAssignPaymentIntent_Unchanged_DoesNotLink() {
+        when(orderRepository.assignPaymentIntentIfUnchanged(10L, HOT_FROM, null, "pi_1", OrderStatus.PENDING)).thenReturn(0);
+
+        assertFalse(orderService.assignPaymentIntent(10L, null, "pi_1"));
+        verify(orderPaymentIntentRepository, never()).insertIfAbsent(any(), any(), any());
+    }
+
+    /**
+     * cancelOrderAndRestoreInventoryメソッドのテスト（PaymentIntentの記録前に届いたWebhook）。
+     * 注文にPaymentIntentがまだ記録されていない場合は、再試行させるため例外を送出することを検証する。
+     */
+    @Test
+    void testCancelOrderAndRestoreInventory_PaymentIntentNotLinked_Throws() {
+        Order order = pendingOrderWithItem();
+        order.setPaymentIntentId(null);
+        when(orderRepository.transitionStatusIfPaymentIntent(10L, HOT_FROM, "pi_1", OrderStatus.PENDING, OrderStatus.CANCELLED)).thenReturn(0);
+        when(orderRepository.findWithItemsByIdAndOrderDateGreaterThanEqual(10L, HOT_FROM)).thenReturn(Optional.of(order));
+
+        assertThrows(PaymentIntentNotLinkedException.class, () -> orderService.cancelOrderAndRestoreInventory(10L, "pi_1"));
+        verify(productRepository, never()).restoreStock(any(), anyInt());
+    }
+
+    /**
+     * cancelOrderAndRestoreInventoryメソッドのテスト（差し替え前のPaymentIntent）。
+     * 注文に別のPaymentIntentが記録されている場合は、キャンセルも在庫の復元もしないことを検証する。
+     */
+    @Test
+    void testCancelOrderAndRestoreInventory_ReplacedPaymentIntent_DoesNothing() {
+        Order order = pendingOrderWithItem();
+        order.setPaymentIntentId("pi_2");
+        when(orderRepository.transitionStatusIfPaymentIntent(10L, HOT_FROM, "pi_1", OrderStatus.PENDING, OrderStatus.CANCELLED)).thenReturn(0);
+        when(orderRepository.findWithItemsByIdAndOrderDateGreaterThanEqual(10L, HOT_FROM)).thenReturn(Optional.of(order));
+
+        orderService.cancelOrderAndRestoreInventory(10L, "pi_1");
+
+        verify(productRepository, never()).restoreStock(any(), anyInt());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    private OrderPaymentIntent linkOf(Order order) {
+        OrderPaymentIntent link = new OrderPaymentIntent();
+        link.setPaymentIntentId(order.getPaymentIntentId());
+        link.setOrderId(order.getId());
+        link.setOrderDate(LocalDateTime.of(2026, 1, 15, 10, 0));
+        return link;
+    }
+
+    private Order pendingOrderWithItem() {
+        Order order = new Order();
+        order.setId(10L);
+        order.setUser(user);
+        order.setStatus(OrderStatus.PENDING);
+        order.setPaymentIntentId("pi_1");
+        OrderItem item = new OrderItem();
+        item.setProduct(product1);
+        item.setQuantity(2);
+        order.getOrderItems().add(item);
+        return order;
+    }
 }
\ No newline at end of file
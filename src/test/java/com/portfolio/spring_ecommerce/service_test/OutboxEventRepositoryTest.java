@@ -0,0 +1,67 @@
+package com.portfolio.spring_ecommerce.service_test;
+
+import com.portfolio.spring_ecommerce.model.OutboxEvent;
+import com.portfolio.spring_ecommerce.model.enums.OrderEventType;
+import com.portfolio.spring_ecommerce.model.enums.OutboxEventStatus;
+import com.portfolio.spring_ecommerce.repository.OutboxEventRepository;
+import com.portfolio.spring_ecommerce.service.OutboxService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * OutboxEventRepositoryをH2上で実行するテストクラス。
+ * 配信待ちイベントの取得が、注文ごとに通し番号の先頭の1件だけを返すことを検証する。
+ */
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-test.properties")
+class OutboxEventRepositoryTest {
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    /**
+     * 先行イベントが配信待ち（バックオフ中を含む）の注文は後続を取得せず、配信完了・DEADの後続は取得することを検証する。
+     */
+    @Test
+    void testClaimDue_ClaimsHeadOfEachOrderOnly() {
+        OutboxEvent pendingHead = save(900001L, 1, OutboxEventStatus.PENDING);
+        save(900001L, 2, OutboxEventStatus.PENDING);
+        save(900002L, 1, OutboxEventStatus.PUBLISHED);
+        OutboxEvent afterPublished = save(900002L, 2, OutboxEventStatus.PENDING);
+        save(900003L, 1, OutboxEventStatus.DEAD);
+        OutboxEvent afterDead = save(900003L, 2, OutboxEventStatus.PENDING);
+        OutboxEvent backingOff = new OutboxEvent(900004L, 1, OrderEventType.ORDER_CREATED, "{}");
+        backingOff.setNextAttemptAt(LocalDateTime.now().plusMinutes(5));
+        outboxEventRepository.save(backingOff);
+        save(900004L, 2, OutboxEventStatus.PENDING);
+
+        Set<Long> orderIds = Set.of(900001L, 900002L, 900003L, 900004L);
+        List<Long> claimed = outboxService.claimDue(1000).stream()
+                .filter(event -> orderIds.contains(event.getAggregateId()))
+                .map(OutboxEvent::getId)
+                .sorted()
+                .toList();
+
+        assertEquals(List.of(pendingHead.getId(), afterPublished.getId(), afterDead.getId()), claimed);
+
+        // リース中の先頭は再取得されず、後続も取得されない
+        assertTrue(outboxService.claimDue(1000).stream().noneMatch(event -> orderIds.contains(event.getAggregateId())));
+    }
+
+    private OutboxEvent save(Long orderId, long seq, OutboxEventStatus status) {
+        OutboxEvent event = new OutboxEvent(orderId, seq, OrderEventType.ORDER_CREATED, "{}");
+        event.setStatus(status);
+        return outboxEventRepository.save(event);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,144 @@
+package com.portfolio.spring_ecommerce.service_test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.portfolio.spring_ecommerce.event.OrderLifecycleEvent;
+import com.portfolio.spring_ecommerce.model.*;
+import com.portfolio.spring_ecommerce.model.enums.OrderEventType;
+import com.portfolio.spring_ecommerce.model.enums.OrderStatus;
+import com.portfolio.spring_ecommerce.model.enums.OutboxEventStatus;
+import com.portfolio.spring_ecommerce.repository.OutboxEventRepository;
+import com.portfolio.spring_ecommerce.service.OutboxService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * OutboxServiceの単体テストクラス。
+ * アウトボックスへの記録と、配信待ちイベントのリース・再試行・デッドレターを検証する。
+ */
+class OutboxServiceTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    private OutboxService outboxService;
+
+    /**
+     * 各テスト実行前にモックとテスト対象を初期化する。
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        outboxService = new OutboxService(outboxEventRepository, objectMapper);
+    }
+
+    /**
+     * 注文イベントが注文IDと種別、注文ごとの次の通し番号付きでアウトボックスに保存されることを検証する。
+     */
+    @Test
+    void testOnOrderEvent_SavesOutboxRow() {
+        User user = new User();
+        user.setId(1L);
+        Order order = new Order();
+        order.setId(10L);
+        order.setUser(user);
+        order.setStatus(OrderStatus.PAID);
+        order.setTotalAmountMinor(3000);
+        order.setOrderDate(LocalDateTime.now());
+        when(outboxEventRepository.findMaxAggregateSeq(10L)).thenReturn(1L);
+
+        outboxService.onOrderEvent(new OrderLifecycleEvent(order, OrderEventType.ORDER_PAID));
+
+        ArgumentCaptor<OutboxEvent> captor = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxEventRepository).save(captor.capture());
+        OutboxEvent saved = captor.getValue();
+        assertEquals(10L, saved.getAggregateId());
+        assertEquals(2L, saved.getAggregateSeq());
+        assertEquals(OrderEventType.ORDER_PAID, saved.getEventType());
+        assertEquals(OutboxEventStatus.PENDING, saved.getStatus());
+        assertTrue(saved.getPayload().contains("\"orderId\":10"));
+        assertNull(saved.getPublishedAt());
+    }
+
+    /**
+     * 取得したイベントの試行回数が増え、リース期間中は配信期限が未来に延びることを検証する。
+     */
+    @Test
+    void testClaimDue_LeasesEvents() {
+        OutboxEvent event = event(1L, 100L, OrderEventType.ORDER_CREATED);
+        when(outboxEventRepository.findDueForUpdate(eq(OutboxEventStatus.PENDING), any(), any())).thenReturn(List.of(event));
+
+        List<OutboxEvent> claimed = outboxService.claimDue(10);
+
+        assertEquals(List.of(event), claimed);
+        assertEquals(1, event.getAttempts());
+        assertTrue(event.getNextAttemptAt().isAfter(LocalDateTime.now().plusMinutes(1)));
+    }
+
+    /**
+     * 配信できたイベントが配信完了になることを検証する。
+     */
+    @Test
+    void testMarkPublished_SetsPublished() {
+        OutboxEvent event = event(1L, 100L, OrderEventType.ORDER_CREATED);
+        event.setLastError("配信先エラー");
+        when(outboxEventRepository.findById(1L)).thenReturn(Optional.of(event));
+
+        outboxService.markPublished(1L);
+
+        assertEquals(OutboxEventStatus.PUBLISHED, event.getStatus());
+        assertNotNull(event.getPublishedAt());
+        assertNull(event.getLastError());
+    }
+
+    /**
+     * 配信に失敗したイベントはエラー内容を記録し、バックオフ後に再試行されるよう予約されることを検証する。
+     */
+    @Test
+    void testRecordFailure_SchedulesRetry() {
+        OutboxEvent event = event(1L, 100L, OrderEventType.ORDER_CREATED);
+        event.setAttempts(1);
+        when(outboxEventRepository.findById(1L)).thenReturn(Optional.of(event));
+
+        outboxService.recordFailure(1L, new IllegalStateException("配信先エラー"));
+
+        assertEquals(OutboxEventStatus.PENDING, event.getStatus());
+        assertEquals("配信先エラー", event.getLastError());
+        assertNull(event.getPublishedAt());
+        assertTrue(event.getNextAttemptAt().isAfter(LocalDateTime.now()));
+    }
+
+    /**
+     * 試行回数が上限に達したイベントはDEADになり、以降は配信されないことを検証する。
+     */
+    @Test
+    void testRecordFailure_MaxAttempts_MarksDead() {
+        OutboxEvent event = event(1L, 100L, OrderEventType.ORDER_CREATED);
+        event.setAttempts(20);
+        when(outboxEventRepository.findById(1L)).thenReturn(Optional.of(event));
+
+        outboxService.recordFailure(1L, new IllegalStateException("配信先エラー"));
+
+        assertEquals(OutboxEventStatus.DEAD, event.getStatus());
+        assertNull(event.getPublishedAt());
+    }
+
+    private OutboxEvent event(Long id, Long orderId, OrderEventType type) {
+        OutboxEvent event = new OutboxEvent(orderId, 1L, type, "{}");
+        event.setId(id);
+        return event;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,111 @@
+package com.portfolio.spring_ecommerce.service_test;
+
+import com.portfolio.spring_ecommerce.model.User;
+import com.portfolio.spring_ecommerce.repository.UserRepository;
+import com.portfolio.spring_ecommerce.service.PasswordAuthenticationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * PasswordAuthenticationServiceの単体テストクラス。
+ * パスワード照合、低コストのハッシュの再計算、実行枠が満杯の場合の即時失敗を検証する。
+ */
+class PasswordAuthenticationServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(5);
+
+    private PasswordAuthenticationService service;
+
+    /**
+     * 各テスト実行前にモックとテスト対象を初期化する。
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        service = new PasswordAuthenticationService(userRepository, passwordEncoder, new SimpleMeterRegistry(), 1, 1, 5000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    /**
+     * 設定より低いコストのハッシュで照合に成功した場合、現在のコストで再計算して保存されることを検証する。
+     */
+    @Test
+    void testAuthenticate_RehashesWeakerHash() throws Exception {
+        String weakHash = new BCryptPasswordEncoder(4).encode("password");
+        User user = new User("testuser", weakHash);
+        user.setId(1L);
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+        when(userRepository.updatePasswordHash(eq(1L), eq(weakHash), anyString())).thenReturn(1);
+
+        Optional<User> result = service.authenticate("testuser", "password").get(5, TimeUnit.SECONDS);
+
+        assertTrue(result.isPresent());
+        verify(userRepository).updatePasswordHash(eq(1L), eq(weakHash), anyString());
+        assertTrue(user.getPassword().startsWith("$2a$05$"));
+        assertTrue(passwordEncoder.matches("password", user.getPassword()));
+    }
+
+    /**
+     * パスワードが誤っている場合や、ユーザーが存在しない場合は空の結果になることを検証する。
+     */
+    @Test
+    void testAuthenticate_ReturnsEmptyForWrongPasswordOrUnknownUser() throws Exception {
+        User user = new User("testuser", passwordEncoder.encode("password"));
+        user.setId(1L);
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+        when(userRepository.findByUsername("nobody")).thenReturn(Optional.empty());
+
+        assertTrue(service.authenticate("testuser", "wrong").get(5, TimeUnit.SECONDS).isEmpty());
+        assertTrue(service.authenticate("nobody", "password").get(5, TimeUnit.SECONDS).isEmpty());
+        verify(userRepository, never()).updatePasswordHash(any(), any(), any());
+    }
+
+    /**
+     * スレッドとキューが埋まっている場合、待たずにRejectedExecutionExceptionで失敗することを検証する。
+     */
+    @Test
+    void testAuthenticate_FailsFastWhenSaturated() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userRepository.findByUsername("blocked")).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.empty();
+        });
+
+        CompletableFuture<Optional<User>> running = service.authenticate("blocked", "password");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Optional<User>> queued = service.authenticate("blocked", "password");
+        CompletableFuture<Optional<User>> overflow = service.authenticate("blocked", "password");
+
+        ExecutionException e = assertThrows(ExecutionException.class, overflow::get);
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS).isEmpty());
+        assertTrue(queued.get(5, TimeUnit.SECONDS).isEmpty());
+    }
+}
\ No newline at end of file
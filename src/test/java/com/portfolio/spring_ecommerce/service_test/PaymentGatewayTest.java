@@ -0,0 +1,132 @@
+package com.portfolio.spring_ecommerce.service_test;
+
+import com.portfolio.spring_ecommerce.gateway.PaymentGateway;
+import com.portfolio.spring_ecommerce.gateway.PaymentGatewayException;
+import com.portfolio.spring_ecommerce.gateway.PaymentIntentRequest;
+import com.portfolio.spring_ecommerce.gateway.PaymentIntentSnapshot;
+import com.portfolio.spring_ecommerce.gateway.PaymentProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PaymentGatewayの単体テストクラス。
+ * タイムアウト、バルクヘッド（同時実行数の上限）、サーキットブレーカーの動作を検証する。
+ */
+class PaymentGatewayTest {
+
+    private static final PaymentIntentRequest REQUEST = new PaymentIntentRequest(1L, 1000L, "usd", "order-1-1000usd");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private PaymentGateway gateway;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (gateway != null) {
+            gateway.shutdown();
+        }
+    }
+
+    /**
+     * プロバイダーが応答しない場合、タイムアウトで失敗し、計測に記録されることを検証する。
+     */
+    @Test
+    void testCall_TimesOut() {
+        gateway = new PaymentGateway(blockingProvider(new AtomicInteger()), meterRegistry, 2, 2, 100, 5, 30000);
+
+        PaymentGatewayException failure = failureOf(gateway.createPaymentIntent(REQUEST));
+
+        assertEquals(PaymentGatewayException.Reason.TIMEOUT, failure.getReason());
+        assertEquals(1, meterRegistry.get("payment.gateway.calls")
+                .tag("operation", "create").tag("outcome", "timeout").timer().count());
+    }
+
+    /**
+     * 同時実行数と待ち行列が埋まっている場合、プロバイダーを呼ばずに即座に失敗することを検証する。
+     */
+    @Test
+    void testCall_RejectsWhenBulkheadFull() {
+        AtomicInteger calls = new AtomicInteger();
+        gateway = new PaymentGateway(blockingProvider(calls), meterRegistry, 1, 1, 5000, 5, 30000);
+
+        gateway.createPaymentIntent(REQUEST);
+        gateway.createPaymentIntent(REQUEST);
+        PaymentGatewayException failure = failureOf(gateway.createPaymentIntent(REQUEST));
+
+        assertEquals(PaymentGatewayException.Reason.BULKHEAD_FULL, failure.getReason());
+        assertTrue(calls.get() <= 1);
+    }
+
+    /**
+     * 連続失敗でサーキットが開いて呼び出しが遮断され、一定時間後の試行成功で閉じることを検証する。
+     */
+    @Test
+    void testCall_CircuitOpensAndRecovers() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        AtomicInteger failuresLeft = new AtomicInteger(3);
+        PaymentProvider provider = new PaymentProvider() {
+            @Override
+            public PaymentIntentSnapshot createPaymentIntent(PaymentIntentRequest request) {
+                calls.incrementAndGet();
+                if (failuresLeft.getAndDecrement() > 0) {
+                    throw new PaymentGatewayException(PaymentGatewayException.Reason.PROVIDER_UNAVAILABLE, "503");
+                }
+                return new PaymentIntentSnapshot("pi_1", "requires_payment_method", "secret", request.amountMinor(), request.currency());
+            }
+
+            @Override
+            public PaymentIntentSnapshot retrievePaymentIntent(String paymentIntentId) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        gateway = new PaymentGateway(provider, meterRegistry, 2, 2, 1000, 3, 200);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(PaymentGatewayException.Reason.PROVIDER_UNAVAILABLE, failureOf(gateway.createPaymentIntent(REQUEST)).getReason());
+        }
+        assertEquals(PaymentGatewayException.Reason.CIRCUIT_OPEN, failureOf(gateway.createPaymentIntent(REQUEST)).getReason());
+        assertEquals(3, calls.get());
+        assertEquals(2.0, meterRegistry.get("payment.gateway.circuit.state").gauge().value());
+
+        Thread.sleep(300);
+
+        assertEquals("pi_1", gateway.createPaymentIntent(REQUEST).get(1, TimeUnit.SECONDS).id());
+        assertEquals(0.0, meterRegistry.get("payment.gateway.circuit.state").gauge().value());
+    }
+
+    // テスト終了までブロックするプロバイダー
+    private PaymentProvider blockingProvider(AtomicInteger calls) {
+        return new PaymentProvider() {
+            @Override
+            public PaymentIntentSnapshot createPaymentIntent(PaymentIntentRequest request) {
+                calls.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return new PaymentIntentSnapshot("pi_slow", "requires_payment_method", "secret", request.amountMinor(), request.currency());
+            }
+
+            @Override
+            public PaymentIntentSnapshot retrievePaymentIntent(String paymentIntentId) {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    private PaymentGatewayException failureOf(CompletableFuture<?> future) {
+        CompletionException thrown = assertThrows(CompletionException.class, future::join);
+        return assertInstanceOf(PaymentGatewayException.class, thrown.getCause());
+    }
+}
\ No newline at end of file
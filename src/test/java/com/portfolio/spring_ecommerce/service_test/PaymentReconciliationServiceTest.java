@@ -0,0 +1,141 @@
+package com.portfolio.spring_ecommerce.service_test;
+
+import com.portfolio.spring_ecommerce.gateway.PaymentGateway;
+import com.portfolio.spring_ecommerce.gateway.PaymentGatewayException;
+import com.portfolio.spring_ecommerce.gateway.PaymentIntentSnapshot;
+import com.portfolio.spring_ecommerce.model.Order;
+import com.portfolio.spring_ecommerce.model.enums.OrderStatus;
+import com.portfolio.spring_ecommerce.service.OrderService;
+import com.portfolio.spring_ecommerce.service.PaymentReconciliationService;
+import com.portfolio.spring_ecommerce.service.PaymentService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * PaymentReconciliationServiceの単体テストクラス。
+ * 保留中の注文をキーセットページングで読み、PaymentIntentの状態に応じて注文を更新することを検証する。
+ */
+@ExtendWith(MockitoExtension.class)
+class PaymentReconciliationServiceTest {
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private PaymentService paymentService;
+
+    @Mock
+    private PaymentGateway paymentGateway;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private PaymentReconciliationService reconciliationService;
+
+    /**
+     * 各テスト実行前にテスト対象を初期化する（レート制限はテストを待たせない値にする）。
+     */
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        reconciliationService = new PaymentReconciliationService(orderService, paymentService, paymentGateway, meterRegistry);
+        ReflectionTestUtils.setField(reconciliationService, "ratePerSecond", 10000.0);
+    }
+
+    /**
+     * 成功済みは支払い済みに、キャンセル済みはキャンセルに、それ以外・取得失敗は変更しないことを検証する。
+     */
+    @Test
+    void testReconcile_AppliesIntentStatus() throws Exception {
+        when(orderService.findPendingPayments(eq(0L), any(), eq(100)))
+                .thenReturn(List.of(order(1L, "pi_1"), order(2L, "pi_2"), order(3L, "pi_3"), order(4L, "pi_4")));
+        when(paymentGateway.retrievePaymentIntent("pi_1")).thenReturn(CompletableFuture.completedFuture(snapshot("pi_1", "succeeded")));
+        when(paymentGateway.retrievePaymentIntent("pi_2")).thenReturn(CompletableFuture.completedFuture(snapshot("pi_2", "canceled")));
+        when(paymentGateway.retrievePaymentIntent("pi_3")).thenReturn(CompletableFuture.completedFuture(snapshot("pi_3", "requires_payment_method")));
+        when(paymentGateway.retrievePaymentIntent("pi_4")).thenReturn(CompletableFuture.failedFuture(
+                new PaymentGatewayException(PaymentGatewayException.Reason.TIMEOUT, "タイムアウト")));
+
+        PaymentReconciliationService.Result result = reconciliationService.reconcile();
+
+        verify(orderService).markOrderAsPaid(1L, "pi_1");
+        verify(orderService).cancelOrderAndRestoreInventory(2L, "pi_2");
+        verify(orderService, never()).markOrderAsPaid(eq(3L), any());
+        verify(orderService, never()).cancelOrderAndRestoreInventory(eq(3L), any());
+        assertEquals(4, result.getChecked());
+        assertEquals(1, result.getPaid());
+        assertEquals(1, result.getCancelled());
+        assertEquals(1, result.getFailed());
+        assertEquals(1, meterRegistry.timer("payment.reconciliation.lag", "outcome", "paid").count());
+        assertTrue(meterRegistry.get("payment.reconciliation.oldest.pending").gauge().value() >= 3600);
+    }
+
+    /**
+     * ページが満杯の場合は、最後の注文IDの後から続きを読むことを検証する。
+     */
+    @Test
+    void testReconcile_PagesByLastOrderId() throws Exception {
+        ReflectionTestUtils.setField(reconciliationService, "pageSize", 2);
+        when(orderService.findPendingPayments(eq(0L), any(), eq(2))).thenReturn(List.of(order(5L, "pi_5"), order(8L, "pi_8")));
+        when(orderService.findPendingPayments(eq(8L), any(), eq(2))).thenReturn(List.of(order(9L, "pi_9")));
+        when(paymentGateway.retrievePaymentIntent(anyString())).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(snapshot(invocation.getArgument(0), "processing")));
+
+        PaymentReconciliationService.Result result = reconciliationService.reconcile();
+
+        assertEquals(3, result.getChecked());
+        verify(orderService, times(2)).findPendingPayments(anyLong(), any(), eq(2));
+    }
+
+    /**
+     * 照合件数が上限に達した場合は打ち切り、次回は続きの注文IDから照合し、最後まで照合したら先頭に戻ることを検証する。
+     */
+    @Test
+    void testReconcile_StopsAtBudgetAndResumesNextSweep() throws Exception {
+        ReflectionTestUtils.setField(reconciliationService, "pageSize", 2);
+        ReflectionTestUtils.setField(reconciliationService, "maxOrdersPerSweep", 3);
+        when(orderService.findPendingPayments(eq(0L), any(), eq(2))).thenReturn(List.of(order(5L, "pi_5"), order(8L, "pi_8")));
+        when(orderService.findPendingPayments(eq(8L), any(), eq(2))).thenReturn(List.of(order(9L, "pi_9"), order(12L, "pi_12")));
+        when(orderService.findPendingPayments(eq(9L), any(), eq(2))).thenReturn(List.of(order(12L, "pi_12")));
+        when(paymentGateway.retrievePaymentIntent(anyString())).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(snapshot(invocation.getArgument(0), "processing")));
+
+        PaymentReconciliationService.Result first = reconciliationService.reconcile();
+
+        assertEquals(3, first.getChecked());
+        verify(paymentGateway, never()).retrievePaymentIntent("pi_12");
+
+        PaymentReconciliationService.Result second = reconciliationService.reconcile();
+
+        assertEquals(1, second.getChecked());
+        verify(paymentGateway).retrievePaymentIntent("pi_12");
+
+        reconciliationService.reconcile();
+
+        verify(orderService, times(2)).findPendingPayments(eq(0L), any(), eq(2));
+    }
+
+    private Order order(Long id, String paymentIntentId) {
+        Order order = new Order();
+        order.setId(id);
+        order.setStatus(OrderStatus.PENDING);
+        order.setPaymentIntentId(paymentIntentId);
+        order.setOrderDate(LocalDateTime.now().minusHours(2));
+        return order;
+    }
+
+    private PaymentIntentSnapshot snapshot(String id, String status) {
+        return new PaymentIntentSnapshot(id, status, id + "_secret", 3000, "usd");
+    }
+}
\ No newline at end of file
@@ -1,108 +1,243 @@
 package com.portfolio.spring_ecommerce.service_test;
 
 import com.portfolio.spring_ecommerce.dto.OrderDTO;
+import com.portfolio.spring_ecommerce.exception.PaymentIntentConflictException;
+import com.portfolio.spring_ecommerce.gateway.PaymentGateway;
+import com.portfolio.spring_ecommerce.gateway.PaymentGatewayException;
+import com.portfolio.spring_ecommerce.gateway.PaymentIntentCache;
+import com.portfolio.spring_ecommerce.gateway.PaymentIntentRequest;
+import com.portfolio.spring_ecommerce.gateway.PaymentIntentSnapshot;
 import com.portfolio.spring_ecommerce.model.Order;
+import com.portfolio.spring_ecommerce.service.OrderService;
 import com.portfolio.spring_ecommerce.service.PaymentService;
-import com.stripe.exception.ApiConnectionException;
-import com.stripe.exception.StripeException;
-import com.stripe.model.PaymentIntent;
-import com.stripe.param.PaymentIntentCreateParams;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
-import org.mockito.MockedStatic;
-import org.mockito.Mockito;
+import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 /**
  * PaymentServiceの単体テストクラス。
- * Mockitoを使用してStripe API呼び出しをモック化し、支払いインテント作成ロジックを検証する。
+ * Mockitoを使用して決済ゲートウェイをモック化し、支払いインテント作成ロジックとキャッシュの動作を検証する。
  */
 @ExtendWith(MockitoExtension.class)
 public class PaymentServiceTest {
 
-    @InjectMocks
+    @Mock
+    private PaymentGateway paymentGateway;
+
+    @Mock
+    private OrderService orderService;
+
     private PaymentService paymentService;
 
     /**
-     * テスト前の初期化処理。
-     * PaymentServiceのsecretKeyフィールドにテスト用の値を設定し、initメソッドを呼び出す。
+     * 各テスト実行前にキャッシュとテスト対象を初期化する。
      */
     @BeforeEach
     void setUp() {
-        ReflectionTestUtils.setField(paymentService, "secretKey", "test_secret_key");
-        paymentService.init();
+        paymentService = new PaymentService(paymentGateway, new PaymentIntentCache(100, 60, new SimpleMeterRegistry()), orderService, Runnable::run);
     }
 
     /**
      * PaymentServiceのcreatePaymentIntentメソッドの正常系テスト。
-     * 正しいOrderDTOを渡した際に、期待通りのPaymentIntentが作成されることを検証する。
+     * 注文の金額（最小通貨単位）・通貨・注文ID・冪等キーがゲートウェイへ渡され、作成したIDが注文に記録されることを検証する。
      */
     @Test
-    void testCreatePaymentIntent_Success() throws StripeException {
-        Order order = new Order();
-        order.setId(1L);
-        order.setTotalAmount(150.75);
-        order.setOrderDate(LocalDateTime.now());
-        order.setOrderItems(Collections.emptyList());
-        OrderDTO orderDTO = new OrderDTO(order);
-
-        PaymentIntent mockPaymentIntent = new PaymentIntent();
-        mockPaymentIntent.setId("pi_123");
-        mockPaymentIntent.setAmount(15075L);
-        mockPaymentIntent.setCurrency("usd");
-
-        try (MockedStatic<PaymentIntent> mockedStatic = Mockito.mockStatic(PaymentIntent.class)) {
-            mockedStatic.when(() -> PaymentIntent.create(any(PaymentIntentCreateParams.class)))
-                    .thenReturn(mockPaymentIntent);
-            PaymentIntent result = paymentService.createPaymentIntent(orderDTO);
-
-            assertNotNull(result);
-            assertEquals(mockPaymentIntent.getId(), result.getId());
-            assertEquals(15075L, result.getAmount());
-
-            ArgumentCaptor<PaymentIntentCreateParams> captor = ArgumentCaptor.forClass(PaymentIntentCreateParams.class);
-            mockedStatic.verify(() -> PaymentIntent.create(captor.capture()));
-            PaymentIntentCreateParams capturedParams = captor.getValue();
-
-            assertEquals(15075L, capturedParams.getAmount());
-            assertEquals("usd", capturedParams.getCurrency());
-            assertEquals("1", capturedParams.getMetadata().get("orderId"));
-            assertTrue(capturedParams.getAutomaticPaymentMethods().getEnabled());
-        }
+    void testCreatePaymentIntent_Success() {
+        OrderDTO orderDTO = orderDTO(1L, 15075);
+        PaymentIntentSnapshot snapshot = new PaymentIntentSnapshot("pi_123", "requires_payment_method", "secret", 15075L, "usd");
+        when(paymentGateway.createPaymentIntent(any(PaymentIntentRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(snapshot));
+        when(orderService.assignPaymentIntent(1L, null, "pi_123")).thenReturn(true);
+
+        PaymentIntentSnapshot result = paymentService.createPaymentIntent(orderDTO).join();
+
+        assertEquals("pi_123", result.id());
+        assertEquals(15075L, result.amountMinor());
+
+        ArgumentCaptor<PaymentIntentRequest> captor = ArgumentCaptor.forClass(PaymentIntentRequest.class);
+        verify(paymentGateway).createPaymentIntent(captor.capture());
+        assertEquals(new PaymentIntentRequest(1L, 15075L, "usd", "order-1-15075usd"), captor.getValue());
+        verify(orderService).assignPaymentIntent(1L, null, "pi_123");
     }
 
     /**
      * PaymentServiceのcreatePaymentIntentメソッドの異常系テスト。
-     * Stripe API呼び出し中に例外が発生した場合に、適切に例外がスローされることを検証する。
+     * ゲートウェイの呼び出しが失敗した場合に、同じ例外で完了することを検証する。
      */
     @Test
-    void testCreatePaymentIntent_StripeException() {
-        Order order = new Order();
-        order.setId(2L);
-        order.setTotalAmount(200.0);
-        order.setOrderDate(LocalDateTime.now());
-        order.setOrderItems(Collections.emptyList());
-        OrderDTO orderDTO = new OrderDTO(order);
+    void testCreatePaymentIntent_GatewayFailure() {
+        OrderDTO orderDTO = orderDTO(2L, 20000);
+        PaymentGatewayException failure = new PaymentGatewayException(
+                PaymentGatewayException.Reason.PROVIDER_UNAVAILABLE, "ネットワークエラー");
+        when(paymentGateway.createPaymentIntent(any(PaymentIntentRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(failure));
+
+        CompletionException thrown = assertThrows(CompletionException.class,
+                () -> paymentService.createPaymentIntent(orderDTO).join());
+        assertSame(failure, thrown.getCause());
+    }
+
+    /**
+     * 同じ注文への同時の作成要求が1回のプロバイダー呼び出しと1回の記録にまとめられることを検証する。
+     */
+    @Test
+    void testCreatePaymentIntent_CoalescesConcurrentRequests() {
+        CompletableFuture<PaymentIntentSnapshot> pending = new CompletableFuture<>();
+        when(paymentGateway.createPaymentIntent(any(PaymentIntentRequest.class))).thenReturn(pending);
+        when(orderService.assignPaymentIntent(3L, null, "pi_3")).thenReturn(true);
+
+        CompletableFuture<PaymentIntentSnapshot> first = paymentService.createPaymentIntent(orderDTO(3L, 500));
+        CompletableFuture<PaymentIntentSnapshot> second = paymentService.createPaymentIntent(orderDTO(3L, 500));
+        pending.complete(new PaymentIntentSnapshot("pi_3", "requires_payment_method", "secret_3", 500L, "usd"));
 
-        StripeException stripeException = new ApiConnectionException("ネットワークエラー");
+        assertEquals("pi_3", first.join().id());
+        assertEquals("pi_3", second.join().id());
+        verify(paymentGateway, times(1)).createPaymentIntent(any(PaymentIntentRequest.class));
+        verify(orderService, times(1)).assignPaymentIntent(3L, null, "pi_3");
+    }
+
+    /**
+     * 他のリクエストが別のPaymentIntentを記録済みの場合、上書きせずに競合として失敗することを検証する。
+     */
+    @Test
+    void testCreatePaymentIntent_ConflictWhenAlreadyAssigned() {
+        when(paymentGateway.createPaymentIntent(any(PaymentIntentRequest.class))).thenReturn(CompletableFuture.completedFuture(
+                new PaymentIntentSnapshot("pi_4", "requires_payment_method", "secret_4", 500L, "usd")));
+        when(orderService.assignPaymentIntent(any(), isNull(), any())).thenReturn(false);
+
+        CompletionException thrown = assertThrows(CompletionException.class,
+                () -> paymentService.createPaymentIntent(orderDTO(4L, 500)).join());
+        assertInstanceOf(PaymentIntentConflictException.class, thrown.getCause());
+    }
 
-        try (MockedStatic<PaymentIntent> mockedStatic = Mockito.mockStatic(PaymentIntent.class)) {
-            mockedStatic.when(() -> PaymentIntent.create(any(PaymentIntentCreateParams.class)))
-                    .thenThrow(stripeException);
-            StripeException thrown = assertThrows(StripeException.class, () -> {
-                paymentService.createPaymentIntent(orderDTO);
-            });
-            assertEquals("ネットワークエラー", thrown.getMessage());
+    /**
+     * 注文への記録は指定したスレッドプールで実行され、実行枠が埋まっている場合は記録せずに失敗することを検証する。
+     */
+    @Test
+    void testCreatePaymentIntent_AssignsOnTaskExecutor() {
+        PaymentService rejecting = new PaymentService(paymentGateway, new PaymentIntentCache(100, 60, new SimpleMeterRegistry()),
+                orderService, task -> {
+                    throw new RejectedExecutionException("満杯");
+                });
+        when(paymentGateway.createPaymentIntent(any(PaymentIntentRequest.class))).thenReturn(CompletableFuture.completedFuture(
+                new PaymentIntentSnapshot("pi_5", "requires_payment_method", "secret_5", 500L, "usd")));
+
+        CompletionException thrown = assertThrows(CompletionException.class,
+                () -> rejecting.createPaymentIntent(orderDTO(5L, 500)).join());
+        assertInstanceOf(RejectedExecutionException.class, thrown.getCause());
+        verify(orderService, never()).assignPaymentIntent(any(), any(), any());
+    }
+
+    /**
+     * 作成直後の支払い再開ではプロバイダーを呼ばず、キャッシュの内容を返すことを検証する。
+     */
+    @Test
+    void testRetrievePaymentIntent_UsesCachedIntentAfterCreate() {
+        PaymentIntentSnapshot created = new PaymentIntentSnapshot("pi_1", "requires_payment_method", "secret_1", 1000L, "usd");
+        when(paymentGateway.createPaymentIntent(any(PaymentIntentRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(created));
+        when(orderService.assignPaymentIntent(1L, null, "pi_1")).thenReturn(true);
+
+        paymentService.createPaymentIntent(orderDTO(1L, 1000)).join();
+        PaymentIntentSnapshot result = paymentService.retrievePaymentIntent(1L, "pi_1").join();
+
+        assertEquals("secret_1", result.clientSecret());
+        verify(paymentGateway, times(0)).retrievePaymentIntent(any());
+    }
+
+    /**
+     * 状態の変更が通知された場合はキャッシュが無効化され、次の取得でプロバイダーから最新の状態を取得することを検証する。
+     */
+    @Test
+    void testOnPaymentIntentChanged_Invalidates() {
+        cacheRequiresActionThenSucceeded();
+
+        paymentService.onPaymentIntentChanged(1L);
+
+        assertEquals("succeeded", paymentService.retrievePaymentIntent(1L, "pi_1").join().status());
+        verify(paymentGateway, times(2)).retrievePaymentIntent("pi_1");
+    }
+
+    /**
+     * トランザクション内で通知された場合は、コミットまでキャッシュを残し、コミット後に無効化することを検証する。
+     */
+    @Test
+    void testOnPaymentIntentChanged_InTransaction_InvalidatesAfterCommit() {
+        cacheRequiresActionThenSucceeded();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            paymentService.onPaymentIntentChanged(1L);
+            assertEquals("requires_action", paymentService.retrievePaymentIntent(1L, "pi_1").join().status());
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
         }
+
+        assertEquals("succeeded", paymentService.retrievePaymentIntent(1L, "pi_1").join().status());
+        verify(paymentGateway, times(2)).retrievePaymentIntent("pi_1");
+    }
+
+    /**
+     * トランザクションがロールバックされた場合は、キャッシュを無効化しないことを検証する。
+     */
+    @Test
+    void testOnPaymentIntentChanged_RolledBack_KeepsCache() {
+        cacheRequiresActionThenSucceeded();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            paymentService.onPaymentIntentChanged(1L);
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals("requires_action", paymentService.retrievePaymentIntent(1L, "pi_1").join().status());
+        verify(paymentGateway, times(1)).retrievePaymentIntent("pi_1");
+    }
+
+    // 注文1のPaymentIntent（requires_action）をキャッシュし、次の取得ではsucceededを返すようにする
+    private void cacheRequiresActionThenSucceeded() {
+        PaymentIntentSnapshot first = new PaymentIntentSnapshot("pi_1", "requires_action", "secret_1", 1000L, "usd");
+        PaymentIntentSnapshot succeeded = new PaymentIntentSnapshot("pi_1", "succeeded", "secret_1", 1000L, "usd");
+        when(paymentGateway.retrievePaymentIntent("pi_1"))
+                .thenReturn(CompletableFuture.completedFuture(first))
+                .thenReturn(CompletableFuture.completedFuture(succeeded));
+
+        paymentService.retrievePaymentIntent(1L, "pi_1").join();
+        paymentService.retrievePaymentIntent(1L, "pi_1").join();
+        verify(paymentGateway, times(1)).retrievePaymentIntent("pi_1");
+    }
+
+    private OrderDTO orderDTO(Long id, long totalAmountMinor) {
+        Order order = new Order();
+        order.setId(id);
+        order.setTotalAmountMinor(totalAmountMinor);
+        order.setCurrency("usd");
+        order.setOrderDate(LocalDateTime.now());
+        order.setOrderItems(Collections.emptyList());
+        return new OrderDTO(order);
     }
 }
\ No newline at end of file
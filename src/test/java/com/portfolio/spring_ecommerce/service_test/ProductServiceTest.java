@@ -90,6 +90,20 @@ class ProductServiceTest {
         verify(productRepository, times(1)).save(any(Product.class));
     }
 
+    /**
+     * createProductメソッドの異常系テスト。
+     * 最小通貨単位で表せない大きさの価格はIllegalArgumentException（400）となり、保存されないことを検証する。
+     */
+    @Test
+    void testCreateProduct_UnitPriceOutOfRange() {
+        ProductDto productDto = new ProductDto();
+        productDto.setSku("TEST-SKU-HUGE");
+        productDto.setUnitPrice(new BigDecimal("1e30"));
+
+        assertThrows(IllegalArgumentException.class, () -> productService.createProduct(productDto));
+        verify(productRepository, times(0)).save(any(Product.class));
+    }
+
     /**
      * updateProductメソッドの成功テスト（部分更新）。
      * 既存の商品に対して一部のフィールドのみを更新するケースを検証する。
@@ -0,0 +1,99 @@
+package com.portfolio.spring_ecommerce.service_test;
+
+import com.portfolio.spring_ecommerce.filter.RateLimitFilter;
+import com.portfolio.spring_ecommerce.util.JwtClaims;
+import com.portfolio.spring_ecommerce.util.VerifiedTokenCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * RateLimitFilterの単体テストクラス。
+ * ルートグループごとの上限、429とRetry-After、IPアドレス単位・ユーザー単位のバケットの区別を検証する。
+ */
+class RateLimitFilterTest {
+
+    private VerifiedTokenCache verifiedTokenCache;
+    private RateLimitFilter filter;
+
+    /**
+     * 各テスト実行前にフィルターを初期化する（認証系は3回、ユーザー系は2回まで連続して許可する）。
+     */
+    @BeforeEach
+    void setUp() {
+        verifiedTokenCache = mock(VerifiedTokenCache.class);
+        filter = new RateLimitFilter(verifiedTokenCache, true, 1000, 3, 0.2, 0, 20, 2, 0.5);
+    }
+
+    /**
+     * 容量を超えたリクエストは429とRetry-Afterで拒否され、後続のフィルターに渡らないことを検証する。
+     */
+    @Test
+    void testAuthRoute_ExceedingCapacity_Returns429WithRetryAfter() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, perform("/auth/login", "10.0.0.1", null).getStatus());
+        }
+
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(request("/auth/login", "10.0.0.1", null), rejected, chain);
+
+        assertEquals(429, rejected.getStatus());
+        assertEquals("5", rejected.getHeader("Retry-After"));
+        assertNull(chain.getRequest());
+        // 別のIPアドレスは影響を受けない
+        assertEquals(200, perform("/auth/login", "10.0.0.2", null).getStatus());
+    }
+
+    /**
+     * 検証済みトークンのリクエストはユーザー単位、それ以外はIPアドレス単位で制限されることを検証する。
+     */
+    @Test
+    void testUserRoute_KeyedByCachedUserOtherwiseByIp() throws Exception {
+        when(verifiedTokenCache.peek("user-token")).thenReturn(new JwtClaims(UUID.randomUUID(), "testuser", 42L,
+                List.of("ROLE_USER"), Instant.now(), Instant.now().plusSeconds(300)));
+
+        assertEquals(200, perform("/user/cart/add", "10.0.0.1", "user-token").getStatus());
+        assertEquals(200, perform("/user/cart/add", "10.0.0.2", "user-token").getStatus());
+        // IPアドレスを変えても同じユーザーのバケットを使う
+        assertEquals(429, perform("/user/cart/add", "10.0.0.3", "user-token").getStatus());
+
+        // 検証済みでないトークンはIPアドレスのバケットを使う
+        assertEquals(200, perform("/user/cart/add", "10.0.0.1", "unverified-token").getStatus());
+    }
+
+    /**
+     * 容量が0のグループと、対象外のパスは制限されないことを検証する。
+     */
+    @Test
+    void testUnlimitedRoutes_AlwaysPass() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(200, perform("/products", "10.0.0.1", null).getStatus());
+            assertEquals(200, perform("/webhook/stripe", "10.0.0.1", null).getStatus());
+        }
+    }
+
+    private MockHttpServletResponse perform(String path, String remoteAddr, String token) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(path, remoteAddr, token), response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String path, String remoteAddr, String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setRemoteAddr(remoteAddr);
+        if (token != null) {
+            request.addHeader("Authorization", "Bearer " + token);
+        }
+        return request;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.portfolio.spring_ecommerce.service_test;
+
+import com.portfolio.spring_ecommerce.exception.InvalidRefreshTokenException;
+import com.portfolio.spring_ecommerce.model.RefreshToken;
+import com.portfolio.spring_ecommerce.model.User;
+import com.portfolio.spring_ecommerce.model.enums.Role;
+import com.portfolio.spring_ecommerce.repository.RefreshTokenRepository;
+import com.portfolio.spring_ecommerce.repository.UserRepository;
+import com.portfolio.spring_ecommerce.service.RefreshTokenService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RefreshTokenRepositoryをH2上で実行するテストクラス。
+ * ハッシュによる取得（ユーザーのエンティティグラフを含む）と、使用済みトークンの再提示による系列の失効を検証する。
+ */
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-test.properties")
+class RefreshTokenRepositoryTest {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    /**
+     * 更新で所有ユーザーとロールが取得でき、使用済みのトークンを再提示すると系列全体が失効することを検証する。
+     */
+    @Test
+    void testRotate_LoadsUserAndRevokesFamilyOnReuse() {
+        User user = new User("refresh-repo-user", "password");
+        user.setRoles(Set.of(Role.USER));
+        user = userRepository.save(user);
+
+        String first = refreshTokenService.issue(user);
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(first);
+
+        assertEquals(user.getId(), rotation.user().getId());
+        assertEquals(Set.of(Role.USER), rotation.user().getRoles());
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(first));
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(rotation.refreshToken()));
+
+        Long userId = user.getId();
+        List<RefreshToken> tokens = refreshTokenRepository.findAll().stream()
+                .filter(token -> token.getUser().getId().equals(userId))
+                .toList();
+        assertEquals(2, tokens.size());
+        assertTrue(tokens.stream().allMatch(token -> token.getRevokedAt() != null));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,105 @@
+package com.portfolio.spring_ecommerce.service_test;
+
+import com.portfolio.spring_ecommerce.exception.InvalidRefreshTokenException;
+import com.portfolio.spring_ecommerce.model.RefreshToken;
+import com.portfolio.spring_ecommerce.model.User;
+import com.portfolio.spring_ecommerce.repository.RefreshTokenRepository;
+import com.portfolio.spring_ecommerce.service.RefreshTokenService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * RefreshTokenServiceの単体テストクラス。
+ * ハッシュでの保存、同じ系列でのローテーション、再使用時の系列全体の失効を検証する。
+ */
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private RefreshTokenService refreshTokenService;
+    private User user;
+
+    /**
+     * 各テスト実行前にテスト対象とユーザーを初期化する。
+     */
+    @BeforeEach
+    void setUp() {
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository);
+        user = new User("testuser", "password");
+        user.setId(1L);
+    }
+
+    /**
+     * 発行したトークンはそのまま保存されず、ハッシュのみが保存されることを検証する。
+     */
+    @Test
+    void testIssue_StoresHashOnly() {
+        String token = refreshTokenService.issue(user);
+
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(captor.capture());
+        RefreshToken saved = captor.getValue();
+        assertNotEquals(token, saved.getTokenHash());
+        assertEquals(64, saved.getTokenHash().length());
+        assertTrue(saved.getExpiresAt().isAfter(LocalDateTime.now()));
+    }
+
+    /**
+     * 更新すると古いトークンが使用済みになり、同じ系列の新しいトークンが発行されることを検証する。
+     */
+    @Test
+    void testRotate_IssuesNewTokenInSameFamily() {
+        UUID familyId = UUID.randomUUID();
+        RefreshToken current = stored(familyId);
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(current));
+        when(refreshTokenRepository.markUsed(eq(10L), any())).thenReturn(1);
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate("old-token");
+
+        assertSame(user, rotation.user());
+        assertNotEquals("old-token", rotation.refreshToken());
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(captor.capture());
+        assertEquals(familyId, captor.getValue().getFamilyId());
+        verify(refreshTokenRepository, never()).revokeFamily(any(), any());
+    }
+
+    /**
+     * 使用済みのトークンが再提示された場合、系列全体が失効し、例外がスローされることを検証する。
+     */
+    @Test
+    void testRotate_ReusedTokenRevokesFamily() {
+        UUID familyId = UUID.randomUUID();
+        RefreshToken current = stored(familyId);
+        current.setUsedAt(LocalDateTime.now().minusMinutes(1));
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(current));
+        when(refreshTokenRepository.markUsed(eq(10L), any())).thenReturn(0);
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("old-token"));
+
+        verify(refreshTokenRepository).revokeFamily(eq(familyId), any());
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    private RefreshToken stored(UUID familyId) {
+        RefreshToken token = new RefreshToken(user, familyId, "hash", LocalDateTime.now().plusDays(1));
+        token.setId(10L);
+        return token;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,64 @@
+package com.portfolio.spring_ecommerce.service_test;
+
+import com.portfolio.spring_ecommerce.revocation.RevocationBloomFilter;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RevocationBloomFilterの単体テストクラス。
+ * 偽陰性がないことと、偽陽性率、期限切れバケットの破棄を検証する。
+ */
+class RevocationBloomFilterTest {
+
+    /**
+     * 追加したトークンIDは必ず陽性となり、追加していないIDの偽陽性率が推定値と同程度に収まることを検証する。
+     */
+    @Test
+    void testMightContain_NoFalseNegativesAndLowFalsePositiveRate() {
+        RevocationBloomFilter filter = new RevocationBloomFilter(3600000L, 65536, 5);
+        Instant expiresAt = Instant.now().plusSeconds(600);
+        List<UUID> added = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            UUID tokenId = UUID.randomUUID();
+            filter.add(tokenId, expiresAt);
+            added.add(tokenId);
+        }
+
+        for (UUID tokenId : added) {
+            assertTrue(filter.mightContain(tokenId));
+        }
+
+        int falsePositives = 0;
+        int probes = 100000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(UUID.randomUUID())) {
+                falsePositives++;
+            }
+        }
+        double rate = (double) falsePositives / probes;
+        double estimated = filter.estimatedFalsePositiveRate();
+        assertTrue(estimated < 0.05, "推定偽陽性率が高すぎます: " + estimated);
+        assertTrue(rate < estimated * 2 + 0.001, "偽陽性率が高すぎます: " + rate);
+    }
+
+    /**
+     * 全トークンが期限切れになったバケットは破棄され、否定応答となることを検証する。
+     */
+    @Test
+    void testMightContain_ExpiredBucketIsDropped() {
+        RevocationBloomFilter filter = new RevocationBloomFilter(1000L, 65536, 5);
+        UUID expired = UUID.randomUUID();
+        UUID live = UUID.randomUUID();
+        filter.add(expired, Instant.now().minusSeconds(10));
+        filter.add(live, Instant.now().plusSeconds(60));
+
+        assertFalse(filter.mightContain(expired));
+        assertTrue(filter.mightContain(live));
+    }
+}
\ No newline at end of file
@@ -1,13 +1,15 @@
 package com.portfolio.spring_ecommerce.service_test;
 
 import com.portfolio.spring_ecommerce.model.User;
+import com.portfolio.spring_ecommerce.model.enums.Role;
 import org.junit.jupiter.api.Test;
+import java.util.List;
 import java.util.Set;
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * Userエンティティのロール管理に関する単体テストクラス。
- * ユーザーに複数ロールが正しく割り当てられることを検証する。
+ * ユーザーに複数ロールが正しく割り当てられ、ビットマスクと共有の権限一覧に変換されることを検証する。
  */
 class RoleTest {
 
@@ -18,8 +20,26 @@ class RoleTest {
     void testRolesAssignment() {
 
         User user = new User();
-        user.setRoles(Set.of("ROLE_USER", "ROLE_ADMIN"));
-        assertTrue(user.getRoles().contains("ROLE_USER"));
-        assertTrue(user.getRoles().contains("ROLE_ADMIN"));
+        user.setRoles(Set.of(Role.USER, Role.ADMIN));
+        assertTrue(user.getRoles().contains(Role.USER));
+        assertTrue(user.getRoles().contains(Role.ADMIN));
+        assertEquals(3, user.getRoleMask());
+    }
+
+    /**
+     * 同じロールの組み合わせには同じ権限一覧のインスタンスが返され、権限名からも同じマスクに戻せることを検証するテスト。
+     */
+    @Test
+    void testAuthoritiesAreSharedPerMask() {
+        User user = new User();
+        user.setRoles(Set.of(Role.USER));
+        User other = new User();
+        other.setRoles(Set.of(Role.USER));
+
+        assertSame(user.getAuthorities(), other.getAuthorities());
+        assertEquals("ROLE_USER", user.getAuthorities().get(0).getAuthority());
+        assertEquals(List.of("ROLE_USER", "ROLE_ADMIN"), Role.authorityNames(3));
+        assertEquals(3, Role.maskOfAuthorities(List.of("ROLE_ADMIN", "ROLE_USER", "ROLE_UNKNOWN")));
+        assertTrue(new User().getAuthorities().isEmpty());
     }
 }
\ No newline at end of file
@@ -0,0 +1,162 @@
+package com.portfolio.spring_ecommerce.service_test;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.portfolio.spring_ecommerce.model.JwtPublicKey;
+import com.portfolio.spring_ecommerce.model.User;
+import com.portfolio.spring_ecommerce.model.enums.Role;
+import com.portfolio.spring_ecommerce.repository.JwtPublicKeyRepository;
+import com.portfolio.spring_ecommerce.signing.RotatingKeyRing;
+import com.portfolio.spring_ecommerce.util.JwtClaims;
+import com.portfolio.spring_ecommerce.util.JwtUtil;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * RotatingKeyRingの単体テストクラス。
+ * kidヘッダー付きの非対称鍵での署名・検証、他ノードの公開鍵の取り込み、鍵のローテーションとJWKSの内容を検証する。
+ */
+class RotatingKeyRingTest {
+
+    private static final long HOUR = 3600000L;
+
+    @Mock
+    private JwtPublicKeyRepository jwtPublicKeyRepository;
+
+    // 全ノードで共有するjwt_public_keysテーブルの代わり
+    private final List<JwtPublicKey> publishedKeys = new ArrayList<>();
+
+    private User user;
+
+    /**
+     * 各テスト実行前にモックとテスト用ユーザーを初期化する。
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(jwtPublicKeyRepository.save(any(JwtPublicKey.class))).thenAnswer(invocation -> {
+            publishedKeys.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        when(jwtPublicKeyRepository.findLive(any())).thenAnswer(invocation -> List.copyOf(publishedKeys));
+
+        user = new User("testuser", "password");
+        user.setId(42L);
+        user.setRoles(Set.of(Role.USER));
+    }
+
+    /**
+     * ES256・EdDSAで署名したトークンにkidヘッダーが付き、検証でき、JWKSに同じkidの公開鍵が含まれることを検証する。
+     */
+    @Test
+    void testSignAndVerify_AsymmetricAlgorithms() {
+        for (String algorithm : List.of("ES256", "EdDSA")) {
+            publishedKeys.clear();
+            RotatingKeyRing keyRing = keyRing(algorithm, 24 * HOUR, 0L, 0L);
+            JwtUtil jwtUtil = new JwtUtil(keyRing, HOUR);
+
+            String token = jwtUtil.generateToken(user);
+            JwtClaims claims = jwtUtil.verify(token);
+
+            Map<?, ?> header = header(token);
+            assertEquals(algorithm, header.get("alg"));
+            assertEquals(42L, claims.userId());
+
+            List<Map<String, Object>> jwks = keyRing.publicJwks();
+            assertEquals(1, jwks.size());
+            assertEquals(header.get("kid"), jwks.get(0).get("kid"));
+            assertEquals(algorithm, jwks.get(0).get("alg"));
+            assertFalse(jwks.get(0).containsKey("d"), "JWKSに秘密鍵を含めてはいけない");
+        }
+    }
+
+    /**
+     * 他ノードが署名したトークンは、公開された鍵をテーブルから読み直して検証できることを検証する。
+     */
+    @Test
+    void testVerify_KeyPublishedByOtherNode() {
+        JwtUtil local = new JwtUtil(keyRing("ES256", 24 * HOUR, 0L, 0L), HOUR);
+        JwtUtil otherNode = new JwtUtil(keyRing("ES256", 24 * HOUR, 0L, 0L), HOUR);
+
+        assertEquals("testuser", local.verify(otherNode.generateToken(user)).subject());
+    }
+
+    /**
+     * 不明なkidのトークンは検証に失敗し、最小間隔内はテーブルを読み直さないことを検証する。
+     */
+    @Test
+    void testVerify_UnknownKey_ThrowsWithoutReloading() {
+        JwtUtil local = new JwtUtil(keyRing("ES256", 24 * HOUR, 0L, 60000L), HOUR);
+        // テーブルに公開されていない鍵で署名したトークン
+        RotatingKeyRing unpublished = new RotatingKeyRing(mock(JwtPublicKeyRepository.class), "ES256", 24 * HOUR, 0L, HOUR, 0L);
+        unpublished.initialize();
+        String foreign = new JwtUtil(unpublished, HOUR).generateToken(user);
+
+        assertThrows(JwtException.class, () -> local.verify(foreign));
+        assertThrows(JwtException.class, () -> local.verify(foreign));
+
+        // 起動時の1回のみ
+        verify(jwtPublicKeyRepository, times(1)).findLive(any());
+    }
+
+    /**
+     * 署名期間を過ぎると新しい鍵で署名し、以前の鍵で署名したトークンも有効期限までは検証できることを検証する。
+     */
+    @Test
+    void testRotation_OldTokensStillVerify() {
+        JwtUtil jwtUtil = new JwtUtil(keyRing("ES256", 0L, 0L, 0L), HOUR);
+
+        String before = jwtUtil.generateToken(user);
+        String after = jwtUtil.generateToken(user);
+
+        assertNotEquals(header(before).get("kid"), header(after).get("kid"));
+        assertEquals("testuser", jwtUtil.verify(before).subject());
+        assertEquals("testuser", jwtUtil.verify(after).subject());
+    }
+
+    /**
+     * 次の鍵は署名に使用する前にJWKSへ公開されることを検証する。
+     */
+    @Test
+    void testRotateIfDue_PublishesNextKeyAhead() {
+        RotatingKeyRing keyRing = keyRing("ES256", HOUR, 2 * HOUR, 0L);
+        JwtUtil jwtUtil = new JwtUtil(keyRing, HOUR);
+        Object kid = header(jwtUtil.generateToken(user)).get("kid");
+
+        keyRing.rotateIfDue();
+
+        assertEquals(2, keyRing.publicJwks().size());
+        assertEquals(kid, header(jwtUtil.generateToken(user)).get("kid"));
+    }
+
+    private RotatingKeyRing keyRing(String algorithm, long rotationIntervalMs, long publishAheadMs, long reloadMinIntervalMs) {
+        RotatingKeyRing keyRing = new RotatingKeyRing(jwtPublicKeyRepository, algorithm, rotationIntervalMs,
+                publishAheadMs, HOUR, reloadMinIntervalMs);
+        keyRing.initialize();
+        return keyRing;
+    }
+
+    // トークンのヘッダー部分（署名の検証はしない）
+    private static Map<?, ?> header(String token) {
+        String json = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))), StandardCharsets.UTF_8);
+        try {
+            return new ObjectMapper().readValue(json, Map.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,109 @@
+package com.portfolio.spring_ecommerce.service_test;
+
+import com.portfolio.spring_ecommerce.event.OrderLifecycleEvent;
+import com.portfolio.spring_ecommerce.model.*;
+import com.portfolio.spring_ecommerce.model.enums.OrderEventType;
+import com.portfolio.spring_ecommerce.model.enums.OrderStatus;
+import com.portfolio.spring_ecommerce.model.enums.SalesGranularity;
+import com.portfolio.spring_ecommerce.repository.SalesRollupDailyRepository;
+import com.portfolio.spring_ecommerce.repository.SalesRollupHourlyRepository;
+import com.portfolio.spring_ecommerce.repository.SkuSalesDailyRepository;
+import com.portfolio.spring_ecommerce.service.SalesAnalyticsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * SalesAnalyticsServiceの単体テストクラス。
+ * 支払い完了イベントによる集計テーブルへの加算と、分析期間の検証を確認する。
+ */
+class SalesAnalyticsServiceTest {
+
+    @Mock
+    private SalesRollupHourlyRepository hourlyRepository;
+
+    @Mock
+    private SalesRollupDailyRepository dailyRepository;
+
+    @Mock
+    private SkuSalesDailyRepository skuSalesDailyRepository;
+
+    @InjectMocks
+    private SalesAnalyticsService salesAnalyticsService;
+
+    /**
+     * 各テスト実行前にモックを初期化する。
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    /**
+     * 支払い完了イベントで注文日時の区分の時間別・日別・SKU別の集計が加算され、同じSKUの明細はまとめられることを検証する。
+     * 日付をまたいで支払われた場合も注文日の売上になる。
+     */
+    @Test
+    void testOnOrderEvent_Paid_IncrementsRollups() {
+        Order order = new Order();
+        order.setId(1L);
+        order.setStatus(OrderStatus.PAID);
+        order.setTotalAmountMinor(3500);
+        order.setOrderDate(LocalDateTime.of(2026, 1, 1, 23, 45));
+        order.addOrderItem(item("SKU-A", 2, 1000));
+        order.addOrderItem(item("SKU-A", 1, 1000));
+        order.addOrderItem(item("SKU-B", 1, 500));
+
+        salesAnalyticsService.onOrderEvent(new OrderLifecycleEvent(order, OrderEventType.ORDER_PAID));
+
+        LocalDateTime hour = LocalDateTime.of(2026, 1, 1, 23, 0);
+        LocalDate day = LocalDate.of(2026, 1, 1);
+        verify(hourlyRepository).increment(hour, 3500L, 4, 1);
+        verify(dailyRepository).increment(day, 3500L, 4, 1);
+        verify(skuSalesDailyRepository).increment(day, "SKU-A", 3000L, 3);
+        verify(skuSalesDailyRepository).increment(day, "SKU-B", 500L, 1);
+    }
+
+    /**
+     * 支払い完了以外のイベントでは集計が更新されないことを検証する。
+     */
+    @Test
+    void testOnOrderEvent_Created_DoesNothing() {
+        Order order = new Order();
+        order.setTotalAmountMinor(1000);
+
+        salesAnalyticsService.onOrderEvent(new OrderLifecycleEvent(order, OrderEventType.ORDER_CREATED));
+
+        verifyNoInteractions(hourlyRepository, dailyRepository, skuSalesDailyRepository);
+    }
+
+    /**
+     * 時間別集計で上限を超える期間を指定した場合に例外が発生することを検証する。
+     */
+    @Test
+    void testGetSales_HourlyRangeTooLong_Throws() {
+        assertThrows(IllegalArgumentException.class, () ->
+                salesAnalyticsService.getSales(SalesGranularity.HOURLY, LocalDate.of(2026, 1, 1), LocalDate.of(2026, 3, 1), 10));
+
+        verify(hourlyRepository, never()).findByBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStart(any(), any());
+    }
+
+    private OrderItem item(String sku, int quantity, long priceMinor) {
+        Product product = new Product();
+        product.setSku(sku);
+        OrderItem item = new OrderItem();
+        item.setProduct(product);
+        item.setQuantity(quantity);
+        item.setPriceMinor(priceMinor);
+        return item;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,145 @@
+package com.portfolio.spring_ecommerce.service_test;
+
+import com.portfolio.spring_ecommerce.config.StripeConfig;
+import com.portfolio.spring_ecommerce.gateway.PaymentGatewayException;
+import com.portfolio.spring_ecommerce.gateway.PaymentIntentRequest;
+import com.portfolio.spring_ecommerce.gateway.PaymentIntentSnapshot;
+import com.portfolio.spring_ecommerce.gateway.PooledStripeHttpClient;
+import com.portfolio.spring_ecommerce.gateway.StripePaymentProvider;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * StripePaymentProviderの単体テストクラス。
+ * ローカルのHTTPサーバーをStripe APIとして使い、StripeConfigで構成したクライアント経由で
+ * リクエスト内容・接続の再利用・例外の変換を検証する。
+ */
+public class StripePaymentProviderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+    private HttpServer server;
+    private PooledStripeHttpClient httpClient;
+    private StripePaymentProvider provider;
+
+    /**
+     * テスト前の初期化処理。
+     * 疑似Stripe APIを起動し、そのURLをAPIベースとしてクライアントを構成する。
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/v1/payment_intents", this::handle);
+        server.start();
+
+        StripeConfig config = new StripeConfig();
+        ReflectionTestUtils.setField(config, "secretKey", "sk_test_local");
+        ReflectionTestUtils.setField(config, "apiBase", "http://localhost:" + server.getAddress().getPort());
+        ReflectionTestUtils.setField(config, "maxNetworkRetries", 0);
+        httpClient = config.stripeHttpClient(meterRegistry);
+        provider = new StripePaymentProvider(config.stripeClient(httpClient));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        httpClient.close();
+        server.stop(0);
+    }
+
+    /**
+     * 金額・通貨・注文IDメタデータ・APIキー・冪等キーを指定してPaymentIntentが作成され、計測されることを検証する。
+     */
+    @Test
+    void testCreatePaymentIntent_Success() {
+        PaymentIntentSnapshot result = provider.createPaymentIntent(PaymentIntentRequest.forOrder(1L, 15075L, "usd", null));
+
+        assertEquals("pi_123", result.id());
+        assertEquals("pi_123_secret", result.clientSecret());
+        assertEquals(15075L, result.amountMinor());
+
+        String request = requests.get(0);
+        assertTrue(request.startsWith("POST /v1/payment_intents Bearer sk_test_local order-1-15075usd "));
+        assertTrue(request.contains("amount=15075"));
+        assertTrue(request.contains("currency=usd"));
+        assertTrue(request.contains("metadata[orderId]=1"));
+        assertTrue(request.contains("automatic_payment_methods[enabled]=true"));
+
+        assertEquals(1, meterRegistry.get("stripe.http.requests")
+                .tag("resource", "payment_intents").tag("status", "200").timer().count());
+    }
+
+    /**
+     * 連続した呼び出しでkeep-aliveした接続が再利用されることを検証する。
+     */
+    @Test
+    void testRetrievePaymentIntent_ReusesConnection() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals("requires_action", provider.retrievePaymentIntent("pi_123").status());
+        }
+
+        assertEquals(3, requests.size());
+        assertEquals(1, clientPorts.size());
+    }
+
+    /**
+     * 404はNOT_FOUND、接続できない場合はPROVIDER_UNAVAILABLEに変換されることを検証する。
+     */
+    @Test
+    void testTranslatesStripeException() {
+        PaymentGatewayException notFound = assertThrows(PaymentGatewayException.class,
+                () -> provider.retrievePaymentIntent("pi_missing"));
+        assertEquals(PaymentGatewayException.Reason.NOT_FOUND, notFound.getReason());
+
+        server.stop(0);
+        PaymentGatewayException unavailable = assertThrows(PaymentGatewayException.class,
+                () -> provider.retrievePaymentIntent("pi_123"));
+        assertEquals(PaymentGatewayException.Reason.PROVIDER_UNAVAILABLE, unavailable.getReason());
+    }
+
+    // 疑似Stripe API（作成・取得・存在しないIDの404）
+    private void handle(HttpExchange exchange) throws IOException {
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        String body = URLDecoder.decode(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+        String path = exchange.getRequestURI().getPath();
+        requests.add(exchange.getRequestMethod() + " " + path + " "
+                + exchange.getRequestHeaders().getFirst("Authorization") + " "
+                + exchange.getRequestHeaders().getFirst("Idempotency-Key") + " " + body);
+
+        int status = 200;
+        String response;
+        if (path.endsWith("/pi_missing")) {
+            status = 404;
+            response = "{\"error\":{\"type\":\"invalid_request_error\",\"message\":\"No such payment_intent\"}}";
+        } else if (exchange.getRequestMethod().equals("POST")) {
+            response = "{\"id\":\"pi_123\",\"object\":\"payment_intent\",\"status\":\"requires_payment_method\","
+                    + "\"client_secret\":\"pi_123_secret\",\"amount\":15075,\"currency\":\"usd\"}";
+        } else {
+            response = "{\"id\":\"pi_123\",\"object\":\"payment_intent\",\"status\":\"requires_action\","
+                    + "\"client_secret\":\"pi_123_secret\",\"amount\":15075,\"currency\":\"usd\"}";
+        }
+        byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.getResponseHeaders().add("Request-Id", "req_local");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.portfolio.spring_ecommerce.service_test;
+
+import com.portfolio.spring_ecommerce.util.TokenBucketLimiter;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TokenBucketLimiterの単体テストクラス。
+ * 容量までの連続した許可、キーごとのバケットの独立、バケット数の上限と追い出しを検証する。
+ */
+class TokenBucketLimiterTest {
+
+    /**
+     * 容量までは許可し、超えると次の補充までの時間を返すこと、別のキーには影響しないことを検証する。
+     */
+    @Test
+    void testTryAcquire_AllowsBurstThenRejects() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(3, 1.0, 100);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+        }
+        long waitNanos = limiter.tryAcquire("10.0.0.1");
+
+        assertTrue(waitNanos > 0 && waitNanos <= 1_000_000_000L, "待ち時間: " + waitNanos);
+        assertEquals(0, limiter.tryAcquire("10.0.0.2"));
+    }
+
+    /**
+     * バケット数が上限に達した後の新しいキーも、共有のバケットではなく自身のバケットで判定されることを検証する
+     * （大量のキーで他のクライアントが締め出されない）。
+     * 追い出しは残りトークンの多いバケットから行われ、使い切ったキーの制限は維持されることも検証する。
+     */
+    @Test
+    void testTryAcquire_OverMaxKeys_EvictsInsteadOfSharing() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(2, 1.0, 2, Runnable::run);
+        assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+        assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+
+        for (int i = 2; i <= 100; i++) {
+            assertEquals(0, limiter.tryAcquire("10.0.0." + i));
+        }
+
+        assertTrue(limiter.tryAcquire("10.0.0.1") > 0);
+        assertTrue(limiter.size() <= 2, "バケット数: " + limiter.size());
+    }
+}
\ No newline at end of file
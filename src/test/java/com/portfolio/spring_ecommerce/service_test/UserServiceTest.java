@@ -1,6 +1,7 @@
 package com.portfolio.spring_ecommerce.service_test;
 
 import com.portfolio.spring_ecommerce.model.User;
+import com.portfolio.spring_ecommerce.model.enums.Role;
 import com.portfolio.spring_ecommerce.repository.UserRepository;
 import com.portfolio.spring_ecommerce.service.UserService;
 
@@ -32,7 +33,7 @@ class UserServiceTest {
         User user = new User();
         user.setUsername("testuser");
         user.setPassword("password");
-        user.setRoles(Set.of("ROLE_USER"));
+        user.setRoles(Set.of(Role.USER));
 
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
 
@@ -55,7 +56,7 @@ class UserServiceTest {
         User admin = new User();
         admin.setUsername("admin");
         admin.setPassword("encoded_password");
-        admin.setRoles(Set.of("ROLE_ADMIN", "ROLE_USER"));
+        admin.setRoles(Set.of(Role.ADMIN, Role.USER));
 
         when(userRepository.findByUsername("admin")).thenReturn(Optional.of(admin));
 
@@ -78,7 +79,7 @@ class UserServiceTest {
         User user = new User();
         user.setUsername("sampleuser");
         user.setPassword("samplepass");
-        user.setRoles(Set.of("ROLE_USER"));
+        user.setRoles(Set.of(Role.USER));
 
         when(userRepository.findByUsername("sampleuser")).thenReturn(Optional.of(user));
 
@@ -0,0 +1,92 @@
+package com.portfolio.spring_ecommerce.service_test;
+
+import com.portfolio.spring_ecommerce.model.User;
+import com.portfolio.spring_ecommerce.model.enums.Role;
+import com.portfolio.spring_ecommerce.repository.RevokedTokenRepository;
+import com.portfolio.spring_ecommerce.revocation.RevocationBloomFilter;
+import com.portfolio.spring_ecommerce.service.JwtBlacklistService;
+import com.portfolio.spring_ecommerce.util.JwtClaims;
+import com.portfolio.spring_ecommerce.signing.HmacKeyRing;
+import com.portfolio.spring_ecommerce.util.JwtUtil;
+import com.portfolio.spring_ecommerce.util.VerifiedTokenCache;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * VerifiedTokenCacheの単体テストクラス。
+ * 検証済みトークンの再利用と、ブラックリスト登録・有効期限による失効を検証する。
+ */
+class VerifiedTokenCacheTest {
+
+    private static final String SECRET = "test-jwt-secret-key-0123456789abcdef";
+
+    private JwtUtil jwtUtil;
+    private VerifiedTokenCache verifiedTokenCache;
+
+    /**
+     * 各テスト実行前に、呼び出し回数を確認できるJwtUtilとキャッシュを初期化する。
+     */
+    @BeforeEach
+    void setUp() {
+        jwtUtil = spy(new JwtUtil(new HmacKeyRing(SECRET), 3600000L));
+        verifiedTokenCache = new VerifiedTokenCache(jwtUtil, 100);
+    }
+
+    /**
+     * 同じトークンの2回目以降の検証では、署名の検証が行われないことを検証する。
+     */
+    @Test
+    void testVerify_SecondCallIsServedFromCache() {
+        String token = jwtUtil.generateToken(user("testuser"));
+
+        JwtClaims first = verifiedTokenCache.verify(token);
+        JwtClaims second = verifiedTokenCache.verify(token);
+
+        assertEquals("testuser", second.subject());
+        assertSame(first, second);
+        verify(jwtUtil, times(1)).verify(token);
+    }
+
+    /**
+     * ブラックリストに登録されたトークンはキャッシュから削除され、再度署名が検証されることを検証する。
+     */
+    @Test
+    void testBlacklist_InvalidatesCachedToken() {
+        JwtBlacklistService jwtBlacklistService = new JwtBlacklistService(mock(RevokedTokenRepository.class), verifiedTokenCache,
+                new RevocationBloomFilter(3600000L, 65536, 5), new SimpleMeterRegistry());
+        String token = jwtUtil.generateToken(user("testuser"));
+        verifiedTokenCache.verify(token);
+
+        jwtBlacklistService.addTokenToBlacklist(token);
+        verifiedTokenCache.verify(token);
+
+        verify(jwtUtil, times(2)).verify(token);
+    }
+
+    /**
+     * 期限切れのトークンはキャッシュされず、毎回検証に失敗することを検証する。
+     */
+    @Test
+    void testVerify_ExpiredTokenIsNotCached() {
+        JwtUtil expiring = new JwtUtil(new HmacKeyRing(SECRET), -1000L);
+        String token = expiring.generateToken(user("testuser"));
+
+        assertThrows(ExpiredJwtException.class, () -> verifiedTokenCache.verify(token));
+        assertThrows(ExpiredJwtException.class, () -> verifiedTokenCache.verify(token));
+        verify(jwtUtil, times(2)).verify(token);
+    }
+
+    private User user(String username) {
+        User user = new User(username, "password");
+        user.setId(1L);
+        user.setRoles(Set.of(Role.USER));
+        return user;
+    }
+}
\ No newline at end of file
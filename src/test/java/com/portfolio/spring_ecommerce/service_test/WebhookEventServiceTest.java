@@ -0,0 +1,200 @@
+package com.portfolio.spring_ecommerce.service_test;
+
+import com.portfolio.spring_ecommerce.exception.PaymentIntentNotLinkedException;
+import com.portfolio.spring_ecommerce.model.WebhookEvent;
+import com.portfolio.spring_ecommerce.model.enums.WebhookEventStatus;
+import com.portfolio.spring_ecommerce.repository.WebhookEventRepository;
+import com.portfolio.spring_ecommerce.service.OrderService;
+import com.portfolio.spring_ecommerce.service.PaymentService;
+import com.portfolio.spring_ecommerce.service.WebhookEventService;
+import com.portfolio.spring_ecommerce.webhook.RecentWebhookEventIds;
+import com.stripe.Stripe;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * WebhookEventServiceの単体テストクラス。
+ * 受信時の重複排除、受信済みイベントの取得（リース）、処理、失敗時の再試行予約とデッドレター化を検証する。
+ */
+@ExtendWith(MockitoExtension.class)
+class WebhookEventServiceTest {
+
+    @Mock
+    private WebhookEventRepository webhookEventRepository;
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private PaymentService paymentService;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private WebhookEventService webhookEventService;
+
+    /**
+     * 各テスト実行前にテスト対象を初期化する。
+     */
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        webhookEventService = new WebhookEventService(webhookEventRepository, orderService, paymentService, new RecentWebhookEventIds(100), meterRegistry);
+    }
+
+    /**
+     * 同じイベントIDの再送は、2回目以降DBに保存せず重複として扱われることを検証する。
+     */
+    @Test
+    void testRecord_RedeliveredEvent_SavedOnce() {
+        assertTrue(webhookEventService.record("evt_1", "payment_intent.succeeded", "{}"));
+        assertFalse(webhookEventService.record("evt_1", "payment_intent.succeeded", "{}"));
+
+        verify(webhookEventRepository, times(1)).saveAndFlush(any());
+        assertEquals(1.0, meterRegistry.counter("webhook.events", "outcome", "duplicate").count());
+    }
+
+    /**
+     * 他のノードで保存済みのイベント（一意制約違反）は重複として扱われ、例外にならないことを検証する。
+     */
+    @Test
+    void testRecord_SavedByOtherNode_TreatedAsDuplicate() {
+        when(webhookEventRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("uk_webhook_events_event_id"));
+        when(webhookEventRepository.existsByEventId("evt_1")).thenReturn(true);
+
+        assertFalse(webhookEventService.record("evt_1", "payment_intent.succeeded", "{}"));
+        assertFalse(webhookEventService.record("evt_1", "payment_intent.succeeded", "{}"));
+
+        verify(webhookEventRepository, times(1)).saveAndFlush(any());
+    }
+
+    /**
+     * 取得したイベントの試行回数が増え、リース期間中は処理期限が未来に延びることを検証する。
+     */
+    @Test
+    void testClaimDue_LeasesEvents() {
+        WebhookEvent event = event(1L, "payment_intent.succeeded", "succeeded");
+        when(webhookEventRepository.findDueForUpdate(eq(WebhookEventStatus.PENDING), any(), any())).thenReturn(List.of(event));
+
+        List<Long> claimed = webhookEventService.claimDue(10);
+
+        assertEquals(List.of(1L), claimed);
+        assertEquals(1, event.getAttempts());
+        assertTrue(event.getNextAttemptAt().isAfter(LocalDateTime.now().plusMinutes(1)));
+    }
+
+    /**
+     * 支払い成功イベントで、メタデータの注文IDの注文が支払い済みになり、イベントが処理済みになることを検証する。
+     */
+    @Test
+    void testProcess_PaymentSucceeded_MarksOrderPaid() {
+        WebhookEvent event = event(1L, "payment_intent.succeeded", "succeeded");
+        when(webhookEventRepository.findById(1L)).thenReturn(Optional.of(event));
+
+        webhookEventService.process(1L);
+
+        verify(orderService).markOrderAsPaid(42L, "pi_123");
+        verify(paymentService).onPaymentIntentChanged(42L);
+        assertEquals(WebhookEventStatus.PROCESSED, event.getStatus());
+        assertNotNull(event.getProcessedAt());
+        assertEquals(1.0, meterRegistry.counter("webhook.events", "outcome", "processed").count());
+    }
+
+    /**
+     * 支払い失敗イベントで注文がキャンセルされ在庫が戻されることを検証する。
+     */
+    @Test
+    void testProcess_PaymentFailed_CancelsOrder() {
+        WebhookEvent event = event(1L, "payment_intent.payment_failed", "requires_payment_method");
+        when(webhookEventRepository.findById(1L)).thenReturn(Optional.of(event));
+
+        webhookEventService.process(1L);
+
+        verify(orderService).cancelOrderAndRestoreInventory(42L, "pi_123");
+        assertEquals(WebhookEventStatus.PROCESSED, event.getStatus());
+    }
+
+    /**
+     * 注文の更新に失敗した場合は例外が送出され、イベントは処理待ちのまま残ることを検証する。
+     */
+    @Test
+    void testProcess_OrderUpdateFails_Propagates() {
+        WebhookEvent event = event(1L, "payment_intent.succeeded", "succeeded");
+        when(webhookEventRepository.findById(1L)).thenReturn(Optional.of(event));
+        when(orderService.markOrderAsPaid(42L, "pi_123")).thenThrow(new IllegalStateException("注文が見つかりません"));
+
+        assertThrows(IllegalStateException.class, () -> webhookEventService.process(1L));
+        assertEquals(WebhookEventStatus.PENDING, event.getStatus());
+    }
+
+    /**
+     * 失敗したイベントはエラー内容を記録し、バックオフ後に再試行されるよう予約されることを検証する。
+     */
+    @Test
+    void testRecordFailure_SchedulesRetry() {
+        WebhookEvent event = event(1L, "payment_intent.succeeded", "succeeded");
+        event.setAttempts(1);
+        when(webhookEventRepository.findById(1L)).thenReturn(Optional.of(event));
+
+        webhookEventService.recordFailure(1L, new IllegalStateException("DBエラー"));
+
+        assertEquals(WebhookEventStatus.PENDING, event.getStatus());
+        assertEquals("DBエラー", event.getLastError());
+        assertTrue(event.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        assertEquals(1.0, meterRegistry.counter("webhook.events", "outcome", "retry").count());
+    }
+
+    /**
+     * PaymentIntentが注文に記録される前に届いたイベントは、バックオフではなく短い間隔で再試行されることを検証する。
+     */
+    @Test
+    void testRecordFailure_PaymentIntentNotLinked_RetriesShortly() {
+        WebhookEvent event = event(1L, "payment_intent.payment_failed", "requires_payment_method");
+        event.setAttempts(5);
+        when(webhookEventRepository.findById(1L)).thenReturn(Optional.of(event));
+
+        webhookEventService.recordFailure(1L, new PaymentIntentNotLinkedException("未記録"));
+
+        assertEquals(WebhookEventStatus.PENDING, event.getStatus());
+        assertTrue(event.getNextAttemptAt().isBefore(LocalDateTime.now().plusSeconds(2)));
+    }
+
+    /**
+     * 試行回数が上限に達したイベントはDEADになり、以降は処理されないことを検証する。
+     */
+    @Test
+    void testRecordFailure_MaxAttempts_MarksDead() {
+        WebhookEvent event = event(1L, "payment_intent.succeeded", "succeeded");
+        event.setAttempts(8);
+        when(webhookEventRepository.findById(1L)).thenReturn(Optional.of(event));
+
+        webhookEventService.recordFailure(1L, new IllegalStateException("DBエラー"));
+
+        assertEquals(WebhookEventStatus.DEAD, event.getStatus());
+        assertEquals(1.0, meterRegistry.counter("webhook.events", "outcome", "dead").count());
+    }
+
+    private WebhookEvent event(Long id, String type, String paymentIntentStatus) {
+        String payload = """
+                {"id":"evt_1","object":"event","api_version":"%s","type":"%s",
+                 "data":{"object":{"id":"pi_123","object":"payment_intent","status":"%s",
+                 "amount":3000,"currency":"jpy","client_secret":"pi_123_secret","metadata":{"orderId":"42"}}}}
+                """.formatted(Stripe.API_VERSION, type, paymentIntentStatus);
+        WebhookEvent event = new WebhookEvent("evt_1", type, payload);
+        event.setId(id);
+        return event;
+    }
+}
\ No newline at end of file
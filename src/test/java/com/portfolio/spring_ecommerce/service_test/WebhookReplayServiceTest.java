@@ -0,0 +1,135 @@
+package com.portfolio.spring_ecommerce.service_test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.portfolio.spring_ecommerce.dto.WebhookReplayReportDTO;
+import com.portfolio.spring_ecommerce.repository.WebhookEventRepository;
+import com.portfolio.spring_ecommerce.service.WebhookEventService;
+import com.portfolio.spring_ecommerce.service.WebhookReplayService;
+import com.portfolio.spring_ecommerce.webhook.FileStripeEventSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * WebhookReplayServiceの単体テストクラス。
+ * ローカルファイルのイベントエクスポートを読み込み、受信済みの除外・注文ごとの適用順・結果の集計を検証する。
+ */
+@ExtendWith(MockitoExtension.class)
+class WebhookReplayServiceTest {
+
+    @Mock
+    private WebhookEventService webhookEventService;
+
+    @Mock
+    private WebhookEventRepository webhookEventRepository;
+
+    @TempDir
+    private Path tempDir;
+
+    private WebhookReplayService webhookReplayService;
+
+    /**
+     * 各テスト実行前にテスト対象を初期化する。
+     */
+    @BeforeEach
+    void setUp() {
+        webhookReplayService = new WebhookReplayService(webhookEventService, webhookEventRepository, new ObjectMapper());
+    }
+
+    /**
+     * 1行1イベントのファイルで、受信済み・処理対象外はスキップ、失敗したイベントはキューに入ることを検証する。
+     */
+    @Test
+    void testReplay_Ndjson_ReportsAppliedSkippedFailed() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("events.jsonl"), String.join("\n",
+                event("evt_1", "payment_intent.succeeded", "pi_1", "1"),
+                event("evt_2", "payment_intent.succeeded", "pi_2", "2"),
+                event("evt_3", "charge.refunded", "ch_3", null),
+                event("evt_4", "payment_intent.payment_failed", "pi_4", "4")));
+        when(webhookEventRepository.findExistingEventIds(anyCollection())).thenReturn(List.of("evt_2"));
+        when(webhookEventService.applyReplayed(eq("evt_1"), any(), any())).thenReturn(true);
+        when(webhookEventService.applyReplayed(eq("evt_3"), any(), any())).thenReturn(false);
+        when(webhookEventService.applyReplayed(eq("evt_4"), any(), any())).thenThrow(new IllegalStateException("注文が見つかりません"));
+
+        WebhookReplayReportDTO report = webhookReplayService.replay(new FileStripeEventSource(file));
+
+        assertEquals(1, report.getApplied());
+        assertEquals(2, report.getSkipped());
+        assertEquals(1, report.getFailed());
+        assertEquals(List.of("evt_4"), report.getFailedEventIds());
+        verify(webhookEventService, never()).applyReplayed(eq("evt_2"), any(), any());
+        verify(webhookEventService).record(eq("evt_4"), eq("payment_intent.payment_failed"), contains("\"pi_4\""));
+    }
+
+    /**
+     * 適用時の一意制約違反で、受信済みでないイベント（注文側の制約違反など）は失敗としてキューに入り、
+     * 再適用中に同じイベントを受信済みの場合はスキップされることを検証する。
+     */
+    @Test
+    void testReplay_DataIntegrityViolation_EnqueuesUnlessReceived() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("events.jsonl"), String.join("\n",
+                event("evt_1", "payment_intent.succeeded", "pi_1", "1"),
+                event("evt_2", "payment_intent.succeeded", "pi_2", "2")));
+        when(webhookEventRepository.findExistingEventIds(anyCollection())).thenReturn(List.of());
+        when(webhookEventService.applyReplayed(any(), any(), any())).thenThrow(new DataIntegrityViolationException("一意制約違反"));
+        when(webhookEventRepository.existsByEventId("evt_1")).thenReturn(false);
+        when(webhookEventRepository.existsByEventId("evt_2")).thenReturn(true);
+
+        WebhookReplayReportDTO report = webhookReplayService.replay(new FileStripeEventSource(file));
+
+        assertEquals(1, report.getSkipped());
+        assertEquals(List.of("evt_1"), report.getFailedEventIds());
+        verify(webhookEventService).record(eq("evt_1"), eq("payment_intent.succeeded"), contains("\"pi_1\""));
+        verify(webhookEventService, never()).record(eq("evt_2"), any(), any());
+    }
+
+    /**
+     * JSON配列のファイルで、同じ注文のイベントが読み込み順に適用されることを検証する。
+     */
+    @Test
+    void testReplay_JsonArray_KeepsOrderPerOrder() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("events.json"), "[" + String.join(",",
+                event("evt_1", "payment_intent.payment_failed", "pi_1", "7"),
+                event("evt_2", "payment_intent.succeeded", "pi_9", "8"),
+                event("evt_3", "payment_intent.succeeded", "pi_1", "7")) + "]");
+        when(webhookEventRepository.findExistingEventIds(anyCollection())).thenReturn(List.of());
+        when(webhookEventService.applyReplayed(any(), any(), any())).thenReturn(true);
+
+        WebhookReplayReportDTO report = webhookReplayService.replay(new FileStripeEventSource(file));
+
+        assertEquals(3, report.getApplied());
+        InOrder inOrder = inOrder(webhookEventService);
+        inOrder.verify(webhookEventService).applyReplayed(eq("evt_1"), any(), any());
+        inOrder.verify(webhookEventService).applyReplayed(eq("evt_3"), any(), any());
+    }
+
+    /**
+     * イベントの形式が不正な場合はIllegalArgumentExceptionが送出されることを検証する。
+     */
+    @Test
+    void testReplay_InvalidFormat_ThrowsException() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("events.json"), "\"not an event\"");
+
+        assertThrows(IllegalArgumentException.class, () -> webhookReplayService.replay(new FileStripeEventSource(file)));
+        verifyNoInteractions(webhookEventService);
+    }
+
+    private String event(String eventId, String type, String objectId, String orderId) {
+        String metadata = orderId != null ? "{\"orderId\":\"" + orderId + "\"}" : "{}";
+        return "{\"id\":\"" + eventId + "\",\"object\":\"event\",\"type\":\"" + type + "\","
+                + "\"data\":{\"object\":{\"id\":\"" + objectId + "\",\"metadata\":" + metadata + "}}}";
+    }
+}
\ No newline at end of file